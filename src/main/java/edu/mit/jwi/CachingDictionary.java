@@ -12,12 +12,16 @@ package edu.mit.jwi;
 
 import java.io.IOException;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
+import edu.mit.jwi.data.parse.DataLineParser.LazySynset;
 import edu.mit.jwi.item.ExceptionEntryID;
 import edu.mit.jwi.item.IExceptionEntry;
 import edu.mit.jwi.item.IExceptionEntryID;
@@ -48,6 +52,10 @@ public class CachingDictionary implements ICachingDictionary {
 	// final instance fields 
 	private final IDictionary backing;
 	private final IItemCache cache;
+	
+	// lookup statistics
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
 
 	/**
 	 * Constructs a new caching dictionary that caches the results of the
@@ -79,13 +87,14 @@ public class CachingDictionary implements ICachingDictionary {
 	 * This operation creates the cache that is used by the dictionary. It is
 	 * set inside it's own method for ease of subclassing. It is called only
 	 * when an instance of this class is created. It is marked protected for
-	 * ease of subclassing.
+	 * ease of subclassing. The default cache is a {@link ConcurrentItemCache},
+	 * so that the dictionary may be shared by several threads.
 	 * 
 	 * @return the item cache to be used by this dictionary
 	 * @since JWI 2.2.0
 	 */
 	protected IItemCache createCache(){
-		return new ItemCache();
+		return new ConcurrentItemCache();
 	}
 	
 	/**
@@ -113,6 +122,46 @@ public class CachingDictionary implements ICachingDictionary {
 		}
 	}
 
+	/**
+	 * Returns the number of lookups on this dictionary that were answered from
+	 * the cache since it was created.
+	 * 
+	 * @return the number of cache hits
+	 * @since JWI 2.4.0
+	 */
+	public long getHitCount(){
+		return hits.sum();
+	}
+
+	/**
+	 * Returns the number of lookups on this dictionary that had to be passed
+	 * to the backing dictionary since it was created.
+	 * 
+	 * @return the number of cache misses
+	 * @since JWI 2.4.0
+	 */
+	public long getMissCount(){
+		return misses.sum();
+	}
+	
+	/**
+	 * Records the outcome of a cache lookup in the hit and miss counters, and
+	 * returns the specified item for convenience.
+	 * 
+	 * @param item
+	 *            the item retrieved from the cache, possibly <code>null</code>
+	 * @return the specified item
+	 * @since JWI 2.4.0
+	 */
+	protected <T> T countLookup(T item){
+		if(item == null){
+			misses.increment();
+		} else {
+			hits.increment();
+		}
+		return item;
+	}
+
 	/* 
 	 * (non-Javadoc) 
 	 *
@@ -190,7 +239,7 @@ public class CachingDictionary implements ICachingDictionary {
 	public IIndexWord getIndexWord(String lemma, POS pos) {
 		checkOpen();
 		IIndexWordID id = new IndexWordID(lemma, pos);
-		IIndexWord item = getCache().retrieveItem(id);
+		IIndexWord item = countLookup(getCache().retrieveItem(id));
 		if(item == null){
 			item = backing.getIndexWord(id);
 			if(item != null)
@@ -206,7 +255,7 @@ public class CachingDictionary implements ICachingDictionary {
 	 */
 	public IIndexWord getIndexWord(IIndexWordID id) {
 		checkOpen();
-		IIndexWord item = getCache().retrieveItem(id);
+		IIndexWord item = countLookup(getCache().retrieveItem(id));
 		if(item == null){
 			item = backing.getIndexWord(id);
 			if(item != null)
@@ -215,6 +264,39 @@ public class CachingDictionary implements ICachingDictionary {
 		return item;
 	}
 
+	/* 
+	 * (non-Javadoc) 
+	 *
+	 * @see edu.mit.jwi.IDictionary#getIndexWords(java.util.List, edu.mit.jwi.item.POS)
+	 */
+	public List<IIndexWord> getIndexWords(List<String> lemmas, POS pos) {
+		checkOpen();
+		
+		// answer what the cache can, and look up the rest in one batch
+		List<IIndexWord> result = new ArrayList<IIndexWord>(lemmas.size());
+		List<String> misses = new ArrayList<String>();
+		IIndexWord item;
+		for(String lemma : lemmas){
+			item = countLookup(getCache().retrieveItem(new IndexWordID(lemma, pos)));
+			result.add(item);
+			if(item == null)
+				misses.add(lemma);
+		}
+		if(misses.isEmpty())
+			return result;
+		Iterator<IIndexWord> found = backing.getIndexWords(misses, pos).iterator();
+		for(int i = 0; i < result.size(); i++){
+			if(result.get(i) != null)
+				continue;
+			item = found.next();
+			if(item != null){
+				getCache().cacheItem(item);
+				result.set(i, item);
+			}
+		}
+		return result;
+	}
+
 	/* 
 	 * (non-Javadoc) 
 	 *
@@ -231,15 +313,49 @@ public class CachingDictionary implements ICachingDictionary {
 	 */
 	public IWord getWord(IWordID id) {
 		checkOpen();
-		IWord item = getCache().retrieveItem(id);
+		IWord item = countLookup(getCache().retrieveItem(id));
 		if(item == null){
-			item = backing.getWord(id);
-			if(item != null)
-				cacheSynset(item.getSynset());
+			// the words of a lazily decoded synset are only cached once
+			// decoded, so the synset may be cached without them
+			ISynset synset = getCache().retrieveItem(id.getSynsetID());
+			if(synset != null){
+				item = findWord(synset, id);
+				if(item != null)
+					cacheWords(synset);
+			} else {
+				item = backing.getWord(id);
+				if(item != null)
+					cacheSynset(item.getSynset());
+			}
 		}
 		return item;
 	}
 
+	/**
+	 * Returns the word of the specified synset that has the specified id,
+	 * found by the word number of the id if it has one, or else by its lemma.
+	 * 
+	 * @param synset
+	 *            the synset of the word; may not be <code>null</code>
+	 * @param id
+	 *            the id of the word; may not be <code>null</code>
+	 * @return the word, or <code>null</code> if the synset has no word with
+	 *         the lemma of the id
+	 * @throws IllegalArgumentException
+	 *             if the id has neither a word number nor a lemma
+	 * @since JWI 2.4.0
+	 */
+	protected IWord findWord(ISynset synset, IWordID id) {
+		if(id.getWordNumber() > 0)
+			return synset.getWords().get(id.getWordNumber() - 1);
+		if(id.getLemma() == null)
+			throw new IllegalArgumentException("Not enough information in IWordID instance to retrieve word.");
+		for(IWord word : synset.getWords())
+			if(word.getLemma().equalsIgnoreCase(id.getLemma()))
+				return word;
+		return null;
+	}
+
 	/* 
 	 * (non-Javadoc) 
 	 *
@@ -247,7 +363,7 @@ public class CachingDictionary implements ICachingDictionary {
 	 */
 	public IWord getWord(ISenseKey key) {
 		checkOpen();
-		IWord item = getCache().retrieveWord(key);
+		IWord item = countLookup(getCache().retrieveWord(key));
 		if(item == null){
 			item = backing.getWord(key);
 			if(item != null)
@@ -263,7 +379,7 @@ public class CachingDictionary implements ICachingDictionary {
 	 */
 	public ISynset getSynset(ISynsetID id) {
 		checkOpen();
-		ISynset item = getCache().retrieveItem(id);
+		ISynset item = countLookup(getCache().retrieveItem(id));
 		if(item == null){
 			item = backing.getSynset(id);
 			if(item != null)
@@ -272,8 +388,44 @@ public class CachingDictionary implements ICachingDictionary {
 		return item;
 	}
 
+	/* 
+	 * (non-Javadoc) 
+	 *
+	 * @see edu.mit.jwi.IDictionary#getSynsets(java.util.List)
+	 */
+	public List<ISynset> getSynsets(List<? extends ISynsetID> ids) {
+		checkOpen();
+		
+		// answer what the cache can, and look up the rest in one batch
+		List<ISynset> result = new ArrayList<ISynset>(ids.size());
+		List<ISynsetID> misses = new ArrayList<ISynsetID>();
+		ISynset item;
+		for(ISynsetID id : ids){
+			item = countLookup(getCache().retrieveItem(id));
+			result.add(item);
+			if(item == null)
+				misses.add(id);
+		}
+		if(misses.isEmpty())
+			return result;
+		Iterator<ISynset> found = backing.getSynsets(misses).iterator();
+		for(int i = 0; i < result.size(); i++){
+			if(result.get(i) != null)
+				continue;
+			item = found.next();
+			if(item != null){
+				cacheSynset(item);
+				result.set(i, item);
+			}
+		}
+		return result;
+	}
+
 	/**
-	 * Caches the specified synset and its words.
+	 * Caches the specified synset and its words. The words of a lazily decoded
+	 * synset whose words have not been decoded yet are not cached, so that
+	 * caching does not decode them; they are cached when first looked up
+	 * through {@link #getWord(IWordID)}.
 	 * 
 	 * @param synset
 	 *            the synset to be cached; may not be <code>null</code>
@@ -282,8 +434,24 @@ public class CachingDictionary implements ICachingDictionary {
 	 * @since JWI 2.2.0
 	 */
 	protected void cacheSynset(ISynset synset){
+		getCache().cacheItem(synset);
+		if(synset instanceof LazySynset && !((LazySynset)synset).isWordsDecoded())
+			return;
+		cacheWords(synset);
+	}
+
+	/**
+	 * Caches the words of the specified synset, by id and by sense key.
+	 * 
+	 * @param synset
+	 *            the synset whose words are to be cached; may not be
+	 *            <code>null</code>
+	 * @throws NullPointerException
+	 *             if the specified synset is <code>null</code>
+	 * @since JWI 2.4.0
+	 */
+	protected void cacheWords(ISynset synset){
 		IItemCache cache = getCache();
-		cache.cacheItem(synset);
 		for(IWord word : synset.getWords()){
 			cache.cacheItem(word);
 			cache.cacheWordByKey(word);
@@ -306,7 +474,7 @@ public class CachingDictionary implements ICachingDictionary {
 	 */
 	public ISenseEntry getSenseEntry(ISenseKey key) {
 		checkOpen();
-		ISenseEntry entry = getCache().retrieveSenseEntry(key);
+		ISenseEntry entry = countLookup(getCache().retrieveSenseEntry(key));
 		if(entry == null){
 			entry = backing.getSenseEntry(key);
 			if(entry != null)
@@ -332,7 +500,7 @@ public class CachingDictionary implements ICachingDictionary {
 	public IExceptionEntry getExceptionEntry(String surfaceForm, POS pos) {
 		checkOpen();
 		IExceptionEntryID id = new ExceptionEntryID(surfaceForm, pos);
-		IExceptionEntry item = getCache().retrieveItem(id);
+		IExceptionEntry item = countLookup(getCache().retrieveItem(id));
 		if(item == null){
 			item = backing.getExceptionEntry(id);
 			if(item != null)
@@ -348,7 +516,7 @@ public class CachingDictionary implements ICachingDictionary {
 	 */
 	public IExceptionEntry getExceptionEntry(IExceptionEntryID id) {
 		checkOpen();
-		IExceptionEntry item = getCache().retrieveItem(id);
+		IExceptionEntry item = countLookup(getCache().retrieveItem(id));
 		if(item == null){
 			item = backing.getExceptionEntry(id);
 			if(item != null) getCache().cacheItem(item);
@@ -366,7 +534,9 @@ public class CachingDictionary implements ICachingDictionary {
 	}
 	
 	/**
-	 * An LRU cache for objects in JWI.
+	 * An LRU cache for objects in JWI. Retrievals reorder the underlying
+	 * maps, so this cache may only be used by one thread at a time; see
+	 * {@link ConcurrentItemCache} for a cache that may be shared.
 	 * 
 	 * @author Mark A. Finlayson
 	 * @version 2.4.0
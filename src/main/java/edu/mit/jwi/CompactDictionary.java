@@ -0,0 +1,1520 @@
+/********************************************************************************
+ * Java Wordnet Interface Library (JWI) v2.4.0
+ * Top Level Tagger additions, Copyright (c) 2017 Lambda³
+ *
+ * JWI is distributed under the terms of the Creative Commons Attribution 4.0
+ * International Public License, which means it may be freely used for all
+ * purposes, as long as proper acknowledgment is made.  See the license file
+ * included with this distribution for more details.
+ *******************************************************************************/
+
+package edu.mit.jwi;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import edu.mit.jwi.IRAMDictionary.IInputStreamFactory;
+import edu.mit.jwi.item.AdjMarker;
+import edu.mit.jwi.item.ExceptionEntry;
+import edu.mit.jwi.item.ExceptionEntryID;
+import edu.mit.jwi.item.IExceptionEntry;
+import edu.mit.jwi.item.IExceptionEntryID;
+import edu.mit.jwi.item.IIndexWord;
+import edu.mit.jwi.item.IIndexWordID;
+import edu.mit.jwi.item.ILexFile;
+import edu.mit.jwi.item.IPointer;
+import edu.mit.jwi.item.ISenseEntry;
+import edu.mit.jwi.item.ISenseKey;
+import edu.mit.jwi.item.ISynset;
+import edu.mit.jwi.item.ISynsetID;
+import edu.mit.jwi.item.IVerbFrame;
+import edu.mit.jwi.item.IVersion;
+import edu.mit.jwi.item.IWord;
+import edu.mit.jwi.item.IWordID;
+import edu.mit.jwi.item.IndexWord;
+import edu.mit.jwi.item.IndexWordID;
+import edu.mit.jwi.item.POS;
+import edu.mit.jwi.item.SenseEntry;
+import edu.mit.jwi.item.Synset;
+import edu.mit.jwi.item.Synset.IWordBuilder;
+import edu.mit.jwi.item.SynsetID;
+import edu.mit.jwi.item.WordID;
+
+/**
+ * A dictionary that holds the whole of Wordnet in memory in a compact,
+ * columnar form. Where a {@link RAMDictionary} keeps a graph of item objects
+ * in hash maps, this dictionary keeps each field of each kind of item in a
+ * primitive column, a buffer over either a heap array or a mapped snapshot
+ * file, indexed by the position of the item in its file: synsets
+ * are identified by their offsets, pointers are stored as adjacency lists in
+ * compressed sparse row form, and lemmas, surface forms and glosses are kept
+ * once each in shared character and byte pools. Items are materialized from
+ * the columns each time they are requested, so callers that request the same
+ * items repeatedly may want to wrap this dictionary in a
+ * {@link CachingDictionary}.
+ * <p>
+ * The data is loaded when this dictionary is opened, either from a backing
+ * dictionary, which is closed again afterwards if it was not open before, or
+ * from a {@link DictionarySnapshot}, which is read without parsing or
+ * deserialization. A snapshot in a file is by default mapped into memory
+ * rather than read: the columns of the data are then views of the mapped file,
+ * so that opening the dictionary takes only as long as reading the snapshot
+ * header, the data takes no heap, and every process that maps the same
+ * snapshot shares one copy of it in the operating system page cache. Lookups
+ * take no locks and may be made from any number of threads.
+ *
+ * @version 2.4.0
+ * @since JWI 2.4.0
+ */
+public class CompactDictionary implements IDictionary {
+
+	// final instance fields
+	protected final IDictionary backing;
+	protected final IInputStreamFactory factory;
+	protected final Lock lifecycleLock = new ReentrantLock();
+
+	// the loaded data, or null if closed
+	private volatile CompactData data;
+
+	// whether snapshot files are mapped into memory
+	private volatile boolean mapping = true;
+
+	/**
+	 * Constructs a new compact dictionary that loads its data from the
+	 * specified file, which is either a directory holding the Wordnet files,
+	 * or a {@link DictionarySnapshot}.
+	 *
+	 * @param file
+	 *            the Wordnet directory or snapshot; may not be
+	 *            <code>null</code>
+	 * @throws NullPointerException
+	 *             if the specified file is <code>null</code>
+	 * @since JWI 2.4.0
+	 */
+	public CompactDictionary(File file) {
+		this(RAMDictionary.createBackingDictionary(file), RAMDictionary.createInputStreamFactory(file));
+	}
+
+	/**
+	 * Constructs a new compact dictionary that loads its data from the
+	 * specified dictionary.
+	 *
+	 * @param backing
+	 *            the dictionary to load the data from; may not be
+	 *            <code>null</code>
+	 * @throws NullPointerException
+	 *             if the specified dictionary is <code>null</code>
+	 * @since JWI 2.4.0
+	 */
+	public CompactDictionary(IDictionary backing) {
+		this(backing, null);
+	}
+
+	/**
+	 * Constructs a new compact dictionary that loads its data from a
+	 * {@link DictionarySnapshot} provided by the specified stream factory.
+	 *
+	 * @param factory
+	 *            the stream factory that provides the snapshot; may not be
+	 *            <code>null</code>
+	 * @throws NullPointerException
+	 *             if the specified factory is <code>null</code>
+	 * @since JWI 2.4.0
+	 */
+	public CompactDictionary(IInputStreamFactory factory) {
+		this(null, factory);
+	}
+
+	/**
+	 * This is an internal constructor that unifies the constructor decision
+	 * matrix. Exactly one of the backing dictionary or the input factory must
+	 * be non-<code>null</code>, otherwise an exception is thrown.
+	 *
+	 * @param backing
+	 *            the backing dictionary; may be <code>null</code>
+	 * @param factory
+	 *            the input stream factory; may be <code>null</code>
+	 * @throws NullPointerException
+	 *             if both arguments are <code>null</code>
+	 * @throws IllegalStateException
+	 *             if both arguments are non-<code>null</code>
+	 * @since JWI 2.4.0
+	 */
+	protected CompactDictionary(IDictionary backing, IInputStreamFactory factory) {
+		if(backing == null && factory == null)
+			throw new NullPointerException();
+		if(backing != null && factory != null)
+			throw new IllegalStateException("Both backing dictionary and input stream factory may not be non-null");
+		this.backing = backing;
+		this.factory = factory;
+	}
+
+	/**
+	 * Returns the dictionary from which this dictionary loads its data.
+	 *
+	 * @return the backing dictionary of this dictionary; may be
+	 *         <code>null</code> if the data is loaded from a snapshot
+	 * @since JWI 2.4.0
+	 */
+	public IDictionary getBackingDictionary() {
+		return backing;
+	}
+
+	/**
+	 * Returns the stream factory from which this dictionary loads its data.
+	 *
+	 * @return the stream factory of this dictionary; may be
+	 *         <code>null</code> if the data is loaded from a backing
+	 *         dictionary
+	 * @since JWI 2.4.0
+	 */
+	public IInputStreamFactory getStreamFactory() {
+		return factory;
+	}
+
+	/**
+	 * Returns whether this dictionary maps a snapshot held in a file into
+	 * memory when opened, rather than reading it onto the heap. This is
+	 * <code>true</code> by default.
+	 *
+	 * @return <code>true</code> if snapshot files are mapped;
+	 *         <code>false</code> if they are read
+	 * @since JWI 2.4.0
+	 */
+	public boolean isMappingSnapshot() {
+		return mapping;
+	}
+
+	/**
+	 * Sets whether this dictionary maps a snapshot held in a file into memory
+	 * when opened. A mapped snapshot is opened in constant time, and its
+	 * pages are read in as lookups touch them and shared with other processes
+	 * mapping the same file; its checksums are not verified, and the file
+	 * must not be modified while the dictionary is open. A snapshot that is
+	 * not held in a file, or a dictionary that loads its data from a backing
+	 * dictionary, is not affected by this setting.
+	 *
+	 * @param mapping
+	 *            <code>true</code> if snapshot files should be mapped;
+	 *            <code>false</code> if they should be read
+	 * @throws ObjectOpenException
+	 *             if this dictionary is open
+	 * @since JWI 2.4.0
+	 */
+	public void setMappingSnapshot(boolean mapping) {
+		if(isOpen())
+			throw new ObjectOpenException();
+		this.mapping = mapping;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see edu.mit.jwi.IDictionary#setCharset(java.nio.charset.Charset)
+	 */
+	public void setCharset(Charset charset) {
+		if(isOpen())
+			throw new ObjectOpenException();
+		if(backing != null)
+			backing.setCharset(charset);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see edu.mit.jwi.data.IHasCharset#getCharset()
+	 */
+	public Charset getCharset() {
+		return (backing == null) ? null : backing.getCharset();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see edu.mit.jwi.data.IHasLifecycle#open()
+	 */
+	public boolean open() throws IOException {
+		try {
+			lifecycleLock.lock();
+			if(data != null)
+				return true;
+			if(backing == null){
+				InputStream in = factory.makeInputStream();
+				ReadableByteChannel channel = (in instanceof FileInputStream) ?
+						((FileInputStream)in).getChannel() :
+							Channels.newChannel(in);
+				try {
+					data = (mapping && channel instanceof FileChannel) ?
+							DictionarySnapshot.map((FileChannel)channel, false) :
+								DictionarySnapshot.read(channel);
+				} finally {
+					channel.close();
+				}
+				return true;
+			}
+			boolean wasOpen = backing.isOpen();
+			if(!wasOpen && !backing.open())
+				return false;
+			try {
+				data = CompactData.load(backing);
+			} finally {
+				if(!wasOpen)
+					backing.close();
+			}
+			return true;
+		} finally {
+			lifecycleLock.unlock();
+		}
+	}
+
+	/**
+	 * Writes the data of this dictionary to the specified channel, as a
+	 * {@link DictionarySnapshot}. The channel is not closed.
+	 *
+	 * @param channel
+	 *            the channel to write to; may not be <code>null</code>
+	 * @throws IOException
+	 *             if there is a problem writing to the channel
+	 * @throws ObjectClosedException
+	 *             if the dictionary is closed
+	 * @throws NullPointerException
+	 *             if the channel is <code>null</code>
+	 * @since JWI 2.4.0
+	 */
+	public void export(WritableByteChannel channel) throws IOException {
+		DictionarySnapshot.write(checkOpen(), channel);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see edu.mit.jwi.data.IHasLifecycle#isOpen()
+	 */
+	public boolean isOpen() {
+		return data != null;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see edu.mit.jwi.data.IClosable#close()
+	 */
+	public void close() {
+		try {
+			lifecycleLock.lock();
+			data = null;
+		} finally {
+			lifecycleLock.unlock();
+		}
+	}
+
+	/**
+	 * Returns the data of this dictionary, or throws an exception if the
+	 * dictionary is closed.
+	 *
+	 * @return the data of this dictionary
+	 * @throws ObjectClosedException
+	 *             if the dictionary is closed
+	 * @since JWI 2.4.0
+	 */
+	protected CompactData checkOpen() {
+		CompactData result = data;
+		if(result == null)
+			throw new ObjectClosedException();
+		return result;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see edu.mit.jwi.item.IHasVersion#getVersion()
+	 */
+	public IVersion getVersion() {
+		CompactData result = data;
+		return (result == null) ? null : result.version;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see edu.mit.jwi.IDictionary#getIndexWord(java.lang.String, edu.mit.jwi.item.POS)
+	 */
+	public IIndexWord getIndexWord(String lemma, POS pos) {
+		return getIndexWord(new IndexWordID(lemma, pos));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see edu.mit.jwi.IDictionary#getIndexWord(edu.mit.jwi.item.IIndexWordID)
+	 */
+	public IIndexWord getIndexWord(IIndexWordID id) {
+		CompactData d = checkOpen();
+		Part part = d.getPart(id.getPOS());
+		int index = part.findIndexWord(d.strings, id.getLemma());
+		return (index < 0) ? null : d.makeIndexWord(part, index);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see edu.mit.jwi.IDictionary#getIndexWordIterator(edu.mit.jwi.item.POS)
+	 */
+	public Iterator<IIndexWord> getIndexWordIterator(POS pos) {
+		final CompactData d = checkOpen();
+		final Part part = d.getPart(pos);
+		return new ArrayIterator<IIndexWord>(part.indexWordCount()) {
+			protected IIndexWord make(int index) {
+				return d.makeIndexWord(part, index);
+			}
+		};
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see edu.mit.jwi.IDictionary#getWord(edu.mit.jwi.item.IWordID)
+	 */
+	public IWord getWord(IWordID id) {
+		CompactData d = checkOpen();
+		Part part = d.getPart(id.getPOS());
+		int synset = part.findSynset(id.getSynsetID().getOffset());
+		if(synset < 0)
+			return null;
+		int number;
+		if(id.getWordNumber() > 0){
+			number = id.getWordNumber();
+			if(number > part.wordCount(synset))
+				return null;
+		} else if(id.getLemma() != null){
+			number = part.findWordNumber(d.strings, synset, id.getLemma());
+			if(number < 1)
+				return null;
+		} else {
+			throw new IllegalArgumentException("Not enough information in IWordID instance to retrieve word.");
+		}
+		return d.makeSynset(part, synset).getWord(number);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see edu.mit.jwi.IDictionary#getWord(edu.mit.jwi.item.ISenseKey)
+	 */
+	public IWord getWord(ISenseKey key) {
+		CompactData d = checkOpen();
+		Part part = d.getPart(key.getPOS());
+		int word = d.findWord(part, key);
+		if(word < 0)
+			return null;
+		int synset = part.synsetOfWord(word);
+		return d.makeSynset(part, synset).getWord(word - part.wordStarts.get(synset) + 1);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see edu.mit.jwi.IDictionary#getSynset(edu.mit.jwi.item.ISynsetID)
+	 */
+	public ISynset getSynset(ISynsetID id) {
+		CompactData d = checkOpen();
+		Part part = d.getPart(id.getPOS());
+		int synset = part.findSynset(id.getOffset());
+		return (synset < 0) ? null : d.makeSynset(part, synset);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see edu.mit.jwi.IDictionary#getSynsetIterator(edu.mit.jwi.item.POS)
+	 */
+	public Iterator<ISynset> getSynsetIterator(POS pos) {
+		final CompactData d = checkOpen();
+		final Part part = d.getPart(pos);
+		return new ArrayIterator<ISynset>(part.synsetCount()) {
+			protected ISynset make(int index) {
+				return d.makeSynset(part, index);
+			}
+		};
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see edu.mit.jwi.IDictionary#getSenseEntry(edu.mit.jwi.item.ISenseKey)
+	 */
+	public ISenseEntry getSenseEntry(ISenseKey key) {
+		CompactData d = checkOpen();
+		Part part = d.getPart(key.getPOS());
+		int word = d.findWord(part, key);
+		if(word < 0 || part.senseNumbers.get(word) == 0)
+			return null;
+		return d.makeSenseEntry(part, word);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see edu.mit.jwi.IDictionary#getSenseEntryIterator()
+	 */
+	public Iterator<ISenseEntry> getSenseEntryIterator() {
+		final CompactData d = checkOpen();
+		return new ArrayIterator<ISenseEntry>(d.senseEntries.capacity()) {
+			protected ISenseEntry make(int index) {
+				int entry = d.senseEntries.get(index);
+				return d.makeSenseEntry(d.parts[entry >>> CompactData.POS_SHIFT], entry & CompactData.WORD_MASK);
+			}
+		};
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see edu.mit.jwi.IDictionary#getExceptionEntry(java.lang.String, edu.mit.jwi.item.POS)
+	 */
+	public IExceptionEntry getExceptionEntry(String surfaceForm, POS pos) {
+		return getExceptionEntry(new ExceptionEntryID(surfaceForm, pos));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see edu.mit.jwi.IDictionary#getExceptionEntry(edu.mit.jwi.item.IExceptionEntryID)
+	 */
+	public IExceptionEntry getExceptionEntry(IExceptionEntryID id) {
+		CompactData d = checkOpen();
+		Part part = d.getPart(id.getPOS());
+		int index = part.findException(d.strings, id.getSurfaceForm());
+		return (index < 0) ? null : d.makeExceptionEntry(part, index);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see edu.mit.jwi.IDictionary#getExceptionEntryIterator(edu.mit.jwi.item.POS)
+	 */
+	public Iterator<IExceptionEntry> getExceptionEntryIterator(POS pos) {
+		final CompactData d = checkOpen();
+		final Part part = d.getPart(pos);
+		return new ArrayIterator<IExceptionEntry>(part.exceptionCount()) {
+			protected IExceptionEntry make(int index) {
+				return d.makeExceptionEntry(part, index);
+			}
+		};
+	}
+
+	/**
+	 * Returns the approximate number of bytes taken by the columns of this
+	 * dictionary, whether on the heap or in a mapped snapshot, or zero if the
+	 * dictionary is closed.
+	 *
+	 * @return the size of the data of this dictionary, in bytes
+	 * @since JWI 2.4.0
+	 */
+	public long getByteCount() {
+		CompactData d = data;
+		return (d == null) ? 0 : d.getByteCount();
+	}
+
+	/**
+	 * An iterator that materializes the items at the positions from zero up to
+	 * a fixed count.
+	 *
+	 * @since JWI 2.4.0
+	 */
+	protected static abstract class ArrayIterator<E> implements Iterator<E> {
+
+		private final int count;
+		private int next = 0;
+
+		protected ArrayIterator(int count) {
+			this.count = count;
+		}
+
+		public boolean hasNext() {
+			return next < count;
+		}
+
+		public E next() {
+			if(!hasNext())
+				throw new NoSuchElementException();
+			return make(next++);
+		}
+
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+
+		/**
+		 * Materializes the item at the specified position.
+		 */
+		protected abstract E make(int index);
+	}
+
+	/**
+	 * The data of a compact dictionary: the tables of distinct pointers,
+	 * lexical files and verb frames, the shared pool of lemmas and surface
+	 * forms, and one {@link Part} per part of speech. Instances are immutable
+	 * once loaded.
+	 *
+	 * @version 2.4.0
+	 * @since JWI 2.4.0
+	 */
+	public static class CompactData {
+
+		// packing of sense entry positions
+		protected static final int POS_SHIFT = 28;
+		protected static final int WORD_MASK = (1 << POS_SHIFT) - 1;
+
+		protected final IVersion version;
+		protected final IPointer[] pointers;
+		protected final ILexFile[] lexFiles;
+		protected final IVerbFrame[] frames;
+		protected final StringPool strings;
+		protected final Part[] parts;
+		protected final IntBuffer senseEntries;
+
+		protected CompactData(IVersion version, IPointer[] pointers, ILexFile[] lexFiles, IVerbFrame[] frames, StringPool strings, Part[] parts, IntBuffer senseEntries) {
+			this.version = version;
+			this.pointers = pointers;
+			this.lexFiles = lexFiles;
+			this.frames = frames;
+			this.strings = strings;
+			this.parts = parts;
+			this.senseEntries = senseEntries;
+		}
+
+		/**
+		 * Loads the data from the specified dictionary, which must be open.
+		 *
+		 * @param source
+		 *            the dictionary to load from; may not be <code>null</code>
+		 * @return the loaded data
+		 * @throws NullPointerException
+		 *             if the specified dictionary is <code>null</code>
+		 * @since JWI 2.4.0
+		 */
+		public static CompactData load(IDictionary source) {
+			Loader loader = new Loader();
+			Part[] parts = new Part[POS.values().length];
+			for(POS pos : POS.values())
+				parts[pos.ordinal()] = loader.loadPart(source, pos);
+			IntBuffer senseEntries = loader.loadSenseEntries(source, parts);
+			return new CompactData(source.getVersion(),
+					loader.pointers.toArray(new IPointer[loader.pointers.size()]),
+					loader.lexFiles.toArray(new ILexFile[loader.lexFiles.size()]),
+					loader.frames.toArray(new IVerbFrame[loader.frames.size()]),
+					loader.strings.toPool(), parts, senseEntries);
+		}
+
+		/**
+		 * Returns the part for the specified part of speech.
+		 *
+		 * @param pos
+		 *            the part of speech; may not be <code>null</code>
+		 * @return the part for the part of speech
+		 * @since JWI 2.4.0
+		 */
+		public Part getPart(POS pos) {
+			return parts[pos.ordinal()];
+		}
+
+		/**
+		 * Returns the approximate number of bytes taken by the arrays of this
+		 * data.
+		 *
+		 * @return the size of this data, in bytes
+		 * @since JWI 2.4.0
+		 */
+		public long getByteCount() {
+			long result = strings.getByteCount() + 16 + 4L * senseEntries.capacity();
+			for(Part part : parts)
+				result += part.getByteCount();
+			return result;
+		}
+
+		/**
+		 * Materializes the specified synset, with its words.
+		 *
+		 * @param part
+		 *            the part holding the synset
+		 * @param synset
+		 *            the position of the synset in the part
+		 * @return the new synset object
+		 * @since JWI 2.4.0
+		 */
+		public ISynset makeSynset(Part part, int synset) {
+			return makeSynset(part, synset, null);
+		}
+
+		/**
+		 * Materializes the specified synset, with its words, taking the ids
+		 * of the synset and of the targets of its pointers from the specified
+		 * table, so that they are shared between synsets.
+		 *
+		 * @param part
+		 *            the part holding the synset
+		 * @param synset
+		 *            the position of the synset in the part
+		 * @param ids
+		 *            the ids of the synsets of each part of speech, by part
+		 *            of speech ordinal and position; if <code>null</code>,
+		 *            new ids are made
+		 * @return the new synset object
+		 * @since JWI 2.4.0
+		 */
+		public ISynset makeSynset(Part part, int synset, ISynsetID[][] ids) {
+			ISynsetID id = (ids == null) ? new SynsetID(part.offsets.get(synset), part.pos) : ids[part.pos.ordinal()][synset];
+
+			// words
+			int first = part.wordStarts.get(synset);
+			int last = part.wordStarts.get(synset + 1);
+			List<IWordBuilder> builders = new ArrayList<IWordBuilder>(last - first);
+			Synset.WordBuilder builder;
+			int marker;
+			for(int word = first; word < last; word++){
+				marker = part.wordMarkers.get(word);
+				builder = new Synset.WordBuilder(word - first + 1, strings.get(part.wordLemmas.get(word)), part.wordLexIDs.get(word),
+						(marker == 0) ? null : AdjMarker.values()[marker - 1]);
+				for(int i = part.frameStarts.get(word); i < part.frameStarts.get(word + 1); i++)
+					builder.addVerbFrame(frames[part.frames.get(i)]);
+				for(int i = part.wordPointerStarts.get(word); i < part.wordPointerStarts.get(word + 1); i++)
+					builder.addRelatedWord(pointers[part.wordPointerTypes.get(i)],
+							new WordID(makeSynsetID(part.wordPointerPOS.get(i), part.wordPointerOffsets.get(i), ids), part.wordPointerNumbers.get(i) & 0xFF));
+				builders.add(builder);
+			}
+
+			// pointers
+			Map<IPointer, List<ISynsetID>> related = new HashMap<IPointer, List<ISynsetID>>();
+			IPointer type;
+			List<ISynsetID> targets;
+			for(int i = part.pointerStarts.get(synset); i < part.pointerStarts.get(synset + 1); i++){
+				type = pointers[part.pointerTypes.get(i)];
+				targets = related.get(type);
+				if(targets == null){
+					targets = new ArrayList<ISynsetID>();
+					related.put(type, targets);
+				}
+				targets.add(makeSynsetID(part.pointerPOS.get(i), part.pointerOffsets.get(i), ids));
+			}
+
+			byte flags = part.synsetFlags.get(synset);
+			ISynset result = new Synset(id, lexFiles[part.synsetLexFiles.get(synset)], (flags & Part.ADJECTIVE_SATELLITE) != 0,
+					(flags & Part.ADJECTIVE_HEAD) != 0, part.getGloss(synset), builders, related);
+
+			// head words of adjective satellites
+			int head = part.headLemmas.get(synset);
+			if(head >= 0){
+				String headLemma = strings.get(head);
+				for(IWord word : result.getWords())
+					if(word.getSenseKey().needsHeadSet())
+						word.getSenseKey().setHead(headLemma, part.headLexIDs.get(synset));
+			}
+			return result;
+		}
+
+		/**
+		 * Returns the id of the synset with the specified offset, from the
+		 * specified table if there is one and the synset is in it.
+		 */
+		private ISynsetID makeSynsetID(byte pos, int offset, ISynsetID[][] ids) {
+			if(ids != null){
+				int synset = parts[pos].findSynset(offset);
+				if(synset >= 0)
+					return ids[pos][synset];
+			}
+			return new SynsetID(offset, POS.values()[pos]);
+		}
+
+		/**
+		 * Materializes the specified index word.
+		 *
+		 * @param part
+		 *            the part holding the index word
+		 * @param index
+		 *            the position of the index word in the part
+		 * @return the new index word object
+		 * @since JWI 2.4.0
+		 */
+		public IIndexWord makeIndexWord(Part part, int index) {
+			String lemma = strings.get(part.indexLemmas.get(index));
+			IPointer[] ptrs = new IPointer[part.indexPointerStarts.get(index + 1) - part.indexPointerStarts.get(index)];
+			for(int i = 0; i < ptrs.length; i++)
+				ptrs[i] = pointers[part.indexPointerTypes.get(part.indexPointerStarts.get(index) + i)];
+			int first = part.indexWordStarts.get(index);
+			IWordID[] ids = new IWordID[part.indexWordStarts.get(index + 1) - first];
+			int number;
+			for(int i = 0; i < ids.length; i++){
+				number = part.indexWordNumbers.get(first + i) & 0xFF;
+				ISynsetID synset = new SynsetID(part.indexWordOffsets.get(first + i), part.pos);
+				ids[i] = (number == 0) ? new WordID(synset, lemma) : new WordID(synset, number, lemma);
+			}
+			return new IndexWord(new IndexWordID(lemma, part.pos), part.indexTagSenseCounts.get(index), ptrs, ids);
+		}
+
+		/**
+		 * Materializes the sense entry of the specified word.
+		 *
+		 * @param part
+		 *            the part holding the word
+		 * @param word
+		 *            the position of the word in the part, which must have a
+		 *            sense entry
+		 * @return the new sense entry object
+		 * @since JWI 2.4.0
+		 */
+		public ISenseEntry makeSenseEntry(Part part, int word) {
+			int synset = part.synsetOfWord(word);
+			ISenseKey key = makeSynset(part, synset).getWord(word - part.wordStarts.get(synset) + 1).getSenseKey();
+			return new SenseEntry(key, part.offsets.get(synset), part.senseNumbers.get(word), part.tagCounts.get(word));
+		}
+
+		/**
+		 * Materializes the specified exception entry.
+		 *
+		 * @param part
+		 *            the part holding the exception entry
+		 * @param index
+		 *            the position of the exception entry in the part
+		 * @return the new exception entry object
+		 * @since JWI 2.4.0
+		 */
+		public IExceptionEntry makeExceptionEntry(Part part, int index) {
+			String[] roots = new String[part.exceptionRootStarts.get(index + 1) - part.exceptionRootStarts.get(index)];
+			for(int i = 0; i < roots.length; i++)
+				roots[i] = strings.get(part.exceptionRoots.get(part.exceptionRootStarts.get(index) + i));
+			return new ExceptionEntry(strings.get(part.exceptionForms.get(index)), part.pos, roots);
+		}
+
+		/**
+		 * Returns the position of the word with the specified sense key, or -1
+		 * if there is none. The candidates are the words of the synsets listed
+		 * under the lemma of the key in the index, and the position of a word
+		 * whose lemma matches the key exactly is preferred over one that
+		 * matches only when case is ignored.
+		 *
+		 * @param part
+		 *            the part of the sense key's part of speech
+		 * @param key
+		 *            the sense key; may not be <code>null</code>
+		 * @return the position of the word, or -1
+		 * @since JWI 2.4.0
+		 */
+		public int findWord(Part part, ISenseKey key) {
+			int index = part.findIndexWord(strings, new IndexWordID(key.getLemma(), part.pos).getLemma());
+			if(index < 0)
+				return -1;
+			int lexFile = key.getLexicalFile().getNumber();
+			int result = -1;
+			int synset, word;
+			for(int i = part.indexWordStarts.get(index); i < part.indexWordStarts.get(index + 1); i++){
+				synset = part.findSynset(part.indexWordOffsets.get(i));
+				if(synset < 0 || lexFiles[part.synsetLexFiles.get(synset)].getNumber() != lexFile)
+					continue;
+				for(word = part.wordStarts.get(synset); word < part.wordStarts.get(synset + 1); word++){
+					if(part.wordLexIDs.get(word) != key.getLexicalID() || !strings.equalsIgnoreCase(part.wordLemmas.get(word), key.getLemma()))
+						continue;
+					if(part.headLemmas.get(synset) >= 0 && key.getHeadWord() != null
+							&& (part.headLexIDs.get(synset) != key.getHeadID() || !strings.equals(part.headLemmas.get(synset), key.getHeadWord())))
+						continue;
+					if(strings.equals(part.wordLemmas.get(word), key.getLemma()))
+						return word;
+					if(result < 0)
+						result = word;
+				}
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * The arrays that hold the synsets, words, index words and exception
+	 * entries of one part of speech. Synsets, words, index words and
+	 * exception entries are each identified by their position, in file order;
+	 * the words of a synset are contiguous. Variable-length fields are stored
+	 * in compressed sparse row form: the values for the item at position
+	 * <i>i</i> are those between <code>starts[i]</code> and
+	 * <code>starts[i+1]</code> of the value arrays.
+	 *
+	 * @version 2.4.0
+	 * @since JWI 2.4.0
+	 */
+	public static class Part {
+
+		// synset flags
+		protected static final byte ADJECTIVE_SATELLITE = 1;
+		protected static final byte ADJECTIVE_HEAD = 2;
+
+		protected final POS pos;
+
+		// synsets
+		protected IntBuffer offsets;
+		protected ByteBuffer synsetLexFiles;
+		protected ByteBuffer synsetFlags;
+		protected IntBuffer glossStarts;
+		protected ByteBuffer glosses;
+		protected IntBuffer headLemmas;
+		protected ByteBuffer headLexIDs;
+		protected IntBuffer wordStarts;
+		protected IntBuffer pointerStarts;
+		protected ByteBuffer pointerTypes;
+		protected ByteBuffer pointerPOS;
+		protected IntBuffer pointerOffsets;
+
+		// words
+		protected IntBuffer wordLemmas;
+		protected ByteBuffer wordLexIDs;
+		protected ByteBuffer wordMarkers;
+		protected IntBuffer frameStarts;
+		protected ByteBuffer frames;
+		protected IntBuffer wordPointerStarts;
+		protected ByteBuffer wordPointerTypes;
+		protected ByteBuffer wordPointerPOS;
+		protected IntBuffer wordPointerOffsets;
+		protected ByteBuffer wordPointerNumbers;
+		protected IntBuffer senseNumbers;
+		protected IntBuffer tagCounts;
+
+		// index words
+		protected IntBuffer indexLemmas;
+		protected IntBuffer indexTagSenseCounts;
+		protected IntBuffer indexPointerStarts;
+		protected ByteBuffer indexPointerTypes;
+		protected IntBuffer indexWordStarts;
+		protected IntBuffer indexWordOffsets;
+		protected ByteBuffer indexWordNumbers;
+		protected IntBuffer indexTable;
+
+		// exception entries
+		protected IntBuffer exceptionForms;
+		protected IntBuffer exceptionRootStarts;
+		protected IntBuffer exceptionRoots;
+		protected IntBuffer exceptionTable;
+
+		protected Part(POS pos) {
+			this.pos = pos;
+		}
+
+		public POS getPOS() {
+			return pos;
+		}
+
+		public int synsetCount() {
+			return offsets.capacity();
+		}
+
+		public int indexWordCount() {
+			return indexLemmas.capacity();
+		}
+
+		public int exceptionCount() {
+			return exceptionForms.capacity();
+		}
+
+		/**
+		 * Returns the number of words of the specified synset.
+		 */
+		public int wordCount(int synset) {
+			return wordStarts.get(synset + 1) - wordStarts.get(synset);
+		}
+
+		/**
+		 * Returns the position of the synset with the specified offset, or a
+		 * negative number if there is none.
+		 */
+		public int findSynset(int offset) {
+			int result = binarySearch(offsets, offset);
+			return (result < 0) ? -1 : result;
+		}
+
+		/**
+		 * Returns the position of the synset that holds the specified word.
+		 */
+		public int synsetOfWord(int word) {
+			int result = binarySearch(wordStarts, word);
+			if(result < 0)
+				return -result - 2;
+			// skip synsets without words, should there be any
+			while(result + 1 < wordStarts.capacity() && wordStarts.get(result + 1) == word)
+				result++;
+			return result;
+		}
+
+		/**
+		 * Returns the number of the first word of the specified synset whose
+		 * lemma is the specified lemma when case is ignored, or zero if there
+		 * is none.
+		 */
+		public int findWordNumber(StringPool strings, int synset, String lemma) {
+			for(int word = wordStarts.get(synset); word < wordStarts.get(synset + 1); word++)
+				if(strings.equalsIgnoreCase(wordLemmas.get(word), lemma))
+					return word - wordStarts.get(synset) + 1;
+			return 0;
+		}
+
+		/**
+		 * Returns the position of the index word with the specified lemma,
+		 * or -1 if there is none.
+		 */
+		public int findIndexWord(StringPool strings, String lemma) {
+			return find(indexTable, indexLemmas, strings, lemma);
+		}
+
+		/**
+		 * Returns the position of the exception entry with the specified
+		 * surface form, or -1 if there is none.
+		 */
+		public int findException(StringPool strings, String surfaceForm) {
+			return find(exceptionTable, exceptionForms, strings, surfaceForm);
+		}
+
+		/**
+		 * Returns the gloss of the specified synset.
+		 */
+		public String getGloss(int synset) {
+			int start = glossStarts.get(synset);
+			int length = glossStarts.get(synset + 1) - start;
+			if(glosses.hasArray())
+				return new String(glosses.array(), glosses.arrayOffset() + start, length, StringPool.UTF8);
+			byte[] bytes = new byte[length];
+			for(int i = 0; i < length; i++)
+				bytes[i] = glosses.get(start + i);
+			return new String(bytes, StringPool.UTF8);
+		}
+
+		/**
+		 * Looks up a key in an open-addressing table of positions plus one,
+		 * hashed by the string hash code of the key.
+		 */
+		private static int find(IntBuffer table, IntBuffer keys, StringPool strings, String key) {
+			int mask = table.capacity() - 1;
+			int slot = spread(key.hashCode()) & mask;
+			int entry;
+			while((entry = table.get(slot)) != 0){
+				if(strings.equals(keys.get(entry - 1), key))
+					return entry - 1;
+				slot = (slot + 1) & mask;
+			}
+			return -1;
+		}
+
+		/**
+		 * Builds an open-addressing table of the positions of the specified
+		 * keys, at most half full.
+		 */
+		protected static IntBuffer makeTable(IntBuffer keys, StringPool strings) {
+			int size = 2;
+			while(size < 2 * keys.capacity())
+				size <<= 1;
+			int[] table = new int[size];
+			int mask = size - 1;
+			int slot;
+			for(int i = 0; i < keys.capacity(); i++){
+				slot = spread(strings.hashCode(keys.get(i))) & mask;
+				while(table[slot] != 0)
+					slot = (slot + 1) & mask;
+				table[slot] = i + 1;
+			}
+			return IntBuffer.wrap(table);
+		}
+
+		/**
+		 * Searches the specified sorted buffer for the specified value, as
+		 * {@link Arrays#binarySearch(int[], int)} does.
+		 */
+		protected static int binarySearch(IntBuffer values, int key) {
+			int low = 0;
+			int high = values.capacity() - 1;
+			int middle, value;
+			while(low <= high){
+				middle = (low + high) >>> 1;
+				value = values.get(middle);
+				if(value < key)
+					low = middle + 1;
+				else if(value > key)
+					high = middle - 1;
+				else
+					return middle;
+			}
+			return -(low + 1);
+		}
+
+		private static int spread(int hash) {
+			hash *= 0x9E3779B9;
+			return hash ^ (hash >>> 16);
+		}
+
+		/**
+		 * Returns the approximate number of bytes taken by the buffers of this
+		 * part.
+		 */
+		public long getByteCount() {
+			return size(offsets) + size(synsetLexFiles) + size(synsetFlags) + size(glossStarts) + size(glosses)
+					+ size(headLemmas) + size(headLexIDs) + size(wordStarts) + size(pointerStarts) + size(pointerTypes)
+					+ size(pointerPOS) + size(pointerOffsets) + size(wordLemmas) + size(wordLexIDs) + size(wordMarkers)
+					+ size(frameStarts) + size(frames) + size(wordPointerStarts) + size(wordPointerTypes)
+					+ size(wordPointerPOS) + size(wordPointerOffsets) + size(wordPointerNumbers) + size(senseNumbers)
+					+ size(tagCounts) + size(indexLemmas) + size(indexTagSenseCounts) + size(indexPointerStarts)
+					+ size(indexPointerTypes) + size(indexWordStarts) + size(indexWordOffsets) + size(indexWordNumbers)
+					+ size(indexTable) + size(exceptionForms) + size(exceptionRootStarts) + size(exceptionRoots)
+					+ size(exceptionTable);
+		}
+
+		private static long size(IntBuffer buffer) {
+			return 16 + 4L * buffer.capacity();
+		}
+
+		private static long size(ByteBuffer buffer) {
+			return 16 + buffer.capacity();
+		}
+	}
+
+	/**
+	 * A pool of distinct strings, stored back to back in one character array
+	 * and identified by their position in the pool.
+	 *
+	 * @version 2.4.0
+	 * @since JWI 2.4.0
+	 */
+	public static class StringPool {
+
+		static final Charset UTF8 = Charset.forName("UTF-8");
+
+		protected final CharBuffer chars;
+		protected final IntBuffer starts;
+
+		protected StringPool(CharBuffer chars, IntBuffer starts) {
+			this.chars = chars;
+			this.starts = starts;
+		}
+
+		/**
+		 * Returns the number of strings in the pool.
+		 */
+		public int size() {
+			return starts.capacity() - 1;
+		}
+
+		/**
+		 * Returns the string with the specified identifier.
+		 */
+		public String get(int id) {
+			int start = starts.get(id);
+			int length = starts.get(id + 1) - start;
+			if(chars.hasArray())
+				return new String(chars.array(), chars.arrayOffset() + start, length);
+			char[] result = new char[length];
+			for(int i = 0; i < length; i++)
+				result[i] = chars.get(start + i);
+			return new String(result);
+		}
+
+		/**
+		 * Returns whether the string with the specified identifier is equal to
+		 * the specified string, without materializing it.
+		 */
+		public boolean equals(int id, String s) {
+			int start = starts.get(id);
+			int length = starts.get(id + 1) - start;
+			if(length != s.length())
+				return false;
+			for(int i = 0; i < length; i++)
+				if(chars.get(start + i) != s.charAt(i))
+					return false;
+			return true;
+		}
+
+		/**
+		 * Returns whether the string with the specified identifier is equal to
+		 * the specified string when case is ignored, as by
+		 * {@link String#equalsIgnoreCase(String)}.
+		 */
+		public boolean equalsIgnoreCase(int id, String s) {
+			int start = starts.get(id);
+			int length = starts.get(id + 1) - start;
+			if(length != s.length())
+				return false;
+			char c1, c2;
+			for(int i = 0; i < length; i++){
+				c1 = chars.get(start + i);
+				c2 = s.charAt(i);
+				if(c1 == c2)
+					continue;
+				c1 = Character.toUpperCase(c1);
+				c2 = Character.toUpperCase(c2);
+				if(c1 != c2 && Character.toLowerCase(c1) != Character.toLowerCase(c2))
+					return false;
+			}
+			return true;
+		}
+
+		/**
+		 * Returns the hash code of the string with the specified identifier,
+		 * as computed by {@link String#hashCode()}.
+		 */
+		public int hashCode(int id) {
+			int h = 0;
+			for(int i = starts.get(id); i < starts.get(id + 1); i++)
+				h = 31 * h + chars.get(i);
+			return h;
+		}
+
+		/**
+		 * Returns the approximate number of bytes taken by this pool.
+		 */
+		public long getByteCount() {
+			return 32 + 2L * chars.capacity() + 4L * starts.capacity();
+		}
+	}
+
+	/**
+	 * Collects the data of a compact dictionary from a source dictionary.
+	 *
+	 * @since JWI 2.4.0
+	 */
+	protected static class Loader {
+
+		protected final List<IPointer> pointers = new ArrayList<IPointer>();
+		protected final List<ILexFile> lexFiles = new ArrayList<ILexFile>();
+		protected final List<IVerbFrame> frames = new ArrayList<IVerbFrame>();
+		protected final StringPoolBuilder strings = new StringPoolBuilder();
+
+		private final Map<IPointer, Integer> pointerIDs = new HashMap<IPointer, Integer>();
+		private final Map<ILexFile, Integer> lexFileIDs = new HashMap<ILexFile, Integer>();
+		private final Map<IVerbFrame, Integer> frameIDs = new HashMap<IVerbFrame, Integer>();
+
+		/**
+		 * Loads the synsets, index words and exception entries of one part
+		 * of speech.
+		 */
+		protected Part loadPart(IDictionary source, POS pos) {
+			Part part = new Part(pos);
+
+			IntList offsets = new IntList(), glossStarts = new IntList(), headLemmas = new IntList(), wordStarts = new IntList(),
+					pointerStarts = new IntList(), pointerOffsets = new IntList(), wordLemmas = new IntList(), frameStarts = new IntList(),
+					wordPointerStarts = new IntList(), wordPointerOffsets = new IntList();
+			ByteList synsetLexFiles = new ByteList(), synsetFlags = new ByteList(), glosses = new ByteList(), headLexIDs = new ByteList(),
+					pointerTypes = new ByteList(), pointerPOS = new ByteList(), wordLexIDs = new ByteList(), wordMarkers = new ByteList(),
+					frames = new ByteList(), wordPointerTypes = new ByteList(), wordPointerPOS = new ByteList(), wordPointerNumbers = new ByteList();
+
+			// synsets and words, in file order
+			ISynset synset;
+			String headLemma;
+			int headLexID;
+			for(Iterator<ISynset> i = source.getSynsetIterator(pos); i.hasNext(); ){
+				synset = i.next();
+				offsets.add(synset.getOffset());
+				synsetLexFiles.add(toByte(id(lexFileIDs, lexFiles, synset.getLexicalFile())));
+				synsetFlags.add((byte)((synset.isAdjectiveSatellite() ? Part.ADJECTIVE_SATELLITE : 0) | (synset.isAdjectiveHead() ? Part.ADJECTIVE_HEAD : 0)));
+				glossStarts.add(glosses.size());
+				glosses.add(synset.getGloss().getBytes(StringPool.UTF8));
+				wordStarts.add(wordLemmas.size());
+				pointerStarts.add(pointerTypes.size());
+				for(Map.Entry<IPointer, List<ISynsetID>> entry : synset.getRelatedMap().entrySet()){
+					for(ISynsetID target : entry.getValue()){
+						pointerTypes.add(toByte(id(pointerIDs, pointers, entry.getKey())));
+						pointerPOS.add((byte)target.getPOS().ordinal());
+						pointerOffsets.add(target.getOffset());
+					}
+				}
+
+				headLemma = null;
+				headLexID = -1;
+				for(IWord word : synset.getWords()){
+					wordLemmas.add(strings.add(word.getLemma()));
+					wordLexIDs.add((byte)word.getLexicalID());
+					wordMarkers.add((byte)((word.getAdjectiveMarker() == null) ? 0 : word.getAdjectiveMarker().ordinal() + 1));
+					frameStarts.add(frames.size());
+					for(IVerbFrame frame : word.getVerbFrames())
+						frames.add(toByte(id(frameIDs, this.frames, frame)));
+					wordPointerStarts.add(wordPointerTypes.size());
+					for(Map.Entry<IPointer, List<IWordID>> entry : word.getRelatedMap().entrySet()){
+						for(IWordID target : entry.getValue()){
+							wordPointerTypes.add(toByte(id(pointerIDs, pointers, entry.getKey())));
+							wordPointerPOS.add((byte)target.getPOS().ordinal());
+							wordPointerOffsets.add(target.getSynsetID().getOffset());
+							wordPointerNumbers.add((byte)target.getWordNumber());
+						}
+					}
+					if(headLemma == null && word.getSenseKey().getHeadWord() != null){
+						headLemma = word.getSenseKey().getHeadWord();
+						headLexID = word.getSenseKey().getHeadID();
+					}
+				}
+				headLemmas.add((headLemma == null) ? -1 : strings.add(headLemma));
+				headLexIDs.add((byte)headLexID);
+			}
+			glossStarts.add(glosses.size());
+			wordStarts.add(wordLemmas.size());
+			pointerStarts.add(pointerTypes.size());
+			frameStarts.add(frames.size());
+			wordPointerStarts.add(wordPointerTypes.size());
+
+			part.offsets = offsets.toBuffer();
+			part.synsetLexFiles = synsetLexFiles.toBuffer();
+			part.synsetFlags = synsetFlags.toBuffer();
+			part.glossStarts = glossStarts.toBuffer();
+			part.glosses = glosses.toBuffer();
+			part.headLemmas = headLemmas.toBuffer();
+			part.headLexIDs = headLexIDs.toBuffer();
+			part.wordStarts = wordStarts.toBuffer();
+			part.pointerStarts = pointerStarts.toBuffer();
+			part.pointerTypes = pointerTypes.toBuffer();
+			part.pointerPOS = pointerPOS.toBuffer();
+			part.pointerOffsets = pointerOffsets.toBuffer();
+			part.wordLemmas = wordLemmas.toBuffer();
+			part.wordLexIDs = wordLexIDs.toBuffer();
+			part.wordMarkers = wordMarkers.toBuffer();
+			part.frameStarts = frameStarts.toBuffer();
+			part.frames = frames.toBuffer();
+			part.wordPointerStarts = wordPointerStarts.toBuffer();
+			part.wordPointerTypes = wordPointerTypes.toBuffer();
+			part.wordPointerPOS = wordPointerPOS.toBuffer();
+			part.wordPointerOffsets = wordPointerOffsets.toBuffer();
+			part.wordPointerNumbers = wordPointerNumbers.toBuffer();
+			part.senseNumbers = IntBuffer.wrap(new int[part.wordLemmas.capacity()]);
+			part.tagCounts = IntBuffer.wrap(new int[part.wordLemmas.capacity()]);
+			if(!isSorted(part.offsets))
+				throw new IllegalStateException("synsets of " + pos + " are not in offset order");
+
+			// index words, in file order
+			IntList indexLemmas = new IntList(), indexTagSenseCounts = new IntList(), indexPointerStarts = new IntList(),
+					indexWordStarts = new IntList(), indexWordOffsets = new IntList();
+			ByteList indexPointerTypes = new ByteList(), indexWordNumbers = new ByteList();
+			IIndexWord indexWord;
+			int target;
+			for(Iterator<IIndexWord> i = source.getIndexWordIterator(pos); i.hasNext(); ){
+				indexWord = i.next();
+				indexLemmas.add(strings.add(indexWord.getLemma()));
+				indexTagSenseCounts.add(indexWord.getTagSenseCount());
+				indexPointerStarts.add(indexPointerTypes.size());
+				for(IPointer ptr : indexWord.getPointers())
+					indexPointerTypes.add(toByte(id(pointerIDs, pointers, ptr)));
+				indexWordStarts.add(indexWordOffsets.size());
+				for(IWordID id : indexWord.getWordIDs()){
+					indexWordOffsets.add(id.getSynsetID().getOffset());
+					if(id.getWordNumber() > 0){
+						indexWordNumbers.add((byte)id.getWordNumber());
+					} else {
+						target = part.findSynset(id.getSynsetID().getOffset());
+						indexWordNumbers.add((byte)((target < 0) ? 0 : findWordNumber(part, target, id.getLemma())));
+					}
+				}
+			}
+			indexPointerStarts.add(indexPointerTypes.size());
+			indexWordStarts.add(indexWordOffsets.size());
+			part.indexLemmas = indexLemmas.toBuffer();
+			part.indexTagSenseCounts = indexTagSenseCounts.toBuffer();
+			part.indexPointerStarts = indexPointerStarts.toBuffer();
+			part.indexPointerTypes = indexPointerTypes.toBuffer();
+			part.indexWordStarts = indexWordStarts.toBuffer();
+			part.indexWordOffsets = indexWordOffsets.toBuffer();
+			part.indexWordNumbers = indexWordNumbers.toBuffer();
+
+			// exception entries, in file order
+			IntList exceptionForms = new IntList(), exceptionRootStarts = new IntList(), exceptionRoots = new IntList();
+			IExceptionEntry exception;
+			for(Iterator<IExceptionEntry> i = source.getExceptionEntryIterator(pos); i.hasNext(); ){
+				exception = i.next();
+				exceptionForms.add(strings.add(exception.getSurfaceForm()));
+				exceptionRootStarts.add(exceptionRoots.size());
+				for(String root : exception.getRootForms())
+					exceptionRoots.add(strings.add(root));
+			}
+			exceptionRootStarts.add(exceptionRoots.size());
+			part.exceptionForms = exceptionForms.toBuffer();
+			part.exceptionRootStarts = exceptionRootStarts.toBuffer();
+			part.exceptionRoots = exceptionRoots.toBuffer();
+			return part;
+		}
+
+		/**
+		 * Records the sense number and tag count of each sense entry on its
+		 * word, and builds the lookup tables, which need the final string
+		 * pool. Returns the positions of the words with sense entries, in the
+		 * order of the source, packed with their parts of speech.
+		 */
+		protected IntBuffer loadSenseEntries(IDictionary source, Part[] parts) {
+			StringPool pool = strings.toPool();
+			CompactData partial = new CompactData(null, null, lexFiles.toArray(new ILexFile[lexFiles.size()]), null, pool, parts, null);
+			for(Part part : parts){
+				part.indexTable = Part.makeTable(part.indexLemmas, pool);
+				part.exceptionTable = Part.makeTable(part.exceptionForms, pool);
+			}
+
+			IntList order = new IntList();
+			ISenseEntry entry;
+			Part part;
+			int word;
+			for(Iterator<ISenseEntry> i = source.getSenseEntryIterator(); i.hasNext(); ){
+				entry = i.next();
+				part = parts[entry.getPOS().ordinal()];
+				word = partial.findWord(part, entry.getSenseKey());
+				if(word < 0 || part.offsets.get(part.synsetOfWord(word)) != entry.getOffset() || part.senseNumbers.get(word) != 0)
+					continue;
+				part.senseNumbers.put(word, entry.getSenseNumber());
+				part.tagCounts.put(word, entry.getTagCount());
+				order.add(entry.getPOS().ordinal() << CompactData.POS_SHIFT | word);
+			}
+			return order.toBuffer();
+		}
+
+		private int findWordNumber(Part part, int synset, String lemma) {
+			for(int word = part.wordStarts.get(synset); word < part.wordStarts.get(synset + 1); word++)
+				if(strings.get(part.wordLemmas.get(word)).equalsIgnoreCase(lemma))
+					return word - part.wordStarts.get(synset) + 1;
+			return 0;
+		}
+
+		private static <T> int id(Map<T, Integer> ids, List<T> values, T value) {
+			Integer id = ids.get(value);
+			if(id == null){
+				id = values.size();
+				values.add(value);
+				ids.put(value, id);
+			}
+			return id;
+		}
+
+		private static byte toByte(int id) {
+			if(id > Byte.MAX_VALUE)
+				throw new IllegalStateException("too many distinct values: " + id);
+			return (byte)id;
+		}
+
+		private static boolean isSorted(IntBuffer values) {
+			for(int i = 1; i < values.capacity(); i++)
+				if(values.get(i - 1) >= values.get(i))
+					return false;
+			return true;
+		}
+	}
+
+	/**
+	 * Collects distinct strings into a {@link StringPool}.
+	 *
+	 * @since JWI 2.4.0
+	 */
+	protected static class StringPoolBuilder {
+
+		private final Map<String, Integer> ids = new HashMap<String, Integer>();
+		private final List<String> values = new ArrayList<String>();
+		private StringPool pool;
+
+		/**
+		 * Adds the specified string, if new, and returns its identifier.
+		 */
+		public int add(String s) {
+			Integer id = ids.get(s);
+			if(id == null){
+				id = values.size();
+				values.add(s);
+				ids.put(s, id);
+				pool = null;
+			}
+			return id;
+		}
+
+		/**
+		 * Returns the string with the specified identifier.
+		 */
+		public String get(int id) {
+			return values.get(id);
+		}
+
+		/**
+		 * Returns the pool of the strings added so far.
+		 */
+		public StringPool toPool() {
+			if(pool != null)
+				return pool;
+			int length = 0;
+			for(String s : values)
+				length += s.length();
+			char[] chars = new char[length];
+			int[] starts = new int[values.size() + 1];
+			int position = 0;
+			for(int i = 0; i < values.size(); i++){
+				starts[i] = position;
+				values.get(i).getChars(0, values.get(i).length(), chars, position);
+				position += values.get(i).length();
+			}
+			starts[values.size()] = position;
+			pool = new StringPool(CharBuffer.wrap(chars), IntBuffer.wrap(starts));
+			return pool;
+		}
+	}
+
+	/**
+	 * A growable array of ints.
+	 */
+	private static final class IntList {
+
+		private int[] values = new int[64];
+		private int size;
+
+		void add(int value) {
+			if(size == values.length)
+				values = Arrays.copyOf(values, 2 * size);
+			values[size++] = value;
+		}
+
+		int size() {
+			return size;
+		}
+
+		IntBuffer toBuffer() {
+			return IntBuffer.wrap(Arrays.copyOf(values, size));
+		}
+	}
+
+	/**
+	 * A growable array of bytes.
+	 */
+	private static final class ByteList {
+
+		private byte[] values = new byte[64];
+		private int size;
+
+		void add(byte value) {
+			if(size == values.length)
+				values = Arrays.copyOf(values, 2 * size);
+			values[size++] = value;
+		}
+
+		void add(byte[] bytes) {
+			if(size + bytes.length > values.length)
+				values = Arrays.copyOf(values, Math.max(2 * values.length, size + bytes.length));
+			System.arraycopy(bytes, 0, values, size, bytes.length);
+			size += bytes.length;
+		}
+
+		int size() {
+			return size;
+		}
+
+		ByteBuffer toBuffer() {
+			return ByteBuffer.wrap(Arrays.copyOf(values, size));
+		}
+	}
+
+}
@@ -0,0 +1,858 @@
+/********************************************************************************
+ * Java Wordnet Interface Library (JWI) v2.4.0
+ * Top Level Tagger additions, Copyright (c) 2017 Lambda³
+ *
+ * JWI is distributed under the terms of the Creative Commons Attribution 4.0
+ * International Public License, which means it may be freely used for all
+ * purposes, as long as proper acknowledgment is made.  See the license file
+ * included with this distribution for more details.
+ *******************************************************************************/
+
+package edu.mit.jwi;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import edu.mit.jwi.ICachingDictionary.IItemCache;
+import edu.mit.jwi.data.parse.DataLineParser.LazySynset;
+import edu.mit.jwi.item.IExceptionEntry;
+import edu.mit.jwi.item.IIndexWord;
+import edu.mit.jwi.item.IItem;
+import edu.mit.jwi.item.IItemID;
+import edu.mit.jwi.item.ISenseEntry;
+import edu.mit.jwi.item.ISenseKey;
+import edu.mit.jwi.item.ISynset;
+import edu.mit.jwi.item.IWord;
+
+/**
+ * A cache for objects in JWI that may be shared by many threads. Retrievals
+ * take no lock: entries are held in concurrent hash maps, and each retrieval
+ * only marks the entry it finds as recently used and records the key in a
+ * compact frequency sketch. Insertions lock one of a number of stripes,
+ * chosen by the hash of the key, each of which keeps its entries on a clock
+ * for eviction.
+ * <p>
+ * The capacity of the cache is expressed in weight, as measured by an
+ * {@link IWeigher}, rather than in number of entries, so that large items
+ * such as synsets with many words count for more than small ones. When an
+ * insertion would take the cache over its capacity, the clock picks a victim
+ * that has not been used since the hand last passed it, and the new item is
+ * admitted only if the sketch estimates it to have been asked for more often
+ * than the victim. Items that are looked up once and never again thus do not
+ * push frequently used items out of the cache. As in {@link CachingDictionary.ItemCache},
+ * the maximum capacity applies separately to items, words by sense key, and
+ * sense entries.
+ * <p>
+ * The cache counts hits, misses, evictions and rejected insertions.
+ *
+ * @version 2.4.0
+ * @since JWI 2.4.0
+ */
+public class ConcurrentItemCache implements IItemCache {
+
+	// default configuration
+	public static final int DEFAULT_MAXIMUM_CAPACITY = 1 << 17;
+	public static final int DEFAULT_CONCURRENCY_LEVEL = ceilingPowerOfTwo(Math.min(64, 4 * Runtime.getRuntime().availableProcessors()));
+
+	/**
+	 * Weighs an item by the number of words or word ids it holds, plus one.
+	 * Lazily decoded synsets are weighed by the word count of their data
+	 * line, so that caching them does not decode their words. This is the
+	 * default weigher.
+	 *
+	 * @since JWI 2.4.0
+	 */
+	public static final IWeigher DEFAULT_WEIGHER = new IWeigher(){
+		public int weigh(Object item) {
+			if(item instanceof LazySynset)
+				return 1 + ((LazySynset)item).getWordCount();
+			if(item instanceof ISynset)
+				return 1 + ((ISynset)item).getWords().size();
+			if(item instanceof IIndexWord)
+				return 1 + ((IIndexWord)item).getWordIDs().size();
+			if(item instanceof IExceptionEntry)
+				return 1 + ((IExceptionEntry)item).getRootForms().size();
+			return 1;
+		}
+	};
+
+	/**
+	 * Weighs every item as one, so that the capacity of the cache is a number
+	 * of entries.
+	 *
+	 * @since JWI 2.4.0
+	 */
+	public static final IWeigher UNIT_WEIGHER = new IWeigher(){
+		public int weigh(Object item) {
+			return 1;
+		}
+	};
+
+	protected final Lock lifecycleLock = new ReentrantLock();
+
+	// configuration
+	private final int concurrencyLevel;
+	private final IWeigher weigher;
+	private volatile boolean isEnabled;
+	private volatile int maximumCapacity;
+
+	// the caches themselves
+	private volatile Store<IItemID<?>, IItem<?>> itemCache;
+	private volatile Store<ISenseKey, IWord> keyCache;
+	private volatile Store<ISenseKey, ISenseEntry> senseCache;
+
+	// statistics
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	private final LongAdder rejections = new LongAdder();
+
+	/**
+	 * Constructs a new cache with the default maximum capacity, concurrency
+	 * level and weigher, with caching enabled.
+	 *
+	 * @since JWI 2.4.0
+	 */
+	public ConcurrentItemCache() {
+		this(DEFAULT_MAXIMUM_CAPACITY, DEFAULT_CONCURRENCY_LEVEL, DEFAULT_WEIGHER, true);
+	}
+
+	/**
+	 * Constructs a new cache with the specified configuration.
+	 *
+	 * @param maxCapacity
+	 *            the maximum total weight of each of the caches; if less than
+	 *            one, the cache size is unlimited
+	 * @param concurrencyLevel
+	 *            the number of stripes insertions are spread over; rounded up
+	 *            to a power of two
+	 * @param weigher
+	 *            the weigher that measures items; may not be
+	 *            <code>null</code>
+	 * @param enabled
+	 *            whether the cache starts out enabled
+	 * @throws NullPointerException
+	 *             if the specified weigher is <code>null</code>
+	 * @throws IllegalArgumentException
+	 *             if the concurrency level is less than one
+	 * @since JWI 2.4.0
+	 */
+	public ConcurrentItemCache(int maxCapacity, int concurrencyLevel, IWeigher weigher, boolean enabled) {
+		if(weigher == null)
+			throw new NullPointerException();
+		if(concurrencyLevel < 1)
+			throw new IllegalArgumentException("concurrency level must be positive: " + concurrencyLevel);
+		this.concurrencyLevel = ceilingPowerOfTwo(concurrencyLevel);
+		this.weigher = weigher;
+		this.maximumCapacity = maxCapacity;
+		this.isEnabled = enabled;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see edu.mit.jwi.data.IHasLifecycle#open()
+	 */
+	public boolean open() throws IOException {
+		if(isOpen())
+			return true;
+		try{
+			lifecycleLock.lock();
+			if(isOpen())
+				return true;
+			itemCache = new Store<IItemID<?>, IItem<?>>();
+			keyCache = new Store<ISenseKey, IWord>();
+			senseCache = new Store<ISenseKey, ISenseEntry>();
+		} finally {
+			lifecycleLock.unlock();
+		}
+		return true;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see edu.mit.jwi.data.IHasLifecycle#isOpen()
+	 */
+	public boolean isOpen() {
+		return senseCache != null;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see edu.mit.jwi.data.IClosable#close()
+	 */
+	public void close() {
+		if(!isOpen())
+			return;
+		try{
+			lifecycleLock.lock();
+			senseCache = null;
+			keyCache = null;
+			itemCache = null;
+		} finally {
+			lifecycleLock.unlock();
+		}
+	}
+
+	/**
+	 * Returns the specified store, or throws an exception if the cache is
+	 * closed.
+	 *
+	 * @param store
+	 *            the store just read from one of the volatile fields
+	 * @return the specified store
+	 * @throws ObjectClosedException
+	 *             if the store is <code>null</code>
+	 * @since JWI 2.4.0
+	 */
+	protected static <K, V> Store<K, V> checkOpen(Store<K, V> store) {
+		if(store == null)
+			throw new ObjectClosedException();
+		return store;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see edu.mit.jwi.ICachingDictionary.IItemCache#clear()
+	 */
+	public void clear() {
+		Store<?,?> store;
+		if((store = itemCache) != null)
+			store.clear();
+		if((store = keyCache) != null)
+			store.clear();
+		if((store = senseCache) != null)
+			store.clear();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see edu.mit.jwi.ICachingDictionary.IItemCache#isEnabled()
+	 */
+	public boolean isEnabled() {
+		return isEnabled;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see edu.mit.jwi.ICachingDictionary.IItemCache#setEnabled(boolean)
+	 */
+	public void setEnabled(boolean isEnabled) {
+		this.isEnabled = isEnabled;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see edu.mit.jwi.ICachingDictionary.IItemCache#getMaximumCapacity()
+	 */
+	public int getMaximumCapacity() {
+		return maximumCapacity;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see edu.mit.jwi.ICachingDictionary.IItemCache#setMaximumCapacity(int)
+	 */
+	public void setMaximumCapacity(int capacity) {
+		maximumCapacity = capacity;
+		Store<?,?> store;
+		if((store = itemCache) != null)
+			store.evictExcess();
+		if((store = keyCache) != null)
+			store.evictExcess();
+		if((store = senseCache) != null)
+			store.evictExcess();
+	}
+
+	/**
+	 * Returns the number of stripes that insertions are spread over.
+	 *
+	 * @return the number of stripes, a power of two
+	 * @since JWI 2.4.0
+	 */
+	public int getConcurrencyLevel() {
+		return concurrencyLevel;
+	}
+
+	/**
+	 * Returns the weigher that measures the items in this cache.
+	 *
+	 * @return the weigher of this cache; never <code>null</code>
+	 * @since JWI 2.4.0
+	 */
+	public IWeigher getWeigher() {
+		return weigher;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see edu.mit.jwi.ICachingDictionary.IItemCache#size()
+	 */
+	public int size() {
+		return checkOpen(itemCache).map.size() + checkOpen(keyCache).map.size() + checkOpen(senseCache).map.size();
+	}
+
+	/**
+	 * Returns the total weight of the entries in the cache.
+	 *
+	 * @return the total weight of the entries in the cache
+	 * @throws ObjectClosedException
+	 *             if the cache is closed
+	 * @since JWI 2.4.0
+	 */
+	public long getWeight() {
+		return checkOpen(itemCache).weight.get() + checkOpen(keyCache).weight.get() + checkOpen(senseCache).weight.get();
+	}
+
+	/**
+	 * Returns the number of retrievals that found their entry since this
+	 * cache was created.
+	 *
+	 * @return the number of cache hits
+	 * @since JWI 2.4.0
+	 */
+	public long getHitCount() {
+		return hits.sum();
+	}
+
+	/**
+	 * Returns the number of retrievals that did not find their entry since
+	 * this cache was created.
+	 *
+	 * @return the number of cache misses
+	 * @since JWI 2.4.0
+	 */
+	public long getMissCount() {
+		return misses.sum();
+	}
+
+	/**
+	 * Returns the number of entries that were removed to make room for others,
+	 * or because the capacity was lowered, since this cache was created.
+	 *
+	 * @return the number of evictions
+	 * @since JWI 2.4.0
+	 */
+	public long getEvictionCount() {
+		return evictions.sum();
+	}
+
+	/**
+	 * Returns the number of items that were not admitted to the full cache
+	 * because they were used less often than the entry they would have
+	 * replaced, or were heavier than the whole cache, since this cache was
+	 * created.
+	 *
+	 * @return the number of rejected insertions
+	 * @since JWI 2.4.0
+	 */
+	public long getRejectionCount() {
+		return rejections.sum();
+	}
+
+	/**
+	 * Resets the hit, miss, eviction and rejection counters to zero.
+	 *
+	 * @since JWI 2.4.0
+	 */
+	public void resetStatistics() {
+		hits.reset();
+		misses.reset();
+		evictions.reset();
+		rejections.reset();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see edu.mit.jwi.ICachingDictionary.IItemCache#cacheItem(edu.mit.jwi.item.IItem)
+	 */
+	public void cacheItem(IItem<?> item) {
+		Store<IItemID<?>, IItem<?>> store = checkOpen(itemCache);
+		if(isEnabled())
+			store.put(item.getID(), item);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see edu.mit.jwi.ICachingDictionary.IItemCache#cacheWordByKey(edu.mit.jwi.item.IWord)
+	 */
+	public void cacheWordByKey(IWord word) {
+		Store<ISenseKey, IWord> store = checkOpen(keyCache);
+		if(isEnabled())
+			store.put(word.getSenseKey(), word);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see edu.mit.jwi.ICachingDictionary.IItemCache#cacheSenseEntry(edu.mit.jwi.item.ISenseEntry)
+	 */
+	public void cacheSenseEntry(ISenseEntry entry) {
+		Store<ISenseKey, ISenseEntry> store = checkOpen(senseCache);
+		if(isEnabled())
+			store.put(entry.getSenseKey(), entry);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see edu.mit.jwi.ICachingDictionary.IItemCache#retrieveItem(edu.mit.jwi.item.IItemID)
+	 */
+	@SuppressWarnings("unchecked")
+	public <T extends IItem<D>, D extends IItemID<T>> T retrieveItem(D id) {
+		return (T)checkOpen(itemCache).get(id);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see edu.mit.jwi.ICachingDictionary.IItemCache#retrieveWord(edu.mit.jwi.item.ISenseKey)
+	 */
+	public IWord retrieveWord(ISenseKey key) {
+		return checkOpen(keyCache).get(key);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see edu.mit.jwi.ICachingDictionary.IItemCache#retrieveSenseEntry(edu.mit.jwi.item.ISenseKey)
+	 */
+	public ISenseEntry retrieveSenseEntry(ISenseKey key) {
+		return checkOpen(senseCache).get(key);
+	}
+
+	/**
+	 * Measures the weight of the items in a {@link ConcurrentItemCache}.
+	 *
+	 * @version 2.4.0
+	 * @since JWI 2.4.0
+	 */
+	public interface IWeigher {
+
+		/**
+		 * Returns the weight of the specified item, which is counted against
+		 * the capacity of the cache for as long as the item is cached.
+		 *
+		 * @param item
+		 *            the item to be weighed; will not be <code>null</code>
+		 * @return the weight of the item; must be at least one
+		 * @since JWI 2.4.0
+		 */
+		public int weigh(Object item);
+
+	}
+
+	/**
+	 * One of the three caches of a {@link ConcurrentItemCache}: a concurrent
+	 * map for retrievals, plus the stripes that order its entries for
+	 * eviction and a sketch of how often keys are asked for.
+	 *
+	 * @version 2.4.0
+	 * @since JWI 2.4.0
+	 */
+	protected class Store<K, V> {
+
+		protected final ConcurrentHashMap<K, Node<K, V>> map;
+		protected final Stripe<K, V>[] stripes;
+		protected final FrequencySketch sketch;
+		protected final AtomicLong weight = new AtomicLong();
+		private final AtomicInteger evictionHand = new AtomicInteger();
+
+		/**
+		 * Creates a new, empty store.
+		 *
+		 * @since JWI 2.4.0
+		 */
+		protected Store() {
+			map = new ConcurrentHashMap<K, Node<K, V>>(64, 0.75f, concurrencyLevel);
+			stripes = newStripes(concurrencyLevel);
+			for(int i = 0; i < stripes.length; i++)
+				stripes[i] = new Stripe<K, V>();
+			int capacity = maximumCapacity;
+			sketch = new FrequencySketch(capacity < 1 ? DEFAULT_MAXIMUM_CAPACITY : capacity);
+		}
+
+		/**
+		 * Returns the value cached for the specified key, or <code>null</code>
+		 * if there is none, and records the access.
+		 *
+		 * @param key
+		 *            the key; may not be <code>null</code>
+		 * @return the cached value, or <code>null</code>
+		 * @since JWI 2.4.0
+		 */
+		protected V get(K key) {
+			sketch.increment(key);
+			Node<K, V> node = map.get(key);
+			if(node == null){
+				misses.increment();
+				return null;
+			}
+			if(!node.referenced)
+				node.referenced = true;
+			hits.increment();
+			return node.value;
+		}
+
+		/**
+		 * Caches the value under the specified key, then evicts entries from
+		 * the stripes in turn until the store is within its capacity again.
+		 * If the cache is full and the value's key has been asked for no more
+		 * often than the entry that would be evicted next, the value is not
+		 * cached.
+		 *
+		 * @param key
+		 *            the key; may not be <code>null</code>
+		 * @param value
+		 *            the value; may not be <code>null</code>
+		 * @since JWI 2.4.0
+		 */
+		protected void put(K key, V value) {
+			if(key == null || value == null)
+				throw new NullPointerException();
+			Node<K, V> current = map.get(key);
+			if(current != null && current.value == value)
+				return;
+			int w = Math.max(1, weigher.weigh(value));
+			int capacity = maximumCapacity;
+			if(capacity > 0 && w > capacity){
+				rejections.increment();
+				return;
+			}
+			if(capacity > 0 && current == null && weight.get() + w > capacity){
+				// admit only if asked for more often than the next victim
+				K victim = nextVictimKey();
+				if(victim != null && sketch.frequency(key) <= sketch.frequency(victim)){
+					rejections.increment();
+					return;
+				}
+			}
+			Stripe<K, V> stripe = stripes[spread(key.hashCode()) & (stripes.length - 1)];
+			stripe.lock.lock();
+			try{
+				Node<K, V> old = map.get(key);
+				if(old != null && old.value == value)
+					return;
+				if(old != null)
+					remove(stripe, old);
+				Node<K, V> node = new Node<K, V>(key, value, w);
+				stripe.add(node);
+				map.put(key, node);
+				weight.addAndGet(w);
+			} finally {
+				stripe.lock.unlock();
+			}
+			evictExcess();
+		}
+
+		/**
+		 * Returns the key of the entry that {@link #evictExcess()} would evict
+		 * next, or <code>null</code> if the store is empty.
+		 *
+		 * @return the key of the next entry to be evicted, or
+		 *         <code>null</code>
+		 * @since JWI 2.4.0
+		 */
+		protected K nextVictimKey() {
+			Stripe<K, V> stripe;
+			int start = evictionHand.get();
+			for(int i = 0; i < stripes.length; i++){
+				stripe = stripes[(start + i) & (stripes.length - 1)];
+				stripe.lock.lock();
+				try{
+					if(!stripe.ring.isEmpty())
+						return stripe.nextVictim().key;
+				} finally {
+					stripe.lock.unlock();
+				}
+			}
+			return null;
+		}
+
+		/**
+		 * Evicts entries from the stripes in turn until the total weight of
+		 * the store is within the maximum capacity.
+		 *
+		 * @since JWI 2.4.0
+		 */
+		protected void evictExcess() {
+			int capacity;
+			Stripe<K, V> stripe;
+			int empty = 0;
+			while((capacity = maximumCapacity) > 0 && weight.get() > capacity && empty < stripes.length){
+				stripe = stripes[evictionHand.getAndIncrement() & (stripes.length - 1)];
+				stripe.lock.lock();
+				try{
+					if(stripe.ring.isEmpty()){
+						empty++;
+					} else {
+						empty = 0;
+						evict(stripe, stripe.nextVictim());
+					}
+				} finally {
+					stripe.lock.unlock();
+				}
+			}
+		}
+
+		/**
+		 * Removes all entries from the store.
+		 *
+		 * @since JWI 2.4.0
+		 */
+		protected void clear() {
+			for(Stripe<K, V> stripe : stripes){
+				stripe.lock.lock();
+				try{
+					for(Node<K, V> node : stripe.ring){
+						map.remove(node.key, node);
+						weight.addAndGet(-node.weight);
+					}
+					stripe.ring.clear();
+					stripe.hand = 0;
+				} finally {
+					stripe.lock.unlock();
+				}
+			}
+		}
+
+		/**
+		 * Removes the specified node, which must belong to the specified
+		 * stripe, and counts the eviction. Must be called with the stripe
+		 * locked.
+		 *
+		 * @since JWI 2.4.0
+		 */
+		private void evict(Stripe<K, V> stripe, Node<K, V> node) {
+			remove(stripe, node);
+			map.remove(node.key, node);
+			evictions.increment();
+		}
+
+		/**
+		 * Removes the specified node from the clock of the specified stripe.
+		 * Must be called with the stripe locked.
+		 *
+		 * @since JWI 2.4.0
+		 */
+		private void remove(Stripe<K, V> stripe, Node<K, V> node) {
+			stripe.remove(node);
+			weight.addAndGet(-node.weight);
+		}
+
+	}
+
+	/**
+	 * Creates an array of empty slots for the specified number of stripes.
+	 *
+	 * @param length
+	 *            the number of stripes
+	 * @return the array of stripes, all <code>null</code>
+	 * @since JWI 2.4.0
+	 */
+	@SuppressWarnings("unchecked")
+	protected static <K, V> Stripe<K, V>[] newStripes(int length) {
+		return (Stripe<K, V>[])new Stripe<?, ?>[length];
+	}
+
+	/**
+	 * Returns the smallest power of two that is greater than or equal to the
+	 * specified positive number.
+	 *
+	 * @param n
+	 *            the number; must be positive and at most 2<sup>30</sup>
+	 * @return the smallest power of two not less than the number
+	 * @since JWI 2.4.0
+	 */
+	protected static int ceilingPowerOfTwo(int n) {
+		return (n <= 1) ? 1 : Integer.highestOneBit(n - 1) << 1;
+	}
+
+	/**
+	 * Spreads the bits of a hash code, so that keys whose hash codes differ
+	 * only in the high bits fall into different stripes.
+	 *
+	 * @param hash
+	 *            the hash code
+	 * @return the spread hash code
+	 * @since JWI 2.4.0
+	 */
+	protected static int spread(int hash) {
+		hash *= 0x9E3779B9;
+		return hash ^ (hash >>> 16);
+	}
+
+	/**
+	 * A cached value, with the weight it was measured at and the flag that
+	 * the clock uses to give recently used entries a second chance.
+	 *
+	 * @since JWI 2.4.0
+	 */
+	protected static final class Node<K, V> {
+
+		final K key;
+		final V value;
+		final int weight;
+		volatile boolean referenced;
+
+		// position on the stripe's clock, guarded by the stripe lock
+		int index;
+
+		Node(K key, V value, int weight) {
+			this.key = key;
+			this.value = value;
+			this.weight = weight;
+		}
+	}
+
+	/**
+	 * A lock and the clock of the entries whose keys hash to it.
+	 *
+	 * @since JWI 2.4.0
+	 */
+	protected static final class Stripe<K, V> {
+
+		final Lock lock = new ReentrantLock();
+		final List<Node<K, V>> ring = new ArrayList<Node<K, V>>();
+		int hand;
+
+		void add(Node<K, V> node) {
+			node.index = ring.size();
+			ring.add(node);
+		}
+
+		void remove(Node<K, V> node) {
+			int last = ring.size() - 1;
+			Node<K, V> moved = ring.remove(last);
+			if(moved != node){
+				ring.set(node.index, moved);
+				moved.index = node.index;
+			}
+		}
+
+		/**
+		 * Advances the hand past entries that were used since it last passed
+		 * them, clearing their flags, and returns the first entry that was
+		 * not. The clock must not be empty.
+		 */
+		Node<K, V> nextVictim() {
+			Node<K, V> node;
+			for(;;){
+				if(hand >= ring.size())
+					hand = 0;
+				node = ring.get(hand);
+				if(!node.referenced)
+					return node;
+				node.referenced = false;
+				hand++;
+			}
+		}
+	}
+
+	/**
+	 * A count-min sketch of how often keys were asked for, with four 4-bit
+	 * counters per key. When the number of recorded accesses reaches ten
+	 * times the number of counter words, all counters are halved, so that
+	 * the estimates favour recent popularity.
+	 *
+	 * @since JWI 2.4.0
+	 */
+	protected static final class FrequencySketch {
+
+		private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+		private static final long RESET_MASK = 0x7777777777777777L;
+
+		private final AtomicLongArray table;
+		private final int mask;
+		private final int sampleSize;
+		private final AtomicInteger size = new AtomicInteger();
+
+		FrequencySketch(int expectedEntries) {
+			int words = ceilingPowerOfTwo(Math.max(64, Math.min(expectedEntries, 1 << 24)));
+			table = new AtomicLongArray(words);
+			mask = words - 1;
+			sampleSize = 10 * words;
+		}
+
+		/**
+		 * Returns the estimated number of times the key was asked for, at most
+		 * 15.
+		 */
+		int frequency(Object key) {
+			int hash = spread(key.hashCode());
+			int start = (hash & 3) << 2;
+			int frequency = 15;
+			for(int i = 0; i < 4; i++){
+				long word = table.get(indexOf(hash, i));
+				frequency = Math.min(frequency, (int)((word >>> ((start + i) << 2)) & 0xfL));
+			}
+			return frequency;
+		}
+
+		/**
+		 * Records an access to the specified key.
+		 */
+		void increment(Object key) {
+			int hash = spread(key.hashCode());
+			int start = (hash & 3) << 2;
+			boolean added = false;
+			for(int i = 0; i < 4; i++)
+				added |= incrementAt(indexOf(hash, i), start + i);
+			if(added && size.incrementAndGet() >= sampleSize)
+				reset();
+		}
+
+		private boolean incrementAt(int index, int counter) {
+			int offset = counter << 2;
+			long mask = 0xfL << offset;
+			long word;
+			do{
+				word = table.get(index);
+				if((word & mask) == mask)
+					return false;
+			} while(!table.compareAndSet(index, word, word + (1L << offset)));
+			return true;
+		}
+
+		private int indexOf(int hash, int i) {
+			long h = (hash + SEEDS[i]) * SEEDS[i];
+			h += h >>> 32;
+			return (int)h & mask;
+		}
+
+		/**
+		 * Halves every counter. Accesses recorded concurrently may be lost,
+		 * which only makes the estimates slightly less accurate.
+		 */
+		private synchronized void reset() {
+			if(size.get() < sampleSize)
+				return;
+			long word;
+			for(int i = 0; i < table.length(); i++){
+				do{
+					word = table.get(i);
+				} while(!table.compareAndSet(i, word, (word >>> 1) & RESET_MASK));
+			}
+			size.set(size.get() / 2);
+		}
+	}
+
+}
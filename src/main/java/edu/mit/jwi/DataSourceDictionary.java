@@ -12,13 +12,17 @@ package edu.mit.jwi;
 
 import java.io.IOException;
 import java.nio.charset.Charset;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 
 import edu.mit.jwi.data.DataType;
 import edu.mit.jwi.data.IContentType;
 import edu.mit.jwi.data.IDataProvider;
 import edu.mit.jwi.data.IDataSource;
+import edu.mit.jwi.data.parse.DataLineParser;
+import edu.mit.jwi.data.parse.DataLineParser.IHeadWordSetter;
 import edu.mit.jwi.data.parse.ILineParser;
 import edu.mit.jwi.item.ExceptionEntry;
 import edu.mit.jwi.item.ExceptionEntryID;
@@ -53,6 +57,14 @@ import edu.mit.jwi.item.SynsetID;
 public class DataSourceDictionary implements IDataSourceDictionary {
 	
 	private final IDataProvider provider;
+	private volatile boolean decodingLazily = false;
+
+	// sets the head words of lazily decoded adjective satellites
+	private final IHeadWordSetter headWordSetter = new IHeadWordSetter() {
+		public void setHeadWord(ISynset synset) {
+			DataSourceDictionary.this.setHeadWord(synset);
+		}
+	};
 
 	/**
 	 * Constructs a dictionary with a caller-specified {@code IDataProvider}.
@@ -75,6 +87,36 @@ public class DataSourceDictionary implements IDataSourceDictionary {
 		return provider;
 	}
 	
+	/**
+	 * Returns <code>true</code> if synsets are decoded lazily;
+	 * <code>false</code> otherwise.
+	 * 
+	 * @return whether synsets are decoded lazily
+	 * @see #setDecodingLazily(boolean)
+	 * @since JWI 2.4.0
+	 */
+	public boolean isDecodingLazily() {
+		return decodingLazily;
+	}
+
+	/**
+	 * Sets whether {@link #getSynset(ISynsetID)} returns synsets that decode
+	 * their data line only as their fields are accessed, as produced by
+	 * {@link DataLineParser#parseLazily(String, IHeadWordSetter)}. Looking up
+	 * a synset then costs little more than finding its line, and the head
+	 * words of adjective satellites are only looked up when their words are
+	 * first requested. This has no effect if the data type of the provider
+	 * does not use a {@link DataLineParser}. Synsets are decoded eagerly by
+	 * default.
+	 * 
+	 * @param decodingLazily
+	 *            whether synsets should be decoded lazily
+	 * @since JWI 2.4.0
+	 */
+	public void setDecodingLazily(boolean decodingLazily) {
+		this.decodingLazily = decodingLazily;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -143,6 +185,51 @@ public class DataSourceDictionary implements IDataSourceDictionary {
 		provider.setCharset(charset);
 	}
 
+	/**
+	 * Retrieves the line for the specified key from the specified data
+	 * source, reporting the lookup to {@link LookupEvents} so that slow
+	 * lookups show up in flight recordings.
+	 * 
+	 * @param file
+	 *            the data source to search; may not be <code>null</code>
+	 * @param key
+	 *            the key of the line
+	 * @return the line, or <code>null</code> if none was found
+	 * @since JWI 2.4.0
+	 */
+	protected String getLine(IDataSource<?> file, String key) {
+		if(!LookupEvents.isSupported())
+			return file.getLine(key);
+		long start = System.nanoTime();
+		String line = file.getLine(key);
+		LookupEvents.lookup(file.getName(), key, line != null, start);
+		return line;
+	}
+
+	/**
+	 * Retrieves the lines for the specified keys from the specified data
+	 * source in one batch, reporting the batch to {@link LookupEvents} as a
+	 * single lookup.
+	 * 
+	 * @param file
+	 *            the data source to search; may not be <code>null</code>
+	 * @param keys
+	 *            the keys of the lines
+	 * @return the lines, at the positions of their keys
+	 * @since JWI 2.4.0
+	 */
+	protected String[] getLines(IDataSource<?> file, String[] keys) {
+		if(!LookupEvents.isSupported())
+			return file.getLines(keys);
+		long start = System.nanoTime();
+		String[] lines = file.getLines(keys);
+		boolean found = false;
+		for(String line : lines)
+			found |= (line != null);
+		LookupEvents.lookup(file.getName(), "[" + keys.length + " keys]", found, start);
+		return lines;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -163,12 +250,34 @@ public class DataSourceDictionary implements IDataSourceDictionary {
 		checkOpen();
 		IContentType<IIndexWord> content = provider.resolveContentType(DataType.INDEX, id.getPOS());
 		IDataSource<?> file = provider.getSource(content);
-		String line = file.getLine(id.getLemma());
+		String line = getLine(file, id.getLemma());
 		if (line == null)
 			return null;
 		return content.getDataType().getParser().parseLine(line);
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see edu.mit.jwi.IDictionary#getIndexWords(java.util.List,
+	 *      edu.mit.jwi.item.POS)
+	 */
+	public List<IIndexWord> getIndexWords(List<String> lemmas, POS pos) {
+		checkOpen();
+		String[] keys = new String[lemmas.size()];
+		int i = 0;
+		for(String lemma : lemmas)
+			keys[i++] = new IndexWordID(lemma, pos).getLemma();
+		IContentType<IIndexWord> content = provider.resolveContentType(DataType.INDEX, pos);
+		String[] lines = getLines(provider.getSource(content), keys);
+		ILineParser<IIndexWord> parser = content.getDataType().getParser();
+		IIndexWord[] result = new IIndexWord[lines.length];
+		for(i = 0; i < lines.length; i++)
+			if(lines[i] != null)
+				result[i] = parser.parseLine(lines[i]);
+		return Arrays.asList(result);
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -251,7 +360,7 @@ public class DataSourceDictionary implements IDataSourceDictionary {
 		checkOpen();
 		IContentType<ISenseEntry> content = provider.resolveContentType(DataType.SENSE, null);
 		IDataSource<ISenseEntry> file = provider.getSource(content);
-		String line = file.getLine(key.toString());
+		String line = getLine(file, key.toString());
 		if (line == null) return null;
 		return content.getDataType().getParser().parseLine(line);
 	}
@@ -266,10 +375,64 @@ public class DataSourceDictionary implements IDataSourceDictionary {
 		IContentType<ISynset> content = provider.resolveContentType(DataType.DATA, id.getPOS());
 		IDataSource<ISynset> file = provider.getSource(content);
 		String zeroFilledOffset = Synset.zeroFillOffset(id.getOffset());
-		String line = file.getLine(zeroFilledOffset);
+		String line = getLine(file, zeroFilledOffset);
 		if(line == null) 
 			return null;
-		ISynset result = content.getDataType().getParser().parseLine(line);
+		return parseSynset(content, line);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see edu.mit.jwi.IDictionary#getSynsets(java.util.List)
+	 */
+	public List<ISynset> getSynsets(List<? extends ISynsetID> ids) {
+		checkOpen();
+		ISynset[] result = new ISynset[ids.size()];
+		
+		// one batch per data file
+		int[] counts = new int[POS.values().length];
+		for(ISynsetID id : ids)
+			counts[id.getPOS().ordinal()]++;
+		for(POS pos : POS.values()){
+			if(counts[pos.ordinal()] == 0)
+				continue;
+			String[] keys = new String[counts[pos.ordinal()]];
+			int[] positions = new int[keys.length];
+			int count = 0, i = 0;
+			for(ISynsetID id : ids){
+				if(id.getPOS() == pos){
+					keys[count] = Synset.zeroFillOffset(id.getOffset());
+					positions[count++] = i;
+				}
+				i++;
+			}
+			IContentType<ISynset> content = provider.resolveContentType(DataType.DATA, pos);
+			String[] lines = getLines(provider.getSource(content), keys);
+			for(int j = 0; j < lines.length; j++)
+				if(lines[j] != null)
+					result[positions[j]] = parseSynset(content, lines[j]);
+		}
+		return Arrays.asList(result);
+	}
+
+	/**
+	 * Parses the specified line of a data file into a synset, lazily if this
+	 * dictionary decodes synsets lazily, and sets its head word.
+	 * 
+	 * @param content
+	 *            the content type of the data file; may not be
+	 *            <code>null</code>
+	 * @param line
+	 *            the line to parse; may not be <code>null</code>
+	 * @return the synset of the line
+	 * @since JWI 2.4.0
+	 */
+	protected ISynset parseSynset(IContentType<ISynset> content, String line) {
+		ILineParser<ISynset> parser = content.getDataType().getParser();
+		if(decodingLazily && parser instanceof DataLineParser)
+			return ((DataLineParser)parser).parseLazily(line, headWordSetter);
+		ISynset result = parser.parseLine(line);
 		if(result != null) 
 			setHeadWord(result);
 		return result;
@@ -336,7 +499,7 @@ public class DataSourceDictionary implements IDataSourceDictionary {
 		// fix for bug 010
 		if(file == null) 
 			return null; 
-		String line = file.getLine(id.getSurfaceForm());
+		String line = getLine(file, id.getSurfaceForm());
 		if (line == null) 
 			return null;
 		IExceptionEntryProxy proxy = content.getDataType().getParser().parseLine(line);
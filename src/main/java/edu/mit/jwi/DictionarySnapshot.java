@@ -0,0 +1,986 @@
+/********************************************************************************
+ * Java Wordnet Interface Library (JWI) v2.4.0
+ * Top Level Tagger additions, Copyright (c) 2017 Lambda³
+ *
+ * JWI is distributed under the terms of the Creative Commons Attribution 4.0
+ * International Public License, which means it may be freely used for all
+ * purposes, as long as proper acknowledgment is made.  See the license file
+ * included with this distribution for more details.
+ *******************************************************************************/
+
+package edu.mit.jwi;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import edu.mit.jwi.CompactDictionary.CompactData;
+import edu.mit.jwi.CompactDictionary.Part;
+import edu.mit.jwi.CompactDictionary.StringPool;
+import edu.mit.jwi.RAMDictionary.DictionaryData;
+import edu.mit.jwi.item.IExceptionEntry;
+import edu.mit.jwi.item.IExceptionEntryID;
+import edu.mit.jwi.item.IIndexWord;
+import edu.mit.jwi.item.IIndexWordID;
+import edu.mit.jwi.item.ILexFile;
+import edu.mit.jwi.item.IPointer;
+import edu.mit.jwi.item.ISenseKey;
+import edu.mit.jwi.item.ISynset;
+import edu.mit.jwi.item.ISynsetID;
+import edu.mit.jwi.item.IVerbFrame;
+import edu.mit.jwi.item.IVersion;
+import edu.mit.jwi.item.IWord;
+import edu.mit.jwi.item.LexFile;
+import edu.mit.jwi.item.POS;
+import edu.mit.jwi.item.Pointer;
+import edu.mit.jwi.item.SenseEntry;
+import edu.mit.jwi.item.SynsetID;
+import edu.mit.jwi.item.UnknownLexFile;
+import edu.mit.jwi.item.VerbFrame;
+import edu.mit.jwi.item.Version;
+
+/**
+ * Reads and writes snapshots of in-memory dictionary data in a binary format.
+ * A snapshot holds the columns of a {@link CompactData}: a header with a magic
+ * number, the format version and the Wordnet version; the tables of pointers,
+ * lexical files and verb frames; the string pool; and the primitive arrays of
+ * each part of speech. Every array is written as its length, its elements in
+ * big-endian order, zero padding up to the next four-byte boundary, and the
+ * CRC-32 checksum of the elements, which is verified when the snapshot is
+ * read. The scalar values between the arrays, such as the Wordnet version and
+ * the table sizes, are checksummed together, and their checksum ends the
+ * snapshot.
+ * <p>
+ * Snapshots are read and written through NIO channels, in blocks, and loading
+ * one needs neither the Wordnet files nor Java deserialization. A snapshot
+ * can be turned back into the data of a {@link CompactDictionary}, or into
+ * the item maps of a {@link RAMDictionary}.
+ * <p>
+ * A snapshot file can also be mapped into memory with
+ * {@link #map(FileChannel, boolean)}, in which case the columns of the data
+ * are views of the mapped file rather than copies: opening the snapshot
+ * touches only its header, and the file is a read-only image that processes
+ * mapping it share through the operating system page cache.
+ *
+ * @version 2.4.0
+ * @since JWI 2.4.0
+ */
+public class DictionarySnapshot {
+
+	/**
+	 * The magic number that starts every snapshot, the ASCII characters
+	 * <code>JWIS</code>.
+	 *
+	 * @since JWI 2.4.0
+	 */
+	public static final int MAGIC = 0x4A574953;
+
+	/**
+	 * The version of the snapshot format written by this class. Snapshots of
+	 * any other version are rejected.
+	 *
+	 * @since JWI 2.4.0
+	 */
+	public static final int FORMAT_VERSION = 3;
+
+	// the size of the block buffers
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	// lexical file kinds
+	private static final byte STANDARD_LEX_FILE = 0;
+	private static final byte UNKNOWN_LEX_FILE = 1;
+	private static final byte OTHER_LEX_FILE = 2;
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	/**
+	 * This constructor is marked protected so that the class may be
+	 * sub-classed, but not directly instantiated. All methods are static.
+	 *
+	 * @since JWI 2.4.0
+	 */
+	protected DictionarySnapshot() {}
+
+	/**
+	 * Writes a snapshot of the specified data to the specified channel. The
+	 * channel is not closed.
+	 *
+	 * @param data
+	 *            the data to write; may not be <code>null</code>
+	 * @param channel
+	 *            the channel to write to; may not be <code>null</code>
+	 * @throws IOException
+	 *             if there is an error writing to the channel
+	 * @throws NullPointerException
+	 *             if either argument is <code>null</code>
+	 * @since JWI 2.4.0
+	 */
+	public static void write(CompactData data, WritableByteChannel channel) throws IOException {
+		if(data == null)
+			throw new NullPointerException();
+		Writer writer = new Writer(channel);
+		writer.integer(MAGIC);
+		writer.integer(FORMAT_VERSION);
+		transfer(data, writer);
+		writer.flush();
+	}
+
+	/**
+	 * Reads a snapshot from the specified channel. The channel is not closed.
+	 *
+	 * @param channel
+	 *            the channel to read from; may not be <code>null</code>
+	 * @return the data of the snapshot
+	 * @throws IOException
+	 *             if there is an error reading from the channel, if the
+	 *             channel does not hold a snapshot of the current format
+	 *             version, or if a checksum does not match
+	 * @throws NullPointerException
+	 *             if the specified channel is <code>null</code>
+	 * @since JWI 2.4.0
+	 */
+	public static CompactData read(ReadableByteChannel channel) throws IOException {
+		Reader reader = new Reader(channel);
+		if(!reader.readMagic())
+			throw new IOException("not a dictionary snapshot");
+		return read(reader);
+	}
+
+	/**
+	 * Maps the snapshot held by the specified file channel into memory, and
+	 * returns its data as views of the mapped file. The channel may be closed
+	 * once this method returns; the mapping stays valid until the data is
+	 * garbage collected.
+	 *
+	 * @param channel
+	 *            the channel of the snapshot file; may not be
+	 *            <code>null</code>
+	 * @param verifying
+	 *            whether to verify the checksums of the arrays, which reads the
+	 *            whole file; if <code>false</code>, only the structure of the
+	 *            snapshot is checked
+	 * @return the data of the snapshot
+	 * @throws IOException
+	 *             if there is an error mapping the file, if it does not hold a
+	 *             snapshot of the current format version, or if a checksum
+	 *             does not match
+	 * @throws NullPointerException
+	 *             if the specified channel is <code>null</code>
+	 * @since JWI 2.4.0
+	 */
+	public static CompactData map(FileChannel channel, boolean verifying) throws IOException {
+		MappedByteBuffer image = channel.map(MapMode.READ_ONLY, 0, channel.size());
+		return read(image, verifying);
+	}
+
+	/**
+	 * Reads the snapshot held in the specified buffer, from its position to
+	 * its limit, without copying its arrays. The position of the buffer is
+	 * not changed.
+	 *
+	 * @param image
+	 *            the buffer holding the snapshot; may not be
+	 *            <code>null</code>
+	 * @param verifying
+	 *            whether to verify the checksums of the arrays
+	 * @return the data of the snapshot, whose columns are views of the buffer
+	 * @throws IOException
+	 *             if the buffer does not hold a snapshot of the current format
+	 *             version, or if a checksum does not match
+	 * @throws NullPointerException
+	 *             if the specified buffer is <code>null</code>
+	 * @since JWI 2.4.0
+	 */
+	public static CompactData read(ByteBuffer image, boolean verifying) throws IOException {
+		MappedReader reader = new MappedReader(image, verifying);
+		if(!reader.readMagic())
+			throw new IOException("not a dictionary snapshot");
+		return read(reader);
+	}
+
+	/**
+	 * Reads the rest of a snapshot whose magic number has been read.
+	 */
+	static CompactData read(Codec reader) throws IOException {
+		int version = reader.integer(0);
+		if(version != FORMAT_VERSION)
+			throw new IOException("unsupported snapshot format version: " + version);
+		return transfer(null, reader);
+	}
+
+	/**
+	 * Writes the fields of the specified data to, or reads them from, the
+	 * specified codec. Writing and reading share this method, so that both
+	 * always visit the fields in the same order.
+	 *
+	 * @param data
+	 *            the data to write, or <code>null</code> when reading
+	 * @param codec
+	 *            the codec
+	 * @return the data written or read
+	 * @throws IOException
+	 *             if there is an error writing or reading
+	 * @since JWI 2.4.0
+	 */
+	protected static CompactData transfer(CompactData data, Codec codec) throws IOException {
+		boolean reading = (data == null);
+
+		// wordnet version
+		IVersion version = reading ? null : data.version;
+		boolean hasVersion = codec.scalar((version == null) ? 0 : 1) != 0;
+		if(hasVersion){
+			int major = codec.scalar(reading ? 0 : version.getMajorVersion());
+			int minor = codec.scalar(reading ? 0 : version.getMinorVersion());
+			int bugfix = codec.scalar(reading ? 0 : version.getBugfixVersion());
+			String qualifier = codec.string(reading ? null : version.getQualifier());
+			if(reading)
+				version = Version.getVersion(major, minor, bugfix, qualifier);
+		}
+
+		// pointers
+		IPointer[] pointers = new IPointer[codec.count(reading ? 0 : data.pointers.length)];
+		String symbol, name;
+		for(int i = 0; i < pointers.length; i++){
+			symbol = codec.string(reading ? null : data.pointers[i].getSymbol());
+			name = codec.string(reading ? null : data.pointers[i].getName());
+			pointers[i] = reading ? resolvePointer(symbol, name) : data.pointers[i];
+		}
+
+		// lexical files
+		ILexFile[] lexFiles = new ILexFile[codec.count(reading ? 0 : data.lexFiles.length)];
+		ILexFile lexFile;
+		for(int i = 0; i < lexFiles.length; i++){
+			lexFile = reading ? null : data.lexFiles[i];
+			lexFiles[i] = transferLexFile(lexFile, codec);
+		}
+
+		// verb frames
+		IVerbFrame[] frames = new IVerbFrame[codec.count(reading ? 0 : data.frames.length)];
+		int number;
+		String template;
+		for(int i = 0; i < frames.length; i++){
+			number = codec.scalar(reading ? 0 : data.frames[i].getNumber());
+			template = codec.string(reading ? null : data.frames[i].getTemplate());
+			frames[i] = reading ? resolveFrame(number, template) : data.frames[i];
+		}
+
+		// strings
+		StringPool strings = reading ? null : data.strings;
+		CharBuffer chars = codec.chars(reading ? null : strings.chars);
+		IntBuffer starts = codec.ints(reading ? null : strings.starts);
+		if(reading)
+			strings = new StringPool(chars, starts);
+
+		// parts of speech
+		Part[] parts = new Part[codec.count(reading ? 0 : data.parts.length)];
+		if(parts.length != POS.values().length)
+			throw new IOException("unexpected number of parts of speech: " + parts.length);
+		for(int i = 0; i < parts.length; i++)
+			parts[i] = transferPart(reading ? new Part(POS.values()[i]) : data.parts[i], codec);
+		IntBuffer senseEntries = codec.ints(reading ? null : data.senseEntries);
+		codec.scalarChecksum();
+
+		return reading ?
+				new CompactData(version, pointers, lexFiles, frames, strings, parts, senseEntries) :
+					data;
+	}
+
+	/**
+	 * Writes or reads the arrays of one part of speech.
+	 */
+	private static Part transferPart(Part part, Codec codec) throws IOException {
+		part.offsets = codec.ints(part.offsets);
+		part.synsetLexFiles = codec.bytes(part.synsetLexFiles);
+		part.synsetFlags = codec.bytes(part.synsetFlags);
+		part.glossStarts = codec.ints(part.glossStarts);
+		part.glosses = codec.bytes(part.glosses);
+		part.headLemmas = codec.ints(part.headLemmas);
+		part.headLexIDs = codec.bytes(part.headLexIDs);
+		part.wordStarts = codec.ints(part.wordStarts);
+		part.pointerStarts = codec.ints(part.pointerStarts);
+		part.pointerTypes = codec.bytes(part.pointerTypes);
+		part.pointerPOS = codec.bytes(part.pointerPOS);
+		part.pointerOffsets = codec.ints(part.pointerOffsets);
+		part.wordLemmas = codec.ints(part.wordLemmas);
+		part.wordLexIDs = codec.bytes(part.wordLexIDs);
+		part.wordMarkers = codec.bytes(part.wordMarkers);
+		part.frameStarts = codec.ints(part.frameStarts);
+		part.frames = codec.bytes(part.frames);
+		part.wordPointerStarts = codec.ints(part.wordPointerStarts);
+		part.wordPointerTypes = codec.bytes(part.wordPointerTypes);
+		part.wordPointerPOS = codec.bytes(part.wordPointerPOS);
+		part.wordPointerOffsets = codec.ints(part.wordPointerOffsets);
+		part.wordPointerNumbers = codec.bytes(part.wordPointerNumbers);
+		part.senseNumbers = codec.ints(part.senseNumbers);
+		part.tagCounts = codec.ints(part.tagCounts);
+		part.indexLemmas = codec.ints(part.indexLemmas);
+		part.indexTagSenseCounts = codec.ints(part.indexTagSenseCounts);
+		part.indexPointerStarts = codec.ints(part.indexPointerStarts);
+		part.indexPointerTypes = codec.bytes(part.indexPointerTypes);
+		part.indexWordStarts = codec.ints(part.indexWordStarts);
+		part.indexWordOffsets = codec.ints(part.indexWordOffsets);
+		part.indexWordNumbers = codec.bytes(part.indexWordNumbers);
+		part.indexTable = codec.ints(part.indexTable);
+		part.exceptionForms = codec.ints(part.exceptionForms);
+		part.exceptionRootStarts = codec.ints(part.exceptionRootStarts);
+		part.exceptionRoots = codec.ints(part.exceptionRoots);
+		part.exceptionTable = codec.ints(part.exceptionTable);
+		return part;
+	}
+
+	/**
+	 * Writes or reads a lexical file. Lexical files that are constants of
+	 * {@link LexFile} or {@link UnknownLexFile} are written as their numbers
+	 * and read back as the same constants.
+	 */
+	private static ILexFile transferLexFile(ILexFile lexFile, Codec codec) throws IOException {
+		boolean reading = (lexFile == null);
+		byte kind = OTHER_LEX_FILE;
+		if(!reading){
+			if(lexFile == LexFile.getLexicalFile(lexFile.getNumber()))
+				kind = STANDARD_LEX_FILE;
+			else if(lexFile == UnknownLexFile.getUnknownLexicalFile(lexFile.getNumber()))
+				kind = UNKNOWN_LEX_FILE;
+		}
+		kind = (byte)codec.scalar(kind);
+		int number = codec.scalar(reading ? 0 : lexFile.getNumber());
+		switch(kind){
+		case STANDARD_LEX_FILE:
+			return reading ? LexFile.getLexicalFile(number) : lexFile;
+		case UNKNOWN_LEX_FILE:
+			return reading ? UnknownLexFile.getUnknownLexicalFile(number) : lexFile;
+		case OTHER_LEX_FILE:
+			String name = codec.string(reading ? null : lexFile.getName());
+			String description = codec.string(reading ? null : lexFile.getDescription());
+			int pos = codec.scalar((reading || lexFile.getPOS() == null) ? -1 : lexFile.getPOS().ordinal());
+			return reading ? new LexFile(number, name, description, (pos < 0) ? null : POS.values()[pos]) : lexFile;
+		default:
+			throw new IOException("unknown lexical file kind: " + kind);
+		}
+	}
+
+	/**
+	 * Returns the pointer constant with the specified symbol and name, as
+	 * {@link Pointer} does on deserialization, or a new pointer if there is
+	 * none.
+	 */
+	private static IPointer resolvePointer(String symbol, String name) {
+		for(Pointer pointer : Pointer.values())
+			if(pointer.getSymbol().equals(symbol) && pointer.getName().equals(name))
+				return pointer;
+		return new Pointer(symbol, name);
+	}
+
+	/**
+	 * Returns the verb frame constant with the specified number and template,
+	 * or a new verb frame if there is none.
+	 */
+	private static IVerbFrame resolveFrame(int number, String template) {
+		VerbFrame frame = VerbFrame.getFrame(number);
+		return (frame != null && frame.getTemplate().equals(template)) ?
+				frame :
+					new VerbFrame(number, template);
+	}
+
+	/**
+	 * Builds the item maps of a {@link RAMDictionary} out of the specified
+	 * data. The maps hold the same items, in the same order, as those loaded
+	 * from the dictionary from which the data was made.
+	 *
+	 * @param data
+	 *            the data to convert; may not be <code>null</code>
+	 * @return the dictionary data holding the items
+	 * @throws NullPointerException
+	 *             if the specified data is <code>null</code>
+	 * @since JWI 2.4.0
+	 */
+	public static DictionaryData toDictionaryData(CompactData data) {
+		DictionaryData result = new DictionaryData();
+		result.version = data.version;
+
+		// the maps are made at their final sizes, and the synset ids are
+		// shared from the start, so that the data need not be compacted
+		ISynsetID[][] ids = new ISynsetID[data.parts.length][];
+		int wordCount = 0;
+		Part part;
+		for(int i = 0; i < data.parts.length; i++){
+			part = data.parts[i];
+			ids[i] = new ISynsetID[part.synsetCount()];
+			for(int j = 0; j < ids[i].length; j++)
+				ids[i][j] = new SynsetID(part.offsets.get(j), part.pos);
+			wordCount += part.wordLemmas.capacity();
+		}
+		result.words = result.makeMap(capacity(wordCount), null);
+		result.senses = result.makeMap(capacity(data.senseEntries.capacity()), null);
+
+		Map<ISynsetID, ISynset> synsets;
+		ISynset synset;
+		for(POS pos : POS.values()){
+			part = data.getPart(pos);
+			synsets = result.makeMap(capacity(part.synsetCount()), null);
+			result.synsets.put(pos, synsets);
+			for(int i = 0; i < part.synsetCount(); i++){
+				synset = data.makeSynset(part, i, ids);
+				synsets.put(synset.getID(), synset);
+				for(IWord word : synset.getWords())
+					result.words.put(word.getSenseKey(), word);
+			}
+		}
+
+		// index words share the word ids of the synsets
+		Map<IIndexWordID, IIndexWord> idxWords;
+		Map<IExceptionEntryID, IExceptionEntry> exceptions;
+		IIndexWord idxWord;
+		IExceptionEntry exception;
+		for(POS pos : POS.values()){
+			part = data.getPart(pos);
+			idxWords = result.makeMap(capacity(part.indexWordCount()), null);
+			result.idxWords.put(pos, idxWords);
+			for(int i = 0; i < part.indexWordCount(); i++){
+				idxWord = result.makeIndexWord(data.makeIndexWord(part, i));
+				idxWords.put(idxWord.getID(), idxWord);
+			}
+
+			exceptions = result.makeMap(capacity(part.exceptionCount()), null);
+			result.exceptions.put(pos, exceptions);
+			for(int i = 0; i < part.exceptionCount(); i++){
+				exception = data.makeExceptionEntry(part, i);
+				exceptions.put(exception.getID(), exception);
+			}
+		}
+
+		// sense entries, keyed by the sense keys of the words just made
+		int entry, word, synsetIndex;
+		ISenseKey key;
+		for(int i = 0; i < data.senseEntries.capacity(); i++){
+			entry = data.senseEntries.get(i);
+			part = data.parts[entry >>> CompactData.POS_SHIFT];
+			word = entry & CompactData.WORD_MASK;
+			synsetIndex = part.synsetOfWord(word);
+			synset = result.synsets.get(part.pos).get(ids[part.pos.ordinal()][synsetIndex]);
+			key = synset.getWord(word - part.wordStarts.get(synsetIndex) + 1).getSenseKey();
+			result.senses.put(key, new SenseEntry(key, part.offsets.get(synsetIndex), part.senseNumbers.get(word), part.tagCounts.get(word)));
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the initial capacity of a hash map that holds the specified
+	 * number of entries without being resized.
+	 */
+	private static int capacity(int size) {
+		return Math.max(16, (int)(size / 0.75f) + 1);
+	}
+
+	/**
+	 * Writes or reads the values of a snapshot. Each method writes the
+	 * specified value and returns it, or, when reading, ignores the specified
+	 * value and returns the value read. Buffers are written from, and read
+	 * into, their whole capacity.
+	 *
+	 * @since JWI 2.4.0
+	 */
+	protected static abstract class Codec {
+
+		protected final CRC32 crc = new CRC32();
+		protected final CRC32 scalars = new CRC32();
+
+		public abstract int integer(int value) throws IOException;
+
+		/**
+		 * Writes or reads an integer that is not part of an array, and adds
+		 * it to the checksum of the scalar values.
+		 */
+		public int scalar(int value) throws IOException {
+			int result = integer(value);
+			for(int shift = 24; shift >= 0; shift -= 8)
+				scalars.update(result >>> shift);
+			return result;
+		}
+
+		/**
+		 * Writes or reads the checksum of the scalar values, and, when
+		 * reading, compares it with the checksum of the values read.
+		 */
+		public void scalarChecksum() throws IOException {
+			int expected = (int)scalars.getValue();
+			if(integer(expected) != expected)
+				throw new IOException("corrupt snapshot: checksum mismatch");
+		}
+
+		public abstract IntBuffer ints(IntBuffer values) throws IOException;
+
+		public abstract ByteBuffer bytes(ByteBuffer values) throws IOException;
+
+		public abstract CharBuffer chars(CharBuffer values) throws IOException;
+
+		/**
+		 * Writes or reads a string, as the UTF-8 bytes of the string, or
+		 * a length of -1 for <code>null</code>.
+		 */
+		public String string(String value) throws IOException {
+			ByteBuffer bytes = bytes((value == null) ? null : ByteBuffer.wrap(value.getBytes(UTF8)));
+			return (bytes == null) ? null : UTF8.decode(bytes.duplicate()).toString();
+		}
+
+		/**
+		 * Returns the number of padding bytes that follow an array of the
+		 * specified number of bytes, so that the next array starts on a
+		 * four-byte boundary.
+		 */
+		protected static int padding(long length) {
+			return (int)(-length & 3);
+		}
+
+		/**
+		 * Writes or reads the number of entries of a table, and adds it to
+		 * the checksum of the scalar values. The tables are indexed by the
+		 * byte columns of the parts of speech, so none holds more than
+		 * {@link Byte#MAX_VALUE} + 1 entries.
+		 */
+		public int count(int value) throws IOException {
+			int result = scalar(value);
+			if(result < 0 || result > Byte.MAX_VALUE + 1)
+				throw new IOException("corrupt snapshot: bad table size " + result);
+			return result;
+		}
+
+		/**
+		 * Returns the number of bytes left to read, or -1 if it is not known.
+		 */
+		protected long remaining() throws IOException {
+			return -1;
+		}
+
+		/**
+		 * Checks an array length read from the snapshot, so that a corrupt
+		 * length is reported before an array of that length is allocated.
+		 */
+		protected int length(int length, int elementSize) throws IOException {
+			if(length < 0 || (long)length * elementSize > Integer.MAX_VALUE)
+				throw new IOException("corrupt snapshot: bad array length " + length);
+			long remaining = remaining();
+			if(remaining >= 0 && (long)length * elementSize > remaining)
+				throw new EOFException("truncated snapshot");
+			return length;
+		}
+
+		/**
+		 * Reads the checksum that follows an array and compares it with the
+		 * checksum of the array.
+		 */
+		protected void verify() throws IOException {
+			int expected = integer(0);
+			if(expected != (int)crc.getValue())
+				throw new IOException("corrupt snapshot: checksum mismatch");
+		}
+	}
+
+	/**
+	 * Writes a snapshot to a channel, in blocks of the buffer size.
+	 *
+	 * @since JWI 2.4.0
+	 */
+	protected static class Writer extends Codec {
+
+		private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+		private final WritableByteChannel channel;
+
+		public Writer(WritableByteChannel channel) {
+			if(channel == null)
+				throw new NullPointerException();
+			this.channel = channel;
+		}
+
+		public int integer(int value) throws IOException {
+			if(buffer.remaining() < 4)
+				flush();
+			buffer.putInt(value);
+			return value;
+		}
+
+		public IntBuffer ints(IntBuffer values) throws IOException {
+			int length = values.capacity();
+			integer(length);
+			crc.reset();
+			IntBuffer source = values.duplicate();
+			int count, position;
+			for(int offset = 0; offset < length; offset += count){
+				count = Math.min(length - offset, buffer.remaining() >> 2);
+				if(count == 0){
+					flush();
+					continue;
+				}
+				source.limit(offset + count).position(offset);
+				position = buffer.position();
+				buffer.asIntBuffer().put(source);
+				crc.update(buffer.array(), position, count << 2);
+				buffer.position(position + (count << 2));
+			}
+			integer((int)crc.getValue());
+			return values;
+		}
+
+		public ByteBuffer bytes(ByteBuffer values) throws IOException {
+			if(values == null){
+				integer(-1);
+				return null;
+			}
+			int length = values.capacity();
+			integer(length);
+			crc.reset();
+			ByteBuffer source = values.duplicate();
+			int count, position;
+			for(int offset = 0; offset < length; offset += count){
+				count = Math.min(length - offset, buffer.remaining());
+				if(count == 0){
+					flush();
+					continue;
+				}
+				source.limit(offset + count).position(offset);
+				position = buffer.position();
+				buffer.put(source);
+				crc.update(buffer.array(), position, count);
+			}
+			pad(length);
+			integer((int)crc.getValue());
+			return values;
+		}
+
+		public CharBuffer chars(CharBuffer values) throws IOException {
+			int length = values.capacity();
+			integer(length);
+			crc.reset();
+			CharBuffer source = values.duplicate();
+			int count, position;
+			for(int offset = 0; offset < length; offset += count){
+				count = Math.min(length - offset, buffer.remaining() >> 1);
+				if(count == 0){
+					flush();
+					continue;
+				}
+				source.limit(offset + count).position(offset);
+				position = buffer.position();
+				buffer.asCharBuffer().put(source);
+				crc.update(buffer.array(), position, count << 1);
+				buffer.position(position + (count << 1));
+			}
+			pad(2L * length);
+			integer((int)crc.getValue());
+			return values;
+		}
+
+		/**
+		 * Writes the zero bytes that align the end of an array of the
+		 * specified number of bytes.
+		 */
+		private void pad(long length) throws IOException {
+			int padding = padding(length);
+			if(buffer.remaining() < padding)
+				flush();
+			for(int i = 0; i < padding; i++)
+				buffer.put((byte)0);
+		}
+
+		/**
+		 * Writes out the contents of the buffer.
+		 */
+		public void flush() throws IOException {
+			buffer.flip();
+			while(buffer.hasRemaining())
+				channel.write(buffer);
+			buffer.clear();
+		}
+	}
+
+	/**
+	 * Reads a snapshot from a channel, in blocks of the buffer size, copying
+	 * its arrays onto the heap.
+	 *
+	 * @since JWI 2.4.0
+	 */
+	protected static class Reader extends Codec {
+
+		private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+		private final ReadableByteChannel channel;
+
+		public Reader(ReadableByteChannel channel) {
+			if(channel == null)
+				throw new NullPointerException();
+			this.channel = channel;
+			buffer.flip();
+		}
+
+		/**
+		 * Reads the first four bytes of the channel, and returns whether they
+		 * are the snapshot magic number. Returns <code>false</code> if the
+		 * channel holds fewer than four bytes.
+		 */
+		public boolean readMagic() throws IOException {
+			try {
+				return integer(0) == MAGIC;
+			} catch(EOFException e){
+				return false;
+			}
+		}
+
+		public int integer(int value) throws IOException {
+			require(4);
+			return buffer.getInt();
+		}
+
+		public IntBuffer ints(IntBuffer values) throws IOException {
+			int length = length(integer(0), 4);
+			int[] result = new int[initialLength(length, 4)];
+			crc.reset();
+			int count, position;
+			for(int offset = 0; offset < length; offset += count){
+				if(offset == result.length)
+					result = Arrays.copyOf(result, grownLength(result.length, length));
+				count = Math.min(result.length - offset, buffer.remaining() >> 2);
+				if(count == 0){
+					require(4);
+					continue;
+				}
+				position = buffer.position();
+				buffer.asIntBuffer().get(result, offset, count);
+				crc.update(buffer.array(), position, count << 2);
+				buffer.position(position + (count << 2));
+			}
+			verify();
+			return IntBuffer.wrap(result);
+		}
+
+		public ByteBuffer bytes(ByteBuffer values) throws IOException {
+			int length = integer(0);
+			if(length == -1)
+				return null;
+			byte[] result = new byte[initialLength(length(length, 1), 1)];
+			int count;
+			for(int offset = 0; offset < length; offset += count){
+				if(offset == result.length)
+					result = Arrays.copyOf(result, grownLength(result.length, length));
+				count = Math.min(result.length - offset, buffer.remaining());
+				if(count == 0){
+					require(1);
+					continue;
+				}
+				buffer.get(result, offset, count);
+			}
+			crc.reset();
+			crc.update(result, 0, result.length);
+			skip(padding(length));
+			verify();
+			return ByteBuffer.wrap(result);
+		}
+
+		public CharBuffer chars(CharBuffer values) throws IOException {
+			int length = length(integer(0), 2);
+			char[] result = new char[initialLength(length, 2)];
+			crc.reset();
+			int count, position;
+			for(int offset = 0; offset < length; offset += count){
+				if(offset == result.length)
+					result = Arrays.copyOf(result, grownLength(result.length, length));
+				count = Math.min(result.length - offset, buffer.remaining() >> 1);
+				if(count == 0){
+					require(2);
+					continue;
+				}
+				position = buffer.position();
+				buffer.asCharBuffer().get(result, offset, count);
+				crc.update(buffer.array(), position, count << 1);
+				buffer.position(position + (count << 1));
+			}
+			skip(padding(2L * length));
+			verify();
+			return CharBuffer.wrap(result);
+		}
+
+		/**
+		 * Returns the length of the array into which to start reading an array
+		 * of the specified length: the whole length if the channel knows its
+		 * size, which has been checked against the length, and otherwise one
+		 * buffer, grown as the elements arrive, so that a corrupt length read
+		 * from a stream ends the snapshot rather than the heap.
+		 */
+		private int initialLength(int length, int elementSize) throws IOException {
+			return (remaining() >= 0) ? length : Math.min(length, BUFFER_SIZE / elementSize);
+		}
+
+		/**
+		 * Returns the length to which to grow an array being read.
+		 */
+		private static int grownLength(int current, int length) {
+			return (int)Math.min(length, 2L * current);
+		}
+
+		/**
+		 * Returns the number of bytes left in the buffer and the channel, if
+		 * the channel knows its size.
+		 */
+		protected long remaining() throws IOException {
+			if(!(channel instanceof SeekableByteChannel))
+				return -1;
+			SeekableByteChannel seekable = (SeekableByteChannel)channel;
+			return seekable.size() - seekable.position() + buffer.remaining();
+		}
+
+		/**
+		 * Skips the specified number of padding bytes, which must be zero.
+		 */
+		private void skip(int count) throws IOException {
+			require(count);
+			for(int i = 0; i < count; i++)
+				if(buffer.get() != 0)
+					throw new IOException("corrupt snapshot: bad padding");
+		}
+
+		/**
+		 * Reads from the channel until at least the specified number of bytes
+		 * are available in the buffer.
+		 */
+		private void require(int count) throws IOException {
+			if(buffer.remaining() >= count)
+				return;
+			buffer.compact();
+			try {
+				while(buffer.position() < count)
+					if(channel.read(buffer) < 0)
+						throw new EOFException("truncated snapshot");
+			} finally {
+				buffer.flip();
+			}
+		}
+	}
+
+	/**
+	 * Reads a snapshot held in a buffer, usually a file mapped into memory.
+	 * The arrays of the snapshot are not copied: each is returned as a view
+	 * of the region of the buffer that holds it, so that the pages of a
+	 * mapped file are read in only when the dictionary touches them, and are
+	 * shared through the page cache by every process that maps the same file.
+	 *
+	 * @since JWI 2.4.0
+	 */
+	protected static class MappedReader extends Codec {
+
+		private final ByteBuffer image;
+		private final boolean verifying;
+
+		/**
+		 * Creates a reader over the specified image.
+		 *
+		 * @param image
+		 *            the buffer holding the snapshot, from its position to its
+		 *            limit; may not be <code>null</code>
+		 * @param verifying
+		 *            whether to compute and compare the checksum of every
+		 *            array, which reads the whole image
+		 * @throws NullPointerException
+		 *             if the specified image is <code>null</code>
+		 */
+		public MappedReader(ByteBuffer image, boolean verifying) {
+			this.image = image.slice();
+			this.verifying = verifying;
+		}
+
+		/**
+		 * Reads the first four bytes of the image, and returns whether they
+		 * are the snapshot magic number.
+		 */
+		public boolean readMagic() throws IOException {
+			try {
+				return integer(0) == MAGIC;
+			} catch(EOFException e){
+				return false;
+			}
+		}
+
+		public int integer(int value) throws IOException {
+			if(image.remaining() < 4)
+				throw new EOFException("truncated snapshot");
+			return image.getInt();
+		}
+
+		public IntBuffer ints(IntBuffer values) throws IOException {
+			int length = length(integer(0), 4);
+			ByteBuffer region = region(4L * length);
+			verify(region);
+			return region.asIntBuffer();
+		}
+
+		public ByteBuffer bytes(ByteBuffer values) throws IOException {
+			int length = integer(0);
+			if(length == -1)
+				return null;
+			ByteBuffer region = region(length(length, 1));
+			skip(padding(length));
+			verify(region);
+			return region;
+		}
+
+		public CharBuffer chars(CharBuffer values) throws IOException {
+			int length = length(integer(0), 2);
+			ByteBuffer region = region(2L * length);
+			skip(padding(2L * length));
+			verify(region);
+			return region.asCharBuffer();
+		}
+
+		/**
+		 * Returns the next region of the specified number of bytes of the
+		 * image, and moves past it.
+		 */
+		private ByteBuffer region(long length) throws IOException {
+			if(image.remaining() < length)
+				throw new EOFException("truncated snapshot");
+			int position = image.position();
+			ByteBuffer result = image.duplicate();
+			result.limit(position + (int)length);
+			image.position(position + (int)length);
+			return result.slice();
+		}
+
+		protected long remaining() {
+			return image.remaining();
+		}
+
+		/**
+		 * Skips the specified number of padding bytes, which must be zero.
+		 */
+		private void skip(int count) throws IOException {
+			ByteBuffer padding = region(count);
+			while(padding.hasRemaining())
+				if(padding.get() != 0)
+					throw new IOException("corrupt snapshot: bad padding");
+		}
+
+		/**
+		 * Reads the checksum that follows the specified region, and compares
+		 * it with the checksum of the region if this reader verifies them.
+		 */
+		private void verify(ByteBuffer region) throws IOException {
+			if(!verifying){
+				integer(0);
+				return;
+			}
+			crc.reset();
+			crc.update(region.duplicate());
+			verify();
+		}
+	}
+
+}
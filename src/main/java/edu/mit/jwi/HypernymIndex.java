@@ -0,0 +1,549 @@
+/********************************************************************************
+ * Java Wordnet Interface Library (JWI) v2.4.0
+ * Top Level Tagger additions, Copyright (c) 2017 Lambda³
+ *
+ * JWI is distributed under the terms of the Creative Commons Attribution 4.0
+ * International Public License, which means it may be freely used for all
+ * purposes, as long as proper acknowledgment is made.  See the license file
+ * included with this distribution for more details.
+ *******************************************************************************/
+
+package edu.mit.jwi;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import edu.mit.jwi.item.ISynset;
+import edu.mit.jwi.item.ISynsetID;
+import edu.mit.jwi.item.POS;
+import edu.mit.jwi.item.Pointer;
+import edu.mit.jwi.item.SynsetID;
+
+/**
+ * An index of the hypernym hierarchies of the nouns and verbs of a
+ * dictionary. For each synset, the index holds its <i>hypernym chain</i>: the
+ * synsets reached by repeatedly following the first hypernym of a synset, or,
+ * if it has none, its first instance hypernym, from the synset up to a synset
+ * without hypernyms. Should the chain come back to a synset already on it, as
+ * a few erroneous circular references in Wordnet do, it stops before that
+ * synset. The first synset of a chain, counted from the top, is its
+ * <i>root</i>, at depth zero, and the synset itself is at the depth of the
+ * synset.
+ * <p>
+ * The chains are built once, when the index is constructed, and are stored
+ * in primitive arrays, so that queries such as the ancestor of a synset at a
+ * given depth, whether one synset is an ancestor of another, or the first
+ * synset of a chain in a given set, take constant time and fetch no synsets
+ * from the dictionary. The index is immutable and may be queried from any
+ * number of threads.
+ *
+ * @version 2.4.0
+ * @since JWI 2.4.0
+ */
+public class HypernymIndex {
+
+	// final instance fields
+	private final Part[] parts = new Part[POS.values().length];
+
+	/**
+	 * Builds the index of the noun and verb hierarchies of the specified
+	 * dictionary, which must be open. Every noun and verb synset of the
+	 * dictionary is read once.
+	 *
+	 * @param dict
+	 *            the dictionary to index; may not be <code>null</code>
+	 * @throws NullPointerException
+	 *             if the specified dictionary is <code>null</code>
+	 * @since JWI 2.4.0
+	 */
+	public HypernymIndex(IDictionary dict) {
+		if(dict == null)
+			throw new NullPointerException();
+		parts[POS.NOUN.ordinal()] = new Part(dict, POS.NOUN);
+		parts[POS.VERB.ordinal()] = new Part(dict, POS.VERB);
+	}
+
+	/**
+	 * Returns the number of synsets of the specified part of speech in this
+	 * index.
+	 *
+	 * @param pos
+	 *            the part of speech; may not be <code>null</code>
+	 * @return the number of indexed synsets of the part of speech; zero for
+	 *         adjectives and adverbs
+	 * @throws NullPointerException
+	 *             if the specified part of speech is <code>null</code>
+	 * @since JWI 2.4.0
+	 */
+	public int getSynsetCount(POS pos) {
+		Part part = parts[pos.ordinal()];
+		return (part == null) ? 0 : part.offsets.length;
+	}
+
+	/**
+	 * Returns whether the specified synset is in this index.
+	 *
+	 * @param id
+	 *            the synset id; may not be <code>null</code>
+	 * @return <code>true</code> if the synset is a noun or verb synset of the
+	 *         indexed dictionary; <code>false</code> otherwise
+	 * @throws NullPointerException
+	 *             if the specified id is <code>null</code>
+	 * @since JWI 2.4.0
+	 */
+	public boolean contains(ISynsetID id) {
+		Part part = parts[id.getPOS().ordinal()];
+		return part != null && part.indexOf(id.getOffset()) >= 0;
+	}
+
+	/**
+	 * Returns the depth of the specified synset, that is, the number of steps
+	 * from the root of its hypernym chain down to the synset.
+	 *
+	 * @param id
+	 *            the synset id; may not be <code>null</code>
+	 * @return the depth of the synset, zero if it has no hypernyms, or -1 if
+	 *         it is not in this index
+	 * @throws NullPointerException
+	 *             if the specified id is <code>null</code>
+	 * @since JWI 2.4.0
+	 */
+	public int getDepth(ISynsetID id) {
+		Part part = parts[id.getPOS().ordinal()];
+		int index = (part == null) ? -1 : part.indexOf(id.getOffset());
+		return (index < 0) ? -1 : part.depth(index);
+	}
+
+	/**
+	 * Returns the hypernym that follows the specified synset on its hypernym
+	 * chain: its first hypernym, or, if it has none, its first instance
+	 * hypernym.
+	 *
+	 * @param id
+	 *            the synset id; may not be <code>null</code>
+	 * @return the next synset up the hypernym chain, or <code>null</code> if
+	 *         the synset is the root of its chain or is not in this index
+	 * @throws NullPointerException
+	 *             if the specified id is <code>null</code>
+	 * @since JWI 2.4.0
+	 */
+	public ISynsetID getHypernym(ISynsetID id) {
+		int depth = getDepth(id);
+		return (depth < 1) ? null : getAncestor(id, depth - 1);
+	}
+
+	/**
+	 * Returns the synset at the specified depth of the hypernym chain of the
+	 * specified synset.
+	 *
+	 * @param id
+	 *            the synset id; may not be <code>null</code>
+	 * @param depth
+	 *            the depth of the ancestor, between zero, for the root of the
+	 *            chain, and the depth of the synset, for the synset itself
+	 * @return the ancestor at the depth, or <code>null</code> if the depth is
+	 *         out of range or the synset is not in this index
+	 * @throws NullPointerException
+	 *             if the specified id is <code>null</code>
+	 * @since JWI 2.4.0
+	 */
+	public ISynsetID getAncestor(ISynsetID id, int depth) {
+		Part part = parts[id.getPOS().ordinal()];
+		int index = (part == null) ? -1 : part.indexOf(id.getOffset());
+		if(index < 0 || depth < 0 || depth > part.depth(index))
+			return null;
+		return part.makeID(part.chains[part.chainStarts[index] + depth]);
+	}
+
+	/**
+	 * Returns the root of the hypernym chain of the specified synset.
+	 *
+	 * @param id
+	 *            the synset id; may not be <code>null</code>
+	 * @return the root of the chain, which is the synset itself if it has no
+	 *         hypernyms, or <code>null</code> if the synset is not in this
+	 *         index
+	 * @throws NullPointerException
+	 *             if the specified id is <code>null</code>
+	 * @since JWI 2.4.0
+	 */
+	public ISynsetID getRoot(ISynsetID id) {
+		return getAncestor(id, 0);
+	}
+
+	/**
+	 * Returns the hypernym chain of the specified synset, from its root down
+	 * to the synset itself.
+	 *
+	 * @param id
+	 *            the synset id; may not be <code>null</code>
+	 * @return an unmodifiable list of the synsets of the chain, which is empty
+	 *         if the synset is not in this index
+	 * @throws NullPointerException
+	 *             if the specified id is <code>null</code>
+	 * @since JWI 2.4.0
+	 */
+	public List<ISynsetID> getChain(ISynsetID id) {
+		Part part = parts[id.getPOS().ordinal()];
+		int index = (part == null) ? -1 : part.indexOf(id.getOffset());
+		if(index < 0)
+			return Collections.emptyList();
+		List<ISynsetID> result = new ArrayList<ISynsetID>(part.depth(index) + 1);
+		for(int i = part.chainStarts[index]; i < part.chainStarts[index + 1]; i++)
+			result.add(part.makeID(part.chains[i]));
+		return Collections.unmodifiableList(result);
+	}
+
+	/**
+	 * Returns whether the first specified synset is on the hypernym chain of
+	 * the second, above it. A synset is not its own ancestor.
+	 *
+	 * @param ancestor
+	 *            the candidate ancestor; may not be <code>null</code>
+	 * @param id
+	 *            the synset whose chain is searched; may not be
+	 *            <code>null</code>
+	 * @return <code>true</code> if the first synset is a proper ancestor of
+	 *         the second; <code>false</code> otherwise
+	 * @throws NullPointerException
+	 *             if either argument is <code>null</code>
+	 * @since JWI 2.4.0
+	 */
+	public boolean isAncestor(ISynsetID ancestor, ISynsetID id) {
+		if(ancestor.getPOS() != id.getPOS())
+			return false;
+		Part part = parts[id.getPOS().ordinal()];
+		if(part == null)
+			return false;
+		int index = part.indexOf(id.getOffset());
+		int target = part.indexOf(ancestor.getOffset());
+		if(index < 0 || target < 0 || index == target)
+			return false;
+		int start = part.chainStarts[index];
+		int depth = part.depth(target);
+
+		// in a regular chain, every ancestor sits at its own depth
+		if(!part.irregular[index])
+			return depth < part.depth(index) && part.chains[start + depth] == target;
+		for(int i = start; i < part.chainStarts[index + 1] - 1; i++)
+			if(part.chains[i] == target)
+				return true;
+		return false;
+	}
+
+	/**
+	 * Returns the number of steps up the hypernym chain of the second
+	 * specified synset to the first. This is the difference of their depths,
+	 * except in chains cut short at a circular reference.
+	 *
+	 * @param ancestor
+	 *            the ancestor; may not be <code>null</code>
+	 * @param id
+	 *            the synset whose chain is searched; may not be
+	 *            <code>null</code>
+	 * @return the number of steps from the synset up to the ancestor, zero
+	 *         if they are the same synset, or -1 if the ancestor is not on
+	 *         the chain of the synset or either is not in this index
+	 * @throws NullPointerException
+	 *             if either argument is <code>null</code>
+	 * @since JWI 2.4.0
+	 */
+	public int getDistance(ISynsetID ancestor, ISynsetID id) {
+		if(ancestor.getPOS() != id.getPOS())
+			return -1;
+		Part part = parts[id.getPOS().ordinal()];
+		if(part == null)
+			return -1;
+		int index = part.indexOf(id.getOffset());
+		int target = part.indexOf(ancestor.getOffset());
+		if(index < 0 || target < 0)
+			return -1;
+		int start = part.chainStarts[index];
+		int depth = part.depth(target);
+
+		// in a regular chain, every ancestor sits at its own depth
+		if(!part.irregular[index])
+			return (depth <= part.depth(index) && part.chains[start + depth] == target) ? part.depth(index) - depth : -1;
+		int end = part.chainStarts[index + 1] - 1;
+		for(int i = end; i >= start; i--)
+			if(part.chains[i] == target)
+				return end - i;
+		return -1;
+	}
+
+	/**
+	 * Returns the first synset of the hypernym chain of the specified synset
+	 * that is in the specified set, starting with the synset itself and
+	 * moving up toward the root. This takes constant time.
+	 *
+	 * @param id
+	 *            the synset id; may not be <code>null</code>
+	 * @param set
+	 *            the set to search for, made by {@link #compile(Collection)}
+	 *            on this index; may not be <code>null</code>
+	 * @return the nearest synset of the chain in the set, or
+	 *         <code>null</code> if there is none or the synset is not in
+	 *         this index
+	 * @throws NullPointerException
+	 *             if either argument is <code>null</code>
+	 * @throws IllegalArgumentException
+	 *             if the set was not made by this index
+	 * @since JWI 2.4.0
+	 */
+	public ISynsetID findFirst(ISynsetID id, SynsetSet set) {
+		if(set.index != this)
+			throw new IllegalArgumentException("set was compiled by another index");
+		Part part = parts[id.getPOS().ordinal()];
+		int index = (part == null) ? -1 : part.indexOf(id.getOffset());
+		if(index < 0)
+			return null;
+		int result = set.first[id.getPOS().ordinal()][index];
+		return (result < 0) ? null : part.makeID(result);
+	}
+
+	/**
+	 * Returns the first synset of the hypernym chain of the specified synset
+	 * that is in the specified set, starting with the synset itself and
+	 * moving up toward the root. This takes time proportional to the depth
+	 * of the synset; sets that are searched repeatedly should be compiled
+	 * with {@link #compile(Collection)} and searched with
+	 * {@link #findFirst(ISynsetID, SynsetSet)}.
+	 *
+	 * @param id
+	 *            the synset id; may not be <code>null</code>
+	 * @param set
+	 *            the set to search for; may not be <code>null</code>
+	 * @return the nearest synset of the chain in the set, or
+	 *         <code>null</code> if there is none or the synset is not in
+	 *         this index
+	 * @throws NullPointerException
+	 *             if either argument is <code>null</code>
+	 * @since JWI 2.4.0
+	 */
+	public ISynsetID findFirst(ISynsetID id, Set<? extends ISynsetID> set) {
+		if(set == null)
+			throw new NullPointerException();
+		Part part = parts[id.getPOS().ordinal()];
+		int index = (part == null) ? -1 : part.indexOf(id.getOffset());
+		if(index < 0)
+			return null;
+		ISynsetID ancestor;
+		for(int i = part.chainStarts[index + 1] - 1; i >= part.chainStarts[index]; i--){
+			ancestor = part.makeID(part.chains[i]);
+			if(set.contains(ancestor))
+				return ancestor;
+		}
+		return null;
+	}
+
+	/**
+	 * Compiles the specified synsets into a set that can be searched for in
+	 * constant time by {@link #findFirst(ISynsetID, SynsetSet)}. Synsets
+	 * that are not in this index are ignored. Compiling takes time
+	 * proportional to the total length of the chains of the index.
+	 *
+	 * @param ids
+	 *            the synsets of the set; may not be <code>null</code>
+	 * @return the compiled set
+	 * @throws NullPointerException
+	 *             if the specified collection is <code>null</code>
+	 * @since JWI 2.4.0
+	 */
+	public SynsetSet compile(Collection<? extends ISynsetID> ids) {
+		boolean[][] members = new boolean[parts.length][];
+		for(Part part : parts)
+			if(part != null)
+				members[part.pos.ordinal()] = new boolean[part.offsets.length];
+		Part part;
+		int index;
+		for(ISynsetID id : ids){
+			part = parts[id.getPOS().ordinal()];
+			index = (part == null) ? -1 : part.indexOf(id.getOffset());
+			if(index >= 0)
+				members[part.pos.ordinal()][index] = true;
+		}
+
+		int[][] first = new int[parts.length][];
+		int[] result;
+		boolean[] member;
+		for(Part p : parts){
+			if(p == null)
+				continue;
+			member = members[p.pos.ordinal()];
+			result = new int[p.offsets.length];
+			Arrays.fill(result, -1);
+			for(int i = 0; i < result.length; i++){
+				for(int j = p.chainStarts[i + 1] - 1; j >= p.chainStarts[i]; j--){
+					if(member[p.chains[j]]){
+						result[i] = p.chains[j];
+						break;
+					}
+				}
+			}
+			first[p.pos.ordinal()] = result;
+		}
+		return new SynsetSet(this, members, first);
+	}
+
+	/**
+	 * Returns the approximate number of bytes taken by the arrays of this
+	 * index.
+	 *
+	 * @return the size of this index, in bytes
+	 * @since JWI 2.4.0
+	 */
+	public long getByteCount() {
+		long result = 0;
+		for(Part part : parts)
+			if(part != null)
+				result += 64 + 4L * (part.offsets.length + part.chainStarts.length + part.chains.length) + part.irregular.length;
+		return result;
+	}
+
+	/**
+	 * A set of synsets compiled against a {@link HypernymIndex}, which holds,
+	 * for each synset of the index, the first synset of its hypernym chain
+	 * that is in the set.
+	 *
+	 * @version 2.4.0
+	 * @since JWI 2.4.0
+	 */
+	public static class SynsetSet {
+
+		// final instance fields
+		private final HypernymIndex index;
+		private final boolean[][] members;
+		private final int[][] first;
+
+		/**
+		 * Constructs a compiled set. Sets are made by
+		 * {@link HypernymIndex#compile(Collection)}.
+		 */
+		SynsetSet(HypernymIndex index, boolean[][] members, int[][] first) {
+			this.index = index;
+			this.members = members;
+			this.first = first;
+		}
+
+		/**
+		 * Returns whether the specified synset is in this set.
+		 *
+		 * @param id
+		 *            the synset id; may not be <code>null</code>
+		 * @return <code>true</code> if the synset is in this set;
+		 *         <code>false</code> otherwise
+		 * @throws NullPointerException
+		 *             if the specified id is <code>null</code>
+		 * @since JWI 2.4.0
+		 */
+		public boolean contains(ISynsetID id) {
+			Part part = index.parts[id.getPOS().ordinal()];
+			int i = (part == null) ? -1 : part.indexOf(id.getOffset());
+			return i >= 0 && members[id.getPOS().ordinal()][i];
+		}
+	}
+
+	/**
+	 * The chains of the synsets of one part of speech. Synsets are identified
+	 * by their positions in the sorted array of offsets; the chain of the
+	 * synset at position <code>i</code> is stored, root first, between
+	 * <code>chainStarts[i]</code> and <code>chainStarts[i + 1]</code> of the
+	 * chain array.
+	 */
+	private static final class Part {
+
+		final POS pos;
+		final int[] offsets;
+		final int[] chainStarts;
+		final int[] chains;
+
+		// chains in which some ancestor is not at its own depth, because the
+		// chain was cut short at a circular reference
+		final boolean[] irregular;
+
+		Part(IDictionary dict, POS pos) {
+			this.pos = pos;
+
+			// offsets, and the offset of the first hypernym of each synset
+			int[] offsets = new int[1024];
+			int[] hypernyms = new int[1024];
+			int count = 0;
+			List<ISynsetID> targets;
+			ISynset synset;
+			for(Iterator<ISynset> i = dict.getSynsetIterator(pos); i.hasNext(); ){
+				synset = i.next();
+				if(count == offsets.length){
+					offsets = Arrays.copyOf(offsets, 2 * count);
+					hypernyms = Arrays.copyOf(hypernyms, 2 * count);
+				}
+				targets = synset.getRelatedSynsets(Pointer.HYPERNYM);
+				if(targets.isEmpty())
+					targets = synset.getRelatedSynsets(Pointer.HYPERNYM_INSTANCE);
+				offsets[count] = synset.getOffset();
+				hypernyms[count] = (targets.isEmpty() || targets.get(0).getPOS() != pos) ? -1 : targets.get(0).getOffset();
+				count++;
+			}
+
+			// the synset iterators of some dictionaries are not in offset order
+			long[] pairs = new long[count];
+			for(int i = 0; i < count; i++)
+				pairs[i] = (long)offsets[i] << 32 | (hypernyms[i] & 0xFFFFFFFFL);
+			Arrays.sort(pairs);
+			this.offsets = new int[count];
+			for(int i = 0; i < count; i++)
+				this.offsets[i] = (int)(pairs[i] >>> 32);
+			int[] parents = new int[count];
+			for(int i = 0; i < count; i++)
+				parents[i] = ((int)pairs[i] < 0) ? -1 : indexOf((int)pairs[i]);
+
+			// walk up from each synset, stopping before a synset seen twice
+			int[] seen = new int[count];
+			int[] chain = new int[16];
+			int[] chains = new int[4 * count];
+			int[] chainStarts = new int[count + 1];
+			int length, size = 0;
+			for(int i = 0; i < count; i++){
+				length = 0;
+				for(int j = i; j >= 0 && seen[j] != i + 1; j = parents[j]){
+					seen[j] = i + 1;
+					if(length == chain.length)
+						chain = Arrays.copyOf(chain, 2 * length);
+					chain[length++] = j;
+				}
+				if(size + length > chains.length)
+					chains = Arrays.copyOf(chains, Math.max(2 * chains.length, size + length));
+				chainStarts[i] = size;
+				for(int k = length - 1; k >= 0; k--)
+					chains[size++] = chain[k];
+			}
+			chainStarts[count] = size;
+			this.chainStarts = chainStarts;
+			this.chains = Arrays.copyOf(chains, size);
+
+			this.irregular = new boolean[count];
+			for(int i = 0; i < count; i++)
+				for(int j = chainStarts[i]; j < chainStarts[i + 1]; j++)
+					if(depth(this.chains[j]) != j - chainStarts[i])
+						irregular[i] = true;
+		}
+
+		int indexOf(int offset) {
+			int result = Arrays.binarySearch(offsets, offset);
+			return (result < 0) ? -1 : result;
+		}
+
+		int depth(int index) {
+			return chainStarts[index + 1] - chainStarts[index] - 1;
+		}
+
+		ISynsetID makeID(int index) {
+			return new SynsetID(offsets[index], pos);
+		}
+	}
+
+}
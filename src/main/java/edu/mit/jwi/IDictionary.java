@@ -11,7 +11,9 @@
 package edu.mit.jwi;
 
 import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 
 import edu.mit.jwi.data.IHasCharset;
 import edu.mit.jwi.data.IHasLifecycle;
@@ -94,6 +96,39 @@ public interface IDictionary extends IHasVersion, IHasLifecycle, IHasCharset {
 	 */
 	public IIndexWord getIndexWord(IIndexWordID id);
 
+	/**
+	 * Retrieves the index words for the specified lemmas, all of the same
+	 * part of speech. The result is the same as calling
+	 * {@link #getIndexWord(String, POS)} for each lemma in turn, but
+	 * dictionaries that search files may resolve the lemmas together, in file
+	 * order, touching fewer parts of the file than separate lookups would.
+	 * As with the single lookup, no stemming is done on the lemmas. The
+	 * default implementation makes the separate lookups.
+	 * 
+	 * @param lemmas
+	 *            the lemmas for the index words requested; may not be
+	 *            <code>null</code>, and none may be <code>null</code>, empty,
+	 *            or all whitespace
+	 * @param pos
+	 *            the part of speech; may not be <code>null</code>
+	 * @return a list holding, at the position of each lemma, its index word,
+	 *         or <code>null</code> if none is found
+	 * @throws NullPointerException
+	 *             if either argument is, or the list contains,
+	 *             <code>null</code>
+	 * @throws IllegalArgumentException
+	 *             if one of the lemmas is empty or all whitespace
+	 * @since JWI 2.4.0
+	 */
+	public default List<IIndexWord> getIndexWords(List<String> lemmas, POS pos) {
+		if(pos == null)
+			throw new NullPointerException();
+		List<IIndexWord> result = new ArrayList<IIndexWord>(lemmas.size());
+		for(String lemma : lemmas)
+			result.add(getIndexWord(lemma, pos));
+		return result;
+	}
+
 	/**
 	 * Returns an iterator that will iterate over all index words of the
 	 * specified part of speech.
@@ -150,6 +185,28 @@ public interface IDictionary extends IHasVersion, IHasLifecycle, IHasCharset {
 	 */
 	public ISynset getSynset(ISynsetID id);
 
+	/**
+	 * Retrieves the synsets with the specified ids. The result is the same as
+	 * calling {@link #getSynset(ISynsetID)} for each id in turn, but
+	 * dictionaries that read files may resolve the ids together, in file
+	 * order. The default implementation makes the separate lookups.
+	 * 
+	 * @param ids
+	 *            the ids of the synsets to search for; may not be
+	 *            <code>null</code> or contain <code>null</code>
+	 * @return a list holding, at the position of each id, its synset, or
+	 *         <code>null</code> if none is found
+	 * @throws NullPointerException
+	 *             if the specified list is, or contains, <code>null</code>
+	 * @since JWI 2.4.0
+	 */
+	public default List<ISynset> getSynsets(List<? extends ISynsetID> ids) {
+		List<ISynset> result = new ArrayList<ISynset>(ids.size());
+		for(ISynsetID id : ids)
+			result.add(getSynset(id));
+		return result;
+	}
+
 	/**
 	 * Returns an iterator that will iterate over all synsets of the specified
 	 * part of speech.
@@ -0,0 +1,114 @@
+/********************************************************************************
+ * Java Wordnet Interface Library (JWI) v2.4.0
+ * Top Level Tagger additions, Copyright (c) 2017 Lambda³
+ *
+ * JWI is distributed under the terms of the Creative Commons Attribution 4.0 
+ * International Public License, which means it may be freely used for all 
+ * purposes, as long as proper acknowledgment is made.  See the license file 
+ * included with this distribution for more details.
+ *******************************************************************************/
+
+package edu.mit.jwi;
+
+/**
+ * Reports slow data source lookups as Java Flight Recorder events. The event
+ * class is kept in the separate {@code src/main/jfr} source directory, which
+ * is only compiled when building on JDK 11 or later. When it was not
+ * compiled, or the running JDK does not provide the {@code jdk.jfr} API
+ * (e.g., Java 8 builds before 8u262), every method of this class is a no-op.
+ * <p>
+ * A lookup is reported when it takes at least the number of microseconds given
+ * by the system property {@value #THRESHOLD_PROPERTY} (default
+ * {@value #DEFAULT_THRESHOLD_MICROS}), and the event is enabled in the active
+ * recording.
+ * 
+ * @version 2.4.0
+ * @since JWI 2.4.0
+ */
+public final class LookupEvents {
+	
+	/**
+	 * The system property holding the slow lookup threshold, in microseconds.
+	 *
+	 * @since JWI 2.4.0
+	 */
+	public static final String THRESHOLD_PROPERTY = "edu.mit.jwi.slowLookupMicros";
+	
+	/**
+	 * The default slow lookup threshold, in microseconds.
+	 *
+	 * @since JWI 2.4.0
+	 */
+	public static final long DEFAULT_THRESHOLD_MICROS = 1000;
+	
+	private static final Recorder recorder = createRecorder();
+	private static final long thresholdNanos = Long.getLong(THRESHOLD_PROPERTY, DEFAULT_THRESHOLD_MICROS) * 1000L;
+	
+	// no instances
+	private LookupEvents(){}
+	
+	/**
+	 * Returns <code>true</code> if flight recorder events are supported by the
+	 * running JDK; <code>false</code> otherwise.
+	 * 
+	 * @return <code>true</code> if events can be emitted
+	 * @since JWI 2.4.0
+	 */
+	public static boolean isSupported(){
+		return recorder != null;
+	}
+	
+	/**
+	 * Records a finished lookup, emitting an event if it was slower than the
+	 * threshold.
+	 * 
+	 * @param source
+	 *            the name of the data source that was searched, e.g.,
+	 *            "index.noun"
+	 * @param key
+	 *            the key that was searched for
+	 * @param found
+	 *            whether a line was found for the key
+	 * @param startNanos
+	 *            the value of {@link System#nanoTime()} when the lookup started
+	 * @since JWI 2.4.0
+	 */
+	public static void lookup(String source, String key, boolean found, long startNanos){
+		if(recorder == null)
+			return;
+		long nanos = System.nanoTime() - startNanos;
+		if(nanos >= thresholdNanos)
+			recorder.lookup(source, key, found, nanos);
+	}
+	
+	/**
+	 * Instantiates the flight recorder backed recorder, if the JDK supports it.
+	 * The implementation is loaded reflectively so that this class compiles
+	 * and links on JDKs without the {@code jdk.jfr} module.
+	 */
+	private static Recorder createRecorder(){
+		try {
+			Class.forName("jdk.jfr.Event");
+			return (Recorder)Class.forName("edu.mit.jwi.DictionaryLookupEvent$FlightRecorder").getDeclaredConstructor().newInstance();
+		} catch (Throwable t) {
+			return null;
+		}
+	}
+	
+	/**
+	 * The sink for slow lookups.
+	 *
+	 * @since JWI 2.4.0
+	 */
+	interface Recorder {
+		
+		/**
+		 * Emits an event for the specified lookup.
+		 *
+		 * @since JWI 2.4.0
+		 */
+		public void lookup(String source, String key, boolean found, long nanos);
+		
+	}
+
+}
@@ -11,29 +11,41 @@
 package edu.mit.jwi;
 
 import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.io.OutputStream;
 import java.io.Serializable;
 import java.net.URL;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
 
+import edu.mit.jwi.CompactDictionary.CompactData;
 import edu.mit.jwi.data.FileProvider;
 import edu.mit.jwi.data.ILoadPolicy;
 import edu.mit.jwi.item.ExceptionEntryID;
@@ -99,6 +111,7 @@ public class RAMDictionary implements IRAMDictionary {
 	protected transient Thread loader;
 	protected int loadPolicy;
 	protected DictionaryData data;
+	protected volatile DataLoader dataLoader;
 	
 	/**
 	 * Constructs a new wrapper RAM dictionary that will load the contents the
@@ -238,6 +251,19 @@ public class RAMDictionary implements IRAMDictionary {
 					ILoadPolicy.IMMEDIATE_LOAD;
 	}
 
+	/**
+	 * Returns the loader that loaded, or is loading, the data of this
+	 * dictionary from its backing dictionary. The loader records the time
+	 * spent in each phase of the load.
+	 * 
+	 * @return the data loader of this dictionary; <code>null</code> if the
+	 *         dictionary has not started loading from a backing dictionary
+	 * @since JWI 2.4.0
+	 */
+	public DataLoader getDataLoader() {
+		return dataLoader;
+	}
+
 	/**
 	 * Returns the dictionary that backs this instance.
 	 * 
@@ -423,12 +449,8 @@ public class RAMDictionary implements IRAMDictionary {
 	 * @see edu.mit.jwi.IHasLifecycle#isOpen()
 	 */
 	public boolean isOpen() {
-		try {
-			lifecycleLock.lock();
-			return state == LifecycleState.OPEN;
-		} finally {
-			lifecycleLock.unlock();
-		}
+		// the state is volatile, so lookups can check it without the lock
+		return state == LifecycleState.OPEN;
 	}
 
 	/* 
@@ -507,22 +529,39 @@ public class RAMDictionary implements IRAMDictionary {
 	 * @see edu.mit.jwi.IRAMDictionary#export(java.io.OutputStream)
 	 */
 	public void export(OutputStream out) throws IOException {
+		WritableByteChannel channel = Channels.newChannel(out);
+		export(channel);
+		channel.close();
+	}
+
+	/**
+	 * Exports the in-memory contents of this dictionary to the specified
+	 * channel, as a {@link DictionarySnapshot}. Unlike
+	 * {@link #export(OutputStream)}, this method does not close the channel.
+	 * 
+	 * @param channel
+	 *            the channel to which the in-memory data will be written; may
+	 *            not be <code>null</code>
+	 * @throws IOException
+	 *             if there is a problem writing the in-memory data to the
+	 *             channel.
+	 * @throws IllegalStateException
+	 *             if the dictionary has not been loaded into memory
+	 * @throws NullPointerException
+	 *             if the channel is <code>null</code>
+	 * @since JWI 2.4.0
+	 */
+	public void export(WritableByteChannel channel) throws IOException {
+		if(channel == null)
+			throw new NullPointerException();
 		try{
 			loadLock.lock();
 			if(!isLoaded())
 				throw new IllegalStateException("RAMDictionary not loaded into memory");
-			
-			out = new GZIPOutputStream(out);
-			out = new BufferedOutputStream(out);
-			ObjectOutputStream oos = new ObjectOutputStream(out);
-			
-			oos.writeObject(data);
-			oos.flush();
-			oos.close();
+			DictionarySnapshot.write(CompactData.load(this), channel);
 		} finally {
 			loadLock.unlock();
 		}
-
 	}
 
 	/* 
@@ -531,10 +570,11 @@ public class RAMDictionary implements IRAMDictionary {
 	 * @see edu.mit.jwi.item.IHasVersion#getVersion()
 	 */
 	public IVersion getVersion() {
-		if(backing != null)
-			return backing.getVersion();
+		// the backing dictionary is closed once the data is loaded
 		if(data != null)
 			return data.version;
+		if(backing != null)
+			return backing.getVersion();
 		return null;
 	}
 
@@ -560,6 +600,18 @@ public class RAMDictionary implements IRAMDictionary {
 		}
 	}
 
+	/* 
+	 * (non-Javadoc) 
+	 *
+	 * @see edu.mit.jwi.IDictionary#getIndexWords(java.util.List, edu.mit.jwi.item.POS)
+	 */
+	public List<IIndexWord> getIndexWords(List<String> lemmas, POS pos) {
+		// until loaded, let the backing dictionary resolve the lemmas together
+		if(data == null)
+			return backing.getIndexWords(lemmas, pos);
+		return IRAMDictionary.super.getIndexWords(lemmas, pos);
+	}
+
 	/* 
 	 * (non-Javadoc) 
 	 *
@@ -627,6 +679,18 @@ public class RAMDictionary implements IRAMDictionary {
 		}
 	}
 
+	/* 
+	 * (non-Javadoc) 
+	 *
+	 * @see edu.mit.jwi.IDictionary#getSynsets(java.util.List)
+	 */
+	public List<ISynset> getSynsets(List<? extends ISynsetID> ids) {
+		// until loaded, let the backing dictionary resolve the ids together
+		if(data == null)
+			return backing.getSynsets(ids);
+		return IRAMDictionary.super.getSynsets(ids);
+	}
+
 	/* 
 	 * (non-Javadoc) 
 	 *
@@ -953,18 +1017,12 @@ public class RAMDictionary implements IRAMDictionary {
 					// if there is no backing dictionary from
 					// which to load our data, load it from the 
 					// stream factory
-					InputStream in = factory.makeInputStream();
-					in = new GZIPInputStream(in);
-					in = new BufferedInputStream(in);
-					
-					// read the dictionary data
-					ObjectInputStream ois = new ObjectInputStream(in);
-					RAMDictionary.this.data = (DictionaryData)ois.readObject();
-					in.close();
+					RAMDictionary.this.data = importData();
 				} else {
 					// here we have a backing dictionary from
 					// which we should load our data
 					DataLoader loader = new DataLoader(backing);
+					dataLoader = loader;
 					RAMDictionary.this.data = loader.call();
 					backing.close();
 				}
@@ -977,33 +1035,179 @@ public class RAMDictionary implements IRAMDictionary {
 		}
 	}
 
+	/**
+	 * Reads the dictionary data from the stream factory of this dictionary.
+	 * The stream may hold either a {@link DictionarySnapshot}, as written by
+	 * {@link #export(OutputStream)}, or the gzipped, serialized dictionary
+	 * data written by earlier versions of this class.
+	 * 
+	 * @return the dictionary data read from the stream
+	 * @throws IOException
+	 *             if there is a problem reading the stream
+	 * @throws ClassNotFoundException
+	 *             if the stream holds serialized data of an unknown class
+	 * @since JWI 2.4.0
+	 */
+	protected DictionaryData importData() throws IOException, ClassNotFoundException {
+		InputStream in = factory.makeInputStream();
+		ReadableByteChannel channel = (in instanceof FileInputStream) ?
+				((FileInputStream)in).getChannel() :
+					Channels.newChannel(in);
+		try {
+			DictionarySnapshot.Reader reader = new DictionarySnapshot.Reader(channel);
+			if(reader.readMagic())
+				return DictionarySnapshot.toDictionaryData(DictionarySnapshot.read(reader));
+		} finally {
+			channel.close();
+		}
+
+		// not a snapshot: read serialized data
+		in = factory.makeInputStream();
+		in = new GZIPInputStream(in);
+		in = new BufferedInputStream(in);
+		try {
+			ObjectInputStream ois = new ObjectInputStream(in);
+			return (DictionaryData)ois.readObject();
+		} finally {
+			in.close();
+		}
+	}
+
 	/**
 	 * A <code>Callable</code> that creates a dictionary data from a specified
 	 * dictionary. The data loader does not change the open state of the
 	 * dictionary; the dictionary for the loader must be open for the loader to
 	 * function without throwing an exception. The loader may be called multiple
 	 * times (in a thread-safe manner) as long as the dictionary is open.
+	 * <p>
+	 * The loader reads the index words, synsets and exception entries of each
+	 * part of speech, and the sense entries, as separate tasks, which run in
+	 * parallel when the loader is given more than one thread; the results are
+	 * merged in a fixed order, so that the loaded data is the same whatever
+	 * the number of threads. The source dictionary must therefore support
+	 * concurrent iteration over different content types, as
+	 * {@link DataSourceDictionary} does. The time spent in each phase of the
+	 * last load is recorded, and may be retrieved with
+	 * {@link #getPhaseNanos(Phase)}.
 	 * 
 	 * @author Mark A. Finlayson
 	 * @since JWI 2.2.0
 	 */
 	public static class DataLoader implements Callable<DictionaryData> {
 		
+		/**
+		 * The name of the system property that sets the default number of
+		 * loader threads. If the property is not set, the default is the
+		 * number of available processors.
+		 * 
+		 * @since JWI 2.4.0
+		 */
+		public static final String THREADS_PROPERTY = "edu.mit.jwi.loadThreads";
+		
+		/**
+		 * The phases of a load. The times recorded for the reading phases are
+		 * the times spent by their tasks, which may overlap one another.
+		 * 
+		 * @since JWI 2.4.0
+		 */
+		public enum Phase {
+			INDEX_WORDS, SYNSETS, EXCEPTIONS, SENSE_ENTRIES, MERGE, COMPACT_SIZE, COMPACT_OBJECTS
+		}
+		
 		// the source of the dictionary data
 		private final IDictionary source;
+		private final int threads;
+		
+		// timings of the last load
+		private final AtomicLongArray phaseNanos = new AtomicLongArray(Phase.values().length);
+		private volatile long elapsedNanos;
 	
 		/**
 		 * Constructs a new data loader object, that uses the specified
-		 * dictionary to load its data.
+		 * dictionary to load its data, with the default number of threads.
 		 * 
 		 * @throws NullPointerException
 		 *             if the specified dictionary is <code>null</code>
 		 * @since JWI 2.2.0
 		 */
 		public DataLoader(IDictionary source){
+			this(source, getDefaultThreadCount());
+		}
+		
+		/**
+		 * Constructs a new data loader object, that uses the specified
+		 * dictionary to load its data, with the specified number of threads.
+		 * 
+		 * @param source
+		 *            the dictionary from which to load; may not be
+		 *            <code>null</code>
+		 * @param threads
+		 *            the number of threads to load with; if one, the loader
+		 *            runs entirely on the calling thread
+		 * @throws NullPointerException
+		 *             if the specified dictionary is <code>null</code>
+		 * @throws IllegalArgumentException
+		 *             if the number of threads is less than one
+		 * @since JWI 2.4.0
+		 */
+		public DataLoader(IDictionary source, int threads){
 			if(source == null)
 				throw new NullPointerException();
+			if(threads < 1)
+				throw new IllegalArgumentException("thread count must be positive: " + threads);
 			this.source = source;
+			this.threads = threads;
+		}
+		
+		/**
+		 * Returns the default number of loader threads, as set by the
+		 * {@link #THREADS_PROPERTY} system property, or else the number of
+		 * available processors.
+		 * 
+		 * @return the default number of loader threads, at least one
+		 * @since JWI 2.4.0
+		 */
+		public static int getDefaultThreadCount(){
+			Integer result = Integer.getInteger(THREADS_PROPERTY);
+			if(result == null)
+				result = Runtime.getRuntime().availableProcessors();
+			return Math.max(1, result);
+		}
+		
+		/**
+		 * Returns the number of threads this loader loads with.
+		 * 
+		 * @return the number of threads of this loader
+		 * @since JWI 2.4.0
+		 */
+		public int getThreadCount(){
+			return threads;
+		}
+		
+		/**
+		 * Returns the time spent in the specified phase of the last load, in
+		 * nanoseconds, or zero if the loader has not been called.
+		 * 
+		 * @param phase
+		 *            the phase; may not be <code>null</code>
+		 * @return the time spent in the phase
+		 * @throws NullPointerException
+		 *             if the specified phase is <code>null</code>
+		 * @since JWI 2.4.0
+		 */
+		public long getPhaseNanos(Phase phase){
+			return phaseNanos.get(phase.ordinal());
+		}
+		
+		/**
+		 * Returns the wall-clock time taken by the last load, in nanoseconds,
+		 * or zero if the loader has not been called.
+		 * 
+		 * @return the time taken by the last load
+		 * @since JWI 2.4.0
+		 */
+		public long getElapsedNanos(){
+			return elapsedNanos;
 		}
 	
 		/* 
@@ -1012,76 +1216,263 @@ public class RAMDictionary implements IRAMDictionary {
 		 * @see java.util.concurrent.Callable#call()
 		 */
 		public DictionaryData call() throws Exception {
+			for(int i = 0; i < phaseNanos.length(); i++)
+				phaseNanos.set(i, 0);
+			elapsedNanos = 0;
+			long start = System.nanoTime();
 			
-			DictionaryData result = new DictionaryData();
-			
+			ExecutorService executor = (threads > 1) ? 
+					Executors.newFixedThreadPool(threads, new LoaderThreadFactory()) : 
+						null;
+			try {
+				DictionaryData result = load(executor);
+				elapsedNanos = System.nanoTime() - start;
+				return result;
+			} catch(InterruptedException e){
+				Thread.currentThread().interrupt();
+				return null;
+			} finally {
+				if(executor != null)
+					executor.shutdownNow();
+			}
+		}
+		
+		/**
+		 * Loads the data, running the tasks of each phase on the specified
+		 * executor, or on the calling thread if it is <code>null</code>.
+		 * Returns <code>null</code> if the calling thread is interrupted.
+		 */
+		protected DictionaryData load(ExecutorService executor) throws Exception {
+			final DictionaryData result = new DictionaryData();
 			result.version = source.getVersion();
 			
-			Map<IIndexWordID, IIndexWord> idxWords;
-			Map<ISynsetID, ISynset> synsets;
-			Map<IExceptionEntryID, IExceptionEntry> exceptions;
-			
-			IIndexWord idxWord;
-			ISynset synset;
-			IExceptionEntry exception;
-			
 			Thread t = Thread.currentThread();
 			
-			for(POS pos : POS.values()){
-				
-				// index words
-				idxWords = result.idxWords.get(pos);
-				for(Iterator<IIndexWord> i = source.getIndexWordIterator(pos); i.hasNext(); ){
-					idxWord = i.next();
-					idxWords.put(idxWord.getID(), idxWord);
-				}
-				if(t.isInterrupted())
-					return null;
-				
-				// synsets and words
-				synsets = result.synsets.get(pos);
-				for(Iterator<ISynset> i = source.getSynsetIterator(pos); i.hasNext(); ){
-					synset = i.next();
-					synsets.put(synset.getID(), synset);
-					for(IWord word : synset.getWords())
-						result.words.put(word.getSenseKey(), word);
-				}
+			// read every content type of every part of speech
+			List<Future<Map<IIndexWordID, IIndexWord>>> idxWords = new ArrayList<Future<Map<IIndexWordID, IIndexWord>>>();
+			List<Future<Map<ISynsetID, ISynset>>> synsets = new ArrayList<Future<Map<ISynsetID, ISynset>>>();
+			List<Future<Map<IExceptionEntryID, IExceptionEntry>>> exceptions = new ArrayList<Future<Map<IExceptionEntryID, IExceptionEntry>>>();
+			for(final POS pos : POS.values()){
+				idxWords.add(submit(executor, Phase.INDEX_WORDS, new Callable<Map<IIndexWordID, IIndexWord>>() {
+					public Map<IIndexWordID, IIndexWord> call() {
+						Map<IIndexWordID, IIndexWord> map = result.makeMap(4096, null);
+						IIndexWord idxWord;
+						for(Iterator<IIndexWord> i = source.getIndexWordIterator(pos); i.hasNext(); ){
+							idxWord = i.next();
+							map.put(idxWord.getID(), idxWord);
+						}
+						return map;
+					}
+				}));
+				synsets.add(submit(executor, Phase.SYNSETS, new Callable<Map<ISynsetID, ISynset>>() {
+					public Map<ISynsetID, ISynset> call() {
+						Map<ISynsetID, ISynset> map = result.makeMap(4096, null);
+						ISynset synset;
+						for(Iterator<ISynset> i = source.getSynsetIterator(pos); i.hasNext(); ){
+							synset = i.next();
+							map.put(synset.getID(), synset);
+						}
+						return map;
+					}
+				}));
+				exceptions.add(submit(executor, Phase.EXCEPTIONS, new Callable<Map<IExceptionEntryID, IExceptionEntry>>() {
+					public Map<IExceptionEntryID, IExceptionEntry> call() {
+						Map<IExceptionEntryID, IExceptionEntry> map = result.makeMap(4096, null);
+						IExceptionEntry exception;
+						for(Iterator<IExceptionEntry> i = source.getExceptionEntryIterator(pos); i.hasNext(); ){
+							exception = i.next();
+							map.put(exception.getID(), exception);
+						}
+						return map;
+					}
+				}));
 				if(t.isInterrupted())
 					return null;
-				
-				// exceptions
-				exceptions = result.exceptions.get(pos);
-				for(Iterator<IExceptionEntry> i = source.getExceptionEntryIterator(pos); i.hasNext(); ){
-					exception = i.next();
-					exceptions.put(exception.getID(), exception);
+			}
+			Future<List<ISenseEntry>> senses = submit(executor, Phase.SENSE_ENTRIES, new Callable<List<ISenseEntry>>() {
+				public List<ISenseEntry> call() {
+					List<ISenseEntry> list = new ArrayList<ISenseEntry>(208000);
+					for(Iterator<ISenseEntry> i = source.getSenseEntryIterator(); i.hasNext(); )
+						list.add(i.next());
+					return list;
 				}
-				if(t.isInterrupted())
-					return null;
+			});
+			
+			// merge, in part of speech order
+			POS pos;
+			for(int i = 0; i < POS.values().length; i++){
+				pos = POS.values()[i];
+				result.idxWords.put(pos, get(idxWords.get(i)));
+				result.synsets.put(pos, get(synsets.get(i)));
+				result.exceptions.put(pos, get(exceptions.get(i)));
 			}
+			List<ISenseEntry> entries = get(senses);
+			if(t.isInterrupted())
+				return null;
 			
-			// sense entries
-			ISenseEntry entry;
+			long start = System.nanoTime();
+			for(POS p : POS.values())
+				for(ISynset synset : result.synsets.get(p).values())
+					for(IWord word : synset.getWords())
+						result.words.put(word.getSenseKey(), word);
 			IWord word;
-			for(Iterator<ISenseEntry> i = source.getSenseEntryIterator(); i.hasNext(); ){
-				entry = i.next();
+			for(ISenseEntry entry : entries){
 				word = result.words.get(entry.getSenseKey());
 				if(word == null)
 					throw new NullPointerException();
 				result.senses.put(word.getSenseKey(), makeSenseEntry(word.getSenseKey(), entry));
 			}
+			phaseNanos.addAndGet(Phase.MERGE.ordinal(), System.nanoTime() - start);
 			if(t.isInterrupted())
 				return null;
 			
-			result.compactSize();
+			start = System.nanoTime();
+			compactSize(result, executor);
+			phaseNanos.addAndGet(Phase.COMPACT_SIZE.ordinal(), System.nanoTime() - start);
 			if(t.isInterrupted())
 				return null;
 	
-			result.compactObjects();
+			start = System.nanoTime();
+			compactObjects(result, executor);
+			phaseNanos.addAndGet(Phase.COMPACT_OBJECTS.ordinal(), System.nanoTime() - start);
 			if(t.isInterrupted())
 				return null;
 			
 			return result;
 		}
+		
+		/**
+		 * Resizes the maps of the specified data, as
+		 * {@link DictionaryData#compactSize()} does, one task per map.
+		 */
+		protected void compactSize(final DictionaryData data, ExecutorService executor) throws Exception {
+			List<Future<Map<IIndexWordID, IIndexWord>>> idxWords = new ArrayList<Future<Map<IIndexWordID, IIndexWord>>>();
+			List<Future<Map<ISynsetID, ISynset>>> synsets = new ArrayList<Future<Map<ISynsetID, ISynset>>>();
+			List<Future<Map<IExceptionEntryID, IExceptionEntry>>> exceptions = new ArrayList<Future<Map<IExceptionEntryID, IExceptionEntry>>>();
+			for(POS pos : POS.values()){
+				idxWords.add(submit(executor, null, compactTask(data, data.idxWords.get(pos))));
+				synsets.add(submit(executor, null, compactTask(data, data.synsets.get(pos))));
+				exceptions.add(submit(executor, null, compactTask(data, data.exceptions.get(pos))));
+			}
+			Future<Map<ISenseKey, IWord>> words = submit(executor, null, compactTask(data, data.words));
+			Future<Map<ISenseKey, ISenseEntry>> senses = submit(executor, null, compactTask(data, data.senses));
+			
+			POS pos;
+			for(int i = 0; i < POS.values().length; i++){
+				pos = POS.values()[i];
+				data.idxWords.put(pos, get(idxWords.get(i)));
+				data.synsets.put(pos, get(synsets.get(i)));
+				data.exceptions.put(pos, get(exceptions.get(i)));
+			}
+			data.words = get(words);
+			data.senses = get(senses);
+		}
+		
+		/**
+		 * Returns a task that compacts the specified map.
+		 */
+		private static <K,V> Callable<Map<K,V>> compactTask(final DictionaryData data, final Map<K,V> map){
+			return new Callable<Map<K,V>>() {
+				public Map<K,V> call() {
+					return data.compactMap(map);
+				}
+			};
+		}
+		
+		/**
+		 * Replaces redundant objects in the specified data, as
+		 * {@link DictionaryData#compactObjects()} does. The replacements for
+		 * each part of speech are made by one task, which only reads the
+		 * maps; they are stored, in part of speech order, once all tasks are
+		 * done. The new items take their ids from the old ones, so they are
+		 * the same as those made by the sequential method.
+		 */
+		protected void compactObjects(final DictionaryData data, ExecutorService executor) throws Exception {
+			List<Future<ISynset[]>> synsets = new ArrayList<Future<ISynset[]>>();
+			List<Future<IIndexWord[]>> idxWords = new ArrayList<Future<IIndexWord[]>>();
+			for(final POS pos : POS.values()){
+				synsets.add(submit(executor, null, new Callable<ISynset[]>() {
+					public ISynset[] call() {
+						Collection<ISynset> values = data.synsets.get(pos).values();
+						ISynset[] result = new ISynset[values.size()];
+						int i = 0;
+						for(ISynset synset : values)
+							result[i++] = data.makeSynset(synset);
+						return result;
+					}
+				}));
+				idxWords.add(submit(executor, null, new Callable<IIndexWord[]>() {
+					public IIndexWord[] call() {
+						Collection<IIndexWord> values = data.idxWords.get(pos).values();
+						IIndexWord[] result = new IIndexWord[values.size()];
+						int i = 0;
+						for(IIndexWord idxWord : values)
+							result[i++] = data.makeIndexWord(idxWord);
+						return result;
+					}
+				}));
+			}
+			
+			// the tasks of one part of speech read the maps of the others, so
+			// no map may be written until every task is done
+			int count = POS.values().length;
+			ISynset[][] newSynsets = new ISynset[count][];
+			IIndexWord[][] newIdxWords = new IIndexWord[count][];
+			for(int p = 0; p < count; p++){
+				newSynsets[p] = get(synsets.get(p));
+				newIdxWords[p] = get(idxWords.get(p));
+			}
+			
+			for(int p = 0; p < count; p++){
+				int i = 0;
+				for(Entry<ISynsetID, ISynset> entry : data.synsets.get(POS.values()[p]).entrySet())
+					entry.setValue(newSynsets[p][i++]);
+				i = 0;
+				for(Entry<IIndexWordID, IIndexWord> entry : data.idxWords.get(POS.values()[p]).entrySet())
+					entry.setValue(newIdxWords[p][i++]);
+			}
+		}
+		
+		/**
+		 * Runs the specified task on the specified executor, or on the calling
+		 * thread if the executor is <code>null</code>, adding its running time
+		 * to that of the specified phase, if any.
+		 */
+		private <T> Future<T> submit(ExecutorService executor, final Phase phase, final Callable<T> task) throws Exception {
+			Callable<T> timed = new Callable<T>() {
+				public T call() throws Exception {
+					long start = System.nanoTime();
+					try {
+						return task.call();
+					} finally {
+						if(phase != null)
+							phaseNanos.addAndGet(phase.ordinal(), System.nanoTime() - start);
+					}
+				}
+			};
+			if(executor != null)
+				return executor.submit(timed);
+			FutureTask<T> result = new FutureTask<T>(timed);
+			result.run();
+			return result;
+		}
+		
+		/**
+		 * Returns the result of the specified task, rethrowing the exception
+		 * it failed with, if any.
+		 */
+		private static <T> T get(Future<T> future) throws Exception {
+			try {
+				return future.get();
+			} catch(ExecutionException e){
+				Throwable cause = e.getCause();
+				if(cause instanceof Exception)
+					throw (Exception)cause;
+				if(cause instanceof Error)
+					throw (Error)cause;
+				throw e;
+			}
+		}
 	
 		/**
 		 * Creates a new sense entry that replicates the specified sense entry.
@@ -1100,6 +1491,22 @@ public class RAMDictionary implements IRAMDictionary {
 		protected ISenseEntry makeSenseEntry(ISenseKey key, ISenseEntry old){
 			return new SenseEntry(key, old.getOffset(), old.getSenseNumber(), old.getTagCount());
 		}
+		
+		/**
+		 * Makes the daemon threads of a loader.
+		 * 
+		 * @since JWI 2.4.0
+		 */
+		private static class LoaderThreadFactory implements ThreadFactory {
+			
+			private final AtomicInteger count = new AtomicInteger();
+			
+			public Thread newThread(Runnable r) {
+				Thread result = new Thread(r, "JWI data loader " + count.incrementAndGet());
+				result.setDaemon(true);
+				return result;
+			}
+		}
 	}
 
 	/**
@@ -1334,7 +1741,8 @@ public class RAMDictionary implements IRAMDictionary {
 		/**
 		 * Creates a new index word that replicates the specified index word.
 		 * The new index word replaces it's internal synset ids with synset ids
-		 * from the denoted synsets, thus removing redundant ids.
+		 * from the denoted synsets, thus removing redundant ids, and keeps its
+		 * pointers.
 		 * 
 		 * @param old
 		 *            the index word to be replicated
@@ -1358,7 +1766,8 @@ public class RAMDictionary implements IRAMDictionary {
 				}
 				if(newIDs[i] == null) throw new IllegalStateException();
 			}
-			return new IndexWord(old.getID(), old.getTagSenseCount(), newIDs);
+			Set<IPointer> pointers = old.getPointers();
+			return new IndexWord(old.getID(), old.getTagSenseCount(), pointers.toArray(new IPointer[pointers.size()]), newIDs);
 		}
 		
 		/** 
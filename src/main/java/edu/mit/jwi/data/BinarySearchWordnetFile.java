@@ -11,9 +11,14 @@
 package edu.mit.jwi.data;
 
 import java.io.File;
+import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
 import java.util.Comparator;
 
+import edu.mit.jwi.data.compare.IByteLineComparator;
+
 /**
  * Concrete implementation of a wordnet file data source. This particular
  * implementation is for files on disk, and uses a binary search algorithm to
@@ -30,6 +35,14 @@ public class BinarySearchWordnetFile<T> extends WordnetFile<T> {
 	
 	// the comparator
 	protected final Comparator<String> fComparator;
+	
+	// start offsets of the lines of the file, if indexed
+	private volatile boolean indexingLines = false;
+	private volatile int[] lineOffsets;
+	
+	// filter over the keys of the file, if built
+	private volatile boolean filteringKeys = false;
+	private volatile KeyFilter keyFilter;
 
 	/**
 	 * Constructs a new binary search wordnet file, on the specified file with
@@ -49,6 +62,163 @@ public class BinarySearchWordnetFile<T> extends WordnetFile<T> {
 		fComparator = getContentType().getLineComparator();
 	}
 	
+	/**
+	 * Returns <code>true</code> if this file builds an index of the start
+	 * offsets of its lines when opened; <code>false</code> otherwise.
+	 * 
+	 * @return whether this file indexes its lines
+	 * @since JWI 2.4.0
+	 */
+	public boolean isIndexingLines() {
+		return indexingLines;
+	}
+
+	/**
+	 * Sets whether this file builds an index of the start offsets of its lines
+	 * when opened. With the index, {@link #getLine(String)} bisects line
+	 * numbers instead of byte positions, and so decodes exactly one line at
+	 * each step of the search, without first scanning backwards for the start
+	 * of the line. The index costs four bytes per line. If the file is already
+	 * open, the index is built or dropped immediately.
+	 * 
+	 * @param indexingLines
+	 *            whether this file should index its lines
+	 * @since JWI 2.4.0
+	 */
+	public void setIndexingLines(boolean indexingLines) {
+		this.indexingLines = indexingLines;
+		if(!indexingLines){
+			lineOffsets = null;
+		} else if(isOpen()){
+			lineOffsets = indexLines(getBuffer());
+		}
+	}
+
+	/**
+	 * Returns the number of lines in the line index of this file, or -1 if the
+	 * file has no index.
+	 * 
+	 * @return the number of indexed lines, or -1 if the lines are not indexed
+	 * @since JWI 2.4.0
+	 */
+	public int getIndexedLineCount() {
+		int[] offsets = lineOffsets;
+		return (offsets == null) ? -1 : offsets.length;
+	}
+
+	/**
+	 * Returns <code>true</code> if this file builds a filter over the keys of
+	 * its lines when opened; <code>false</code> otherwise.
+	 * 
+	 * @return whether this file filters the keys it is asked for
+	 * @since JWI 2.4.0
+	 */
+	public boolean isFilteringKeys() {
+		return filteringKeys;
+	}
+
+	/**
+	 * Sets whether this file builds a {@link KeyFilter} over the keys of its
+	 * lines when opened. With the filter, {@link #getLine(String)} returns
+	 * <code>null</code> without searching the file for most keys that are not
+	 * in it. The filter costs about ten bits per line, and is only built if
+	 * the comparator of this file is an {@link IByteLineComparator} and the
+	 * file is in an ASCII-compatible character set. If the file is already
+	 * open, the filter is built or dropped immediately.
+	 * 
+	 * @param filteringKeys
+	 *            whether this file should filter the keys it is asked for
+	 * @since JWI 2.4.0
+	 */
+	public void setFilteringKeys(boolean filteringKeys) {
+		this.filteringKeys = filteringKeys;
+		if(!filteringKeys){
+			keyFilter = null;
+		} else if(isOpen()){
+			keyFilter = filterKeys();
+		}
+	}
+
+	/**
+	 * Returns the filter over the keys of this file, or <code>null</code> if
+	 * the file has none.
+	 * 
+	 * @return the key filter of this file, or <code>null</code>
+	 * @since JWI 2.4.0
+	 */
+	public KeyFilter getKeyFilter() {
+		return keyFilter;
+	}
+
+	/**
+	 * Builds the filter over the keys of this file, or returns
+	 * <code>null</code> if the keys of this file cannot be filtered.
+	 * 
+	 * @return the new key filter, or <code>null</code>
+	 * @since JWI 2.4.0
+	 */
+	protected KeyFilter filterKeys() {
+		Charset cs = getContentType().getCharset();
+		if(!(fComparator instanceof IByteLineComparator) || !isAsciiCompatible(cs))
+			return null;
+		return KeyFilter.build(getBuffer(), cs, KeyFilter.DEFAULT_BITS_PER_KEY);
+	}
+
+	/* 
+	 * (non-Javadoc) 
+	 *
+	 * @see edu.mit.jwi.data.WordnetFile#open()
+	 */
+	public boolean open() throws IOException {
+		boolean result = super.open();
+		if(result && indexingLines && lineOffsets == null)
+			lineOffsets = indexLines(getBuffer());
+		if(result && filteringKeys && keyFilter == null)
+			keyFilter = filterKeys();
+		return result;
+	}
+
+	/* 
+	 * (non-Javadoc) 
+	 *
+	 * @see edu.mit.jwi.data.WordnetFile#close()
+	 */
+	public void close() {
+		lineOffsets = null;
+		keyFilter = null;
+		super.close();
+	}
+
+	/**
+	 * Returns the start offsets of the non-empty lines in the specified
+	 * buffer, in order. Lines may end with any of the newline markers accepted
+	 * by {@link WordnetFile#getLine(ByteBuffer)}.
+	 * 
+	 * @param buffer
+	 *            the buffer to index; may not be <code>null</code>
+	 * @return the start offsets of the lines of the buffer
+	 * @throws NullPointerException
+	 *             if the specified buffer is <code>null</code>
+	 * @since JWI 2.4.0
+	 */
+	protected static int[] indexLines(ByteBuffer buffer) {
+		int[] offsets = new int[1024];
+		int count = 0;
+		int limit = buffer.limit();
+		int lineStart = 0;
+		int lineEnd;
+		while(lineStart < limit){
+			lineEnd = findLineEnd(buffer, lineStart);
+			if(lineEnd > lineStart){
+				if(count == offsets.length)
+					offsets = Arrays.copyOf(offsets, 2 * count);
+				offsets[count++] = lineStart;
+			}
+			lineStart = lineEnd + 1;
+		}
+		return Arrays.copyOf(offsets, count);
+	}
+
 	/* 
 	 * (non-Javadoc) 
 	 *
@@ -56,43 +226,388 @@ public class BinarySearchWordnetFile<T> extends WordnetFile<T> {
 	 */
 	public String getLine(String key) {
 		
-		ByteBuffer buffer = getBuffer();
+		// most keys that are not in the file can be turned away unsearched
+		KeyFilter filter = keyFilter;
+		byte[] keyBytes = null;
+		if(filter != null){
+			keyBytes = ((IByteLineComparator)fComparator).getKeyBytes(key);
+			if(keyBytes != null && !filter.mightContain(keyBytes)){
+				DataSourceStatistics stats = getStatistics();
+				if(stats != null)
+					stats.recordFilteredLookup();
+				return null;
+			}
+		}
 		
-		synchronized(buffer) {
-			int start = 0;
-			int midpoint = -1;
+		// search an independent view of the buffer, so that concurrent
+		// lookups neither block nor disturb each other
+		ByteBuffer buffer = getBuffer().duplicate();
+		int[] offsets = lineOffsets;
+		String result;
+		if(offsets != null){
+			result = getIndexedLine(buffer, offsets, key);
+		} else {
+			result = bisect(buffer, key);
+		}
+		if(result == null && keyBytes != null){
+			DataSourceStatistics stats = getStatistics();
+			if(stats != null)
+				stats.recordFalsePositive();
+		}
+		return result;
+	}
+
+	/**
+	 * Finds the line for the specified key by a binary search over the byte
+	 * positions of the specified buffer, backing up to the start of the line
+	 * at each step.
+	 * 
+	 * @param buffer
+	 *            a view of the buffer of this file, whose position may be
+	 *            changed; may not be <code>null</code>
+	 * @param key
+	 *            the key of the line to find
+	 * @return the line for the key, or <code>null</code> if there is none
+	 * @since JWI 2.4.0
+	 */
+	protected String bisect(ByteBuffer buffer, String key) {
+		DataSourceStatistics stats = getStatistics();
+		long time = (stats == null) ? 0 : System.nanoTime();
+		int iterations = 0;
+		long bytes = 0;
+		String result = null;
+		
+		int start = 0;
+		int midpoint = -1;
+		int stop = buffer.limit();
+		int cmp;
+		int lineStart;
+		String line;
+		while(stop - start > 1) {
+			iterations++;
+
+			// find the middle of the buffer
+			midpoint = (start + stop) / 2;
+			buffer.position(midpoint);
+			
+			// back up to the beginning of the line
+			rewindToLineStart(buffer);
+			lineStart = buffer.position();
+			line = getLine(buffer, getContentType().getCharset());
+			bytes += buffer.position() - lineStart;
+			
+			// if we get a null, we've reached the end of the file
+			cmp = (line == null) ? 1 : fComparator.compare(line, key);
+			
+			// found our line
+			if(cmp == 0){
+				result = line;
+				break;
+			}
+			
+			if(cmp > 0){
+				// too far forward
+				stop = midpoint;
+			} else {
+				// too far back
+				start = midpoint;
+			}
+		}
+		
+		if(stats != null)
+			stats.recordLookup(result != null, iterations, bytes, System.nanoTime() - time);
+		return result;
+	}
+	
+
+	/**
+	 * Finds the line for the specified key by a binary search over the
+	 * specified line start offsets. If the comparator of this file is an
+	 * {@link IByteLineComparator} and the file is in an ASCII-compatible
+	 * character set, the key is compared against the bytes of each line where
+	 * it starts in the buffer, and only the matching line is decoded.
+	 * 
+	 * @param buffer
+	 *            a view of the buffer of this file, whose position may be
+	 *            changed; may not be <code>null</code>
+	 * @param offsets
+	 *            the start offsets of the lines of the buffer; may not be
+	 *            <code>null</code>
+	 * @param key
+	 *            the key of the line to find
+	 * @return the line for the key, or <code>null</code> if there is none
+	 * @since JWI 2.4.0
+	 */
+	protected String getIndexedLine(ByteBuffer buffer, int[] offsets, String key) {
+		DataSourceStatistics stats = getStatistics();
+		long time = (stats == null) ? 0 : System.nanoTime();
+		int iterations = 0;
+		long bytes = 0;
+		String result = null;
+		
+		Charset cs = getContentType().getCharset();
+		IByteLineComparator byteComparator = null;
+		byte[] keyBytes = null;
+		if(fComparator instanceof IByteLineComparator && isAsciiCompatible(cs)){
+			byteComparator = (IByteLineComparator)fComparator;
+			keyBytes = byteComparator.getKeyBytes(key);
+		}
+		
+		int low = 0;
+		int high = offsets.length - 1;
+		int midpoint, cmp;
+		String line;
+		while(low <= high) {
+			iterations++;
+			midpoint = (low + high) >>> 1;
+			line = null;
+			
+			// compare without decoding if possible
+			cmp = (keyBytes == null) ? 
+					IByteLineComparator.UNDECIDED : 
+						byteComparator.compare(buffer, offsets[midpoint], keyBytes);
+			if(cmp == IByteLineComparator.UNDECIDED){
+				buffer.position(offsets[midpoint]);
+				line = getLine(buffer, cs);
+				bytes += buffer.position() - offsets[midpoint];
+				cmp = fComparator.compare(line, key);
+			}
+			
+			if(cmp == 0){
+				if(line == null){
+					buffer.position(offsets[midpoint]);
+					line = getLine(buffer, cs);
+					bytes += buffer.position() - offsets[midpoint];
+				}
+				result = line;
+				break;
+			}
+			if(cmp > 0){
+				high = midpoint - 1;
+			} else {
+				low = midpoint + 1;
+			}
+		}
+		
+		if(stats != null)
+			stats.recordLookup(result != null, iterations, bytes, System.nanoTime() - time);
+		return result;
+	}
+
+	/**
+	 * Returns the lines for the specified keys in one pass over the file. The
+	 * keys are sorted into the order of the file, and the search for each key
+	 * starts where the search for the previous one ended, stepping forward in
+	 * growing strides until it passes the key and then bisecting the last
+	 * stride. A batch of keys therefore takes fewer comparisons than separate
+	 * lookups, the more so the closer the keys lie in the file, and visits the
+	 * file front to back. A single key is looked up with
+	 * {@link #getLine(String)}, since striding from the start of the file
+	 * costs more than bisecting it.
+	 * 
+	 * @see edu.mit.jwi.data.IDataSource#getLines(java.lang.String[])
+	 * @since JWI 2.4.0
+	 */
+	public String[] getLines(final String[] keys) {
+		if(keys.length == 1)
+			return super.getLines(keys);
+		Integer[] order = new Integer[keys.length];
+		for(int i = 0; i < keys.length; i++){
+			if(keys[i] == null)
+				throw new NullPointerException();
+			order[i] = i;
+		}
+		Arrays.sort(order, new Comparator<Integer>() {
+			public int compare(Integer i1, Integer i2) {
+				return fComparator.compare(keys[i1], keys[i2]);
+			}
+		});
+		
+		KeyFilter filter = keyFilter;
+		DataSourceStatistics stats = getStatistics();
+		OrderedSearch search = new OrderedSearch(getBuffer().duplicate(), lineOffsets);
+		String[] result = new String[keys.length];
+		String key;
+		byte[] keyBytes;
+		for(int i : order){
+			key = keys[i];
+			keyBytes = (search.byteComparator == null) ? null : search.byteComparator.getKeyBytes(key);
+			if(filter != null && keyBytes != null && !filter.mightContain(keyBytes)){
+				if(stats != null)
+					stats.recordFilteredLookup();
+				continue;
+			}
+			result[i] = search.find(key, keyBytes);
+			if(result[i] == null && filter != null && keyBytes != null && stats != null)
+				stats.recordFalsePositive();
+		}
+		return result;
+	}
+
+	/**
+	 * Searches a view of the buffer for a sequence of keys in file order,
+	 * each search starting from the lower bound left by the previous one.
+	 * Over the line index, if there is one, the bound is a line number, and
+	 * every line before it compares less than the next key; otherwise, the
+	 * bound is a byte position, and the line that holds it compares less than
+	 * the next key.
+	 */
+	private class OrderedSearch {
+		
+		// the smallest stride, in bytes, of a search without a line index
+		private static final int MIN_STRIDE = 256;
+
+		final ByteBuffer buffer;
+		final int[] offsets;
+		final Charset cs;
+		final IByteLineComparator byteComparator;
+		final DataSourceStatistics stats = getStatistics();
+		
+		int bound = 0;
+		int iterations;
+		long bytes;
+
+		OrderedSearch(ByteBuffer buffer, int[] offsets) {
+			this.buffer = buffer;
+			this.offsets = offsets;
+			this.cs = getContentType().getCharset();
+			this.byteComparator = (fComparator instanceof IByteLineComparator && isAsciiCompatible(cs)) ?
+					(IByteLineComparator)fComparator :
+						null;
+		}
+
+		/**
+		 * Finds the line for the specified key, which may not come before the
+		 * key of the previous call in file order.
+		 */
+		String find(String key, byte[] keyBytes) {
+			long time = (stats == null) ? 0 : System.nanoTime();
+			iterations = 0;
+			bytes = 0;
+			String result = (offsets == null) ? findByPosition(key) : findByLine(key, keyBytes);
+			if(stats != null)
+				stats.recordLookup(result != null, iterations, bytes, System.nanoTime() - time);
+			return result;
+		}
+
+		private String findByLine(String key, byte[] keyBytes) {
+			int low = bound;
+			int high = offsets.length;
+			int stride = 1;
+			int probe, cmp;
+			
+			// stride forward until a line at or past the key
+			while(low < offsets.length){
+				probe = Math.min(low + stride - 1, offsets.length - 1);
+				cmp = compare(offsets[probe], key, keyBytes);
+				if(cmp == 0)
+					return found(probe);
+				if(cmp > 0){
+					high = probe;
+					break;
+				}
+				low = probe + 1;
+				stride <<= 1;
+			}
+			
+			// bisect the last stride
+			high--;
+			while(low <= high){
+				probe = (low + high) >>> 1;
+				cmp = compare(offsets[probe], key, keyBytes);
+				if(cmp == 0)
+					return found(probe);
+				if(cmp > 0){
+					high = probe - 1;
+				} else {
+					low = probe + 1;
+				}
+			}
+			bound = low;
+			return null;
+		}
+
+		private int compare(int offset, String key, byte[] keyBytes) {
+			iterations++;
+			int cmp = (keyBytes == null) ? 
+					IByteLineComparator.UNDECIDED : 
+						byteComparator.compare(buffer, offset, keyBytes);
+			if(cmp == IByteLineComparator.UNDECIDED)
+				cmp = fComparator.compare(lineAt(offset), key);
+			return cmp;
+		}
+
+		private String found(int line) {
+			bound = line;
+			return lineAt(offsets[line]);
+		}
+
+		private String lineAt(int offset) {
+			buffer.position(offset);
+			String line = getLine(buffer, cs);
+			bytes += buffer.position() - offset;
+			return line;
+		}
+
+		private String findByPosition(String key) {
+			int start = bound;
 			int stop = buffer.limit();
-			int cmp;
+			int stride = MIN_STRIDE;
+			int probe, lineStart, cmp;
 			String line;
-			while(stop - start > 1) {
-
-				// find the middle of the buffer
-				midpoint = (start + stop) / 2;
-				buffer.position(midpoint);
-				
-				// back up to the beginning of the line
+			
+			// stride forward until a line at or past the key, then bisect the
+			// last stride as getLine(String) bisects the whole file
+			boolean striding = true;
+			while(stop - start > 1){
+				iterations++;
+				probe = striding ? start + stride : (start + stop) / 2;
+				if(striding && probe >= stop){
+					striding = false;
+					probe = (start + stop) / 2;
+				}
+				buffer.position(probe);
 				rewindToLineStart(buffer);
-				line = getLine(buffer, getContentType().getCharset());
-				
-				// if we get a null, we've reached the end of the file
+				lineStart = buffer.position();
+				line = getLine(buffer, cs);
+				bytes += buffer.position() - lineStart;
 				cmp = (line == null) ? 1 : fComparator.compare(line, key);
-				
-				// found our line
-				if(cmp == 0)
+				if(cmp == 0){
+					// the line before the one found holds a smaller key
+					bound = Math.max(0, lineStart - 1);
 					return line;
-				
+				}
 				if(cmp > 0){
-					// too far forward
-					stop = midpoint;
+					stop = probe;
+					striding = false;
 				} else {
-					// too far back
-					start = midpoint;
+					start = probe;
+					if(striding)
+						stride <<= 1;
 				}
 			}
+			bound = start;
+			return null;
 		}
-		return null;
 	}
-	
+
+	/**
+	 * Returns <code>true</code> if the specified character set encodes ASCII
+	 * characters as single bytes of the same value, as lines read without a
+	 * character set are; <code>false</code> otherwise.
+	 * 
+	 * @param cs
+	 *            the character set; may be <code>null</code>
+	 * @return whether ASCII keys may be compared directly with the bytes of
+	 *         lines in the character set
+	 * @since JWI 2.4.0
+	 */
+	protected static boolean isAsciiCompatible(Charset cs) {
+		if(cs == null)
+			return true;
+		String name = cs.name();
+		return name.equals("UTF-8") || name.equals("US-ASCII") || name.equals("ISO-8859-1") || name.equals("windows-1252");
+	}
 
 	/* 
 	 * (non-Javadoc) 
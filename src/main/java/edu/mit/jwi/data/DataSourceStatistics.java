@@ -0,0 +1,275 @@
+/********************************************************************************
+ * Java Wordnet Interface Library (JWI) v2.4.0
+ * Top Level Tagger additions, Copyright (c) 2017 Lambda³
+ *
+ * JWI is distributed under the terms of the Creative Commons Attribution 4.0 
+ * International Public License, which means it may be freely used for all 
+ * purposes, as long as proper acknowledgment is made.  See the license file 
+ * included with this distribution for more details.
+ *******************************************************************************/
+
+package edu.mit.jwi.data;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lookup statistics of a single data source: the number of lookups and misses,
+ * the time they took, the bytes decoded and a histogram of the search
+ * iterations each needed. Recording a lookup only updates striped counters,
+ * so it is safe and cheap to call from many threads at once.
+ * 
+ * @version 2.4.0
+ * @since JWI 2.4.0
+ */
+public class DataSourceStatistics implements DataSourceStatisticsMBean {
+	
+	/**
+	 * The number of buckets in the iteration histogram. A binary search over a
+	 * 2 GB file needs no more than 31 iterations.
+	 *
+	 * @since JWI 2.4.0
+	 */
+	public static final int HISTOGRAM_SIZE = 32;
+	
+	// final instance fields
+	private final String name;
+	private final IContentType<?> type;
+	private final LongAdder lookups = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder filtered = new LongAdder();
+	private final LongAdder falsePositives = new LongAdder();
+	private final LongAdder nanos = new LongAdder();
+	private final LongAdder bytes = new LongAdder();
+	private final LongAdder iterations = new LongAdder();
+	private final LongAdder[] histogram = new LongAdder[HISTOGRAM_SIZE];
+
+	/**
+	 * Creates the statistics for the specified data source.
+	 * 
+	 * @param name
+	 *            the name of the data source; may not be <code>null</code>
+	 * @param type
+	 *            the content type of the data source; may not be
+	 *            <code>null</code>
+	 * @throws NullPointerException
+	 *             if either argument is <code>null</code>
+	 * @since JWI 2.4.0
+	 */
+	public DataSourceStatistics(String name, IContentType<?> type) {
+		if(name == null || type == null)
+			throw new NullPointerException();
+		this.name = name;
+		this.type = type;
+		for(int i = 0; i < histogram.length; i++)
+			histogram[i] = new LongAdder();
+	}
+	
+	/* 
+	 * (non-Javadoc) 
+	 *
+	 * @see edu.mit.jwi.data.DataSourceStatisticsMBean#getName()
+	 */
+	public String getName() {
+		return name;
+	}
+	
+	/**
+	 * Returns the content type of the data source.
+	 * 
+	 * @return the content type of the data source
+	 * @since JWI 2.4.0
+	 */
+	public IContentType<?> getContentType() {
+		return type;
+	}
+
+	/**
+	 * Records a finished lookup.
+	 * 
+	 * @param found
+	 *            whether the requested line was found
+	 * @param iterationCount
+	 *            the number of search iterations the lookup needed
+	 * @param bytesDecoded
+	 *            the number of bytes decoded into lines
+	 * @param elapsed
+	 *            the duration of the lookup in nanoseconds
+	 * @since JWI 2.4.0
+	 */
+	public void recordLookup(boolean found, int iterationCount, long bytesDecoded, long elapsed) {
+		lookups.increment();
+		if(!found)
+			misses.increment();
+		nanos.add(elapsed);
+		bytes.add(bytesDecoded);
+		iterations.add(iterationCount);
+		histogram[Math.min(iterationCount, HISTOGRAM_SIZE-1)].increment();
+	}
+
+	/**
+	 * Records a lookup that a {@link KeyFilter} answered as a miss without
+	 * searching the data source. It counts as a lookup and a miss that took
+	 * no iterations and no measurable time.
+	 * 
+	 * @since JWI 2.4.0
+	 */
+	public void recordFilteredLookup() {
+		lookups.increment();
+		misses.increment();
+		filtered.increment();
+		histogram[0].increment();
+	}
+
+	/**
+	 * Records that a key which a {@link KeyFilter} reported as possibly
+	 * present was not found by the search that followed. The search itself
+	 * is recorded separately by {@link #recordLookup(boolean, int, long, long)}.
+	 * 
+	 * @since JWI 2.4.0
+	 */
+	public void recordFalsePositive() {
+		falsePositives.increment();
+	}
+
+	/* 
+	 * (non-Javadoc) 
+	 *
+	 * @see edu.mit.jwi.data.DataSourceStatisticsMBean#getFilteredLookups()
+	 */
+	public long getFilteredLookups() {
+		return filtered.sum();
+	}
+
+	/* 
+	 * (non-Javadoc) 
+	 *
+	 * @see edu.mit.jwi.data.DataSourceStatisticsMBean#getFalsePositives()
+	 */
+	public long getFalsePositives() {
+		return falsePositives.sum();
+	}
+
+	/* 
+	 * (non-Javadoc) 
+	 *
+	 * @see edu.mit.jwi.data.DataSourceStatisticsMBean#getFalsePositiveRate()
+	 */
+	public double getFalsePositiveRate() {
+		long positives = falsePositives.sum();
+		long absent = filtered.sum() + positives;
+		return (absent == 0) ? 0 : (double)positives / absent;
+	}
+
+	/* 
+	 * (non-Javadoc) 
+	 *
+	 * @see edu.mit.jwi.data.DataSourceStatisticsMBean#getLookups()
+	 */
+	public long getLookups() {
+		return lookups.sum();
+	}
+
+	/* 
+	 * (non-Javadoc) 
+	 *
+	 * @see edu.mit.jwi.data.DataSourceStatisticsMBean#getMisses()
+	 */
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	/* 
+	 * (non-Javadoc) 
+	 *
+	 * @see edu.mit.jwi.data.DataSourceStatisticsMBean#getLookupNanos()
+	 */
+	public long getLookupNanos() {
+		return nanos.sum();
+	}
+
+	/* 
+	 * (non-Javadoc) 
+	 *
+	 * @see edu.mit.jwi.data.DataSourceStatisticsMBean#getMeanLookupNanos()
+	 */
+	public double getMeanLookupNanos() {
+		return mean(nanos.sum());
+	}
+
+	/* 
+	 * (non-Javadoc) 
+	 *
+	 * @see edu.mit.jwi.data.DataSourceStatisticsMBean#getBytesDecoded()
+	 */
+	public long getBytesDecoded() {
+		return bytes.sum();
+	}
+
+	/* 
+	 * (non-Javadoc) 
+	 *
+	 * @see edu.mit.jwi.data.DataSourceStatisticsMBean#getMeanBytesDecoded()
+	 */
+	public double getMeanBytesDecoded() {
+		return mean(bytes.sum());
+	}
+
+	/* 
+	 * (non-Javadoc) 
+	 *
+	 * @see edu.mit.jwi.data.DataSourceStatisticsMBean#getMeanIterations()
+	 */
+	public double getMeanIterations() {
+		return mean(iterations.sum());
+	}
+
+	/* 
+	 * (non-Javadoc) 
+	 *
+	 * @see edu.mit.jwi.data.DataSourceStatisticsMBean#getIterationHistogram()
+	 */
+	public long[] getIterationHistogram() {
+		long[] result = new long[histogram.length];
+		for(int i = 0; i < result.length; i++)
+			result[i] = histogram[i].sum();
+		return result;
+	}
+	
+	/**
+	 * Divides the specified total by the number of lookups.
+	 */
+	private double mean(long total){
+		long count = lookups.sum();
+		return (count == 0) ? 0 : (double)total / count;
+	}
+
+	/* 
+	 * (non-Javadoc) 
+	 *
+	 * @see edu.mit.jwi.data.DataSourceStatisticsMBean#reset()
+	 */
+	public void reset() {
+		lookups.reset();
+		misses.reset();
+		filtered.reset();
+		falsePositives.reset();
+		nanos.reset();
+		bytes.reset();
+		iterations.reset();
+		for(LongAdder bucket : histogram)
+			bucket.reset();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.lang.Object#toString()
+	 */
+	public String toString() {
+		return "[" + name + ": " + getLookups() + " lookups, " + getMisses() + " misses, " 
+				+ String.format("%.1f", getMeanIterations()) + " iterations, " 
+				+ String.format("%.0f", getMeanBytesDecoded()) + " bytes, " 
+				+ String.format("%.0f", getMeanLookupNanos()) + " ns per lookup]";
+	}
+
+}
@@ -0,0 +1,132 @@
+/********************************************************************************
+ * Java Wordnet Interface Library (JWI) v2.4.0
+ * Top Level Tagger additions, Copyright (c) 2017 Lambda³
+ *
+ * JWI is distributed under the terms of the Creative Commons Attribution 4.0 
+ * International Public License, which means it may be freely used for all 
+ * purposes, as long as proper acknowledgment is made.  See the license file 
+ * included with this distribution for more details.
+ *******************************************************************************/
+
+package edu.mit.jwi.data;
+
+/**
+ * Management interface of {@link DataSourceStatistics}, published over JMX by
+ * an instrumented {@link FileProvider}.
+ * 
+ * @version 2.4.0
+ * @since JWI 2.4.0
+ */
+public interface DataSourceStatisticsMBean {
+	
+	/**
+	 * Returns the name of the data source, e.g., "index.noun"
+	 * 
+	 * @return the name of the data source
+	 * @since JWI 2.4.0
+	 */
+	public String getName();
+
+	/**
+	 * Returns the number of lines requested from the data source.
+	 * 
+	 * @return the number of lookups
+	 * @since JWI 2.4.0
+	 */
+	public long getLookups();
+
+	/**
+	 * Returns the number of lookups for which no line was found.
+	 * 
+	 * @return the number of misses
+	 * @since JWI 2.4.0
+	 */
+	public long getMisses();
+
+	/**
+	 * Returns the number of lookups that the key filter of the data source
+	 * answered as misses without searching. These are included in the
+	 * lookups and misses.
+	 * 
+	 * @return the number of filtered lookups
+	 * @since JWI 2.4.0
+	 */
+	public long getFilteredLookups();
+
+	/**
+	 * Returns the number of keys that passed the key filter of the data
+	 * source but were not found.
+	 * 
+	 * @return the number of false positives of the key filter
+	 * @since JWI 2.4.0
+	 */
+	public long getFalsePositives();
+
+	/**
+	 * Returns the fraction of absent keys that passed the key filter of the
+	 * data source, or zero if no absent key was looked up.
+	 * 
+	 * @return the observed false-positive rate of the key filter
+	 * @since JWI 2.4.0
+	 */
+	public double getFalsePositiveRate();
+
+	/**
+	 * Returns the total time spent in lookups, in nanoseconds.
+	 * 
+	 * @return the cumulative lookup time
+	 * @since JWI 2.4.0
+	 */
+	public long getLookupNanos();
+
+	/**
+	 * Returns the mean time of a lookup, in nanoseconds.
+	 * 
+	 * @return the mean lookup time
+	 * @since JWI 2.4.0
+	 */
+	public double getMeanLookupNanos();
+
+	/**
+	 * Returns the total number of bytes decoded into lines by lookups.
+	 * 
+	 * @return the number of bytes decoded
+	 * @since JWI 2.4.0
+	 */
+	public long getBytesDecoded();
+
+	/**
+	 * Returns the mean number of bytes decoded per lookup.
+	 * 
+	 * @return the mean number of bytes decoded per lookup
+	 * @since JWI 2.4.0
+	 */
+	public double getMeanBytesDecoded();
+
+	/**
+	 * Returns the mean number of search iterations per lookup. Direct access
+	 * lookups count as a single iteration.
+	 * 
+	 * @return the mean number of iterations per lookup
+	 * @since JWI 2.4.0
+	 */
+	public double getMeanIterations();
+
+	/**
+	 * Returns the histogram of search iterations: the element at index
+	 * <i>i</i> is the number of lookups that took <i>i</i> iterations, the
+	 * last element also counting all longer lookups.
+	 * 
+	 * @return the iteration histogram
+	 * @since JWI 2.4.0
+	 */
+	public long[] getIterationHistogram();
+
+	/**
+	 * Resets all counters to zero.
+	 * 
+	 * @since JWI 2.4.0
+	 */
+	public void reset();
+
+}
@@ -12,6 +12,7 @@ package edu.mit.jwi.data;
 
 import java.io.File;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 /**
  * Concrete implementation of a wordnet file data source. This particular
@@ -52,19 +53,58 @@ public class DirectAccessWordnetFile<T> extends WordnetFile<T> {
 	 * @see edu.mit.jwi.data.IDataSource#getLine(java.lang.String)
 	 */
 	public String getLine(String key) {
-		ByteBuffer buffer = getBuffer();
-		synchronized(buffer){
-			try{
-				int byteOffset = Integer.parseInt(key);
-				if(buffer.limit() <= byteOffset) 
-					return null; 
+		// read from an independent view of the buffer, so that concurrent
+		// lookups neither block nor disturb each other
+		ByteBuffer buffer = getBuffer().duplicate();
+		DataSourceStatistics stats = getStatistics();
+		long time = (stats == null) ? 0 : System.nanoTime();
+		long bytes = 0;
+		String result = null;
+		try{
+			int byteOffset = Integer.parseInt(key);
+			if(buffer.limit() > byteOffset){
 				buffer.position(byteOffset);
 				String line = getLine(buffer, getContentType().getCharset());
-				return line.startsWith(key) ? line : null;
+				bytes = buffer.position() - byteOffset;
+				result = line.startsWith(key) ? line : null;
+			}
+		} catch(NumberFormatException e){
+			// not an offset; no line
+		}
+		if(stats != null)
+			stats.recordLookup(result != null, 1, bytes, System.nanoTime() - time);
+		return result;
+	}
+	
+	/**
+	 * Returns the lines for the specified keys, reading them in the order of
+	 * their byte offsets, so that a batch of keys visits the file front to
+	 * back. Keys that are not offsets are looked up last.
+	 * 
+	 * @see edu.mit.jwi.data.IDataSource#getLines(java.lang.String[])
+	 * @since JWI 2.4.0
+	 */
+	public String[] getLines(String[] keys) {
+		long[] order = new long[keys.length];
+		long offset;
+		for(int i = 0; i < keys.length; i++){
+			if(keys[i] == null)
+				throw new NullPointerException();
+			try{
+				offset = Integer.parseInt(keys[i]);
 			} catch(NumberFormatException e){
-				return null;
+				offset = Integer.MAX_VALUE;
 			}
+			order[i] = (offset << 32) | i;
+		}
+		Arrays.sort(order);
+		String[] result = new String[keys.length];
+		int index;
+		for(long entry : order){
+			index = (int)entry;
+			result[index] = getLine(keys[index]);
 		}
+		return result;
 	}
 	
 	/* 
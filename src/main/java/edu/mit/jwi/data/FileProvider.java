@@ -14,6 +14,7 @@ import java.io.File;
 import java.io.FileFilter;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
+import java.lang.management.ManagementFactory;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
@@ -31,9 +32,20 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
 import edu.mit.jwi.RAMDictionary;
 import edu.mit.jwi.data.parse.ILineParser;
 import edu.mit.jwi.item.ISynset;
@@ -59,7 +71,9 @@ import edu.mit.jwi.item.Synset;
  * Those wishing to achieve speed increases from loading Wordnet into memory
  * should rely on the implementation in {@link RAMDictionary}, or something
  * similar, which pre-processes the Wordnet data into objects before caching
- * them.
+ * them. The {@link ILoadPolicy#PRELOAD} policy, by contrast, only reads the
+ * mapped files into the page cache, which spares the first lookups the disk
+ * without copying the data onto the heap.
  * </p>
  * 
  * @author Mark A. Finlayson
@@ -68,6 +82,41 @@ import edu.mit.jwi.item.Synset;
  */
 public class FileProvider implements IDataProvider, ILoadable, ILoadPolicy {
 	
+	/**
+	 * The JMX domain under which the statistics of instrumented data sources
+	 * are registered.
+	 *
+	 * @since JWI 2.4.0
+	 */
+	public static final String JMX_DOMAIN = "edu.mit.jwi";
+	
+	/**
+	 * The system property that, when set to <code>true</code>, makes new
+	 * providers instrumented by default.
+	 *
+	 * @since JWI 2.4.0
+	 */
+	public static final String INSTRUMENT_PROPERTY = "edu.mit.jwi.instrumentSources";
+	
+	/**
+	 * The system property that, when set to <code>false</code>, makes new
+	 * providers create binary search files without line indexes.
+	 *
+	 * @since JWI 2.4.0
+	 */
+	public static final String INDEX_LINES_PROPERTY = "edu.mit.jwi.indexLines";
+	
+	/**
+	 * The system property that, when set to <code>false</code>, makes new
+	 * providers create binary search files without key filters.
+	 *
+	 * @since JWI 2.4.0
+	 */
+	public static final String FILTER_KEYS_PROPERTY = "edu.mit.jwi.filterKeys";
+	
+	// used to keep the JMX names of different providers apart
+	private static final AtomicInteger providerCount = new AtomicInteger();
+	
 	// final instance fields
 	private final Lock lifecycleLock = new ReentrantLock();
 	private final Lock loadingLock = new ReentrantLock();
@@ -76,10 +125,18 @@ public class FileProvider implements IDataProvider, ILoadable, ILoadPolicy {
 	// instance fields 
 	private URL url = null;
 	private IVersion version = null;
-	private Map<IContentType<?>, ILoadableDataSource<?>> fileMap = null;
+	
+	// the data sources, published by open() and withdrawn by close(); the
+	// map is never modified once published, so readers need take no lock
+	private volatile Map<IContentType<?>, ILoadableDataSource<?>> fileMap = null;
+	
 	private int loadPolicy = NO_LOAD;
 	private transient JWIBackgroundLoader loader = null;
 	private Charset charset = null;
+	private boolean instrumented = Boolean.getBoolean(INSTRUMENT_PROPERTY);
+	private boolean indexingLines = !"false".equalsIgnoreCase(System.getProperty(INDEX_LINES_PROPERTY));
+	private boolean filteringKeys = !"false".equalsIgnoreCase(System.getProperty(FILTER_KEYS_PROPERTY));
+	private List<ObjectName> mbeanNames = null;
 	
 	/**
 	 * Constructs the file provider pointing to the resource indicated by the
@@ -105,7 +162,7 @@ public class FileProvider implements IDataProvider, ILoadable, ILoadPolicy {
 	 *            <code>null</code>
 	 * @param loadPolicy
 	 *            the load policy for this provider; this provider supports the
-	 *            three values defined in <code>ILoadPolicy</code>.
+	 *            values defined in <code>ILoadPolicy</code>.
 	 * @throws NullPointerException
 	 *             if the specified file is <code>null</code>
 	 * @since JWI 2.2.0
@@ -124,7 +181,7 @@ public class FileProvider implements IDataProvider, ILoadable, ILoadPolicy {
 	 *            <code>null</code>
 	 * @param loadPolicy
 	 *            the load policy for this provider; this provider supports the
-	 *            three values defined in <code>ILoadPolicy</code>.
+	 *            values defined in <code>ILoadPolicy</code>.
 	 * @param types
 	 *            the content types this provider will look for when it loads
 	 *            its data; may not be <code>null</code> or empty
@@ -162,7 +219,7 @@ public class FileProvider implements IDataProvider, ILoadable, ILoadPolicy {
 	 *            <code>null</code>
 	 * @param loadPolicy
 	 *            the load policy for this provider; this provider supports the
-	 *            three values defined in <code>ILoadPolicy</code>.
+	 *            values defined in <code>ILoadPolicy</code>.
 	 * @throws NullPointerException
 	 *             if the specified URL is <code>null</code>
 	 * @since JWI 2.2.0
@@ -181,7 +238,7 @@ public class FileProvider implements IDataProvider, ILoadable, ILoadPolicy {
 	 *            <code>null</code>
 	 * @param loadPolicy
 	 *            the load policy for this provider; this provider supports the
-	 *            three values defined in <code>ILoadPolicy</code>.
+	 *            values defined in <code>ILoadPolicy</code>.
 	 * @param types
 	 *            the content types this provider will look for when it loads
 	 *            its data; may not be <code>null</code> or empty
@@ -256,9 +313,9 @@ public class FileProvider implements IDataProvider, ILoadable, ILoadPolicy {
 	 * @see edu.mit.jwi.item.IHasVersion#getVersion()
 	 */
 	public IVersion getVersion() {
-		checkOpen();
+		Map<IContentType<?>, ILoadableDataSource<?>> sources = getFileMap();
 		if(version == null) 
-			version = determineVersion(fileMap.values());
+			version = determineVersion(sources.values());
 		if(version == IVersion.NO_VERSION)
 			return null;
 		return version;
@@ -296,6 +353,200 @@ public class FileProvider implements IDataProvider, ILoadable, ILoadPolicy {
 		return ver;
 	}
 
+	/**
+	 * Returns <code>true</code> if the data sources created by this provider
+	 * record lookup statistics; <code>false</code> otherwise.
+	 * 
+	 * @return whether the data sources of this provider are instrumented
+	 * @since JWI 2.4.0
+	 */
+	public boolean isInstrumented() {
+		return instrumented;
+	}
+
+	/**
+	 * Sets whether the data sources created by this provider record lookup
+	 * statistics. The statistics are available through
+	 * {@link #getStatistics()} and are registered as MBeans on the platform
+	 * MBean server under the {@value #JMX_DOMAIN} domain while the provider is
+	 * open. Instrumentation is off unless the {@value #INSTRUMENT_PROPERTY}
+	 * system property is set to <code>true</code>.
+	 * 
+	 * @param instrumented
+	 *            whether data sources should be instrumented
+	 * @throws IllegalStateException
+	 *             if the provider is currently open
+	 * @since JWI 2.4.0
+	 */
+	public void setInstrumented(boolean instrumented) {
+		try {
+			lifecycleLock.lock();
+			if(isOpen()) 
+				throw new IllegalStateException("provider currently open");
+			this.instrumented = instrumented;
+		} finally {
+			lifecycleLock.unlock();
+		}
+	}
+
+	/**
+	 * Returns <code>true</code> if the binary search files created by this
+	 * provider index the start offsets of their lines; <code>false</code>
+	 * otherwise.
+	 * 
+	 * @return whether binary search files of this provider index their lines
+	 * @see BinarySearchWordnetFile#setIndexingLines(boolean)
+	 * @since JWI 2.4.0
+	 */
+	public boolean isIndexingLines() {
+		return indexingLines;
+	}
+
+	/**
+	 * Sets whether the binary search files created by this provider index the
+	 * start offsets of their lines when opened, which makes lookups in the
+	 * index, exception and sense files decode one line per search step
+	 * instead of two. Indexing is on unless the {@value #INDEX_LINES_PROPERTY}
+	 * system property is set to <code>false</code>.
+	 * 
+	 * @param indexingLines
+	 *            whether binary search files should index their lines
+	 * @throws IllegalStateException
+	 *             if the provider is currently open
+	 * @see BinarySearchWordnetFile#setIndexingLines(boolean)
+	 * @since JWI 2.4.0
+	 */
+	public void setIndexingLines(boolean indexingLines) {
+		try {
+			lifecycleLock.lock();
+			if(isOpen()) 
+				throw new IllegalStateException("provider currently open");
+			this.indexingLines = indexingLines;
+		} finally {
+			lifecycleLock.unlock();
+		}
+	}
+	
+	/**
+	 * Returns <code>true</code> if the binary search files created by this
+	 * provider build filters over their keys; <code>false</code> otherwise.
+	 * 
+	 * @return whether binary search files of this provider filter their keys
+	 * @see BinarySearchWordnetFile#setFilteringKeys(boolean)
+	 * @since JWI 2.4.0
+	 */
+	public boolean isFilteringKeys() {
+		return filteringKeys;
+	}
+
+	/**
+	 * Sets whether the binary search files created by this provider build a
+	 * {@link KeyFilter} over their keys when opened, so that lookups of index
+	 * words, exception entries and sense entries that are not in the
+	 * dictionary mostly return without a search. Filtering is on unless the
+	 * {@value #FILTER_KEYS_PROPERTY} system property is set to
+	 * <code>false</code>.
+	 * 
+	 * @param filteringKeys
+	 *            whether binary search files should filter their keys
+	 * @throws IllegalStateException
+	 *             if the provider is currently open
+	 * @see BinarySearchWordnetFile#setFilteringKeys(boolean)
+	 * @since JWI 2.4.0
+	 */
+	public void setFilteringKeys(boolean filteringKeys) {
+		try {
+			lifecycleLock.lock();
+			if(isOpen()) 
+				throw new IllegalStateException("provider currently open");
+			this.filteringKeys = filteringKeys;
+		} finally {
+			lifecycleLock.unlock();
+		}
+	}
+
+	/**
+	 * Returns the lookup statistics of the data sources of this provider, in
+	 * no particular order. The list is empty if the provider is not
+	 * instrumented.
+	 * 
+	 * @return the statistics of the data sources of this provider
+	 * @throws ObjectClosedException
+	 *             if the provider is not open
+	 * @since JWI 2.4.0
+	 */
+	public List<DataSourceStatistics> getStatistics() {
+		List<DataSourceStatistics> result = new ArrayList<DataSourceStatistics>();
+		for(IDataSource<?> source : getFileMap().values()){
+			if(source instanceof WordnetFile<?> && ((WordnetFile<?>)source).getStatistics() != null)
+				result.add(((WordnetFile<?>)source).getStatistics());
+		}
+		return result;
+	}
+	
+	/**
+	 * Returns the lookup statistics of the data source for the specified
+	 * content type, or <code>null</code> if there is no such data source or
+	 * it is not instrumented.
+	 * 
+	 * @param type
+	 *            the content type of the data source
+	 * @return the statistics of the data source, possibly <code>null</code>
+	 * @throws ObjectClosedException
+	 *             if the provider is not open
+	 * @since JWI 2.4.0
+	 */
+	public DataSourceStatistics getStatistics(IContentType<?> type) {
+		IDataSource<?> source = getSource(type);
+		return (source instanceof WordnetFile<?>) ? 
+				((WordnetFile<?>)source).getStatistics() : 
+					null;
+	}
+	
+	/**
+	 * Registers the statistics of all instrumented data sources on the
+	 * platform MBean server.
+	 * 
+	 * @since JWI 2.4.0
+	 */
+	protected void registerStatistics() {
+		List<DataSourceStatistics> stats = getStatistics();
+		if(stats.isEmpty())
+			return;
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		int id = providerCount.incrementAndGet();
+		List<ObjectName> names = new ArrayList<ObjectName>(stats.size());
+		for(DataSourceStatistics stat : stats){
+			try {
+				ObjectName name = new ObjectName(JMX_DOMAIN + ":type=DataSource,provider=" + id + ",name=" + ObjectName.quote(stat.getName()));
+				server.registerMBean(stat, name);
+				names.add(name);
+			} catch (JMException e) {
+				e.printStackTrace();
+			}
+		}
+		mbeanNames = names;
+	}
+	
+	/**
+	 * Removes the MBeans registered by {@link #registerStatistics()}, if any.
+	 * 
+	 * @since JWI 2.4.0
+	 */
+	protected void unregisterStatistics() {
+		if(mbeanNames == null)
+			return;
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		for(ObjectName name : mbeanNames){
+			try {
+				server.unregisterMBean(name);
+			} catch (JMException e) {
+				e.printStackTrace();
+			}
+		}
+		mbeanNames = null;
+	}
+
 	/* 
 	 * (non-Javadoc) 
 	 *
@@ -384,6 +635,10 @@ public class FileProvider implements IDataProvider, ILoadable, ILoadPolicy {
 				hiddenMap = Collections.unmodifiableMap(hiddenMap);
 			this.fileMap = hiddenMap;
 			
+			// publish the lookup statistics
+			if(instrumented)
+				registerStatistics();
+			
 			// do load
 			try {
 				switch(loadPolicy){
@@ -393,6 +648,9 @@ public class FileProvider implements IDataProvider, ILoadable, ILoadPolicy {
 				case IMMEDIATE_LOAD:
 					load(true);
 					break;
+				case PRELOAD:
+					preload();
+					break;
 				default:
 					// do nothing
 				}
@@ -443,17 +701,75 @@ public class FileProvider implements IDataProvider, ILoadable, ILoadPolicy {
 
 	}
 
+	/**
+	 * Reads the pages of every file of this provider into memory, leaving the
+	 * data in the buffers that map the files; see
+	 * {@link WordnetFile#preload()}. The files are read in parallel, one per
+	 * thread, up to the number of available processors, and this method blocks
+	 * until all of them have been read. This is what the provider does when it
+	 * is opened with the {@link ILoadPolicy#PRELOAD} policy.
+	 *
+	 * @throws InterruptedException
+	 *             if the calling thread is interrupted while waiting for the
+	 *             files to be read
+	 * @throws ObjectClosedException
+	 *             if the provider is not open
+	 * @since JWI 2.4.0
+	 */
+	public void preload() throws InterruptedException {
+		List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+		for(final ILoadableDataSource<?> source : getFileMap().values()){
+			if(source instanceof WordnetFile<?> && !source.isLoaded()){
+				tasks.add(new Callable<Void>() {
+					public Void call() {
+						((WordnetFile<?>)source).preload();
+						return null;
+					}
+				});
+			}
+		}
+		if(tasks.isEmpty())
+			return;
+		
+		int threads = Math.min(tasks.size(), Runtime.getRuntime().availableProcessors());
+		ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+			private final AtomicInteger count = new AtomicInteger();
+			public Thread newThread(Runnable r) {
+				Thread result = new Thread(r, "JWI preloader " + count.incrementAndGet());
+				result.setDaemon(true);
+				return result;
+			}
+		});
+		try {
+			for(Future<Void> future : executor.invokeAll(tasks)){
+				try {
+					future.get();
+				} catch(ExecutionException e){
+					Throwable cause = e.getCause();
+					if(cause instanceof RuntimeException)
+						throw (RuntimeException)cause;
+					if(cause instanceof Error)
+						throw (Error)cause;
+					throw new RuntimeException(cause);
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
 	/* 
 	 * (non-Javadoc) 
 	 *
 	 * @see edu.mit.jwi.data.ILoadable#isLoaded()
 	 */
 	public boolean isLoaded() {
-		if(!isOpen()) 
+		Map<IContentType<?>, ILoadableDataSource<?>> sources = fileMap;
+		if(sources == null) 
 			throw new IllegalStateException("provider not open");
 		try {
 			loadingLock.lock();
-			for(ILoadableDataSource<?> source : fileMap.values())
+			for(ILoadableDataSource<?> source : sources.values())
 				if(!source.isLoaded()) 
 					return false;
 			return true;
@@ -488,7 +804,10 @@ public class FileProvider implements IDataProvider, ILoadable, ILoadPolicy {
 			if(file == null)
 				continue;
 			files.remove(file);
-			result.put(type, createDataSource(file, type, policy));
+			ILoadableDataSource<?> src = createDataSource(file, type, policy);
+			if(instrumented && src instanceof WordnetFile<?>)
+				((WordnetFile<?>)src).setStatistics(new DataSourceStatistics(src.getName(), type));
+			result.put(type, src);
 		}
 		return result;
 	}
@@ -607,7 +926,10 @@ public class FileProvider implements IDataProvider, ILoadable, ILoadPolicy {
 	 * @since JWI 2.2.0
 	 */
 	protected <T> ILoadableDataSource<T> createBinarySearch(File file, IContentType<T> type) throws IOException {
-		return new BinarySearchWordnetFile<T>(file, type);
+		BinarySearchWordnetFile<T> src = new BinarySearchWordnetFile<T>(file, type);
+		src.setIndexingLines(indexingLines);
+		src.setFilteringKeys(filteringKeys);
+		return src;
 	}
 	
 	/* 
@@ -616,12 +938,7 @@ public class FileProvider implements IDataProvider, ILoadable, ILoadPolicy {
 	 * @see edu.mit.jwi.data.IHasLifecycle#isOpen()
 	 */
 	public boolean isOpen() {
-		try {
-			lifecycleLock.lock();
-			return fileMap != null;
-		} finally {
-			lifecycleLock.unlock();
-		}
+		return fileMap != null;
 	}
 
 	/* 
@@ -632,13 +949,18 @@ public class FileProvider implements IDataProvider, ILoadable, ILoadPolicy {
 	public void close() {
 		try {
 			lifecycleLock.lock();
-			if(!isOpen()) 
+			Map<IContentType<?>, ILoadableDataSource<?>> sources = fileMap;
+			if(sources == null) 
 				return;
 			if(loader != null) 
 				loader.cancel();
-			for(IDataSource<?> source : fileMap.values()) 
-				source.close();
+			
+			// withdraw the sources before closing them, so that no new
+			// lookup reaches a closed source through this provider
 			fileMap = null;
+			unregisterStatistics();
+			for(IDataSource<?> source : sources.values()) 
+				source.close();
 		} finally {
 			lifecycleLock.unlock();
 		}
@@ -656,6 +978,24 @@ public class FileProvider implements IDataProvider, ILoadable, ILoadPolicy {
 			throw new ObjectClosedException();
 	}
 
+	/**
+	 * Returns the map of content types to data sources published when this
+	 * provider was opened. Callers should read the map once and use the
+	 * returned value throughout, so that a concurrent call to
+	 * {@link #close()} cannot withdraw it between a check and a use.
+	 * 
+	 * @return the data sources of this provider, keyed by content type
+	 * @throws ObjectClosedException
+	 *             if the provider is closed
+	 * @since JWI 2.4.0
+	 */
+	protected Map<IContentType<?>, ILoadableDataSource<?>> getFileMap() {
+		Map<IContentType<?>, ILoadableDataSource<?>> result = fileMap;
+		if(result == null) 
+			throw new ObjectClosedException();
+		return result;
+	}
+
 	/* 
 	 * (non-Javadoc) 
 	 *
@@ -664,7 +1004,7 @@ public class FileProvider implements IDataProvider, ILoadable, ILoadPolicy {
 	// no way to safely cast; must rely on registerSource method to assure compliance
 	@SuppressWarnings("unchecked") 
 	public <T> ILoadableDataSource<T> getSource(IContentType<T> type) {
-		checkOpen();
+		Map<IContentType<?>, ILoadableDataSource<?>> sources = getFileMap();
 		
 		// assume at first this the prototype
 		IContentType<?> actualType = prototypeMap.get(type);
@@ -673,7 +1013,7 @@ public class FileProvider implements IDataProvider, ILoadable, ILoadPolicy {
 		if(actualType == null)
 			actualType = type;
 		
-		return (ILoadableDataSource<T>)fileMap.get(actualType);
+		return (ILoadableDataSource<T>)sources.get(actualType);
 	}
 
 	/* 
@@ -720,8 +1060,11 @@ public class FileProvider implements IDataProvider, ILoadable, ILoadPolicy {
 		 */
 		@Override
 		public void run() {
+			Map<IContentType<?>, ILoadableDataSource<?>> sources = fileMap;
 			try {
-				for(ILoadableDataSource<?> source : fileMap.values()){
+				if(sources == null)
+					return;
+				for(ILoadableDataSource<?> source : sources.values()){
 					if(!cancel && !source.isLoaded()){
 						try {
 							source.load(true);
@@ -73,6 +73,32 @@ public interface IDataSource<T> extends IHasVersion, Iterable<String>, IHasLifec
 	 */
 	public String getLine(String key);
 
+	/**
+	 * Returns the lines indexed by the specified keys, as if by calling
+	 * {@link #getLine(String)} for each key in turn. Implementations may
+	 * resolve the keys in any order, and may share work between them, such
+	 * as by visiting the keys in the order of the resource. The default
+	 * implementation calls {@link #getLine(String)} for each key.
+	 * 
+	 * @param keys
+	 *            the keys which index the desired data; may not be
+	 *            <code>null</code> or contain <code>null</code>
+	 * @return an array holding, at the position of each key, the line indexed
+	 *         by that key, or <code>null</code> if there is none
+	 * @throws NullPointerException
+	 *             if the specified array is, or contains, <code>null</code>
+	 * @since JWI 2.4.0
+	 */
+	public default String[] getLines(String[] keys) {
+		String[] result = new String[keys.length];
+		for(int i = 0; i < keys.length; i++){
+			if(keys[i] == null)
+				throw new NullPointerException();
+			result[i] = getLine(keys[i]);
+		}
+		return result;
+	}
+
 	/**
 	 * Returns an iterator that will iterator over lines in the data resource,
 	 * starting at the line specified by the given key. If the key is
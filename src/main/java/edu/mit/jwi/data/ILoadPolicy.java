@@ -51,6 +51,18 @@ public interface ILoadPolicy {
 	 */
 	public static final int IMMEDIATE_LOAD = 1 << 3;
 
+	/**
+	 * Loading behavior where the object reads its data into memory when
+	 * instantiated, initialized, or opened, blocking the method, but leaves
+	 * the data where it already is rather than copying it onto the heap: for
+	 * memory-mapped files, the pages of the mapping are read in, and are then
+	 * held by the operating system. Objects that do not support this behavior
+	 * treat it as {@link #NO_LOAD}. Value is 1 << 4.
+	 *
+	 * @since JWI 2.4.0
+	 */
+	public static final int PRELOAD = 1 << 4;
+
 	/**
 	 * Sets the load policy for this object. If the object is currently loaded,
 	 * or in the process of loading, the load policy will not take effect until
@@ -0,0 +1,271 @@
+/********************************************************************************
+ * Java Wordnet Interface Library (JWI) v2.4.0
+ * Top Level Tagger additions, Copyright (c) 2017 Lambda³
+ *
+ * JWI is distributed under the terms of the Creative Commons Attribution 4.0
+ * International Public License, which means it may be freely used for all
+ * purposes, as long as proper acknowledgment is made.  See the license file
+ * included with this distribution for more details.
+ *******************************************************************************/
+
+package edu.mit.jwi.data;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * A Bloom filter over the keys of the lines of a file, that is, over the
+ * leading, space-delimited field of each line. A key that the filter reports
+ * as absent is certainly not the key of any line, so a lookup for it can
+ * return without searching the file; a key that the filter reports as
+ * possibly present is in the file, except with a small false-positive
+ * probability that depends on the number of bits per key.
+ * <p>
+ * Keys are compared case-insensitively over the ASCII range, which is a
+ * superset of what every line comparator of the standard Wordnet files
+ * considers equal. Keys outside the ASCII range cannot be tested and must
+ * always be searched for.
+ *
+ * @version 2.4.0
+ * @since JWI 2.4.0
+ */
+public class KeyFilter {
+
+	/**
+	 * The default number of bits per key, which gives a false-positive rate of
+	 * about one percent.
+	 *
+	 * @since JWI 2.4.0
+	 */
+	public static final int DEFAULT_BITS_PER_KEY = 10;
+
+	// final instance fields
+	private final long[] bits;
+	private final long mask;
+	private final int hashCount;
+	private int keyCount;
+
+	/**
+	 * Creates an empty filter sized for the specified number of keys.
+	 *
+	 * @param expectedKeys
+	 *            the number of keys that will be added to the filter
+	 * @param bitsPerKey
+	 *            the number of bits to allocate for each key
+	 * @throws IllegalArgumentException
+	 *             if the number of bits per key is less than one
+	 * @since JWI 2.4.0
+	 */
+	public KeyFilter(int expectedKeys, int bitsPerKey) {
+		if(bitsPerKey < 1)
+			throw new IllegalArgumentException("bits per key must be positive: " + bitsPerKey);
+		long wanted = Math.max(64L, (long)Math.max(expectedKeys, 1) * bitsPerKey);
+		long size = Long.highestOneBit(wanted - 1) << 1;
+		size = Math.min(size, 1L << 36);
+		this.bits = new long[(int)(size >>> 6)];
+		this.mask = size - 1;
+		// the optimal number of hash functions for the actual bits per key
+		double bitsPerKeyActual = (double)size / Math.max(expectedKeys, 1);
+		this.hashCount = (int)Math.max(1, Math.min(16, Math.round(bitsPerKeyActual * Math.log(2))));
+	}
+
+	/**
+	 * Builds a filter over the keys of the lines of the specified buffer.
+	 * Lines that start with a space, such as the license header of the
+	 * Wordnet files, have no key and are skipped.
+	 *
+	 * @param buffer
+	 *            the buffer holding the lines; may not be <code>null</code>;
+	 *            its position and limit are not changed
+	 * @param cs
+	 *            the character set in which the lines are encoded, which must
+	 *            encode ASCII characters as single bytes of the same value;
+	 *            may be <code>null</code>
+	 * @param bitsPerKey
+	 *            the number of bits to allocate for each key
+	 * @return the filter over the keys of the buffer
+	 * @throws NullPointerException
+	 *             if the specified buffer is <code>null</code>
+	 * @since JWI 2.4.0
+	 */
+	public static KeyFilter build(ByteBuffer buffer, Charset cs, int bitsPerKey) {
+		int limit = buffer.limit();
+
+		// count the lines, to size the filter
+		int lines = 0;
+		for(int start = 0; start < limit; start = WordnetFile.findLineEnd(buffer, start) + 1)
+			lines++;
+
+		KeyFilter filter = new KeyFilter(lines, bitsPerKey);
+		int end;
+		byte b;
+		boolean ascii;
+		for(int start = 0; start < limit; start = WordnetFile.findLineEnd(buffer, start) + 1){
+			ascii = true;
+			for(end = start; end < limit; end++){
+				b = buffer.get(end);
+				if(b == ' ' || b == '\n' || b == '\r')
+					break;
+				if(b < 0)
+					ascii = false;
+			}
+			if(end == start)
+				continue;
+			if(ascii){
+				filter.add(hash(buffer, start, end));
+			} else {
+				// non-ASCII keys may still fold to ASCII when lower-cased
+				String key = decode(buffer, start, end, cs).toLowerCase();
+				if(isAscii(key))
+					filter.add(hash(key));
+			}
+		}
+		return filter;
+	}
+
+	/**
+	 * Returns <code>false</code> if no line of the file has the specified
+	 * key; <code>true</code> if one may have.
+	 *
+	 * @param key
+	 *            the ASCII bytes of the key; may not be <code>null</code>
+	 * @return <code>false</code> if the key is certainly absent;
+	 *         <code>true</code> otherwise
+	 * @throws NullPointerException
+	 *             if the specified key is <code>null</code>
+	 * @since JWI 2.4.0
+	 */
+	public boolean mightContain(byte[] key) {
+		long hash = hash(key);
+		int h1 = (int)hash;
+		int h2 = (int)(hash >>> 32);
+		long index;
+		for(int i = 0; i < hashCount; i++){
+			index = (h1 + (long)i * h2) & mask;
+			if((bits[(int)(index >>> 6)] & (1L << index)) == 0)
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the number of keys added to this filter.
+	 *
+	 * @return the number of keys in this filter
+	 * @since JWI 2.4.0
+	 */
+	public int getKeyCount() {
+		return keyCount;
+	}
+
+	/**
+	 * Returns the size of this filter, in bytes.
+	 *
+	 * @return the number of bytes taken by the bits of this filter
+	 * @since JWI 2.4.0
+	 */
+	public long getByteCount() {
+		return 8L * bits.length;
+	}
+
+	/**
+	 * Returns the number of hash functions of this filter.
+	 *
+	 * @return the number of bits tested per key
+	 * @since JWI 2.4.0
+	 */
+	public int getHashCount() {
+		return hashCount;
+	}
+
+	/**
+	 * Returns the probability that a key absent from the file is reported as
+	 * possibly present, estimated from the fraction of bits that are set.
+	 *
+	 * @return the expected false-positive rate of this filter
+	 * @since JWI 2.4.0
+	 */
+	public double getExpectedFalsePositiveRate() {
+		long set = 0;
+		for(long word : bits)
+			set += Long.bitCount(word);
+		return Math.pow((double)set / (mask + 1), hashCount);
+	}
+
+	/**
+	 * Sets the bits of the specified key hash.
+	 */
+	private void add(long hash) {
+		int h1 = (int)hash;
+		int h2 = (int)(hash >>> 32);
+		long index;
+		for(int i = 0; i < hashCount; i++){
+			index = (h1 + (long)i * h2) & mask;
+			bits[(int)(index >>> 6)] |= 1L << index;
+		}
+		keyCount++;
+	}
+
+	/**
+	 * Hashes the bytes of a key between the specified offsets of the buffer,
+	 * lower-casing ASCII letters.
+	 */
+	private static long hash(ByteBuffer buffer, int from, int to) {
+		long h = 0xcbf29ce484222325L;
+		for(int i = from; i < to; i++)
+			h = (h ^ lowerCase(buffer.get(i))) * 0x100000001b3L;
+		return mix(h);
+	}
+
+	/**
+	 * Hashes the bytes of a key, lower-casing ASCII letters.
+	 */
+	private static long hash(byte[] key) {
+		long h = 0xcbf29ce484222325L;
+		for(byte b : key)
+			h = (h ^ lowerCase(b)) * 0x100000001b3L;
+		return mix(h);
+	}
+
+	/**
+	 * Hashes the characters of an ASCII key, lower-casing letters.
+	 */
+	private static long hash(String key) {
+		long h = 0xcbf29ce484222325L;
+		for(int i = 0; i < key.length(); i++)
+			h = (h ^ lowerCase((byte)key.charAt(i))) * 0x100000001b3L;
+		return mix(h);
+	}
+
+	private static int lowerCase(byte b) {
+		return (b >= 'A' && b <= 'Z') ? b + ('a' - 'A') : b;
+	}
+
+	/**
+	 * Spreads the bits of a hash, so that its two halves may serve as
+	 * independent hashes.
+	 */
+	private static long mix(long h) {
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return h;
+	}
+
+	private static String decode(ByteBuffer buffer, int from, int to, Charset cs) {
+		byte[] bytes = new byte[to - from];
+		for(int i = from; i < to; i++)
+			bytes[i - from] = buffer.get(i);
+		return (cs == null) ? new String(bytes) : new String(bytes, cs);
+	}
+
+	private static boolean isAscii(String s) {
+		for(int i = 0; i < s.length(); i++)
+			if(s.charAt(i) > 0x7F)
+				return false;
+		return true;
+	}
+
+}
@@ -14,6 +14,7 @@ import java.io.File;
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.util.Iterator;
@@ -48,6 +49,12 @@ import edu.mit.jwi.item.Version;
  */
 public abstract class WordnetFile<T> implements ILoadableDataSource<T> {
 	
+	// masks for scanning eight bytes at a time
+	private static final long LOW_BITS = 0x0101010101010101L;
+	private static final long HIGH_BITS = 0x8080808080808080L;
+	private static final long NEWLINES = 0x0A0A0A0A0A0A0A0AL;
+	private static final long RETURNS = 0x0D0D0D0D0D0D0D0DL;
+
 	// fields set on construction
 	private final String name;
 	private final IContentType<T> type;
@@ -55,15 +62,18 @@ public abstract class WordnetFile<T> implements ILoadableDataSource<T> {
 	private final File file;
 
 	// loading locks and status flag
-	// the flag is marked transient to avoid different values in different threads 
-	private transient boolean isLoaded = false;
+	private volatile boolean isLoaded = false;
 	private final Lock lifecycleLock = new ReentrantLock();
 	private final Lock loadingLock = new ReentrantLock();
 	
-	// fields generated dynamically on demand
+	// fields generated dynamically on demand; the buffer is published by
+	// open() and load() and withdrawn by close(), and is read without a lock
 	private FileChannel channel;
-	private ByteBuffer buffer;
+	private volatile ByteBuffer buffer;
 	private IVersion version;
+	
+	// lookup statistics, if instrumented
+	private volatile DataSourceStatistics statistics;
 
 	/**
 	 * Constructs an instance of this class backed by the specified java
@@ -112,17 +122,43 @@ public abstract class WordnetFile<T> implements ILoadableDataSource<T> {
 	}
 
 	/**
-	 * Returns the buffer which backs this object.
-	 * 
+	 * Returns the buffer which backs this object. The buffer is shared by all
+	 * threads reading this file, so its position and limit are never changed;
+	 * callers should read from a {@link ByteBuffer#duplicate()} of it.
+	 *
 	 * @return the buffer which backs this object
 	 * @throws ObjectClosedException
 	 *             if the object is closed
 	 * @since JWI 2.2.0
 	 */
 	public ByteBuffer getBuffer(){
-		if(!isOpen()) 
+		ByteBuffer result = buffer;
+		if(result == null) 
 			throw new ObjectClosedException();
-		return buffer;
+		return result;
+	}
+
+	/**
+	 * Returns the statistics to which lookups on this file are reported, or
+	 * <code>null</code> if the file is not instrumented.
+	 * 
+	 * @return the lookup statistics of this file, possibly <code>null</code>
+	 * @since JWI 2.4.0
+	 */
+	public DataSourceStatistics getStatistics(){
+		return statistics;
+	}
+
+	/**
+	 * Sets the statistics to which lookups on this file are reported. If
+	 * <code>null</code>, lookups are not instrumented, which is the default.
+	 * 
+	 * @param statistics
+	 *            the statistics to report to; may be <code>null</code>
+	 * @since JWI 2.4.0
+	 */
+	public void setStatistics(DataSourceStatistics statistics){
+		this.statistics = statistics;
 	}
 
 	/* 
@@ -160,12 +196,7 @@ public abstract class WordnetFile<T> implements ILoadableDataSource<T> {
 	 * @see edu.mit.jwi.data.IHasLifecycle#isOpen()
 	 */
 	public boolean isOpen(){
-		try{
-			lifecycleLock.lock();
-			return buffer != null;
-		} finally {
-			lifecycleLock.unlock();
-		}
+		return buffer != null;
 	}
 	
 	/* 
@@ -247,6 +278,27 @@ public abstract class WordnetFile<T> implements ILoadableDataSource<T> {
 		}
 	}
 
+	/**
+	 * Reads the whole file into memory without copying it. Where
+	 * {@link #load(boolean)} copies the file into an array on the heap, this
+	 * method leaves the data in the buffer that maps the file and reads in
+	 * its pages with {@link MappedByteBuffer#load()}, so that the first
+	 * lookups do not wait on the disk. The pages are held in the page cache
+	 * of the operating system, outside the heap, and are shared with any
+	 * other process that maps the same file. The operating system may evict
+	 * them again under memory pressure. Does nothing if the file has already
+	 * been loaded onto the heap.
+	 *
+	 * @throws ObjectClosedException
+	 *             if the object is closed when this method is called
+	 * @since JWI 2.4.0
+	 */
+	public void preload() {
+		ByteBuffer buf = getBuffer();
+		if(buf instanceof MappedByteBuffer)
+			((MappedByteBuffer)buf).load();
+	}
+
 	/**
 	 * Returns the wordnet version associated with this object, or null if the
 	 * version cannot be determined.
@@ -258,16 +310,15 @@ public abstract class WordnetFile<T> implements ILoadableDataSource<T> {
 	 * @see edu.mit.jwi.item.IHasVersion#getVersion()
 	 */
 	public IVersion getVersion() {
-		if(!isOpen()) 
-			throw new ObjectClosedException();
+		ByteBuffer buf = getBuffer();
 		if(version == null){
-			version = Version.extractVersion(type, buffer.asReadOnlyBuffer());
+			version = Version.extractVersion(type, buf.asReadOnlyBuffer());
 			if(version == null) 
 				version = IVersion.NO_VERSION;
 		}
 		return (version == IVersion.NO_VERSION) ? null : version;
 	}
-	
+
 	/* 
 	 * (non-Javadoc) 
 	 *
@@ -359,33 +410,16 @@ public abstract class WordnetFile<T> implements ILoadableDataSource<T> {
 
 		// we are at end of buffer, return null
 		int limit = buf.limit();
-		if(buf.position() == limit)
+		int start = buf.position();
+		if(start == limit)
 			return null;
 		
-		StringBuilder input = new StringBuilder();
-		char c;
-		boolean eol = false;
-		
-		while(!eol && buf.position() < limit) {
-			c = (char)buf.get();
-		    switch (c) {
-			    case '\n':
-					eol = true;
-					break;
-			    case '\r':
-					eol = true;
-					int cur = buf.position();
-					c = (char)buf.get();
-					if(c != '\n')
-						buf.position(cur);
-					break;
-			    default:
-					input.append(c);
-					break;
-		    }
-		}
-	
-		return input.toString();
+		int end = findLineEnd(buf, start);
+		char[] input = new char[end - start];
+		for(int i = start; i < end; i++)
+			input[i - start] = (char)buf.get(i);
+		buf.position(skipLineEnd(buf, end));
+		return new String(input);
 	}
 	
 	/**
@@ -421,27 +455,9 @@ public abstract class WordnetFile<T> implements ILoadableDataSource<T> {
 		// e.g., the single bytes 0x0A or 0x0D, or the two-byte sequence
 		// 0x0D0A.  If the byte buffer doesn't follow these conventions,
 		// this method will fail.
-		byte b;
-		boolean eol = false;
 		int start = buf.position();	
-		int end = start;
-		while(!eol && buf.position() < limit) {
-			b = buf.get();
-		    switch (b) {
-			    case 0x0A: // newline \n = 0x0A = 10
-					eol = true;
-					break;
-			    case 0x0D: // carriage return \r = 0x0D = 13
-					eol = true;
-					int cur = buf.position();
-					b = buf.get();
-					if(b != 0x0A) // check for following newline
-						buf.position(cur);
-					break;
-			    default:
-					end++;
-		    }
-		}
+		int end = findLineEnd(buf, start);
+		buf.position(skipLineEnd(buf, end));
 		
 		// get sub view containing only the bytes of interest
 		buf = (ByteBuffer)buf.duplicate().position(start).limit(end);
@@ -450,6 +466,70 @@ public abstract class WordnetFile<T> implements ILoadableDataSource<T> {
 		return cs.decode(buf).toString();
 	}
 	
+	/**
+	 * Returns the offset of the first newline (0x0A) or carriage return (0x0D)
+	 * byte at or after the specified offset, or the limit of the buffer if
+	 * there is none. The buffer is read eight bytes at a time, testing all
+	 * eight for a line terminator with a few arithmetic operations, which is
+	 * considerably faster than testing each byte in turn for the long lines of
+	 * the data and index files. The buffer's position is not changed.
+	 * 
+	 * @param buf
+	 *            the buffer to scan; may not be <code>null</code>
+	 * @param from
+	 *            the offset at which to start scanning
+	 * @return the offset of the next line terminator, or the buffer's limit
+	 * @throws NullPointerException
+	 *             if the specified buffer is <code>null</code>
+	 * @since JWI 2.4.0
+	 */
+	public static int findLineEnd(ByteBuffer buf, int from){
+		int limit = buf.limit();
+		int i = from;
+		
+		// skip whole words that contain neither terminator; a word
+		// x has a zero byte if (x - 0x01..01) & ~x & 0x80..80 is non-zero
+		long word, nl, cr;
+		for(; i + 8 <= limit; i += 8){
+			word = buf.getLong(i);
+			nl = word ^ NEWLINES;
+			cr = word ^ RETURNS;
+			if(((((nl - LOW_BITS) & ~nl) | ((cr - LOW_BITS) & ~cr)) & HIGH_BITS) != 0)
+				break;
+		}
+		
+		// find the terminator in the last word
+		byte b;
+		for(; i < limit; i++){
+			b = buf.get(i);
+			if(b == 0x0A || b == 0x0D)
+				return i;
+		}
+		return limit;
+	}
+	
+	/**
+	 * Returns the offset just after the line terminator (either \n, \r, or
+	 * \r\n) at the specified offset, or the offset itself if it is the limit
+	 * of the buffer.
+	 * 
+	 * @param buf
+	 *            the buffer; may not be <code>null</code>
+	 * @param end
+	 *            the offset of a line terminator, as returned by
+	 *            {@link #findLineEnd(ByteBuffer, int)}
+	 * @return the offset of the start of the next line
+	 * @since JWI 2.4.0
+	 */
+	private static int skipLineEnd(ByteBuffer buf, int end){
+		int limit = buf.limit();
+		if(end == limit)
+			return end;
+		if(buf.get(end) == 0x0D && end + 1 < limit && buf.get(end + 1) == 0x0A)
+			return end + 2;
+		return end + 1;
+	}
+	
 	/**
 	 * Rewinds the specified buffer to the beginning of the current line.
 	 * 
@@ -0,0 +1,102 @@
+/********************************************************************************
+ * Java Wordnet Interface Library (JWI) v2.4.0
+ * Top Level Tagger additions, Copyright (c) 2017 Lambda³
+ *
+ * JWI is distributed under the terms of the Creative Commons Attribution 4.0
+ * International Public License, which means it may be freely used for all
+ * purposes, as long as proper acknowledgment is made.  See the license file
+ * included with this distribution for more details.
+ *******************************************************************************/
+
+package edu.mit.jwi.data.compare;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Byte-level comparison of the leading, space-delimited field of a line with
+ * a key, shared by the comparators that implement
+ * {@link IByteLineComparator}.
+ *
+ * @version 2.4.0
+ * @since JWI 2.4.0
+ */
+final class AsciiFields {
+
+	/**
+	 * This class is not instantiable.
+	 *
+	 * @since JWI 2.4.0
+	 */
+	private AsciiFields() {}
+
+	/**
+	 * Returns the ASCII bytes of the part of the key before its first space,
+	 * or <code>null</code> if that part contains characters outside the ASCII
+	 * range.
+	 *
+	 * @param key
+	 *            the key; may not be <code>null</code>
+	 * @param lowerCase
+	 *            whether the key should be converted to lower case
+	 * @return the bytes of the leading field of the key, or <code>null</code>
+	 * @since JWI 2.4.0
+	 */
+	static byte[] encode(String key, boolean lowerCase) {
+		int end = key.indexOf(' ');
+		if(end == -1)
+			end = key.length();
+		if(lowerCase)
+			key = key.substring(0, end).toLowerCase();
+		end = Math.min(end, key.length());
+
+		byte[] result = new byte[end];
+		char c;
+		for(int i = 0; i < end; i++){
+			c = key.charAt(i);
+			if(c > 0x7F)
+				return null;
+			result[i] = (byte)c;
+		}
+		return result;
+	}
+
+	/**
+	 * Compares the field that starts at the specified offset, and ends at the
+	 * first space, newline or carriage return, with the specified key, as
+	 * {@link String#compareTo(String)} would compare them.
+	 *
+	 * @param buffer
+	 *            the buffer holding the line
+	 * @param offset
+	 *            the offset at which the line starts
+	 * @param key
+	 *            the encoded key
+	 * @param lowerCase
+	 *            whether upper case ASCII letters in the line should be
+	 *            converted to lower case
+	 * @return the result of the comparison, or
+	 *         {@link IByteLineComparator#UNDECIDED} if the field contains a
+	 *         byte outside the ASCII range
+	 * @since JWI 2.4.0
+	 */
+	static int compare(ByteBuffer buffer, int offset, byte[] key, boolean lowerCase) {
+		int limit = buffer.limit();
+		int i = 0;
+		byte b;
+		for(int pos = offset; pos < limit; pos++, i++){
+			b = buffer.get(pos);
+			if(b < 0)
+				return IByteLineComparator.UNDECIDED;
+			if(b == ' ' || b == '\n' || b == '\r')
+				break;
+			if(i == key.length)
+				return 1;
+			if(lowerCase && b >= 'A' && b <= 'Z')
+				b += 'a' - 'A';
+			if(b != key[i])
+				return b - key[i];
+		}
+		return (i == key.length) ? 0 : -1;
+	}
+
+}
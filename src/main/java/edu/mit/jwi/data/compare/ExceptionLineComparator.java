@@ -10,6 +10,7 @@
 
 package edu.mit.jwi.data.compare;
 
+import java.nio.ByteBuffer;
 import java.util.regex.Pattern;
 
 import edu.mit.jwi.data.parse.ILineParser.MisformattedLineException;
@@ -30,7 +31,7 @@ import edu.mit.jwi.data.parse.ILineParser.MisformattedLineException;
  * @version 2.4.0
  * @since JWI 1.0
  */
-public class ExceptionLineComparator implements ILineComparator {
+public class ExceptionLineComparator implements IByteLineComparator {
 
 	// singleton instance
 	private static ExceptionLineComparator instance;
@@ -79,6 +80,24 @@ public class ExceptionLineComparator implements ILineComparator {
 		return words1[0].compareTo(words2[0]);
 	}
 
+	/* 
+	 * (non-Javadoc) 
+	 *
+	 * @see edu.mit.jwi.data.compare.IByteLineComparator#getKeyBytes(java.lang.String)
+	 */
+	public byte[] getKeyBytes(String key) {
+		return AsciiFields.encode(key, false);
+	}
+
+	/* 
+	 * (non-Javadoc) 
+	 *
+	 * @see edu.mit.jwi.data.compare.IByteLineComparator#compare(java.nio.ByteBuffer, int, byte[])
+	 */
+	public int compare(ByteBuffer buffer, int offset, byte[] key) {
+		return AsciiFields.compare(buffer, offset, key, false);
+	}
+
 	/* 
 	 * (non-Javadoc) 
 	 *
@@ -0,0 +1,75 @@
+/********************************************************************************
+ * Java Wordnet Interface Library (JWI) v2.4.0
+ * Top Level Tagger additions, Copyright (c) 2017 Lambda³
+ *
+ * JWI is distributed under the terms of the Creative Commons Attribution 4.0
+ * International Public License, which means it may be freely used for all
+ * purposes, as long as proper acknowledgment is made.  See the license file
+ * included with this distribution for more details.
+ *******************************************************************************/
+
+package edu.mit.jwi.data.compare;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A line comparator that can also compare a search key against a line that is
+ * still encoded in a byte buffer, without first decoding the line into a
+ * string. This is possible for files whose lines are ordered by a leading
+ * field of ASCII text, which is the case for all the files that are searched
+ * by key in the standard Wordnet distribution. A byte comparison must agree in
+ * sign with {@link #compare(Object, Object)} on the decoded line, or report
+ * that it cannot decide.
+ *
+ * @version 2.4.0
+ * @since JWI 2.4.0
+ */
+public interface IByteLineComparator extends ILineComparator {
+
+	/**
+	 * The value returned by {@link #compare(ByteBuffer, int, byte[])} when the
+	 * line cannot be compared without decoding it, for example because it
+	 * contains bytes outside the ASCII range.
+	 *
+	 * @since JWI 2.4.0
+	 */
+	public static final int UNDECIDED = Integer.MIN_VALUE;
+
+	/**
+	 * Returns the bytes against which lines are compared when searching for
+	 * the specified key, or <code>null</code> if the key cannot be compared
+	 * byte by byte, in which case lines must be decoded and compared as
+	 * strings.
+	 *
+	 * @param key
+	 *            the search key; may not be <code>null</code>
+	 * @return the encoded key, or <code>null</code> if the key cannot be
+	 *         compared byte by byte
+	 * @throws NullPointerException
+	 *             if the specified key is <code>null</code>
+	 * @since JWI 2.4.0
+	 */
+	public byte[] getKeyBytes(String key);
+
+	/**
+	 * Compares the line starting at the specified offset of the buffer with a
+	 * key encoded by {@link #getKeyBytes(String)}. The line ends at the first
+	 * newline or carriage return, or at the limit of the buffer. The buffer's
+	 * position and limit are not changed.
+	 *
+	 * @param buffer
+	 *            the buffer holding the line; may not be <code>null</code>
+	 * @param offset
+	 *            the offset in the buffer at which the line starts
+	 * @param key
+	 *            the encoded key; may not be <code>null</code>
+	 * @return a negative integer, zero, or a positive integer as the line is
+	 *         ordered before, at, or after the key, or {@link #UNDECIDED} if
+	 *         the line must be decoded to be compared
+	 * @throws NullPointerException
+	 *             if the buffer or key is <code>null</code>
+	 * @since JWI 2.4.0
+	 */
+	public int compare(ByteBuffer buffer, int offset, byte[] key);
+
+}
@@ -10,6 +10,8 @@
 
 package edu.mit.jwi.data.compare;
 
+import java.nio.ByteBuffer;
+
 /**
  * <p>
  * A comparator that captures the ordering of lines in Wordnet index files
@@ -26,7 +28,7 @@ package edu.mit.jwi.data.compare;
  * @version 2.4.0
  * @since JWI 1.0
  */
-public class IndexLineComparator implements ILineComparator {
+public class IndexLineComparator implements IByteLineComparator {
 
 	// singleton instance
 	private static IndexLineComparator instance;
@@ -103,6 +105,30 @@ public class IndexLineComparator implements ILineComparator {
 		return sub1.compareTo(sub2);
 	}
 
+	/* 
+	 * (non-Javadoc) 
+	 *
+	 * @see edu.mit.jwi.data.compare.IByteLineComparator#getKeyBytes(java.lang.String)
+	 */
+	public byte[] getKeyBytes(String key) {
+		// comment keys are ordered by their line numbers
+		if(detector.isCommentLine(key))
+			return null;
+		return AsciiFields.encode(key, true);
+	}
+
+	/* 
+	 * (non-Javadoc) 
+	 *
+	 * @see edu.mit.jwi.data.compare.IByteLineComparator#compare(java.nio.ByteBuffer, int, byte[])
+	 */
+	public int compare(ByteBuffer buffer, int offset, byte[] key) {
+		// comment lines come before all other lines
+		if(offset + 1 < buffer.limit() && buffer.get(offset) == ' ' && buffer.get(offset + 1) == ' ')
+			return -1;
+		return AsciiFields.compare(buffer, offset, key, true);
+	}
+
 	/* 
 	 * (non-Javadoc) 
 	 *
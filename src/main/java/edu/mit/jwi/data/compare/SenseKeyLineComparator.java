@@ -10,6 +10,8 @@
 
 package edu.mit.jwi.data.compare;
 
+import java.nio.ByteBuffer;
+
 /**
  * <p>
  * A comparator that captures the ordering of lines in sense index files (e.g.,
@@ -26,7 +28,7 @@ package edu.mit.jwi.data.compare;
  * @version 2.4.0
  * @since JWI 2.1.0
  */
-public class SenseKeyLineComparator implements ILineComparator {
+public class SenseKeyLineComparator implements IByteLineComparator {
 	
 	// singleton instance
 	private static SenseKeyLineComparator instance;
@@ -68,6 +70,24 @@ public class SenseKeyLineComparator implements ILineComparator {
 		return line1.compareTo(line2);
 	}
 
+	/* 
+	 * (non-Javadoc) 
+	 *
+	 * @see edu.mit.jwi.data.compare.IByteLineComparator#getKeyBytes(java.lang.String)
+	 */
+	public byte[] getKeyBytes(String key) {
+		return AsciiFields.encode(key, false);
+	}
+
+	/* 
+	 * (non-Javadoc) 
+	 *
+	 * @see edu.mit.jwi.data.compare.IByteLineComparator#compare(java.nio.ByteBuffer, int, byte[])
+	 */
+	public int compare(ByteBuffer buffer, int offset, byte[] key) {
+		return AsciiFields.compare(buffer, offset, key, false);
+	}
+
 	/* 
 	 * (non-Javadoc) 
 	 *
@@ -12,18 +12,24 @@ package edu.mit.jwi.data.parse;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.NoSuchElementException;
+import java.util.Set;
 import java.util.StringTokenizer;
 
 import edu.mit.jwi.item.AdjMarker;
 import edu.mit.jwi.item.ILexFile;
 import edu.mit.jwi.item.IPointer;
+import edu.mit.jwi.item.ISenseKey;
 import edu.mit.jwi.item.ISynset;
 import edu.mit.jwi.item.ISynsetID;
 import edu.mit.jwi.item.IVerbFrame;
+import edu.mit.jwi.item.IWord;
 import edu.mit.jwi.item.IWordID;
 import edu.mit.jwi.item.LexFile;
 import edu.mit.jwi.item.POS;
@@ -47,7 +53,6 @@ import edu.mit.jwi.item.WordID;
  * the singleton instance.
  * </p>
  * 
- * @author Mark A. Finlayson
  * @version 2.4.0
  * @since JWI 1.0
  */
@@ -117,114 +122,14 @@ public class DataLineParser implements ILineParser<ISynset> {
 			// 01380721 marine (no antonyms), with satellite 01380926 deep-sea
 			boolean isAdjHead = !isAdjSat && lex_filenum == 0;
 
-			// Get word count
-			int wordCount = Integer.parseInt(tokenizer.nextToken(), 16);
-
-			// Get words
-			String lemma;
-			AdjMarker marker;
-			int lexID;
-			IWordBuilder[] wordProxies = new IWordBuilder[wordCount];
-			for (int i = 0; i < wordCount; i++) {
-				// consume next word
-				lemma = tokenizer.nextToken();
-
-				// if it is an adjective, it may be followed by a marker
-				marker = null;
-				if (synset_pos == POS.ADJECTIVE)
-					for(AdjMarker adjMarker : AdjMarker.values()){
-						if(lemma.endsWith(adjMarker.getSymbol())){
-							marker = adjMarker;
-							lemma = lemma.substring(0, lemma.length()-adjMarker.getSymbol().length());
-						}
-					}
-
-				// parse lex_id
-				lexID = Integer.parseInt(tokenizer.nextToken(), 16);
-
-				wordProxies[i] = new WordBuilder(i + 1, lemma, lexID, marker);
-			}
-
-			// Get pointer count
-			int pointerCount = Integer.parseInt(tokenizer.nextToken());
-
-			Map<IPointer, ArrayList<ISynsetID>> synsetPointerMap = null;
-
-			// Get pointers
-			IPointer pointer_type;
-			int target_offset;
-			POS target_pos;
-			int source_target_num, source_num, target_num;
-			ArrayList<ISynsetID> pointerList;
-			IWordID target_word_id;
-			ISynsetID target_synset_id;
-			for (int i = 0; i < pointerCount; i++) {
-				// get pointer symbol
-				pointer_type = resolvePointer(tokenizer.nextToken(), synset_pos);
-
-				// get synset target offset
-				target_offset = Integer.parseInt(tokenizer.nextToken());
-
-				// get target synset part of speech
-				target_pos = POS.getPartOfSpeech(tokenizer.nextToken().charAt(0));
-
-				target_synset_id = new SynsetID(target_offset, target_pos);
-
-				// get source/target numbers
-				source_target_num = Integer.parseInt(tokenizer.nextToken(), 16);
-
-				// this is a semantic pointer if the source/target numbers are
-				// zero
-				if (source_target_num == 0) {
-					if (synsetPointerMap == null) 
-						synsetPointerMap = new HashMap<IPointer, ArrayList<ISynsetID>>();
-					pointerList = synsetPointerMap.get(pointer_type);
-					if (pointerList == null) {
-						pointerList = new ArrayList<ISynsetID>();
-						synsetPointerMap.put(pointer_type, pointerList);
-					}
-					pointerList.add(target_synset_id);
-				}
-				else {
-					// this is a lexical pointer
-					source_num = source_target_num / 256;
-					target_num = source_target_num & 255;
-					target_word_id = new WordID(target_synset_id, target_num);
-					wordProxies[source_num - 1].addRelatedWord(pointer_type, target_word_id);
-				}
-			}
-			
-			// trim pointer lists
-			if(synsetPointerMap != null)
-				for(ArrayList<ISynsetID> list : synsetPointerMap.values()) list.trimToSize();
-
-			// parse verb frames
-			if (synset_pos == POS.VERB) {
-				int frame_num, word_num;
-				int verbFrameCount = Integer.parseInt(tokenizer.nextToken());
-				IVerbFrame frame;
-				for (int i = 0; i < verbFrameCount; i++) {
-					// Consume '+'
-					tokenizer.nextToken();
-					// Get frame number
-					frame_num = Integer.parseInt(tokenizer.nextToken());
-					frame = resolveVerbFrame(frame_num);
-					// Get word number
-					word_num = Integer.parseInt(tokenizer.nextToken(), 16);
-					if (word_num > 0)
-						wordProxies[word_num - 1].addVerbFrame(frame);
-					else {
-						for (IWordBuilder proxy : wordProxies)
-							proxy.addVerbFrame(frame);
-					}
-				}
-			}
+			// Get words, pointers and verb frames
+			IWordBuilder[] wordProxies = parseWords(tokenizer, synset_pos);
+			Map<IPointer, ArrayList<ISynsetID>> synsetPointerMap = parsePointers(tokenizer, synset_pos, wordProxies);
+			if (synset_pos == POS.VERB)
+				parseVerbFrames(tokenizer, wordProxies);
 
 			// Get gloss
-			String gloss = "";
-			int index = line.indexOf('|');
-			if (index > 0)
-				gloss = line.substring(index + 2).trim();
+			String gloss = parseGloss(line);
 			
 			// create synset and words
 			List<IWordBuilder> words = Arrays.asList(wordProxies);
@@ -237,6 +142,248 @@ public class DataLineParser implements ILineParser<ISynset> {
 		}
 	}
 
+	/**
+	 * Parses the specified line into a synset that decodes its fields only
+	 * when they are first accessed. The offset, lexical file and part of
+	 * speech are parsed immediately; the pointers are parsed on the first
+	 * request for related synsets, the words, with their lexical pointers and
+	 * verb frames, on the first request for words, and the gloss on the first
+	 * request for it. Callers that only follow pointers between synsets, such
+	 * as walks up the hypernym hierarchy, thus never build the words of the
+	 * synsets they pass through. A synset parsed this way is equal to the
+	 * synset {@link #parseLine(String)} returns for the same line.
+	 * <p>
+	 * For adjective satellites, the head word of the sense keys is set by the
+	 * specified setter when the words are first built, rather than when the
+	 * line is parsed.
+	 * </p>
+	 * 
+	 * @param line
+	 *            the line to parse; may not be <code>null</code>
+	 * @param headWordSetter
+	 *            the object that sets the head word of the words of adjective
+	 *            satellites; may be <code>null</code>
+	 * @return the lazily decoded synset
+	 * @throws NullPointerException
+	 *             if the specified line is <code>null</code>
+	 * @throws MisformattedLineException
+	 *             if the start of the line is not in the data file format;
+	 *             errors in the rest of the line are thrown when the fields
+	 *             are first accessed
+	 * @since JWI 2.4.0
+	 */
+	public LazySynset parseLazily(String line, IHeadWordSetter headWordSetter) {
+		if(line == null) 
+			throw new NullPointerException();
+
+		try {
+			StringTokenizer tokenizer = new StringTokenizer(line, " ");
+			int offset = Integer.parseInt(tokenizer.nextToken());
+			int lex_filenum = Integer.parseInt(tokenizer.nextToken());
+			char synset_tag = tokenizer.nextToken().charAt(0);
+			
+			boolean isAdjSat = (synset_tag == 's');
+			boolean isAdjHead = !isAdjSat && lex_filenum == 0;
+			ISynsetID synsetID = new SynsetID(offset, POS.getPartOfSpeech(synset_tag));
+			return new LazySynset(line, synsetID, resolveLexicalFile(lex_filenum), isAdjSat, isAdjHead, headWordSetter);
+		} catch (NumberFormatException e) {
+			throw new MisformattedLineException(line, e);
+		} catch (NoSuchElementException e) {
+			throw new MisformattedLineException(line, e);
+		}
+	}
+
+	/**
+	 * Returns a tokenizer positioned after the offset, lexical file number and
+	 * part of speech at the start of the specified line.
+	 * 
+	 * @param line
+	 *            the line to tokenize
+	 * @return a tokenizer positioned at the word count of the line
+	 * @since JWI 2.4.0
+	 */
+	private StringTokenizer skipHeader(String line) {
+		StringTokenizer tokenizer = new StringTokenizer(line, " ");
+		tokenizer.nextToken();
+		tokenizer.nextToken();
+		tokenizer.nextToken();
+		return tokenizer;
+	}
+
+	/**
+	 * Parses the word count and the words of a synset.
+	 * 
+	 * @param tokenizer
+	 *            the tokenizer positioned at the word count
+	 * @param synset_pos
+	 *            the part of speech of the synset
+	 * @return the builders of the words, in order
+	 * @since JWI 2.4.0
+	 */
+	private IWordBuilder[] parseWords(StringTokenizer tokenizer, POS synset_pos) {
+		
+		// Get word count
+		int wordCount = Integer.parseInt(tokenizer.nextToken(), 16);
+
+		// Get words
+		String lemma;
+		AdjMarker marker;
+		int lexID;
+		IWordBuilder[] wordProxies = new IWordBuilder[wordCount];
+		for (int i = 0; i < wordCount; i++) {
+			// consume next word
+			lemma = tokenizer.nextToken();
+
+			// if it is an adjective, it may be followed by a marker
+			marker = null;
+			if (synset_pos == POS.ADJECTIVE)
+				for(AdjMarker adjMarker : AdjMarker.values()){
+					if(lemma.endsWith(adjMarker.getSymbol())){
+						marker = adjMarker;
+						lemma = lemma.substring(0, lemma.length()-adjMarker.getSymbol().length());
+					}
+				}
+
+			// parse lex_id
+			lexID = Integer.parseInt(tokenizer.nextToken(), 16);
+
+			wordProxies[i] = new WordBuilder(i + 1, lemma, lexID, marker);
+		}
+		return wordProxies;
+	}
+
+	/**
+	 * Skips the word count and the words of a synset.
+	 * 
+	 * @param tokenizer
+	 *            the tokenizer positioned at the word count
+	 * @since JWI 2.4.0
+	 */
+	private void skipWords(StringTokenizer tokenizer) {
+		int wordCount = Integer.parseInt(tokenizer.nextToken(), 16);
+		for (int i = 0; i < 2 * wordCount; i++)
+			tokenizer.nextToken();
+	}
+
+	/**
+	 * Parses the pointer count and the pointers of a synset, returning the
+	 * semantic pointers and adding the lexical pointers to the word builders.
+	 * 
+	 * @param tokenizer
+	 *            the tokenizer positioned at the pointer count
+	 * @param synset_pos
+	 *            the part of speech of the synset
+	 * @param wordProxies
+	 *            the builders of the words of the synset, or <code>null</code>
+	 *            if lexical pointers should be skipped
+	 * @return the targets of the semantic pointers by pointer type, or
+	 *         <code>null</code> if there are none
+	 * @since JWI 2.4.0
+	 */
+	private Map<IPointer, ArrayList<ISynsetID>> parsePointers(StringTokenizer tokenizer, POS synset_pos, IWordBuilder[] wordProxies) {
+		
+		// Get pointer count
+		int pointerCount = Integer.parseInt(tokenizer.nextToken());
+
+		Map<IPointer, ArrayList<ISynsetID>> synsetPointerMap = null;
+
+		// Get pointers
+		IPointer pointer_type;
+		int target_offset;
+		POS target_pos;
+		int source_target_num, source_num, target_num;
+		ArrayList<ISynsetID> pointerList;
+		IWordID target_word_id;
+		ISynsetID target_synset_id;
+		for (int i = 0; i < pointerCount; i++) {
+			// get pointer symbol
+			pointer_type = resolvePointer(tokenizer.nextToken(), synset_pos);
+
+			// get synset target offset
+			target_offset = Integer.parseInt(tokenizer.nextToken());
+
+			// get target synset part of speech
+			target_pos = POS.getPartOfSpeech(tokenizer.nextToken().charAt(0));
+
+			target_synset_id = new SynsetID(target_offset, target_pos);
+
+			// get source/target numbers
+			source_target_num = Integer.parseInt(tokenizer.nextToken(), 16);
+
+			// this is a semantic pointer if the source/target numbers are
+			// zero
+			if (source_target_num == 0) {
+				if (synsetPointerMap == null) 
+					synsetPointerMap = new HashMap<IPointer, ArrayList<ISynsetID>>();
+				pointerList = synsetPointerMap.get(pointer_type);
+				if (pointerList == null) {
+					pointerList = new ArrayList<ISynsetID>();
+					synsetPointerMap.put(pointer_type, pointerList);
+				}
+				pointerList.add(target_synset_id);
+			}
+			else if (wordProxies != null) {
+				// this is a lexical pointer
+				source_num = source_target_num / 256;
+				target_num = source_target_num & 255;
+				target_word_id = new WordID(target_synset_id, target_num);
+				wordProxies[source_num - 1].addRelatedWord(pointer_type, target_word_id);
+			}
+		}
+		
+		// trim pointer lists
+		if(synsetPointerMap != null)
+			for(ArrayList<ISynsetID> list : synsetPointerMap.values()) list.trimToSize();
+		return synsetPointerMap;
+	}
+
+	/**
+	 * Parses the verb frames of a verb synset, adding them to the word
+	 * builders.
+	 * 
+	 * @param tokenizer
+	 *            the tokenizer positioned at the frame count
+	 * @param wordProxies
+	 *            the builders of the words of the synset
+	 * @since JWI 2.4.0
+	 */
+	private void parseVerbFrames(StringTokenizer tokenizer, IWordBuilder[] wordProxies) {
+		int frame_num, word_num;
+		int verbFrameCount = Integer.parseInt(tokenizer.nextToken());
+		IVerbFrame frame;
+		for (int i = 0; i < verbFrameCount; i++) {
+			// Consume '+'
+			tokenizer.nextToken();
+			// Get frame number
+			frame_num = Integer.parseInt(tokenizer.nextToken());
+			frame = resolveVerbFrame(frame_num);
+			// Get word number
+			word_num = Integer.parseInt(tokenizer.nextToken(), 16);
+			if (word_num > 0)
+				wordProxies[word_num - 1].addVerbFrame(frame);
+			else {
+				for (IWordBuilder proxy : wordProxies)
+					proxy.addVerbFrame(frame);
+			}
+		}
+	}
+
+	/**
+	 * Returns the gloss of the specified line, or the empty string if it has
+	 * none.
+	 * 
+	 * @param line
+	 *            the line
+	 * @return the gloss of the line
+	 * @since JWI 2.4.0
+	 */
+	private String parseGloss(String line) {
+		int index = line.indexOf('|');
+		if (index > 0)
+			return line.substring(index + 2).trim();
+		return "";
+	}
+
 	/**
 	 * <p>
 	 * Retrieves the verb frames for the {@link #parseLine(String)} method.
@@ -304,5 +451,456 @@ public class DataLineParser implements ILineParser<ISynset> {
 		return Pointer.getPointerType(symbol, pos);
 	}
 
+	/**
+	 * Sets the head word of the sense keys of the words of adjective satellite
+	 * synsets, which requires looking up other synsets, and so cannot be done
+	 * by the parser itself.
+	 * 
+	 * @version 2.4.0
+	 * @since JWI 2.4.0
+	 */
+	public interface IHeadWordSetter {
+
+		/**
+		 * Sets the head word of the words of the specified adjective
+		 * satellite synset.
+		 * 
+		 * @param synset
+		 *            the synset whose words need their head word; may not be
+		 *            <code>null</code>
+		 * @since JWI 2.4.0
+		 */
+		public void setHeadWord(ISynset synset);
+
+	}
+
+	/**
+	 * A synset that keeps its data line and decodes its fields when they are
+	 * first accessed. Instances are obtained from
+	 * {@link DataLineParser#parseLazily(String, IHeadWordSetter)}. Each field
+	 * is decoded at most once and then kept; instances are safe to share
+	 * between threads. When serialized, a lazy synset is replaced by a fully
+	 * decoded {@link Synset}.
+	 * 
+	 * @version 2.4.0
+	 * @since JWI 2.4.0
+	 */
+	public class LazySynset implements ISynset {
+
+		private static final long serialVersionUID = 240;
+
+		// fields parsed on construction
+		private final String line;
+		private final ISynsetID id;
+		private final ILexFile lexFile;
+		private final boolean isAdjSat;
+		private final boolean isAdjHead;
+		private final IHeadWordSetter headWordSetter;
+
+		// fields decoded on demand
+		private volatile Pointers pointers;
+		private volatile List<IWord> words;
+		private volatile String gloss;
+		private List<IWord> pendingWords;
+
+		/**
+		 * Constructs a new lazy synset over the specified line.
+		 * 
+		 * @param line
+		 *            the data line of the synset
+		 * @param id
+		 *            the parsed id of the synset
+		 * @param lexFile
+		 *            the parsed lexical file of the synset
+		 * @param isAdjSat
+		 *            whether the synset is an adjective satellite
+		 * @param isAdjHead
+		 *            whether the synset is an adjective head
+		 * @param headWordSetter
+		 *            the setter for the head word of adjective satellites; may
+		 *            be <code>null</code>
+		 * @since JWI 2.4.0
+		 */
+		protected LazySynset(String line, ISynsetID id, ILexFile lexFile, boolean isAdjSat, boolean isAdjHead, IHeadWordSetter headWordSetter) {
+			this.line = line;
+			this.id = id;
+			this.lexFile = lexFile;
+			this.isAdjSat = isAdjSat;
+			this.isAdjHead = isAdjHead;
+			this.headWordSetter = headWordSetter;
+		}
+
+		/**
+		 * Returns the data line from which this synset is decoded.
+		 * 
+		 * @return the data line of this synset
+		 * @since JWI 2.4.0
+		 */
+		public String getLine() {
+			return line;
+		}
+
+		/**
+		 * Returns <code>true</code> if the words of this synset have been
+		 * decoded; <code>false</code> otherwise.
+		 * 
+		 * @return whether the words of this synset have been decoded
+		 * @since JWI 2.4.0
+		 */
+		public boolean isWordsDecoded() {
+			return words != null;
+		}
+
+		/**
+		 * Returns the number of words of this synset. If the words have not
+		 * been decoded, the number is read from the word count of the data
+		 * line, and the words are left undecoded.
+		 * 
+		 * @return the number of words of this synset
+		 * @throws MisformattedLineException
+		 *             if the word count of the data line is malformed
+		 * @since JWI 2.4.0
+		 */
+		public int getWordCount() {
+			List<IWord> result = words;
+			if(result != null)
+				return result.size();
+			try {
+				return Integer.parseInt(skipHeader(line).nextToken(), 16);
+			} catch (NumberFormatException e) {
+				throw new MisformattedLineException(line, e);
+			} catch (NoSuchElementException e) {
+				throw new MisformattedLineException(line, e);
+			}
+		}
+
+		/* 
+		 * (non-Javadoc) 
+		 *
+		 * @see edu.mit.jwi.item.IItem#getID()
+		 */
+		public ISynsetID getID() {
+			return id;
+		}
+
+		/* 
+		 * (non-Javadoc) 
+		 *
+		 * @see edu.mit.jwi.item.ISynset#getOffset()
+		 */
+		public int getOffset() {
+			return id.getOffset();
+		}
+
+		/* 
+		 * (non-Javadoc) 
+		 *
+		 * @see edu.mit.jwi.item.IHasPOS#getPOS()
+		 */
+		public POS getPOS() {
+			return id.getPOS();
+		}
+
+		/* 
+		 * (non-Javadoc) 
+		 *
+		 * @see edu.mit.jwi.item.ISynset#getType()
+		 */
+		public int getType() {
+			POS pos = getPOS();
+			if(pos != POS.ADJECTIVE)
+				return pos.getNumber();
+			return isAdjectiveSatellite() ? 5 : 3;
+		}
+
+		/* 
+		 * (non-Javadoc) 
+		 *
+		 * @see edu.mit.jwi.item.ISynset#getLexicalFile()
+		 */
+		public ILexFile getLexicalFile() {
+			return lexFile;
+		}
+
+		/* 
+		 * (non-Javadoc) 
+		 *
+		 * @see edu.mit.jwi.item.ISynset#isAdjectiveSatellite()
+		 */
+		public boolean isAdjectiveSatellite() {
+			return isAdjSat;
+		}
+
+		/* 
+		 * (non-Javadoc) 
+		 *
+		 * @see edu.mit.jwi.item.ISynset#isAdjectiveHead()
+		 */
+		public boolean isAdjectiveHead() {
+			return isAdjHead;
+		}
+
+		/* 
+		 * (non-Javadoc) 
+		 *
+		 * @see edu.mit.jwi.item.ISynset#getGloss()
+		 */
+		public String getGloss() {
+			String result = gloss;
+			if(result == null){
+				result = parseGloss(line);
+				gloss = result;
+			}
+			return result;
+		}
+
+		/* 
+		 * (non-Javadoc) 
+		 *
+		 * @see edu.mit.jwi.item.ISynset#getWords()
+		 */
+		public List<IWord> getWords() {
+			List<IWord> result = words;
+			if(result == null)
+				result = decodeWords();
+			return result;
+		}
+
+		/* 
+		 * (non-Javadoc) 
+		 *
+		 * @see edu.mit.jwi.item.ISynset#getWord(int)
+		 */
+		public IWord getWord(int wordNumber) {
+			return getWords().get(wordNumber-1);
+		}
+
+		/* 
+		 * (non-Javadoc) 
+		 *
+		 * @see edu.mit.jwi.item.ISynset#getRelatedMap()
+		 */
+		public Map<IPointer, List<ISynsetID>> getRelatedMap() {
+			return getPointers().relatedMap;
+		}
+
+		/* 
+		 * (non-Javadoc) 
+		 *
+		 * @see edu.mit.jwi.item.ISynset#getRelatedSynsets(edu.mit.jwi.item.IPointer)
+		 */
+		public List<ISynsetID> getRelatedSynsets(IPointer type) {
+			List<ISynsetID> result = getPointers().relatedMap.get(type);
+			return result != null ? result : Collections.<ISynsetID>emptyList(); 
+		}
+
+		/* 
+		 * (non-Javadoc) 
+		 *
+		 * @see edu.mit.jwi.item.ISynset#getRelatedSynsets()
+		 */
+		public List<ISynsetID> getRelatedSynsets() {
+			return getPointers().related;
+		}
+
+		/**
+		 * Returns the semantic pointers of this synset, decoding them, but not
+		 * the words, if this has not been done before.
+		 * 
+		 * @return the semantic pointers of this synset
+		 * @since JWI 2.4.0
+		 */
+		private Pointers getPointers() {
+			Pointers result = pointers;
+			if(result == null){
+				try {
+					StringTokenizer tokenizer = skipHeader(line);
+					skipWords(tokenizer);
+					result = new Pointers(parsePointers(tokenizer, getPOS(), null));
+				} catch (NumberFormatException e) {
+					throw new MisformattedLineException(line, e);
+				} catch (NoSuchElementException e) {
+					throw new MisformattedLineException(line, e);
+				}
+				pointers = result;
+			}
+			return result;
+		}
+
+		/**
+		 * Decodes the words of this synset, with their lexical pointers and
+		 * verb frames, and sets their head word if this is an adjective
+		 * satellite. The head word setter may itself ask for the words, which
+		 * it then receives before they are published to other threads.
+		 * 
+		 * @return the words of this synset
+		 * @since JWI 2.4.0
+		 */
+		private synchronized List<IWord> decodeWords() {
+			if(words != null)
+				return words;
+			if(pendingWords != null)
+				return pendingWords;
+
+			IWordBuilder[] wordProxies;
+			Map<IPointer, ArrayList<ISynsetID>> synsetPointerMap;
+			try {
+				StringTokenizer tokenizer = skipHeader(line);
+				wordProxies = parseWords(tokenizer, getPOS());
+				synsetPointerMap = parsePointers(tokenizer, getPOS(), wordProxies);
+				if (getPOS() == POS.VERB)
+					parseVerbFrames(tokenizer, wordProxies);
+			} catch (NumberFormatException e) {
+				throw new MisformattedLineException(line, e);
+			} catch (NoSuchElementException e) {
+				throw new MisformattedLineException(line, e);
+			}
+			if(wordProxies.length == 0)
+				throw new MisformattedLineException(line);
+			if(pointers == null)
+				pointers = new Pointers(synsetPointerMap);
+
+			List<IWord> result = new ArrayList<IWord>(wordProxies.length);
+			for(IWordBuilder wordProxy : wordProxies)
+				result.add(wordProxy.toWord(this));
+			result = Collections.unmodifiableList(result);
+
+			try {
+				pendingWords = result;
+				if(isAdjSat && headWordSetter != null)
+					headWordSetter.setHeadWord(this);
+			} finally {
+				pendingWords = null;
+			}
+			words = result;
+			return result;
+		}
+
+		/**
+		 * Replaces this synset with a fully decoded synset on serialization,
+		 * carrying over the head words already set.
+		 * 
+		 * @return a fully decoded copy of this synset
+		 * @since JWI 2.4.0
+		 */
+		protected Object writeReplace() {
+			ISynset result = parseLine(line);
+			List<IWord> ownWords = getWords();
+			ISenseKey ownKey, key;
+			for(int i = 0; i < ownWords.size(); i++){
+				ownKey = ownWords.get(i).getSenseKey();
+				key = result.getWords().get(i).getSenseKey();
+				if(ownKey.isAdjectiveSatellite() && !ownKey.needsHeadSet() && key.needsHeadSet())
+					key.setHead(ownKey.getHeadWord(), ownKey.getHeadID());
+			}
+			return result;
+		}
+
+		/* 
+		 * (non-Javadoc) 
+		 *
+		 * @see java.lang.Object#hashCode()
+		 */
+		public int hashCode() {
+			final int PRIME = 31;
+			int result = 1;
+			result = PRIME * result + getGloss().hashCode();
+			result = PRIME * result + (isAdjSat ? 1231 : 1237);
+			result = PRIME * result + id.hashCode();
+			result = PRIME * result + getWords().hashCode();
+			result = PRIME * result + getRelatedMap().hashCode();
+			return result;
+		}
+
+		/* 
+		 * (non-Javadoc) 
+		 *
+		 * @see java.lang.Object#equals(java.lang.Object)
+		 */
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (obj == null)
+				return false;
+			
+			// the same line always decodes to equal synsets
+			if (obj instanceof LazySynset) {
+				LazySynset that = (LazySynset) obj;
+				if (id.equals(that.id) && line.equals(that.line))
+					return true;
+			}
+			
+			if (!(obj instanceof ISynset))
+				return false;
+			final ISynset other = (ISynset) obj;
+			if (!id.equals(other.getID()))
+				return false;
+			if (!getWords().equals(other.getWords()))
+				return false;
+			if (!getGloss().equals(other.getGloss()))
+				return false;
+			if (isAdjSat != other.isAdjectiveSatellite())
+				return false;
+			if (!getRelatedMap().equals(other.getRelatedMap()))
+				return false;
+			return true;
+		}
+
+		/* 
+		 * (non-Javadoc) 
+		 *
+		 * @see java.lang.Object#toString()
+		 */
+		public String toString() {
+			StringBuffer sb = new StringBuffer();
+			sb.append("SYNSET{");
+			sb.append(id.toString());
+			sb.append(" : Words[");
+			for(IWord word : getWords()) {
+				sb.append(word.toString());
+				sb.append(", ");
+			}
+			sb.replace(sb.length() - 2, sb.length(), "]}");
+			return sb.toString();
+		}
+	}
+
+	/**
+	 * The decoded semantic pointers of a lazy synset, in the same form as
+	 * {@link Synset} keeps them.
+	 * 
+	 * @version 2.4.0
+	 * @since JWI 2.4.0
+	 */
+	private static final class Pointers {
+
+		private final List<ISynsetID> related;
+		private final Map<IPointer, List<ISynsetID>> relatedMap;
+
+		/**
+		 * Constructs the pointers from the map produced by the parser.
+		 * 
+		 * @param ids
+		 *            the pointer targets by pointer type; may be
+		 *            <code>null</code>
+		 * @since JWI 2.4.0
+		 */
+		Pointers(Map<IPointer, ? extends List<ISynsetID>> ids) {
+			Set<ISynsetID> hiddenSet = null;
+			Map<IPointer, List<ISynsetID>> hiddenMap = null;
+			if(ids != null){
+				hiddenSet = new LinkedHashSet<ISynsetID>();
+				hiddenMap = new HashMap<IPointer, List<ISynsetID>>(ids.size());
+				for(Entry<IPointer, ? extends List<ISynsetID>> entry : ids.entrySet()){
+					if(entry.getValue() == null || entry.getValue().isEmpty())
+						continue;
+					hiddenMap.put(entry.getKey(), Collections.unmodifiableList(new ArrayList<ISynsetID>(entry.getValue())));
+					hiddenSet.addAll(entry.getValue());
+				}
+			}
+			this.related = (hiddenSet != null && !hiddenSet.isEmpty()) ? Collections.unmodifiableList(new ArrayList<ISynsetID>(hiddenSet)) : Collections.<ISynsetID>emptyList();
+			this.relatedMap = (hiddenMap != null && !hiddenMap.isEmpty()) ? Collections.unmodifiableMap(hiddenMap) : Collections.<IPointer, List<ISynsetID>>emptyMap();
+		}
+	}
 
-}
\ No newline at end of file
+}
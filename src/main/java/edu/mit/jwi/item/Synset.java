@@ -269,9 +269,9 @@ public class Synset implements ISynset {
         	return true;
         if (obj == null)
         	return false;
-        if (!(obj instanceof Synset))
+        if (!(obj instanceof ISynset))
         	return false;
-        final Synset other = (Synset) obj;
+        final ISynset other = (ISynset) obj;
         if (!id.equals(other.getID()))
         	return false;
         if (!words.equals(other.getWords()))
@@ -0,0 +1,125 @@
+/********************************************************************************
+ * Java Wordnet Interface Library (JWI) v2.4.0
+ * Top Level Tagger additions, Copyright (c) 2017 Lambda³
+ *
+ * JWI is distributed under the terms of the Creative Commons Attribution 4.0
+ * International Public License, which means it may be freely used for all
+ * purposes, as long as proper acknowledgment is made.  See the license file
+ * included with this distribution for more details.
+ *******************************************************************************/
+
+package edu.mit.jwi.morph;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import edu.mit.jwi.IDictionary;
+import edu.mit.jwi.item.IExceptionEntry;
+import edu.mit.jwi.item.POS;
+
+/**
+ * An in-memory copy of the morphological exception lists of a dictionary. All
+ * exception entries are read once, when the table is constructed, into one
+ * hash map per part of speech from surface form to root forms, so that looking
+ * up an exception is a single hash probe instead of a search of the exception
+ * file. The exception lists are small (a few thousand entries in Wordnet 3.0),
+ * and only the surface and root form strings are retained.
+ * <p>
+ * The table is immutable once constructed, and so is safe to share between
+ * threads and stemmers.
+ *
+ * @version 2.4.0
+ * @since JWI 2.4.0
+ */
+public class ExceptionTable {
+
+	private final Map<POS, Map<String, List<String>>> rootForms;
+	private final int size;
+
+	/**
+	 * Constructs a table holding the exception entries of all parts of speech
+	 * of the specified dictionary, which must be open.
+	 *
+	 * @param dict
+	 *            the dictionary to read; may not be <code>null</code>
+	 * @throws NullPointerException
+	 *             if the specified dictionary is <code>null</code>
+	 * @throws edu.mit.jwi.data.IHasLifecycle.ObjectClosedException
+	 *             if the dictionary is not open
+	 * @since JWI 2.4.0
+	 */
+	public ExceptionTable(IDictionary dict) {
+		if(dict == null)
+			throw new NullPointerException();
+
+		Map<POS, Map<String, List<String>>> hidden = new EnumMap<POS, Map<String, List<String>>>(POS.class);
+		int count = 0;
+		for(POS pos : POS.values()){
+			Map<String, List<String>> map = new HashMap<String, List<String>>();
+			IExceptionEntry entry;
+			for(Iterator<IExceptionEntry> i = dict.getExceptionEntryIterator(pos); i.hasNext(); ){
+				entry = i.next();
+				// keep the first entry of a surface form, as a search of the file would
+				String surfaceForm = entry.getID().getSurfaceForm();
+				if(!map.containsKey(surfaceForm))
+					map.put(surfaceForm, compact(entry.getRootForms()));
+			}
+			hidden.put(pos, map);
+			count += map.size();
+		}
+		this.rootForms = Collections.unmodifiableMap(hidden);
+		this.size = count;
+	}
+
+	/**
+	 * Returns an unmodifiable list backed by an array of the exact size, or a
+	 * singleton list, holding the specified root forms.
+	 *
+	 * @param roots
+	 *            the root forms of an entry
+	 * @return a compact copy of the root forms
+	 * @since JWI 2.4.0
+	 */
+	protected List<String> compact(List<String> roots){
+		if(roots.size() == 1)
+			return Collections.singletonList(roots.get(0));
+		return Collections.unmodifiableList(Arrays.asList(roots.toArray(new String[roots.size()])));
+	}
+
+	/**
+	 * Returns the root forms listed for the specified surface form, or
+	 * <code>null</code> if the surface form has no exception entry.
+	 *
+	 * @param surfaceForm
+	 *            the surface form, lower case and with words separated by
+	 *            underscores, as produced by the stemmers
+	 * @param pos
+	 *            the part of speech; may not be <code>null</code>
+	 * @return the unmodifiable list of root forms, or <code>null</code> if
+	 *         there is no entry
+	 * @throws NullPointerException
+	 *             if the part of speech is <code>null</code>
+	 * @since JWI 2.4.0
+	 */
+	public List<String> getRootForms(String surfaceForm, POS pos){
+		if(pos == null)
+			throw new NullPointerException();
+		return rootForms.get(pos).get(surfaceForm);
+	}
+
+	/**
+	 * Returns the number of exception entries in the table, for all parts of
+	 * speech.
+	 *
+	 * @return the number of entries in the table
+	 * @since JWI 2.4.0
+	 */
+	public int size(){
+		return size;
+	}
+}
@@ -0,0 +1,411 @@
+/********************************************************************************
+ * Java Wordnet Interface Library (JWI) v2.4.0
+ * Top Level Tagger additions, Copyright (c) 2017 Lambda³
+ *
+ * JWI is distributed under the terms of the Creative Commons Attribution 4.0
+ * International Public License, which means it may be freely used for all
+ * purposes, as long as proper acknowledgment is made.  See the license file
+ * included with this distribution for more details.
+ *******************************************************************************/
+
+package edu.mit.jwi.morph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import edu.mit.jwi.IDictionary;
+import edu.mit.jwi.item.POS;
+
+/**
+ * A {@link WordnetStemmer} for callers that stem long collocations and only use
+ * the first stem returned. Stems of single words are memoized in a
+ * {@link StemCache}, which may be shared between stemmers over the same
+ * dictionary. Collocations are not expanded into the full set of root
+ * combinations: candidates are built one at a time, each is checked against
+ * the dictionary, and the search stops at the first one found. At most
+ * {@link #getMaxCandidates()} candidates are tried per collocation, so the cost
+ * of stemming a collocation grows linearly with its length.
+ * <p>
+ * For single words the result is the same as that of the
+ * {@link WordnetStemmer}. For collocations the result holds a single stem: the
+ * collocation itself if it is in Wordnet, otherwise the first candidate found
+ * in Wordnet, otherwise the first candidate built. Candidates are built in the
+ * order of the {@link SimpleStemmer}, so this is also the first stem returned
+ * by the {@code WordnetStemmer}, unless the first hit lies beyond the candidate
+ * limit.
+ *
+ * @version 2.4.0
+ * @since JWI 2.4.0
+ */
+public class MemoizingStemmer extends WordnetStemmer {
+
+	/**
+	 * The default maximum number of candidates tried per collocation.
+	 *
+	 * @since JWI 2.4.0
+	 */
+	public static final int DEFAULT_MAX_CANDIDATES = 256;
+
+	private final StemCache cache;
+	private final int maxCandidates;
+
+	/**
+	 * Constructs a memoizing stemmer with its own stem cache and the default
+	 * candidate limit.
+	 *
+	 * @param dict
+	 *            the dictionary to use; may not be <code>null</code>
+	 * @throws NullPointerException
+	 *             if the specified dictionary is <code>null</code>
+	 * @since JWI 2.4.0
+	 */
+	public MemoizingStemmer(IDictionary dict) {
+		this(dict, new StemCache(), DEFAULT_MAX_CANDIDATES);
+	}
+
+	/**
+	 * Constructs a memoizing stemmer that uses the specified stem cache and
+	 * candidate limit. The cache must only be shared between stemmers over
+	 * dictionaries with the same contents.
+	 *
+	 * @param dict
+	 *            the dictionary to use; may not be <code>null</code>
+	 * @param cache
+	 *            the cache of single word stems; may not be <code>null</code>
+	 * @param maxCandidates
+	 *            the maximum number of candidates tried per collocation
+	 * @throws NullPointerException
+	 *             if the specified dictionary or cache is <code>null</code>
+	 * @throws IllegalArgumentException
+	 *             if the candidate limit is less than one
+	 * @since JWI 2.4.0
+	 */
+	public MemoizingStemmer(IDictionary dict, StemCache cache, int maxCandidates) {
+		this(dict, null, cache, maxCandidates);
+	}
+
+	/**
+	 * Constructs a memoizing stemmer that looks up exceptions in the specified
+	 * in-memory table, and uses the specified stem cache and candidate limit.
+	 * The table and cache must only be shared between stemmers over
+	 * dictionaries with the same contents.
+	 *
+	 * @param dict
+	 *            the dictionary to use; may not be <code>null</code>
+	 * @param exceptions
+	 *            the exception table to use, or <code>null</code> to look up
+	 *            exceptions in the dictionary
+	 * @param cache
+	 *            the cache of single word stems; may not be <code>null</code>
+	 * @param maxCandidates
+	 *            the maximum number of candidates tried per collocation
+	 * @throws NullPointerException
+	 *             if the specified dictionary or cache is <code>null</code>
+	 * @throws IllegalArgumentException
+	 *             if the candidate limit is less than one
+	 * @since JWI 2.4.0
+	 */
+	public MemoizingStemmer(IDictionary dict, ExceptionTable exceptions, StemCache cache, int maxCandidates) {
+		super(dict, exceptions);
+		if(cache == null)
+			throw new NullPointerException();
+		if(maxCandidates < 1)
+			throw new IllegalArgumentException();
+		this.cache = cache;
+		this.maxCandidates = maxCandidates;
+	}
+
+	/**
+	 * Returns the cache of single word stems used by this stemmer; will not
+	 * return <code>null</code>
+	 *
+	 * @return the stem cache of this stemmer
+	 * @since JWI 2.4.0
+	 */
+	public StemCache getCache(){
+		return cache;
+	}
+
+	/**
+	 * Returns the maximum number of candidates tried per collocation.
+	 *
+	 * @return the maximum number of candidates tried per collocation
+	 * @since JWI 2.4.0
+	 */
+	public int getMaxCandidates(){
+		return maxCandidates;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see edu.mit.jwi.morph.WordnetStemmer#findStems(java.lang.String, edu.mit.jwi.item.POS)
+	 */
+	public List<String> findStems(String word, POS pos) {
+
+		word = normalize(word);
+
+		if(pos == null)
+			return super.findStems(word, null);
+
+		if(word.contains(underscore) && (pos == POS.NOUN || pos == POS.VERB))
+			return findCollocationStem(word, pos);
+
+		List<String> stems = cache.get(word, pos);
+		if(stems == null){
+			stems = Collections.unmodifiableList(super.findStems(word, pos));
+			cache.put(word, pos, stems);
+		}
+		return stems;
+	}
+
+	/**
+	 * Returns the stems the {@link WordnetStemmer} finds for the specified
+	 * word, without using the cache and expanding collocations into all root
+	 * combinations. Subclasses may use this to fall back on the exhaustive
+	 * behavior.
+	 *
+	 * @param word
+	 *            the word to be stemmed
+	 * @param pos
+	 *            the part of speech of the word; may be <code>null</code>
+	 * @return all the stems found by the Wordnet stemmer
+	 * @since JWI 2.4.0
+	 */
+	protected List<String> findAllStems(String word, POS pos) {
+		return super.findStems(word, pos);
+	}
+
+	/**
+	 * Finds the preferred stem of a noun or verb collocation, trying candidates
+	 * one at a time.
+	 *
+	 * @param composite
+	 *            the normalized collocation
+	 * @param pos
+	 *            either {@link POS#NOUN} or {@link POS#VERB}
+	 * @return a list holding the preferred stem, or an empty list if there is
+	 *         none
+	 * @since JWI 2.4.0
+	 */
+	protected List<String> findCollocationStem(String composite, POS pos) {
+		IDictionary dict = getDictionary();
+
+		// exception entries take precedence, as in the Wordnet stemmer
+		List<String> excRoots = getExceptionRoots(composite, pos);
+		if(excRoots != null){
+			Set<String> result = new LinkedHashSet<String>(excRoots);
+			if(dict.getIndexWord(composite, pos) != null)
+				result.add(composite);
+			return new ArrayList<String>(result);
+		}
+
+		// the collocation itself
+		if(dict.getIndexWord(composite, pos) != null)
+			return Collections.singletonList(composite);
+
+		// stem each part
+		String[] parts = composite.split(underscore);
+		List<List<String>> rootSets = new ArrayList<List<String>>(parts.length);
+		for(int i = 0; i < parts.length; i++)
+			rootSets.add(findStems(parts[i], pos));
+
+		String first = null;
+		int tried = 0;
+		StringBuilder candidate = new StringBuilder(composite.length() + 8);
+
+		if(pos == POS.NOUN){
+			// as in the simple stemmer, there are no candidates if the first word has no stems
+			if(rootSets.get(0).isEmpty()){
+				candidatesTried(composite, pos, 0);
+				return Collections.<String>emptyList();
+			}
+
+			// odometer over the stems of each part, a part without stems being kept as is
+			int[] choice = new int[parts.length];
+			while(tried < maxCandidates){
+				candidate.setLength(0);
+				for(int i = 0; i < parts.length; i++){
+					if(i > 0)
+						candidate.append(underscore);
+					List<String> roots = rootSets.get(i);
+					candidate.append(roots.isEmpty() ? parts[i] : roots.get(choice[i]));
+				}
+
+				String stem = candidate.toString();
+				tried++;
+				if(dict.getIndexWord(stem, pos) != null){
+					candidatesTried(composite, pos, tried);
+					return Collections.singletonList(stem);
+				}
+				if(first == null)
+					first = stem;
+
+				// advance to the next combination
+				int i = parts.length - 1;
+				while(i >= 0 && ++choice[i] >= Math.max(1, rootSets.get(i).size())){
+					choice[i] = 0;
+					i--;
+				}
+				if(i < 0)
+					break;
+			}
+		} else {
+			// one part stemmed at a time, the others kept as is
+			for(int i = 0; i < parts.length && tried < maxCandidates; i++){
+				for(String root : rootSets.get(i)){
+					if(tried == maxCandidates)
+						break;
+					candidate.setLength(0);
+					for(int j = 0; j < parts.length; j++){
+						if(j > 0)
+							candidate.append(underscore);
+						candidate.append(j == i ? root : parts[j]);
+					}
+
+					String stem = candidate.toString();
+					tried++;
+					if(dict.getIndexWord(stem, pos) != null){
+						candidatesTried(composite, pos, tried);
+						return Collections.singletonList(stem);
+					}
+					if(first == null)
+						first = stem;
+				}
+			}
+		}
+
+		candidatesTried(composite, pos, tried);
+		return first == null ?
+				Collections.<String>emptyList() :
+					Collections.singletonList(first);
+	}
+
+	/**
+	 * Called after each collocation search with the number of candidates
+	 * checked against the dictionary. This implementation does nothing;
+	 * subclasses may override it to collect statistics.
+	 *
+	 * @param composite
+	 *            the normalized collocation
+	 * @param pos
+	 *            the part of speech searched
+	 * @param tried
+	 *            the number of candidates checked
+	 * @since JWI 2.4.0
+	 */
+	protected void candidatesTried(String composite, POS pos, int tried) {
+		// do nothing
+	}
+
+	/**
+	 * A thread-safe cache of the stems of single words, per part of speech.
+	 * When the cache holds more than its capacity it is emptied, which keeps
+	 * its size bounded on open-ended input without the cost of tracking usage.
+	 *
+	 * @version 2.4.0
+	 * @since JWI 2.4.0
+	 */
+	public static class StemCache {
+
+		/**
+		 * The default capacity of a stem cache, in words per part of speech.
+		 *
+		 * @since JWI 2.4.0
+		 */
+		public static final int DEFAULT_CAPACITY = 100000;
+
+		private final int capacity;
+		private final Map<POS, Map<String, List<String>>> stems;
+
+		/**
+		 * Constructs a stem cache with the default capacity.
+		 *
+		 * @since JWI 2.4.0
+		 */
+		public StemCache(){
+			this(DEFAULT_CAPACITY);
+		}
+
+		/**
+		 * Constructs a stem cache with the specified capacity.
+		 *
+		 * @param capacity
+		 *            the maximum number of words cached per part of speech
+		 * @throws IllegalArgumentException
+		 *             if the capacity is less than one
+		 * @since JWI 2.4.0
+		 */
+		public StemCache(int capacity){
+			if(capacity < 1)
+				throw new IllegalArgumentException();
+			this.capacity = capacity;
+			Map<POS, Map<String, List<String>>> hidden = new EnumMap<POS, Map<String, List<String>>>(POS.class);
+			for(POS pos : POS.values())
+				hidden.put(pos, new ConcurrentHashMap<String, List<String>>());
+			this.stems = Collections.unmodifiableMap(hidden);
+		}
+
+		/**
+		 * Returns the cached stems of the specified word, or <code>null</code>
+		 * if they are not cached.
+		 *
+		 * @param word
+		 *            the normalized word
+		 * @param pos
+		 *            the part of speech
+		 * @return the cached stems, or <code>null</code> if none
+		 * @since JWI 2.4.0
+		 */
+		public List<String> get(String word, POS pos){
+			return stems.get(pos).get(word);
+		}
+
+		/**
+		 * Caches the stems of the specified word.
+		 *
+		 * @param word
+		 *            the normalized word
+		 * @param pos
+		 *            the part of speech
+		 * @param wordStems
+		 *            the stems of the word
+		 * @since JWI 2.4.0
+		 */
+		public void put(String word, POS pos, List<String> wordStems){
+			Map<String, List<String>> map = stems.get(pos);
+			if(map.size() >= capacity)
+				map.clear();
+			map.put(word, wordStems);
+		}
+
+		/**
+		 * Returns the number of words cached for all parts of speech.
+		 *
+		 * @return the number of cached words
+		 * @since JWI 2.4.0
+		 */
+		public int size(){
+			int size = 0;
+			for(Map<String, List<String>> map : stems.values())
+				size += map.size();
+			return size;
+		}
+
+		/**
+		 * Empties the cache.
+		 *
+		 * @since JWI 2.4.0
+		 */
+		public void clear(){
+			for(Map<String, List<String>> map : stems.values())
+				map.clear();
+		}
+	}
+}
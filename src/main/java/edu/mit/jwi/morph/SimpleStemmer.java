@@ -13,13 +13,11 @@ package edu.mit.jwi.morph;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
-import java.util.regex.Pattern;
 
 import edu.mit.jwi.item.POS;
 
@@ -76,7 +74,6 @@ import edu.mit.jwi.item.POS;
 public class SimpleStemmer implements IStemmer {
 
 	public static final String underscore = "_";
-	Pattern whitespace = Pattern.compile("\\s+");
 
 	public static final String SUFFIX_ches = "ches";
 	public static final String SUFFIX_ed = "ed";
@@ -219,23 +216,140 @@ public class SimpleStemmer implements IStemmer {
 	 * @since JWI 2.1.1
 	 */
 	protected String normalize(String word) {
-		
+
 		// make lowercase
 		word = word.toLowerCase();
 		
-		// replace all underscores with spaces
-		word = word.replace('_', ' ');
-		
-		// trim off extra whitespace
-		word = word.trim();
-		if(word.length() == 0)
+		// trim off whitespace and underscores
+		int start = 0;
+		int end = word.length();
+		while(start < end && isBlank(word.charAt(start)))
+			start++;
+		while(end > start && isBlank(word.charAt(end-1)))
+			end--;
+		if(start == end)
 			throw new IllegalArgumentException();
 		
-		// replace all whitespace with underscores
-		word = whitespace.matcher(word).replaceAll(underscore); 
+		// most words are already normalized, in which case no copy is made
+		boolean separator = false;
+		boolean normalized = true;
+		for(int i = start; i < end && normalized; i++){
+			char c = word.charAt(i);
+			if(c == '_'){
+				normalized = !separator;
+				separator = true;
+			} else {
+				normalized = !isWhitespace(c);
+				separator = false;
+			}
+		}
+		if(normalized)
+			return start == 0 && end == word.length() ? word : word.substring(start, end);
+		
+		// replace all whitespace and underscore runs with single underscores
+		char[] buf = new char[end-start];
+		int len = 0;
+		separator = false;
+		for(int i = start; i < end; i++){
+			char c = word.charAt(i);
+			if(c == '_' || isWhitespace(c)){
+				if(!separator)
+					buf[len++] = '_';
+				separator = true;
+			} else {
+				buf[len++] = c;
+				separator = false;
+			}
+		}
 
 		// return normalized word
-		return word;
+		return new String(buf, 0, len);
+	}
+
+	/**
+	 * Returns <code>true</code> if the specified character is removed from
+	 * either end of a word by {@link #normalize(String)}: an underscore, or a
+	 * character removed by {@link String#trim()}.
+	 * 
+	 * @param c
+	 *            the character to test
+	 * @return <code>true</code> if the character is trimmed from words
+	 * @since JWI 2.4.0
+	 */
+	private static boolean isBlank(char c){
+		return c == '_' || c <= ' ';
+	}
+	
+	/**
+	 * Returns <code>true</code> if the specified character is matched by the
+	 * regular expression class <code>\s</code>, that is, is a space, tab, new
+	 * line, vertical tab, form feed or carriage return.
+	 * 
+	 * @param c
+	 *            the character to test
+	 * @return <code>true</code> if the character is whitespace
+	 * @since JWI 2.4.0
+	 */
+	private static boolean isWhitespace(char c){
+		return c == ' ' || (c >= '\t' && c <= '\r');
+	}
+
+	/**
+	 * Applies the rules of the specified part of speech to a word, adding each
+	 * distinct non-empty root to the list. Rule sets are small, so duplicates
+	 * are found by scanning the list rather than hashing.
+	 * 
+	 * @param word
+	 *            the word to be modified
+	 * @param suffix
+	 *            the suffix to append to each root; may be <code>null</code>
+	 * @param pos
+	 *            the part of speech whose rules are applied
+	 * @return a list of modified forms that were constructed, or the empty list
+	 *         if none
+	 * @since JWI 2.4.0
+	 */
+	private List<String> applyRules(String word, String suffix, POS pos){
+		List<StemmingRule> rules = getRuleMap().get(pos);
+		List<String> result = null;
+		String root;
+		for(int i = 0; i < rules.size(); i++){
+			root = rules.get(i).apply(word, suffix);
+			if(root == null || root.length() == 0)
+				continue;
+			if(result == null){
+				result = new ArrayList<String>(rules.size()-i);
+			} else if(result.contains(root)){
+				continue;
+			}
+			result.add(root);
+		}
+		return result == null ? 
+				Collections.<String>emptyList() : 
+					result;
+	}
+	
+	/**
+	 * Splits a normalized collocation at its underscores.
+	 * 
+	 * @param composite
+	 *            the normalized collocation
+	 * @return the parts of the collocation
+	 * @since JWI 2.4.0
+	 */
+	private static String[] splitParts(String composite){
+		int count = 1;
+		for(int i = composite.indexOf('_'); i >= 0; i = composite.indexOf('_', i+1))
+			count++;
+		String[] parts = new String[count];
+		int start = 0;
+		for(int i = 0; i < count-1; i++){
+			int end = composite.indexOf('_', start);
+			parts[i] = composite.substring(start, end);
+			start = end+1;
+		}
+		parts[count-1] = composite.substring(start);
+		return parts;
 	}
 
 	/**
@@ -250,7 +364,6 @@ public class SimpleStemmer implements IStemmer {
 	 * @since JWI 1.0
 	 */
 	protected List<String> stripNounSuffix(final String noun) {
-		
 		if(noun.length() <= 2)
 			return Collections.<String>emptyList();
 		
@@ -262,21 +375,8 @@ public class SimpleStemmer implements IStemmer {
 			suffix = SUFFIX_ful;
 		}
 		
-		// we will return this to the caller
-		Set<String> result = new LinkedHashSet<String>();
-		
 		// apply the rules
-		String root;
-		for (StemmingRule rule : getRuleMap().get(POS.NOUN)) {
-			root = rule.apply(word, suffix);
-			if(root != null && root.length() > 0)
-				result.add(root);
-		}
-		
-		return result.isEmpty() ? 
-				Collections.<String>emptyList() : 
-					new ArrayList<String>(result);
-		
+		return applyRules(word, suffix, POS.NOUN);
 	}
 	
 	/**
@@ -291,69 +391,53 @@ public class SimpleStemmer implements IStemmer {
 	 * @since JWI 1.1.1
 	 */
 	protected List<String> getNounCollocationRoots(String composite){
-		
 		// split into parts
-		String[] parts = composite.split(underscore);
+		String[] parts = splitParts(composite);
 		if(parts.length < 2) 
 			return Collections.emptyList();
 		
-		// stem each part
+		// stem each part; parts without stems are kept as they are, 
+		// except for the first, without which there are no combinations
 		List<List<String>> rootSets = new ArrayList<List<String>>(parts.length);
-		for(int i = 0; i < parts.length; i++)
-			rootSets.add(findStems(parts[i], POS.NOUN));
-		
-		// reassemble all combinations
-		Set<StringBuffer> poss = new HashSet<StringBuffer>();
-		
-		// seed the set
-		List<String> rootSet = rootSets.get(0);
-		if(rootSet == null){
-			poss.add(new StringBuffer(parts[0]));
-		} else {
-			for(Object root : rootSet) 
-				poss.add(new StringBuffer((String)root));
-		}
-		
-		// make all combinations
-		StringBuffer newBuf;
-		Set<StringBuffer> replace;
-		for(int i = 1; i < rootSets.size(); i++){
-			rootSet = rootSets.get(i);
+		int count = 1;
+		for(int i = 0; i < parts.length; i++){
+			List<String> rootSet = findStems(parts[i], POS.NOUN);
 			if(rootSet.isEmpty()){
-				for(StringBuffer p : poss){
-					p.append("_");
-					p.append(parts[i]);
-				}
-			} else {
-				replace = new HashSet<StringBuffer>();
-				for(StringBuffer p : poss){
-					for(Object root : rootSet){
-						newBuf = new StringBuffer();
-						newBuf.append(p.toString());
-						newBuf.append("_");
-						newBuf.append(root);
-						replace.add(newBuf);
-					}
-				}
-				poss.clear();
-				poss.addAll(replace);
+				if(i == 0)
+					return Collections.<String>emptyList();
+				rootSet = Collections.singletonList(parts[i]);
 			}
-			
+			rootSets.add(rootSet);
+			count *= rootSet.size();
 		}
 		
-		if(poss.isEmpty()) 
-			return Collections.<String>emptyList();
-		
-		// make sure to remove empties
-		Set<String> result = new LinkedHashSet<String>();
+		// make all combinations in a single buffer, the last part varying fastest
+		List<String> result = new ArrayList<String>(count);
+		Set<String> seen = count > 1 ? new HashSet<String>(count*2) : null;
+		StringBuilder buf = new StringBuilder(composite.length() + 8);
+		int[] choice = new int[parts.length];
 		String root;
-		for(StringBuffer p : poss){
-			root = p.toString().trim();
-			if(root.length() != 0)
+		for(int n = 0; n < count; n++){
+			buf.setLength(0);
+			for(int i = 0; i < parts.length; i++){
+				if(i > 0)
+					buf.append('_');
+				buf.append(rootSets.get(i).get(choice[i]));
+			}
+			
+			// make sure to remove empties and duplicates
+			root = buf.toString().trim();
+			if(root.length() != 0 && (seen == null || seen.add(root)))
 				result.add(root);
+			
+			// advance to the next combination
+			for(int i = parts.length-1; i >= 0 && ++choice[i] == rootSets.get(i).size(); i--)
+				choice[i] = 0;
 		}
 		
-		return new ArrayList<String>(result);
+		return result.isEmpty() ? 
+				Collections.<String>emptyList() : 
+					result;
 	}
 
 	/**
@@ -368,24 +452,11 @@ public class SimpleStemmer implements IStemmer {
 	 * @since JWI 1.0
 	 */
 	protected List<String> stripVerbSuffix(final String verb) {
-		
 		if(verb.length() <= 2)
 			return Collections.<String>emptyList();
 		
-		// we will return this to the caller
-		Set<String> result = new LinkedHashSet<String>();
-		
 		// apply the rules
-		String root;
-		for (StemmingRule rule : getRuleMap().get(POS.VERB)) {
-			root = rule.apply(verb);
-			if(root != null && root.length() > 0)
-				result.add(root);
-		}
-		
-		return result.isEmpty() ? 
-				Collections.<String>emptyList() : 
-					new ArrayList<String>(result);
+		return applyRules(verb, null, POS.VERB);
 	}
 	
 	/**
@@ -400,48 +471,46 @@ public class SimpleStemmer implements IStemmer {
 	 * @since JWI 1.1.1
 	 */
 	protected List<String> getVerbCollocationRoots(String composite){
-		
 		// split into parts
-		String[] parts = composite.split(underscore);
+		String[] parts = splitParts(composite);
 		if(parts.length < 2) 
 			return Collections.emptyList();
 		
 		// find the stems of each parts
 		List<List<String>> rootSets = new ArrayList<List<String>>(parts.length);
-		for(int i = 0; i < parts.length; i++)
+		int count = 0;
+		for(int i = 0; i < parts.length; i++){
 			rootSets.add(findStems(parts[i], POS.VERB));
+			count += rootSets.get(i).size();
+		}
+		if(count == 0)
+			return Collections.emptyList();
 		
-		Set<String> result = new LinkedHashSet<String>();
-		
-		// form all combinations
-		StringBuffer rootBuffer = new StringBuffer();
+		// form all combinations in a single buffer
+		List<String> result = new ArrayList<String>(count);
+		Set<String> seen = count > 1 ? new HashSet<String>(count*2) : null;
+		StringBuilder buf = new StringBuilder(composite.length() + 8);
+		String root;
 		for(int i = 0; i < parts.length; i++){
-			if(rootSets.get(i) == null) 
-				continue;
-			for(Object partRoot : rootSets.get(i)){
-				rootBuffer.replace(0, rootBuffer.length(), "");
-				
+			List<String> rootSet = rootSets.get(i);
+			for(int r = 0; r < rootSet.size(); r++){
+				buf.setLength(0);
 				for(int j = 0; j < parts.length; j++){
-					if(j == i){
-						rootBuffer.append((String)partRoot);
-					} else {
-						rootBuffer.append(parts[j]);
-					}
-					if(j < parts.length-1) 
-						rootBuffer.append(underscore);
+					if(j > 0) 
+						buf.append('_');
+					buf.append(j == i ? rootSet.get(r) : parts[j]);
 				}
-				result.add(rootBuffer.toString());
+				
+				// remove any empties and duplicates
+				root = buf.toString();
+				if(root.length() != 0 && (seen == null || seen.add(root)))
+					result.add(root);
 			}
 		}
 		
-		// remove any empties
-		for(Iterator<String> i = result.iterator(); i.hasNext(); )
-			if(i.next().length() == 0)
-				i.remove();
-		
 		return result.isEmpty() ? 
 				Collections.<String>emptyList() : 
-					new ArrayList<String>(result);
+					result;
 	}
 
 	/**
@@ -456,20 +525,7 @@ public class SimpleStemmer implements IStemmer {
 	 * @since JWI 1.0
 	 */
 	protected List<String> stripAdjectiveSuffix(final String adj) {
-		
-		// we will return this to the caller
-		Set<String> result = new LinkedHashSet<String>();
-		
 		// apply the rules
-		String root;
-		for (StemmingRule rule : getRuleMap().get(POS.ADJECTIVE)) {
-			root = rule.apply(adj);
-			if(root != null && root.length() > 0)
-				result.add(root);
-		}
-		
-		return result.isEmpty() ? 
-				Collections.<String>emptyList() : 
-					new ArrayList<String>(result);
+		return applyRules(adj, null, POS.ADJECTIVE);
 	}
 }
\ No newline at end of file
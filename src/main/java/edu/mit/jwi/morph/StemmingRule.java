@@ -153,23 +153,28 @@ import edu.mit.jwi.item.POS;
 				return null;
 			
 			// process ignore set
-			for(String ignoreSuffix : getSuffixIgnoreSet())
-				if(word.endsWith(ignoreSuffix))
-					return null;
+			Set<String> ignoreSet = getSuffixIgnoreSet();
+			if(!ignoreSet.isEmpty())
+				for(String ignoreSuffix : ignoreSet)
+					if(word.endsWith(ignoreSuffix))
+						return null;
 			
 			// apply the rule
-			// we loop directly over characters here to avoid two loops
-			StringBuilder sb = new StringBuilder();
+			// we copy the characters once, into an array of the final size
 			int len = word.length()-getSuffix().length();
-			for (int i = 0; i < len; i++) 
-				sb.append(word.charAt(i));
-			sb.append(getEnding());
+			String ending = getEnding();
+			if(suffix != null)
+				suffix = suffix.trim();
+			else if(ending.length() == 0)
+				return word.substring(0, len);
 			
-			// append optional suffix
+			char[] buf = new char[len + ending.length() + (suffix == null ? 0 : suffix.length())];
+			word.getChars(0, len, buf, 0);
+			ending.getChars(0, ending.length(), buf, len);
 			if(suffix != null)
-				sb.append(suffix.trim());
+				suffix.getChars(0, suffix.length(), buf, len + ending.length());
 			
-			return sb.toString();
+			return new String(buf);
 		}
 
 }
\ No newline at end of file
@@ -35,6 +35,7 @@ import edu.mit.jwi.item.POS;
 public class WordnetStemmer extends SimpleStemmer {
 
     private final IDictionary dict;
+    private final ExceptionTable exceptions;
 
 	/**
 	 * Constructs a WordnetStemmer that, naturally, requires a Wordnet
@@ -47,9 +48,28 @@ public class WordnetStemmer extends SimpleStemmer {
 	 * @since JWI 1.0
 	 */
     public WordnetStemmer(IDictionary dict) {
+        this(dict, null);
+    }
+
+	/**
+	 * Constructs a WordnetStemmer that looks up exceptions in the specified
+	 * in-memory table instead of the dictionary. The table must have been
+	 * read from a dictionary with the same contents.
+	 * 
+	 * @param dict
+	 *            the dictionary to use; may not be <code>null</code>
+	 * @param exceptions
+	 *            the exception table to use, or <code>null</code> to look up
+	 *            exceptions in the dictionary
+	 * @throws NullPointerException
+	 *             if the specified dictionary is <code>null</code>
+	 * @since JWI 2.4.0
+	 */
+    public WordnetStemmer(IDictionary dict, ExceptionTable exceptions) {
         if(dict == null)
         	throw new NullPointerException();
         this.dict = dict;
+        this.exceptions = exceptions;
     }
     
     /** 
@@ -62,6 +82,36 @@ public class WordnetStemmer extends SimpleStemmer {
     	return dict;
     }
 
+    /** 
+     * Returns the exception table in use by the stemmer, or <code>null</code>
+     * if exceptions are looked up in the dictionary
+     *
+     * @return the exception table in use by this stemmer, or <code>null</code>
+     * @since JWI 2.4.0
+     */
+    public ExceptionTable getExceptionTable(){
+    	return exceptions;
+    }
+
+    /** 
+     * Returns the root forms of the exception entry for the specified word,
+     * from the exception table if there is one, or from the dictionary.
+     *
+     * @param word
+     *            the normalized word
+     * @param pos
+     *            the part of speech; may not be <code>null</code>
+     * @return the root forms of the exception entry, or <code>null</code> if
+     *         the word has none
+     * @since JWI 2.4.0
+     */
+    protected List<String> getExceptionRoots(String word, POS pos){
+    	if(exceptions != null)
+    		return exceptions.getRootForms(word, pos);
+    	IExceptionEntry excEntry = dict.getExceptionEntry(word, pos);
+    	return excEntry == null ? null : excEntry.getRootForms();
+    }
+
     /* 
      * (non-Javadoc) 
      *
@@ -77,15 +127,15 @@ public class WordnetStemmer extends SimpleStemmer {
         Set<String> result = new LinkedHashSet<String>();
         
         // first look for the word in the exception lists
-        IExceptionEntry excEntry = dict.getExceptionEntry(word, pos);
-        if (excEntry != null)
-        	result.addAll(excEntry.getRootForms());
+        List<String> excRoots = getExceptionRoots(word, pos);
+        if (excRoots != null)
+        	result.addAll(excRoots);
 
         // then look and see if it's in Wordnet; if so, the form itself is a stem
         if (dict.getIndexWord(word, pos) != null) 
         	result.add(word);
         
-        if(excEntry != null) 
+        if(excRoots != null) 
         	return new ArrayList<String>(result);
 
         // go to the simple stemmer and check and see if any of those stems are in WordNet
@@ -0,0 +1,213 @@
+package org.lambda3.tagger;
+
+/*
+ * ==========================License-Start=============================
+ * Top Level Tagger
+ *
+ * Copyright © 2017 Lambda³
+ *
+ * GNU General Public License 3
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ * ==========================License-End==============================
+ */
+
+import net.sourceforge.argparse4j.ArgumentParsers;
+import net.sourceforge.argparse4j.inf.ArgumentParser;
+import net.sourceforge.argparse4j.inf.ArgumentParserException;
+import net.sourceforge.argparse4j.inf.MutuallyExclusiveGroup;
+import net.sourceforge.argparse4j.inf.Namespace;
+import org.lambda3.tagger.TaggerMetrics.Stage;
+
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Collectors;
+
+//Checks the bytes allocated per tagged sentence in the segmentation, stemming and labelling stages against a stored
+//budget, so that changes to the hot path cannot silently make it allocate more. Budgets are bytes per sentence,
+//measured on the same corpus after warm-up; a stage fails when it exceeds its budget by more than the tolerance, or
+//when the budget has no entry for it. AllocationBudgetTest runs the check on every build, against a fixture.
+//
+//A budget holds for the Java version and JVM options it was recorded under, and the check fails under any other.
+//Run the JVM with escape analysis turned off (-XX:-DoEscapeAnalysis) when recording and checking: the JIT compiler
+//otherwise removes some allocations, or not, depending on when it compiles the hot methods, and the same code
+//measures several hundred bytes per sentence apart from run to run.
+public final class AllocationBudget {
+
+    static final String TOLERANCE = "tolerance";
+    static final String JAVA_VERSION = "java.specification.version";
+    static final String JVM_OPTIONS = "jvm.options";
+
+    private static final Stage[] STAGES = {Stage.SEGMENTATION, Stage.STEMMING, Stage.LABELLING};
+    private static final double DEFAULT_TOLERANCE = 0.1;
+
+    private final TopLevelTagger tlt;
+    private final boolean foundationClasses;
+
+    public AllocationBudget(TopLevelTagger tlt, boolean foundationClasses) {
+        if (tlt == null) {
+            throw new NullPointerException();
+        }
+        this.tlt = tlt;
+        this.foundationClasses = foundationClasses;
+    }
+
+    //Bytes allocated per sentence in each checked stage, after tagging the corpus warmUp times untracked
+    public long[] measure(List<String> sentences, int warmUp) {
+        TaggerMetrics metrics = tlt.getMetrics();
+        for (int i = 0; i < warmUp; i++) {
+            tag(sentences);
+        }
+
+        boolean tracking = metrics.isAllocationTracking();
+        metrics.setAllocationTracking(true);
+        metrics.reset();
+        try {
+            tag(sentences);
+        } finally {
+            metrics.setAllocationTracking(tracking);
+        }
+
+        long[] perSentence = new long[STAGES.length];
+        long count = Math.max(1, metrics.getSentences());
+        for (int i = 0; i < STAGES.length; i++) {
+            perSentence[i] = metrics.getStageAllocatedBytes(STAGES[i]) / count;
+        }
+        return perSentence;
+    }
+
+    private void tag(List<String> sentences) {
+        if (foundationClasses) {
+            tlt.tagWithFoundationClass(sentences, false);
+        } else {
+            tlt.tagWithTopClass(sentences, false);
+        }
+    }
+
+    //Compare measured allocations with the budget, printing one line per stage; true if the budget was recorded on this
+    //Java version and under the JVM options in effect, and every stage has a budget and is within it
+    static boolean check(long[] measured, Properties budget, PrintStream out) {
+        double tolerance = Double.parseDouble(budget.getProperty(TOLERANCE, String.valueOf(DEFAULT_TOLERANCE)));
+        boolean withinBudget = true;
+
+        //Allocation sizes change between JVM versions (e.g. compact strings) and options (e.g. escape analysis), so a
+        //budget only holds for the configuration it was recorded under
+        String recordedOn = budget.getProperty(JAVA_VERSION);
+        if (recordedOn != null && !recordedOn.equals(System.getProperty(JAVA_VERSION))) {
+            withinBudget = false;
+            out.println("budget recorded on Java " + recordedOn + ", running on Java " + System.getProperty(JAVA_VERSION));
+        }
+        String recordedWith = budget.getProperty(JVM_OPTIONS);
+        if (recordedWith != null && !recordedWith.trim().isEmpty() && !jvmOptions().containsAll(Arrays.asList(recordedWith.trim().split("\\s+")))) {
+            withinBudget = false;
+            out.println("budget recorded with JVM options " + recordedWith.trim() + ", running with "
+                    + (jvmOptions().isEmpty() ? "none" : String.join(" ", jvmOptions())));
+        }
+
+        for (int i = 0; i < STAGES.length; i++) {
+            String key = key(STAGES[i]);
+            String limit = budget.getProperty(key);
+            if (limit == null) {
+                withinBudget = false;
+                out.println(String.format("%-14s %12d bytes/sentence   NO BUDGET (record one with -record)", key, measured[i]));
+                continue;
+            }
+
+            long allowed = (long) (Long.parseLong(limit.trim()) * (1 + tolerance));
+            boolean ok = measured[i] <= allowed;
+            withinBudget &= ok;
+            out.println(String.format("%-14s %12d bytes/sentence   budget %12s   %s", key, measured[i], limit.trim(), ok ? "ok" : "OVER BUDGET"));
+        }
+        return withinBudget;
+    }
+
+    static String key(Stage stage) {
+        return stage.name().toLowerCase();
+    }
+
+    //The -XX options of the running JVM, which change what is allocated or how it is counted
+    static List<String> jvmOptions() {
+        return ManagementFactory.getRuntimeMXBean().getInputArguments().stream()
+                .filter(o -> o.startsWith("-XX:")).collect(Collectors.toList());
+    }
+
+    static Properties loadBudget(String file) throws IOException {
+        Properties budget = new Properties();
+        try (InputStream in = new FileInputStream(file)) {
+            budget.load(in);
+        }
+        return budget;
+    }
+
+    //Write the measured allocations to a file as a budget, with the default tolerance and the Java version and JVM
+    //options in effect, and return the budget
+    static Properties saveBudget(long[] measured, String file) throws IOException {
+        Properties budget = new Properties();
+        budget.setProperty(TOLERANCE, String.valueOf(DEFAULT_TOLERANCE));
+        budget.setProperty(JAVA_VERSION, System.getProperty(JAVA_VERSION));
+        budget.setProperty(JVM_OPTIONS, String.join(" ", jvmOptions()));
+        for (int i = 0; i < STAGES.length; i++) {
+            budget.setProperty(key(STAGES[i]), String.valueOf(measured[i]));
+        }
+        try (OutputStream out = new FileOutputStream(file)) {
+            budget.store(out, "Bytes allocated per sentence, recorded by AllocationBudget");
+        }
+        return budget;
+    }
+
+    public static void main(String args[]) throws IOException {
+
+        //Parse options
+        ArgumentParser parser = ArgumentParsers.newArgumentParser("AllocationBudget");
+        parser.addArgument("-wnpath").help("path to WordNet database.").required(true);
+        parser.addArgument("-inputfile").help("corpus file, one sentence per line").required(true);
+        parser.addArgument("-tagset").choices("tc", "fc").help("tc: top class (default) | fc: foundational class)").setDefault("tc");
+        MutuallyExclusiveGroup budget = parser.addMutuallyExclusiveGroup().required(true);
+        budget.addArgument("-budget").help("budget file to check against");
+        budget.addArgument("-record").help("write the measured allocations to this file as the new budget, instead of checking");
+        parser.addArgument("-warmup").type(Integer.class).help("untracked passes over the corpus before measuring (default: 3)").setDefault(3);
+
+        try {
+            Namespace options = parser.parseArgs(args);
+            String wnpath = options.get("wnpath").toString();
+            String inputfile = options.get("inputfile").toString();
+            String tagset = options.get("tagset").toString();
+            int warmUp = options.getInt("warmup");
+
+            if (!Allocations.isSupported()) {
+                System.err.println("Thread allocation counters are not available on this JVM");
+                System.exit(1);
+            }
+
+            List<String> sentences = Files.lines(Paths.get(inputfile)).filter(l -> l.trim().length() > 0).collect(Collectors.toList());
+
+            TopLevelTagger tlt = new TopLevelTagger(wnpath);
+            long[] measured = new AllocationBudget(tlt, tagset.equals("fc")).measure(sentences, warmUp);
+            tlt.close();
+
+            if (options.get("record") != null) {
+                check(measured, saveBudget(measured, options.getString("record")), System.out);
+            } else if (!check(measured, loadBudget(options.getString("budget")), System.out)) {
+                System.exit(3);
+            }
+        } catch (ArgumentParserException e) {
+            parser.handleError(e);
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package org.lambda3.tagger;
+
+/*
+ * ==========================License-Start=============================
+ * Top Level Tagger
+ *
+ * Copyright © 2017 Lambda³
+ *
+ * GNU General Public License 3
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ * ==========================License-End==============================
+ */
+
+import java.lang.management.ManagementFactory;
+
+//Reads the bytes allocated so far by the current thread from the HotSpot ThreadMXBean extension. Where that
+//extension is missing or disabled, isSupported() is false and allocatedBytes() always returns 0.
+final class Allocations {
+
+    private static final com.sun.management.ThreadMXBean threads = createThreadBean();
+
+    private Allocations() {
+    }
+
+    static boolean isSupported() {
+        return threads != null;
+    }
+
+    static long allocatedBytes() {
+        return threads == null ? 0 : threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static com.sun.management.ThreadMXBean createThreadBean() {
+        try {
+            java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+                return null;
+            }
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+            if (!threads.isThreadAllocatedMemorySupported()) {
+                return null;
+            }
+            threads.setThreadAllocatedMemoryEnabled(true);
+            return threads;
+        } catch (Throwable t) {
+            return null;
+        }
+    }
+}
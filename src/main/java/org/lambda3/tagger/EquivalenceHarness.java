@@ -0,0 +1,380 @@
+package org.lambda3.tagger;
+
+/*
+ * ==========================License-Start=============================
+ * Top Level Tagger
+ *
+ * Copyright © 2017 Lambda³
+ *
+ * GNU General Public License 3
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ * ==========================License-End==============================
+ */
+
+import edu.mit.jwi.CompactDictionary;
+import edu.mit.jwi.IDictionary;
+import edu.mit.jwi.RAMDictionary;
+import edu.mit.jwi.data.ILoadPolicy;
+import net.sourceforge.argparse4j.ArgumentParsers;
+import net.sourceforge.argparse4j.inf.ArgumentParser;
+import net.sourceforge.argparse4j.inf.ArgumentParserException;
+import net.sourceforge.argparse4j.inf.Namespace;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+//Runs a reference and a candidate tagger side by side over the same corpus, reporting every chunk whose
+//WordMapping differs and the time each engine took. Used to validate optimized engines before adopting them.
+public final class EquivalenceHarness {
+
+    //Number of neighbouring chunks printed on each side of a difference
+    private static final int CONTEXT = 2;
+
+    //Number of timed runs of each engine, unless set otherwise
+    public static final int DEFAULT_ROUNDS = 5;
+
+    private final TopLevelTagger reference;
+    private final TopLevelTagger candidate;
+    private final boolean foundationClasses;
+    private int rounds = DEFAULT_ROUNDS;
+
+    public EquivalenceHarness(TopLevelTagger reference, TopLevelTagger candidate, boolean foundationClasses) {
+        if (reference == null || candidate == null) {
+            throw new NullPointerException();
+        }
+        this.reference = reference;
+        this.candidate = candidate;
+        this.foundationClasses = foundationClasses;
+    }
+
+    public int getRounds() {
+        return rounds;
+    }
+
+    //Number of times each engine tags the corpus; the runs alternate between the engines, and the median time of each
+    //is reported, so that drift in the machine (JIT, GC, frequency scaling) does not favour the engine that ran last
+    public void setRounds(int rounds) {
+        if (rounds < 1) {
+            throw new IllegalArgumentException("rounds must be positive: " + rounds);
+        }
+        this.rounds = rounds;
+    }
+
+    private List<List<WordMapping>> tag(TopLevelTagger tlt, List<String> sentences) {
+        return foundationClasses ? tlt.tagWithFoundationClass(sentences, false) : tlt.tagWithTopClass(sentences, false);
+    }
+
+    //Tag the corpus with both engines and compare the results chunk by chunk
+    public Report run(List<String> sentences) {
+
+        //Warm up both engines on the first sentence, so that one-off costs (POS model, mapping files) do not skew the ratio
+        if (sentences.size() > 0) {
+            List<String> warmUp = Collections.singletonList(sentences.get(0));
+            tag(reference, warmUp);
+            tag(candidate, warmUp);
+        }
+
+        //Alternate which engine goes first (reference, candidate, candidate, reference, ...); the results of the
+        //first run of each engine are compared, the later runs are only timed
+        List<List<WordMapping>> expected = null;
+        List<List<WordMapping>> actual = null;
+        long[] referenceNanos = new long[rounds];
+        long[] candidateNanos = new long[rounds];
+        for (int round = 0; round < rounds; round++) {
+            for (int turn = 0; turn < 2; turn++) {
+                boolean referenceTurn = (turn == round % 2);
+                long start = System.nanoTime();
+                List<List<WordMapping>> result = tag(referenceTurn ? reference : candidate, sentences);
+                long nanos = System.nanoTime() - start;
+                if (referenceTurn) {
+                    referenceNanos[round] = nanos;
+                    expected = expected == null ? result : expected;
+                } else {
+                    candidateNanos[round] = nanos;
+                    actual = actual == null ? result : actual;
+                }
+            }
+        }
+
+        List<Difference> differences = new ArrayList<>();
+        for (int i = 0; i < sentences.size(); i++) {
+            List<WordMapping> expectedChunks = i < expected.size() ? expected.get(i) : Collections.<WordMapping>emptyList();
+            List<WordMapping> actualChunks = i < actual.size() ? actual.get(i) : Collections.<WordMapping>emptyList();
+            compare(i, sentences.get(i), expectedChunks, actualChunks, differences);
+        }
+
+        return new Report(sentences.size(), differences, median(referenceNanos), median(candidateNanos), rounds);
+    }
+
+    //Align the chunks of a sentence by their text, along a longest common subsequence of the words, so that a chunk
+    //split or merged by one engine is reported as the chunks involved, rather than shifting every later chunk out of place
+    private static void compare(int sentenceIndex, String sentence, List<WordMapping> expected, List<WordMapping> actual,
+                                List<Difference> differences) {
+        int n = expected.size();
+        int m = actual.size();
+        int[][] common = new int[n + 1][m + 1];
+        for (int i = n - 1; i >= 0; i--) {
+            for (int j = m - 1; j >= 0; j--) {
+                common[i][j] = sameWord(expected.get(i), actual.get(j)) ?
+                        common[i + 1][j + 1] + 1 :
+                        Math.max(common[i + 1][j], common[i][j + 1]);
+            }
+        }
+
+        int i = 0;
+        int j = 0;
+        while (i < n || j < m) {
+            if (i < n && j < m && sameWord(expected.get(i), actual.get(j)) && common[i][j] == common[i + 1][j + 1] + 1) {
+                if (!expected.get(i).equals(actual.get(j))) {
+                    differences.add(new Difference(sentenceIndex, sentence, expected, i, true, actual, j, true));
+                }
+                i++;
+                j++;
+            } else if (j == m || (i < n && common[i + 1][j] >= common[i][j + 1])) {
+                differences.add(new Difference(sentenceIndex, sentence, expected, i, true, actual, j, false));
+                i++;
+            } else {
+                differences.add(new Difference(sentenceIndex, sentence, expected, i, false, actual, j, true));
+                j++;
+            }
+        }
+    }
+
+    private static boolean sameWord(WordMapping expected, WordMapping actual) {
+        return Objects.equals(expected.getWord(), actual.getWord());
+    }
+
+    private static long median(long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        int middle = sorted.length / 2;
+        return sorted.length % 2 == 1 ? sorted[middle] : (sorted[middle - 1] + sorted[middle]) / 2;
+    }
+
+    //A chunk whose mapping differs between the two engines, or that only one of them produced
+    public static final class Difference {
+
+        private final int sentenceIndex;
+        private final String sentence;
+        private final List<WordMapping> expected;
+        private final int expectedIndex;
+        private final boolean inExpected;
+        private final List<WordMapping> actual;
+        private final int actualIndex;
+        private final boolean inActual;
+
+        //Each index is the position of the chunk in its list, or, for the list missing the chunk, the position at which
+        //it would be
+        Difference(int sentenceIndex, String sentence, List<WordMapping> expected, int expectedIndex, boolean inExpected,
+                   List<WordMapping> actual, int actualIndex, boolean inActual) {
+            this.sentenceIndex = sentenceIndex;
+            this.sentence = sentence;
+            this.expected = expected;
+            this.expectedIndex = expectedIndex;
+            this.inExpected = inExpected;
+            this.actual = actual;
+            this.actualIndex = actualIndex;
+            this.inActual = inActual;
+        }
+
+        public int getSentenceIndex() {
+            return sentenceIndex;
+        }
+
+        public String getSentence() {
+            return sentence;
+        }
+
+        //Position of the chunk among the reference chunks of the sentence
+        public int getExpectedIndex() {
+            return expectedIndex;
+        }
+
+        //Position of the chunk among the candidate chunks of the sentence
+        public int getActualIndex() {
+            return actualIndex;
+        }
+
+        public WordMapping getExpected() {
+            return inExpected ? expected.get(expectedIndex) : null;
+        }
+
+        public WordMapping getActual() {
+            return inActual ? actual.get(actualIndex) : null;
+        }
+
+        //The chunks surrounding the difference, with the differing chunk, or the place it is missing from, between brackets
+        private static String context(List<WordMapping> chunks, int index, boolean present) {
+            List<String> parts = new ArrayList<>();
+            int from = Math.max(0, index - CONTEXT);
+            int to = Math.min(chunks.size(), index + CONTEXT + (present ? 1 : 0));
+            for (int i = from; i < to; i++) {
+                if (i == index && !present) {
+                    parts.add("[missing]");
+                }
+                parts.add(i == index && present ? "[" + chunks.get(i) + "]" : chunks.get(i).toString());
+            }
+            if (!present && index >= to) {
+                parts.add("[missing]");
+            }
+            return String.join(" | ", parts);
+        }
+
+        @Override
+        public String toString() {
+            return "sentence " + sentenceIndex + ", chunk " + (inExpected ? expectedIndex : actualIndex) + ": " + sentence + "\n"
+                    + "  expected: " + context(expected, expectedIndex, inExpected) + "\n"
+                    + "  actual:   " + context(actual, actualIndex, inActual);
+        }
+    }
+
+    //The outcome of a harness run
+    public static final class Report {
+
+        private final int sentences;
+        private final List<Difference> differences;
+        private final long referenceNanos;
+        private final long candidateNanos;
+        private final int rounds;
+
+        Report(int sentences, List<Difference> differences, long referenceNanos, long candidateNanos, int rounds) {
+            this.sentences = sentences;
+            this.differences = Collections.unmodifiableList(differences);
+            this.referenceNanos = referenceNanos;
+            this.candidateNanos = candidateNanos;
+            this.rounds = rounds;
+        }
+
+        public int getSentenceCount() {
+            return sentences;
+        }
+
+        public List<Difference> getDifferences() {
+            return differences;
+        }
+
+        public boolean isEquivalent() {
+            return differences.isEmpty();
+        }
+
+        //Median time of the reference runs
+        public long getReferenceNanos() {
+            return referenceNanos;
+        }
+
+        //Median time of the candidate runs
+        public long getCandidateNanos() {
+            return candidateNanos;
+        }
+
+        public int getRounds() {
+            return rounds;
+        }
+
+        //How many times faster the candidate was than the reference
+        public double getSpeedup() {
+            return candidateNanos == 0 ? 0 : (double) referenceNanos / candidateNanos;
+        }
+
+        public void print(PrintStream out) {
+            for (Difference difference : differences) {
+                out.println(difference);
+            }
+            out.println(sentences + " sentences, " + differences.size() + " differing chunks");
+            out.println(String.format("reference: %.1f ms, candidate: %.1f ms, speedup: %.2fx (median of %d alternating runs each)",
+                    referenceNanos / 1e6, candidateNanos / 1e6, getSpeedup(), rounds));
+        }
+    }
+
+    public static void main(String args[]) throws IOException {
+
+        //Parse options
+        ArgumentParser parser = ArgumentParsers.newArgumentParser("EquivalenceHarness");
+        parser.addArgument("-wnpath").help("path to WordNet database.").required(true);
+        parser.addArgument("-inputfile").help("corpus file, one sentence per line").required(true);
+        parser.addArgument("-tagset").choices("tc", "fc").help("tc: top class (default) | fc: foundational class)").setDefault("tc");
+        parser.addArgument("-candidate").choices("ram", "compact", "memo", "preclassify", "lazy", "hypernyms", "legacy").help("ram: candidate on a RAMDictionary (default) | compact: candidate on a CompactDictionary | memo: reference without the memoizing stemmer | preclassify: reference without the pre-classifier | lazy: reference decoding synsets eagerly | hypernyms: reference walking hypernyms without the index | legacy: reference with all of memo, preclassify, lazy and hypernyms turned off").setDefault("ram");
+        parser.addArgument("-rounds").type(Integer.class).help("alternating timed runs of each engine (default: " + DEFAULT_ROUNDS + ")").setDefault(DEFAULT_ROUNDS);
+
+        try {
+            Namespace options = parser.parseArgs(args);
+            String wnpath = options.get("wnpath").toString();
+            String inputfile = options.get("inputfile").toString();
+            String tagset = options.get("tagset").toString();
+            String mode = options.get("candidate").toString();
+            int rounds = options.getInt("rounds");
+
+            List<String> sentences = Files.lines(Paths.get(inputfile)).filter(l -> l.trim().length() > 0).collect(Collectors.toList());
+
+            TopLevelTagger reference = new TopLevelTagger(wnpath);
+            TopLevelTagger candidate;
+            IDictionary candidateDict = null;
+            if (mode.equals("memo")) {
+                reference.setMemoizingStemmer(false);
+                candidate = new TopLevelTagger(wnpath);
+            } else if (mode.equals("preclassify")) {
+                reference.setPreclassifying(false);
+                candidate = new TopLevelTagger(wnpath);
+            } else if (mode.equals("lazy")) {
+                reference.setLazySynsets(false);
+                candidate = new TopLevelTagger(wnpath);
+            } else if (mode.equals("hypernyms")) {
+                reference.setIndexingHypernyms(false);
+                candidate = new TopLevelTagger(wnpath);
+            } else if (mode.equals("legacy")) {
+                reference.setMemoizingStemmer(false);
+                reference.setPreclassifying(false);
+                reference.setLazySynsets(false);
+                reference.setIndexingHypernyms(false);
+                candidate = new TopLevelTagger(wnpath);
+            } else if (mode.equals("compact")) {
+                candidateDict = new CompactDictionary(new File(wnpath));
+                candidate = new TopLevelTagger(candidateDict);
+            } else {
+                candidateDict = new RAMDictionary(new File(wnpath), ILoadPolicy.IMMEDIATE_LOAD);
+                candidate = new TopLevelTagger(candidateDict);
+            }
+
+            Report report;
+            try {
+                EquivalenceHarness harness = new EquivalenceHarness(reference, candidate, tagset.equals("fc"));
+                harness.setRounds(rounds);
+                report = harness.run(sentences);
+            } finally {
+                reference.close();
+                candidate.close();
+                if (candidateDict != null) {
+                    candidateDict.close();
+                }
+            }
+            report.print(System.out);
+
+            if (!report.isEquivalent()) {
+                System.exit(2);
+            }
+        } catch (ArgumentParserException e) {
+            parser.handleError(e);
+            System.exit(1);
+        }
+    }
+}
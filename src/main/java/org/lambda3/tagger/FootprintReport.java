@@ -0,0 +1,223 @@
+package org.lambda3.tagger;
+
+/*
+ * ==========================License-Start=============================
+ * Top Level Tagger
+ *
+ * Copyright © 2017 Lambda³
+ *
+ * GNU General Public License 3
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ * ==========================License-End==============================
+ */
+
+import edu.mit.jwi.CachingDictionary;
+import edu.mit.jwi.CompactDictionary;
+import edu.mit.jwi.IDataSourceDictionary;
+import edu.mit.jwi.IDictionary;
+import edu.mit.jwi.RAMDictionary;
+import edu.mit.jwi.data.IContentType;
+import edu.mit.jwi.data.IDataProvider;
+import edu.mit.jwi.data.IDataSource;
+import edu.mit.jwi.data.WordnetFile;
+
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+//Estimated memory taken by each component of a tagger: retained heap of the dictionary layers, the mapping tables
+//and the POS model, plus the off-heap bytes of every open WordNet file buffer
+public final class FootprintReport {
+
+    private final List<Component> components = new ArrayList<>();
+    private final List<MappedSource> mappedSources = new ArrayList<>();
+    private final ObjectSizeEstimator estimator = new ObjectSizeEstimator();
+
+    FootprintReport() {
+    }
+
+    //Measure a component; objects already counted for an earlier component are not counted again
+    void add(String name, Object root) {
+        long bytes = root == null ? 0 : estimator.estimate(root);
+        components.add(new Component(name, root != null, bytes, root == null ? 0 : estimator.getObjectCount()));
+    }
+
+    //Measure every layer of a (possibly wrapped) dictionary, from the outermost in
+    void addDictionary(IDictionary dict) {
+        while (dict != null) {
+            if (dict instanceof CachingDictionary) {
+                CachingDictionary caching = (CachingDictionary) dict;
+                //Lazily decoded synsets in the cache refer back to the dictionary that parsed them; count that
+                //dictionary, and its data sources, under its own layer rather than under the cache
+                estimator.exclude(caching.getBackingDictionary());
+                add("Dictionary item cache", caching.getCache());
+                dict = caching.getBackingDictionary();
+            } else if (dict instanceof RAMDictionary) {
+                RAMDictionary ram = (RAMDictionary) dict;
+                estimator.exclude(ram.getBackingDictionary());
+                add("RAM dictionary data", ram);
+                dict = ram.getBackingDictionary();
+            } else if (dict instanceof CompactDictionary) {
+                CompactDictionary compact = (CompactDictionary) dict;
+                estimator.exclude(compact.getBackingDictionary());
+                add("Compact dictionary data", compact);
+                dict = compact.getBackingDictionary();
+            } else if (dict instanceof IDataSourceDictionary) {
+                IDataProvider provider = ((IDataSourceDictionary) dict).getDataProvider();
+                add("Dictionary data sources", provider);
+                addMappedSources(provider);
+                dict = null;
+            } else {
+                add(dict.getClass().getSimpleName(), dict);
+                dict = null;
+            }
+        }
+    }
+
+    private void addMappedSources(IDataProvider provider) {
+        if (!provider.isOpen()) {
+            return;
+        }
+        for (IContentType<?> type : provider.getTypes()) {
+            IDataSource<?> source = provider.getSource(type);
+            if (source instanceof WordnetFile) {
+                ByteBuffer buffer = ((WordnetFile<?>) source).getBuffer();
+                if (buffer != null) {
+                    mappedSources.add(new MappedSource(source.getName(), buffer));
+                }
+            }
+        }
+    }
+
+    public List<Component> getComponents() {
+        return Collections.unmodifiableList(components);
+    }
+
+    public List<MappedSource> getMappedSources() {
+        return Collections.unmodifiableList(mappedSources);
+    }
+
+    public long getHeapBytes() {
+        return components.stream().mapToLong(Component::getBytes).sum();
+    }
+
+    public long getMappedBytes() {
+        return mappedSources.stream().filter(MappedSource::isDirect).mapToLong(MappedSource::getBytes).sum();
+    }
+
+    public void print(PrintStream out) {
+        out.print(toString());
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Heap (estimated retained size):\n");
+        for (Component component : components) {
+            sb.append("  ").append(component).append('\n');
+        }
+        sb.append(String.format("  %-28s %12s%n", "total", mb(getHeapBytes())));
+        if (mappedSources.size() > 0) {
+            sb.append("Mapped files:\n");
+            for (MappedSource source : mappedSources) {
+                sb.append("  ").append(source).append('\n');
+            }
+            sb.append(String.format("  %-28s %12s%n", "total", mb(getMappedBytes())));
+        }
+        return sb.toString();
+    }
+
+    private static String mb(long bytes) {
+        return String.format("%.2f MB", bytes / (1024.0 * 1024.0));
+    }
+
+    //A heap component and its estimated retained size
+    public static final class Component {
+
+        private final String name;
+        private final boolean loaded;
+        private final long bytes;
+        private final long objects;
+
+        Component(String name, boolean loaded, long bytes, long objects) {
+            this.name = name;
+            this.loaded = loaded;
+            this.bytes = bytes;
+            this.objects = objects;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        //False if the component has not been loaded yet (e.g. the POS model before the first sentence)
+        public boolean isLoaded() {
+            return loaded;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public long getObjectCount() {
+            return objects;
+        }
+
+        @Override
+        public String toString() {
+            return loaded ? String.format("%-28s %12s %12d objects", name, mb(bytes), objects) : String.format("%-28s %12s", name, "not loaded");
+        }
+    }
+
+    //The buffer of an open WordNet file; direct buffers live outside the heap
+    public static final class MappedSource {
+
+        private final String name;
+        private final long bytes;
+        private final boolean direct;
+        private final boolean resident;
+
+        MappedSource(String name, ByteBuffer buffer) {
+            this.name = name;
+            this.bytes = buffer.capacity();
+            this.direct = buffer.isDirect();
+            this.resident = buffer instanceof MappedByteBuffer && ((MappedByteBuffer) buffer).isLoaded();
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public boolean isDirect() {
+            return direct;
+        }
+
+        //True if the operating system reports every page of the mapping as resident in physical memory
+        public boolean isResident() {
+            return resident;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-28s %12s %s", name, mb(bytes), direct ? (resident ? "mapped, resident" : "mapped") : "heap");
+        }
+    }
+}
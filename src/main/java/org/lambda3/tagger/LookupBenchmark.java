@@ -0,0 +1,364 @@
+package org.lambda3.tagger;
+
+/*
+ * ==========================License-Start=============================
+ * Top Level Tagger
+ *
+ * Copyright © 2017 Lambda³
+ *
+ * GNU General Public License 3
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ * ==========================License-End==============================
+ */
+
+import edu.mit.jwi.DataSourceDictionary;
+import edu.mit.jwi.IDictionary;
+import edu.mit.jwi.data.BinarySearchWordnetFile;
+import edu.mit.jwi.data.ContentType;
+import edu.mit.jwi.data.FileProvider;
+import edu.mit.jwi.data.IContentType;
+import edu.mit.jwi.data.IDataSource;
+import edu.mit.jwi.data.IHasLifecycle;
+import edu.mit.jwi.data.KeyFilter;
+import edu.mit.jwi.data.compare.IByteLineComparator;
+import edu.mit.jwi.item.IIndexWord;
+import edu.mit.jwi.item.POS;
+import net.sourceforge.argparse4j.ArgumentParsers;
+import net.sourceforge.argparse4j.inf.ArgumentParser;
+import net.sourceforge.argparse4j.inf.ArgumentParserException;
+import net.sourceforge.argparse4j.inf.Namespace;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+//Times key lookups in the binary-searched WordNet files (index, exception and sense files) with line indexing,
+//byte-level key comparison and key filtering against the bisecting path that decodes and compares every line it
+//visits. The keys are the keys of the file plus a misspelled copy of each, so that hits and misses are timed together,
+//and the misspelled keys give the observed false-positive rate of the key filter. Dictionary lookups are then timed
+//from several threads at once, and the provider is closed under concurrent readers to check that close() is safe.
+public final class LookupBenchmark {
+
+    private static final List<IContentType<?>> TYPES = Arrays.<IContentType<?>>asList(
+            ContentType.INDEX_NOUN, ContentType.INDEX_VERB, ContentType.INDEX_ADJECTIVE, ContentType.INDEX_ADVERB,
+            ContentType.EXCEPTION_NOUN, ContentType.EXCEPTION_VERB, ContentType.SENSE);
+
+    //Longest wait for the readers to get going before the dictionary is closed, and for them to stop after
+    private static final long CLOSE_TIMEOUT_MILLIS = 10000;
+
+    //Keeps the lookups from being optimized away
+    private static int found;
+
+    private final String wnpath;
+    private final FileProvider reference;
+    private final FileProvider candidate;
+
+    public LookupBenchmark(String wnpath) throws IOException {
+        this.wnpath = wnpath;
+        reference = new FileProvider(new File(wnpath));
+        reference.setIndexingLines(false);
+        reference.setFilteringKeys(false);
+        reference.open();
+        candidate = new FileProvider(new File(wnpath));
+        candidate.setIndexingLines(true);
+        candidate.setFilteringKeys(true);
+        candidate.open();
+    }
+
+    public void close() {
+        reference.close();
+        candidate.close();
+    }
+
+    private static List<String> keys(IDataSource<?> source) {
+        List<String> keys = new ArrayList<>();
+        for (Iterator<String> i = source.iterator(); i.hasNext(); ) {
+            String line = i.next();
+            int space = line.indexOf(' ');
+            String key = space == -1 ? line : line.substring(0, space);
+            keys.add(key);
+            keys.add(key + "x");
+        }
+        return keys;
+    }
+
+    //Mean nanoseconds per lookup of randomly drawn keys
+    private static double time(IDataSource<?> source, String[] keys, int lookups) {
+        Random random = new Random(0);
+        long start = System.nanoTime();
+        for (int i = 0; i < lookups; i++) {
+            if (source.getLine(keys[random.nextInt(keys.length)]) != null) {
+                found++;
+            }
+        }
+        return (double) (System.nanoTime() - start) / lookups;
+    }
+
+    //Fraction of the absent keys that the key filter of the source lets through, or NaN without a filter
+    private static double falsePositiveRate(IDataSource<?> source, List<String> absent) {
+        KeyFilter filter = source instanceof BinarySearchWordnetFile ? ((BinarySearchWordnetFile<?>) source).getKeyFilter() : null;
+        if (filter == null || absent.isEmpty()) {
+            return Double.NaN;
+        }
+        IByteLineComparator comparator = (IByteLineComparator) source.getContentType().getLineComparator();
+        int passed = 0;
+        for (String key : absent) {
+            byte[] bytes = comparator.getKeyBytes(key);
+            if (bytes == null || filter.mightContain(bytes)) {
+                passed++;
+            }
+        }
+        return (double) passed / absent.size();
+    }
+
+    //Check that both paths return the same line for every key, then time them; false if any key differs
+    public boolean run(int lookups, int warmUp, PrintStream out) {
+        boolean same = true;
+        out.println(String.format("%-28s %12s %12s %9s %9s %9s", "file", "bisect ns", "indexed ns", "speedup", "fp rate", "filter KB"));
+        for (IContentType<?> type : TYPES) {
+            IDataSource<?> bisecting = reference.getSource(type);
+            IDataSource<?> indexed = candidate.getSource(type);
+            if (bisecting == null || indexed == null) {
+                continue;
+            }
+
+            List<String> keys = keys(bisecting);
+            List<String> absent = new ArrayList<>();
+            for (String key : keys) {
+                String line = bisecting.getLine(key);
+                if (!Objects.equals(line, indexed.getLine(key))) {
+                    out.println("  " + bisecting.getName() + ": lines differ for key " + key);
+                    same = false;
+                }
+                if (line == null) {
+                    absent.add(key);
+                }
+            }
+            if (keys.isEmpty()) {
+                continue;
+            }
+
+            String[] sample = keys.toArray(new String[keys.size()]);
+            for (int i = 0; i < warmUp; i++) {
+                time(bisecting, sample, lookups);
+                time(indexed, sample, lookups);
+            }
+            double slow = time(bisecting, sample, lookups);
+            double fast = time(indexed, sample, lookups);
+            KeyFilter filter = indexed instanceof BinarySearchWordnetFile ? ((BinarySearchWordnetFile<?>) indexed).getKeyFilter() : null;
+            out.println(String.format("%-28s %12.0f %12.0f %8.2fx %8.2f%% %9d", bisecting.getName(), slow, fast, slow / fast,
+                    100 * falsePositiveRate(indexed, absent), filter == null ? 0 : filter.getByteCount() / 1024));
+        }
+        return same;
+    }
+
+    //The noun lemmas of the indexed provider, as keys for dictionary lookups
+    private List<String> lemmas() {
+        List<String> lemmas = new ArrayList<>();
+        for (Iterator<String> i = candidate.getSource(ContentType.INDEX_NOUN).iterator(); i.hasNext(); ) {
+            String line = i.next();
+            int space = line.indexOf(' ');
+            lemmas.add(space == -1 ? line : line.substring(0, space));
+        }
+        return lemmas;
+    }
+
+    //Look up a random noun and the synset of its first sense; each lookup passes the lifecycle checks of the
+    //dictionary and the provider, which is what concurrent readers contend on
+    private static void lookUp(IDictionary dict, String[] lemmas, Random random) {
+        IIndexWord word = dict.getIndexWord(lemmas[random.nextInt(lemmas.length)], POS.NOUN);
+        if (word != null && dict.getSynset(word.getWordIDs().get(0).getSynsetID()) != null) {
+            found++;
+        }
+    }
+
+    //Total lookups per second of the given number of threads looking up nouns through one dictionary
+    private double throughput(final IDictionary dict, final String[] lemmas, int threads, final int lookups) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final CountDownLatch start = new CountDownLatch(1);
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                final long seed = t;
+                tasks.add(new Callable<Void>() {
+                    public Void call() throws InterruptedException {
+                        Random random = new Random(seed);
+                        start.await();
+                        for (int i = 0; i < lookups; i++) {
+                            lookUp(dict, lemmas, random);
+                        }
+                        return null;
+                    }
+                });
+            }
+            List<Future<Void>> futures = new ArrayList<>();
+            for (Callable<Void> task : tasks) {
+                futures.add(executor.submit(task));
+            }
+            long begin = System.nanoTime();
+            start.countDown();
+            for (Future<Void> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    throw new RuntimeException(e.getCause());
+                }
+            }
+            return (double) threads * lookups / (System.nanoTime() - begin) * 1e9;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    //Time dictionary lookups from 1, 2, 4... up to the given number of threads
+    public void runConcurrent(int maxThreads, int lookups, int warmUp, PrintStream out) throws InterruptedException {
+        IDictionary dict = new DataSourceDictionary(candidate);
+        String[] lemmas = lemmas().toArray(new String[0]);
+        if (lemmas.length == 0) {
+            return;
+        }
+        for (int i = 0; i < warmUp; i++) {
+            throughput(dict, lemmas, maxThreads, lookups);
+        }
+        out.println(String.format("%-28s %12s %12s %9s", "threads", "lookups/s", "per thread", "scaling"));
+        double single = 0;
+        for (int threads = 1; ; threads = Math.min(2 * threads, maxThreads)) {
+            double rate = throughput(dict, lemmas, threads, lookups);
+            if (threads == 1) {
+                single = rate;
+            }
+            out.println(String.format("%-28d %12.0f %12.0f %8.2fx", threads, rate, rate / threads, rate / single));
+            if (threads >= maxThreads) {
+                break;
+            }
+        }
+    }
+
+    //Close a dictionary while threads are looking up nouns in it. Every lookup must either succeed or fail with an
+    //ObjectClosedException; false if any other exception is thrown, or if a thread is still running afterwards
+    public boolean closeWhileReading(int threads, PrintStream out) throws IOException, InterruptedException {
+        FileProvider provider = new FileProvider(new File(wnpath));
+        final IDictionary dict = new DataSourceDictionary(provider);
+        dict.open();
+        final String[] lemmas = lemmas().toArray(new String[0]);
+        if (lemmas.length == 0) {
+            dict.close();
+            return true;
+        }
+
+        final AtomicLong completed = new AtomicLong();
+        final CountDownLatch running = new CountDownLatch(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<Throwable>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            final long seed = t;
+            futures.add(executor.submit(new Callable<Throwable>() {
+                public Throwable call() {
+                    Random random = new Random(seed);
+                    running.countDown();
+                    try {
+                        while (true) {
+                            lookUp(dict, lemmas, random);
+                            completed.incrementAndGet();
+                        }
+                    } catch (IHasLifecycle.ObjectClosedException e) {
+                        return null;
+                    } catch (Throwable e) {
+                        return e;
+                    }
+                }
+            }));
+        }
+
+        //Let the readers get going before pulling the files from under them, unless they have all stopped already
+        running.await();
+        long deadline = System.currentTimeMillis() + CLOSE_TIMEOUT_MILLIS;
+        while (completed.get() < 10000L * threads && !allDone(futures) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        dict.close();
+
+        boolean safe = true;
+        deadline = System.currentTimeMillis() + CLOSE_TIMEOUT_MILLIS;
+        for (Future<Throwable> future : futures) {
+            try {
+                Throwable failure = future.get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+                if (failure != null) {
+                    out.println("  lookup failed: " + failure);
+                    safe = false;
+                }
+            } catch (ExecutionException e) {
+                out.println("  reader failed: " + e.getCause());
+                safe = false;
+            } catch (TimeoutException e) {
+                out.println("  reader still running after close");
+                safe = false;
+            }
+        }
+        executor.shutdownNow();
+        out.println(String.format("closed under %d readers after %d lookups: %s", threads, completed.get(), safe ? "safe" : "UNSAFE"));
+        return safe;
+    }
+
+    private static boolean allDone(List<? extends Future<?>> futures) {
+        for (Future<?> future : futures) {
+            if (!future.isDone()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static void main(String args[]) throws IOException, InterruptedException {
+
+        //Parse options
+        ArgumentParser parser = ArgumentParsers.newArgumentParser("LookupBenchmark");
+        parser.addArgument("-wnpath").help("path to WordNet database.").required(true);
+        parser.addArgument("-lookups").type(Integer.class).help("timed lookups per file (default: 1000000)").setDefault(1000000);
+        parser.addArgument("-warmup").type(Integer.class).help("untimed rounds of lookups per file before timing (default: 2)").setDefault(2);
+        parser.addArgument("-threads").type(Integer.class).help("most threads looking up nouns concurrently (default: available processors)").setDefault(Runtime.getRuntime().availableProcessors());
+
+        try {
+            Namespace options = parser.parseArgs(args);
+            LookupBenchmark benchmark = new LookupBenchmark(options.get("wnpath").toString());
+            boolean same = benchmark.run(options.getInt("lookups"), options.getInt("warmup"), System.out);
+            int threads = options.getInt("threads");
+            benchmark.runConcurrent(threads, options.getInt("lookups") / threads, options.getInt("warmup"), System.out);
+            boolean safe = benchmark.closeWhileReading(threads, System.out);
+            benchmark.close();
+
+            if (!same || !safe) {
+                System.exit(2);
+            }
+        } catch (ArgumentParserException e) {
+            parser.handleError(e);
+            System.exit(1);
+        }
+    }
+}
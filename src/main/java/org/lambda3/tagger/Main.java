@@ -24,6 +24,7 @@ package org.lambda3.tagger;
 
 
 import net.sourceforge.argparse4j.ArgumentParsers;
+import net.sourceforge.argparse4j.impl.Arguments;
 import net.sourceforge.argparse4j.inf.ArgumentParser;
 import net.sourceforge.argparse4j.inf.ArgumentParserException;
 import net.sourceforge.argparse4j.inf.Namespace;
@@ -45,6 +46,9 @@ public final class Main {
         parser.addArgument("-inputfile").help("data file, one sentence per line").setDefault("System.in");
         parser.addArgument("-outputfile").help("result file, one pair <segment: label> per line").setDefault("System.out");
         parser.addArgument("-tagset").choices("tc", "fc").help("tc: top class (default) | fc: foundational class)").setDefault("tc");
+        parser.addArgument("-explain").action(Arguments.storeTrue()).help("write the cost trace of each sentence instead of the labels");
+        parser.addArgument("-footprint").action(Arguments.storeTrue()).help("print the estimated memory footprint of the tagger to standard error when done");
+        parser.addArgument("-jmx").action(Arguments.storeTrue()).help("publish per-stage tagging metrics as an MBean while tagging");
 
         Namespace options;
 
@@ -54,56 +58,75 @@ public final class Main {
             String outputfile = options.get("outputfile").toString(); // result file, one pair <segment: label> per line
             String wnpath = options.get("wnpath").toString(); // path of WordNet database files
             String tagset = options.get("tagset").toString(); // tc: top class (default) | fc: foundational class)
+            boolean explain = options.getBoolean("explain"); // trace spans, stems, probes and hypernyms per sentence
+            boolean footprint = options.getBoolean("footprint"); // report heap and mapped memory after tagging
+            boolean jmx = options.getBoolean("jmx"); // register the metrics MBean for the duration of the run
 
-            TopLevelTagger tlt = new TopLevelTagger(wnpath);
-
-            List<String> sentences = new ArrayList<>();
-            List<List<WordMapping>> taggedSents;
-            List<String> records = new ArrayList<>();
-
-            if (inputfile.equals("System.in")) {
-                //Read from standard input, until an empty line is entered
-                BufferedReader in = new BufferedReader(new InputStreamReader(System.in));
-                String line;
-                while ((line = in.readLine()) != null && line.length() != 0) {
-                    sentences.add(line);
+            try (TopLevelTagger tlt = new TopLevelTagger(wnpath)) {
+                if (jmx) {
+                    tlt.registerMBean();
                 }
-            } else {
-                //Read input text from file
-                sentences = Files.lines(Paths.get(inputfile)).collect(Collectors.toList());
-            }
 
-            if (sentences.size() > 0) {
-                //Tag sentences
-                if (tagset.equals("fc")) {
-                    taggedSents = tlt.tagWithFoundationClass(sentences, true);
+                List<String> sentences = new ArrayList<>();
+                List<List<WordMapping>> taggedSents;
+                List<String> records = new ArrayList<>();
+
+                if (inputfile.equals("System.in")) {
+                    //Read from standard input, until an empty line is entered
+                    BufferedReader in = new BufferedReader(new InputStreamReader(System.in));
+                    String line;
+                    while ((line = in.readLine()) != null && line.length() != 0) {
+                        sentences.add(line);
+                    }
                 } else {
-                    taggedSents = tlt.tagWithTopClass(sentences, true);
+                    //Read input text from file
+                    sentences = Files.lines(Paths.get(inputfile)).collect(Collectors.toList());
                 }
 
-                for (List<WordMapping> taggedSent : taggedSents) {
-                    for (WordMapping mapping : taggedSent) {
-                        records.add(mapping.getWord() + ": " + mapping.getLabel() + "\n");
+                if (sentences.size() > 0) {
+                    if (explain) {
+                        //Trace sentences one at a time
+                        for (String sentence : sentences) {
+                            records.add(tlt.explain(sentence, tagset.equals("fc")).toString());
+                            records.add("\n");
+                        }
+                    } else {
+                        //Tag sentences
+                        if (tagset.equals("fc")) {
+                            taggedSents = tlt.tagWithFoundationClass(sentences, true);
+                        } else {
+                            taggedSents = tlt.tagWithTopClass(sentences, true);
+                        }
+
+                        for (List<WordMapping> taggedSent : taggedSents) {
+                            for (WordMapping mapping : taggedSent) {
+                                records.add(mapping.getWord() + ": " + mapping.getLabel() + "\n");
+                            }
+                            records.add("\n");
+                        }
                     }
-                    records.add("\n");
-                }
 
-                if (!outputfile.equals("System.out")) {
-                    //Write results to file
-                    try {
-                        FileWriter writer = new FileWriter(outputfile);
-                        for (String record : records) {
-                            writer.write(record);
+                    if (!outputfile.equals("System.out")) {
+                        //Write results to file
+                        try {
+                            FileWriter writer = new FileWriter(outputfile);
+                            for (String record : records) {
+                                writer.write(record);
+                            }
+                            writer.flush();
+                            writer.close();
+                        } catch (IOException e) {
+                            e.printStackTrace();
                         }
-                        writer.flush();
-                        writer.close();
-                    } catch (IOException e) {
-                        e.printStackTrace();
+                    } else {
+                        //Write results to standard output
+                        System.out.println();
+                        records.forEach(System.out::print);
                     }
-                } else {
-                    //Write results to standard output
-                    System.out.println();
-                    records.forEach(System.out::print);
+                }
+
+                if (footprint) {
+                    tlt.footprint().print(System.err);
                 }
             }
         } catch (ArgumentParserException e) {
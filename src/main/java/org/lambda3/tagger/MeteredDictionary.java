@@ -0,0 +1,205 @@
+package org.lambda3.tagger;
+
+/*
+ * ==========================License-Start=============================
+ * Top Level Tagger
+ *
+ * Copyright © 2017 Lambda³
+ *
+ * GNU General Public License 3
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ * ==========================License-End==============================
+ */
+
+
+import edu.mit.jwi.IDictionary;
+import edu.mit.jwi.item.*;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Iterator;
+import java.util.List;
+
+//Dictionary view used for the duration of one tagging call: it forwards every lookup to the shared dictionary,
+//counting the probes and the time they take, and adding them to the trace in explain mode. Not thread-safe;
+//each call creates its own instance.
+final class MeteredDictionary implements IDictionary {
+
+    private final IDictionary dict;
+    private final SentenceTrace trace;
+    private long probes;
+    private long nanos;
+    private int depth;
+
+    MeteredDictionary(IDictionary dict, SentenceTrace trace) {
+        this.dict = dict;
+        this.trace = trace;
+    }
+
+    SentenceTrace getTrace() {
+        return trace;
+    }
+
+    //Nesting of the current probes, raised by the stemmer while it works
+    int getDepth() {
+        return depth;
+    }
+
+    void enter() {
+        depth++;
+    }
+
+    void leave() {
+        depth--;
+    }
+
+    long getProbes() {
+        return probes;
+    }
+
+    long getNanos() {
+        return nanos;
+    }
+
+    private <T> T record(long start, String what, Object key, POS pos, T result) {
+        probes++;
+        nanos += System.nanoTime() - start;
+        if (trace != null) {
+            trace.probe(what, pos == null ? key : key + " (" + pos + ")", depth, result != null);
+        }
+        return result;
+    }
+
+    //A batch counts one probe per key, and its time once
+    private <T> List<T> recordBatch(long start, String what, List<?> keys, POS pos, List<T> results) {
+        probes += keys.size();
+        nanos += System.nanoTime() - start;
+        if (trace != null) {
+            for (int i = 0; i < keys.size(); i++) {
+                trace.probe(what, pos == null ? keys.get(i) : keys.get(i) + " (" + pos + ")", depth, results.get(i) != null);
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public IIndexWord getIndexWord(String lemma, POS pos) {
+        long start = System.nanoTime();
+        return record(start, "index", lemma, pos, dict.getIndexWord(lemma, pos));
+    }
+
+    @Override
+    public IIndexWord getIndexWord(IIndexWordID id) {
+        long start = System.nanoTime();
+        return record(start, "index", id, null, dict.getIndexWord(id));
+    }
+
+    @Override
+    public List<IIndexWord> getIndexWords(List<String> lemmas, POS pos) {
+        long start = System.nanoTime();
+        return recordBatch(start, "index", lemmas, pos, dict.getIndexWords(lemmas, pos));
+    }
+
+    @Override
+    public IWord getWord(IWordID id) {
+        long start = System.nanoTime();
+        return record(start, "word", id, null, dict.getWord(id));
+    }
+
+    @Override
+    public IWord getWord(ISenseKey key) {
+        long start = System.nanoTime();
+        return record(start, "word", key, null, dict.getWord(key));
+    }
+
+    @Override
+    public ISynset getSynset(ISynsetID id) {
+        long start = System.nanoTime();
+        return record(start, "synset", id, null, dict.getSynset(id));
+    }
+
+    @Override
+    public List<ISynset> getSynsets(List<? extends ISynsetID> ids) {
+        long start = System.nanoTime();
+        return recordBatch(start, "synset", ids, null, dict.getSynsets(ids));
+    }
+
+    @Override
+    public ISenseEntry getSenseEntry(ISenseKey key) {
+        long start = System.nanoTime();
+        return record(start, "sense", key, null, dict.getSenseEntry(key));
+    }
+
+    @Override
+    public IExceptionEntry getExceptionEntry(String surfaceForm, POS pos) {
+        long start = System.nanoTime();
+        return record(start, "exception", surfaceForm, pos, dict.getExceptionEntry(surfaceForm, pos));
+    }
+
+    @Override
+    public IExceptionEntry getExceptionEntry(IExceptionEntryID id) {
+        long start = System.nanoTime();
+        return record(start, "exception", id, null, dict.getExceptionEntry(id));
+    }
+
+    @Override
+    public Iterator<IIndexWord> getIndexWordIterator(POS pos) {
+        return dict.getIndexWordIterator(pos);
+    }
+
+    @Override
+    public Iterator<ISynset> getSynsetIterator(POS pos) {
+        return dict.getSynsetIterator(pos);
+    }
+
+    @Override
+    public Iterator<ISenseEntry> getSenseEntryIterator() {
+        return dict.getSenseEntryIterator();
+    }
+
+    @Override
+    public Iterator<IExceptionEntry> getExceptionEntryIterator(POS pos) {
+        return dict.getExceptionEntryIterator(pos);
+    }
+
+    @Override
+    public void setCharset(Charset charset) {
+        dict.setCharset(charset);
+    }
+
+    @Override
+    public Charset getCharset() {
+        return dict.getCharset();
+    }
+
+    @Override
+    public IVersion getVersion() {
+        return dict.getVersion();
+    }
+
+    @Override
+    public boolean open() throws IOException {
+        return dict.open();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return dict.isOpen();
+    }
+
+    @Override
+    public void close() {
+        dict.close();
+    }
+}
@@ -0,0 +1,110 @@
+package org.lambda3.tagger;
+
+/*
+ * ==========================License-Start=============================
+ * Top Level Tagger
+ *
+ * Copyright © 2017 Lambda³
+ *
+ * GNU General Public License 3
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ * ==========================License-End==============================
+ */
+
+
+import edu.mit.jwi.item.POS;
+import edu.mit.jwi.morph.ExceptionTable;
+import edu.mit.jwi.morph.MemoizingStemmer;
+
+import java.util.List;
+
+//Stemmer used for the duration of one tagging call, timing each top-level findStems call and, in explain mode,
+//tracing every call with the number of stems and collocation candidates produced. Collocations are stemmed by
+//recursing into findStems for every token, so only the outermost call is timed (and, when asked for, has the bytes
+//it allocates counted). Unless memoization is turned off, single word stems come from the tagger's shared cache and
+//collocations are searched candidate by candidate; otherwise this behaves exactly as the WordnetStemmer.
+final class MeteredStemmer extends MemoizingStemmer {
+
+    private final MeteredDictionary probes;
+    private final SentenceTrace trace;
+    private final boolean allocations;
+    private final boolean memoizing;
+    private long nanos;
+    private long bytes;
+
+    MeteredStemmer(MeteredDictionary probes, boolean allocations, ExceptionTable exceptions, StemCache cache, boolean memoizing) {
+        super(probes, exceptions, cache, DEFAULT_MAX_CANDIDATES);
+        this.probes = probes;
+        this.trace = probes.getTrace();
+        this.allocations = allocations;
+        this.memoizing = memoizing;
+    }
+
+    long getNanos() {
+        return nanos;
+    }
+
+    long getAllocatedBytes() {
+        return bytes;
+    }
+
+    @Override
+    public List<String> findStems(String word, POS pos) {
+        SentenceTrace.Step step = trace == null ? null : trace.stems(word, pos, probes.getDepth());
+        boolean outermost = probes.getDepth() == 0;
+        long start = outermost ? System.nanoTime() : 0;
+        long allocated = outermost && allocations ? Allocations.allocatedBytes() : 0;
+        probes.enter();
+        try {
+            List<String> stems = memoizing ? super.findStems(word, pos) : findAllStems(word, pos);
+            if (step != null) {
+                trace.stemsFound(step, stems.size());
+            }
+            return stems;
+        } finally {
+            probes.leave();
+            if (outermost) {
+                nanos += System.nanoTime() - start;
+                if (allocations) {
+                    bytes += Allocations.allocatedBytes() - allocated;
+                }
+            }
+        }
+    }
+
+    @Override
+    protected void candidatesTried(String composite, POS pos, int tried) {
+        if (trace != null) {
+            trace.candidates(composite, pos, probes.getDepth(), tried);
+        }
+    }
+
+    @Override
+    protected List<String> getNounCollocationRoots(String composite) {
+        List<String> candidates = super.getNounCollocationRoots(composite);
+        if (trace != null) {
+            trace.candidates(composite, POS.NOUN, probes.getDepth(), candidates.size());
+        }
+        return candidates;
+    }
+
+    @Override
+    protected List<String> getVerbCollocationRoots(String composite) {
+        List<String> candidates = super.getVerbCollocationRoots(composite);
+        if (trace != null) {
+            trace.candidates(composite, POS.VERB, probes.getDepth(), candidates.size());
+        }
+        return candidates;
+    }
+}
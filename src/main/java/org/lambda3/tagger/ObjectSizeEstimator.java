@@ -0,0 +1,224 @@
+package org.lambda3.tagger;
+
+/*
+ * ==========================License-Start=============================
+ * Top Level Tagger
+ *
+ * Copyright © 2017 Lambda³
+ *
+ * GNU General Public License 3
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ * ==========================License-End==============================
+ */
+
+import java.lang.ref.Reference;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.Buffer;
+import java.util.*;
+
+//Estimates the heap retained by object graphs by walking their instance fields, assuming the usual HotSpot layout
+//(12 byte headers and 4 byte references with compressed oops, 16 and 8 without, 8 byte alignment).
+//Objects are counted once per estimator, so measuring several roots in turn attributes shared objects to the first
+//root that reaches them. JDK collections whose fields cannot be opened reflectively are sized through their public API.
+final class ObjectSizeEstimator {
+
+    private static final boolean COMPRESSED = Runtime.getRuntime().maxMemory() < 32L * 1024 * 1024 * 1024;
+    private static final int REFERENCE = COMPRESSED ? 4 : 8;
+    private static final int HEADER = COMPRESSED ? 12 : 16;
+    private static final int ARRAY_HEADER = COMPRESSED ? 16 : 24;
+    private static final boolean COMPACT_STRINGS = !System.getProperty("java.specification.version").startsWith("1.");
+
+    private final Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Map<Class<?>, List<Field>> fields = new HashMap<>();
+    private final Map<Class<?>, Long> shallowSizes = new HashMap<>();
+
+    private long bytes;
+    private long objects;
+
+    //Exclude an object (and whatever is only reachable through it) from all later estimates
+    void exclude(Object o) {
+        if (o != null) {
+            visited.add(o);
+        }
+    }
+
+    //Estimate the bytes retained by the given root that were not already counted for an earlier root
+    long estimate(Object root) {
+        bytes = 0;
+        objects = 0;
+
+        Deque<Object> pending = new ArrayDeque<>();
+        push(pending, root);
+        while (!pending.isEmpty()) {
+            measure(pending.pop(), pending);
+        }
+        return bytes;
+    }
+
+    //Number of objects counted by the last estimate
+    long getObjectCount() {
+        return objects;
+    }
+
+    private void push(Deque<Object> pending, Object o) {
+        if (o != null && visited.add(o)) {
+            pending.push(o);
+        }
+    }
+
+    private void measure(Object o, Deque<Object> pending) {
+        Class<?> type = o.getClass();
+        objects++;
+
+        if (type.isArray()) {
+            int length = Array.getLength(o);
+            Class<?> component = type.getComponentType();
+            bytes += align(ARRAY_HEADER + (long) length * sizeOf(component));
+            if (!component.isPrimitive()) {
+                for (Object element : (Object[]) o) {
+                    push(pending, element);
+                }
+            }
+            return;
+        }
+
+        if (o instanceof String) {
+            int length = ((String) o).length();
+            bytes += align(HEADER + 4 + REFERENCE + (COMPACT_STRINGS ? 2 : 0)) + align(ARRAY_HEADER + (COMPACT_STRINGS ? length : 2L * length));
+            return;
+        }
+
+        bytes += shallowSize(type);
+
+        //Stop at objects that lead out of the measured structure: classes, threads and class loaders are shared,
+        //references are not retained by their holders, and buffer contents are reported separately as mapped bytes
+        if (o instanceof Class || o instanceof Thread || o instanceof ClassLoader || o instanceof Reference || o instanceof Buffer || type.isEnum()) {
+            return;
+        }
+
+        List<Field> references = fields(type);
+        if (references == null) {
+            measureOpaque(o, pending);
+            return;
+        }
+
+        for (Field field : references) {
+            try {
+                push(pending, field.get(o));
+            } catch (IllegalAccessException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    //Size JDK collections through their public API, adding the nodes and tables their fields would have shown
+    private void measureOpaque(Object o, Deque<Object> pending) {
+        if (o instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) o;
+            bytes += entryOverhead(o, map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                push(pending, entry.getKey());
+                push(pending, entry.getValue());
+            }
+        } else if (o instanceof Collection) {
+            Collection<?> collection = (Collection<?>) o;
+            bytes += entryOverhead(o, collection.size());
+            for (Object element : collection) {
+                push(pending, element);
+            }
+        }
+    }
+
+    private static long entryOverhead(Object o, int size) {
+        if (o instanceof LinkedHashMap || o instanceof LinkedHashSet) {
+            return size * align(HEADER + 4 + 5 * REFERENCE) + table(size);
+        } else if (o instanceof HashMap || o instanceof HashSet || o instanceof Hashtable) {
+            return size * align(HEADER + 4 + 3 * REFERENCE) + table(size);
+        } else if (o instanceof TreeMap || o instanceof TreeSet) {
+            return size * align(HEADER + 1 + 5 * REFERENCE);
+        } else if (o instanceof LinkedList) {
+            return size * align(HEADER + 3 * REFERENCE);
+        }
+        //Array backed lists and anything else: one reference per element
+        return align(ARRAY_HEADER + (long) size * REFERENCE);
+    }
+
+    //Hash table with the default load factor
+    private static long table(int size) {
+        int capacity = 16;
+        while (capacity * 3 / 4 < size) {
+            capacity <<= 1;
+        }
+        return align(ARRAY_HEADER + (long) capacity * REFERENCE);
+    }
+
+    //Non-static reference fields of the class and its superclasses, or null if they cannot be read reflectively
+    private List<Field> fields(Class<?> type) {
+        if (fields.containsKey(type)) {
+            return fields.get(type);
+        }
+
+        List<Field> result = new ArrayList<>();
+        try {
+            for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers()) && !field.getType().isPrimitive()) {
+                        field.setAccessible(true);
+                        result.add(field);
+                    }
+                }
+            }
+        } catch (RuntimeException e) { //module boundaries on newer JDKs
+            result = null;
+        }
+        fields.put(type, result);
+        return result;
+    }
+
+    private long shallowSize(Class<?> type) {
+        Long size = shallowSizes.get(type);
+        if (size == null) {
+            long sum = HEADER;
+            for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers())) {
+                        sum += sizeOf(field.getType());
+                    }
+                }
+            }
+            size = align(sum);
+            shallowSizes.put(type, size);
+        }
+        return size;
+    }
+
+    private static int sizeOf(Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        } else if (type == int.class || type == float.class) {
+            return 4;
+        } else if (type == short.class || type == char.class) {
+            return 2;
+        } else if (type == byte.class || type == boolean.class) {
+            return 1;
+        }
+        return REFERENCE;
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+}
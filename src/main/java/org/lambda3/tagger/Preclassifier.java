@@ -0,0 +1,155 @@
+package org.lambda3.tagger;
+
+/*
+ * ==========================License-Start=============================
+ * Top Level Tagger
+ *
+ * Copyright © 2017 Lambda³
+ *
+ * GNU General Public License 3
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ * ==========================License-End==============================
+ */
+
+import edu.mit.jwi.IDictionary;
+import edu.mit.jwi.item.IExceptionEntry;
+import edu.mit.jwi.item.IIndexWord;
+import edu.mit.jwi.item.POS;
+import edu.mit.jwi.morph.IStemmer;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+//Recognizes tokens that can never receive a label, so that split() assigns them O without stemming, POS tagging
+//and probing them, and recognizes barrier tokens that no WordNet collocation can span, so that the search for the
+//longest entry skips every span that contains one.
+//
+//A token is unlabelled if it is in the closed-class list (words the POS model never tags as nouns or verbs on their
+//own), if it is a number (tagged CD), or if neither the token nor its first noun or verb stem is in any index, in
+//which case every probe of the slow path would miss. Only the first two rules depend on the POS model, and should
+//be validated on a corpus with EquivalenceHarness -candidate preclassify when the model or the list changes.
+//A token is a barrier if neither the token nor any of its noun stems occurs in a multi-word lemma or noun
+//exception, which are the only forms a multi-word span can be found under.
+final class Preclassifier {
+
+    enum Reason {
+        CLOSED_CLASS, NUMBER, NOT_IN_WORDNET
+    }
+
+    //Verdicts are cached per token; the caches are emptied when they reach this size
+    private static final int CAPACITY = 100000;
+
+    private final Set<String> closedClass;
+    private final Set<String> collocationWords;
+    private final Map<String, Boolean> unknown = new ConcurrentHashMap<>();
+    private final Map<String, Boolean> barriers = new ConcurrentHashMap<>();
+
+    Preclassifier(IDictionary dict, Collection<String> closedClass) {
+        this.closedClass = new HashSet<>(closedClass);
+        this.collocationWords = new HashSet<>();
+
+        for (POS pos : POS.values()) {
+            for (Iterator<IIndexWord> i = dict.getIndexWordIterator(pos); i.hasNext(); ) {
+                addCollocation(i.next().getLemma());
+            }
+        }
+        for (Iterator<IExceptionEntry> i = dict.getExceptionEntryIterator(POS.NOUN); i.hasNext(); ) {
+            addCollocation(i.next().getSurfaceForm());
+        }
+    }
+
+    private void addCollocation(String lemma) {
+        if (lemma.indexOf('_') >= 0) {
+            Collections.addAll(collocationWords, lemma.toLowerCase().split("_"));
+        }
+    }
+
+    //Why the token can never receive a label, or null if it may
+    Reason classify(String token, IStemmer stemmer, IDictionary dict) {
+        if (closedClass.contains(token)) {
+            return Reason.CLOSED_CLASS;
+        }
+        if (isNumber(token)) {
+            return Reason.NUMBER;
+        }
+
+        Boolean notInWordNet = unknown.get(token);
+        if (notInWordNet == null) {
+            notInWordNet = !isInWordNet(token, dict)
+                    && !isInWordNet(first(stemmer.findStems(token, POS.NOUN)), dict)
+                    && !isInWordNet(first(stemmer.findStems(token, POS.VERB)), dict);
+            put(unknown, token, notInWordNet);
+        }
+        return notInWordNet ? Reason.NOT_IN_WORDNET : null;
+    }
+
+    //Whether no multi-word span containing the token can be found in WordNet
+    boolean isBarrier(String token, IStemmer stemmer) {
+        if (token.isEmpty()) {
+            return false;
+        }
+
+        Boolean barrier = barriers.get(token);
+        if (barrier == null) {
+            barrier = !collocationWords.contains(token.toLowerCase());
+            if (barrier) {
+                for (String stem : stemmer.findStems(token, POS.NOUN)) {
+                    if (collocationWords.contains(stem)) {
+                        barrier = false;
+                        break;
+                    }
+                }
+            }
+            put(barriers, token, barrier);
+        }
+        return barrier;
+    }
+
+    //Digits, possibly grouped or ranged with dashes, points or apostrophes ("1967", "3-4", "'90")
+    private static boolean isNumber(String token) {
+        boolean digits = false;
+        for (int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits = true;
+            } else if (c != '-' && c != '.' && c != '\'') {
+                return false;
+            }
+        }
+        return digits;
+    }
+
+    private static String first(List<String> stems) {
+        return stems.isEmpty() ? null : stems.get(0);
+    }
+
+    private static boolean isInWordNet(String lemma, IDictionary dict) {
+        if (lemma == null) {
+            return false;
+        }
+        for (POS pos : POS.values()) {
+            if (dict.getIndexWord(lemma, pos) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void put(Map<String, Boolean> cache, String token, Boolean verdict) {
+        if (cache.size() >= CAPACITY) {
+            cache.clear();
+        }
+        cache.put(token, verdict);
+    }
+}
@@ -0,0 +1,55 @@
+package org.lambda3.tagger;
+
+/*
+ * ==========================License-Start=============================
+ * Top Level Tagger
+ *
+ * Copyright © 2017 Lambda³
+ *
+ * GNU General Public License 3
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ * ==========================License-End==============================
+ */
+
+
+//Emits one Java Flight Recorder event per tagged sentence. The event class lives in src/main/jfr, which the build only
+//compiles on JDK 11 or later; when it was not compiled, or the JDK running the tagger lacks the jdk.jfr API (Java 8
+//builds before 8u262), the recorder is absent and tagged() does nothing.
+final class SentenceEvents {
+
+    private static final Recorder recorder = createRecorder();
+
+    private SentenceEvents() {
+    }
+
+    static void tagged(int length, int tokens, int chunks, long probes, long nanos) {
+        if (recorder != null) {
+            recorder.tagged(length, tokens, chunks, probes, nanos);
+        }
+    }
+
+    //The flight recorder implementation is loaded reflectively, so this class compiles and links without jdk.jfr
+    private static Recorder createRecorder() {
+        try {
+            Class.forName("jdk.jfr.Event");
+            return (Recorder) Class.forName("org.lambda3.tagger.SentenceTaggedEvent$FlightRecorder").getDeclaredConstructor().newInstance();
+        } catch (Throwable t) {
+            return null;
+        }
+    }
+
+    interface Recorder {
+        void tagged(int length, int tokens, int chunks, long probes, long nanos);
+    }
+}
@@ -0,0 +1,203 @@
+package org.lambda3.tagger;
+
+/*
+ * ==========================License-Start=============================
+ * Top Level Tagger
+ *
+ * Copyright © 2017 Lambda³
+ *
+ * GNU General Public License 3
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ * ==========================License-End==============================
+ */
+
+
+import edu.mit.jwi.item.ISynsetID;
+import edu.mit.jwi.item.POS;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+//Cost trace of tagging one sentence (see TopLevelTagger.explain): every candidate span tried during segmentation,
+//every stemming call with the number of candidates it produced, every dictionary probe with its outcome and every
+//step of the hypernym walks, in the order they happened.
+public final class SentenceTrace {
+
+    public enum Kind {
+        SPAN, SKIPPED, PRECLASSIFIED, STEMS, CANDIDATES, PROBE, HYPERNYM
+    }
+
+    public static final class Step {
+
+        private final Kind kind;
+        private final int depth;
+        private final String text;
+        private int count;
+        private boolean hit;
+
+        private Step(Kind kind, int depth, String text) {
+            this.kind = kind;
+            this.depth = depth;
+            this.text = text;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        //Nesting level of the step: probes and stemming calls made from within a stemming call are one level deeper
+        public int getDepth() {
+            return depth;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        //Number of spans skipped (SKIPPED), stems (STEMS) or collocation candidates (CANDIDATES) produced
+        public int getCount() {
+            return count;
+        }
+
+        //Whether a dictionary probe found an entry
+        public boolean isHit() {
+            return hit;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < depth; i++) {
+                sb.append("  ");
+            }
+            sb.append(kind).append(' ').append(text);
+            switch (kind) {
+                case SKIPPED:
+                case STEMS:
+                case CANDIDATES:
+                    sb.append(" -> ").append(count);
+                    break;
+                case PROBE:
+                    sb.append(hit ? " -> hit" : " -> miss");
+                    break;
+                default:
+                    break;
+            }
+            return sb.toString();
+        }
+    }
+
+    private final String sentence;
+    private final List<Step> steps = new ArrayList<>();
+    private List<WordMapping> result = Collections.emptyList();
+
+    SentenceTrace(String sentence) {
+        this.sentence = sentence;
+    }
+
+    private Step add(Kind kind, int depth, String text) {
+        Step step = new Step(kind, depth, text);
+        steps.add(step);
+        return step;
+    }
+
+    void span(String entry) {
+        add(Kind.SPAN, 0, entry);
+    }
+
+    //Spans of a prefix skipped because they contain a word no collocation contains
+    void skipped(String prefix, int count) {
+        add(Kind.SKIPPED, 0, prefix).count = count;
+    }
+
+    //A word assigned O without stemming, tagging or lookup
+    void preclassified(String word, Preclassifier.Reason reason) {
+        add(Kind.PRECLASSIFIED, 0, word + " (" + reason + ")");
+    }
+
+    //The count is filled in when the call returns, so nested calls are listed after their caller
+    Step stems(String word, POS pos, int depth) {
+        return add(Kind.STEMS, depth, word + " (" + pos + ")");
+    }
+
+    void stemsFound(Step step, int count) {
+        step.count = count;
+    }
+
+    void candidates(String composite, POS pos, int depth, int count) {
+        add(Kind.CANDIDATES, depth, composite + " (" + pos + ")").count = count;
+    }
+
+    void probe(String what, Object key, int depth, boolean hit) {
+        add(Kind.PROBE, depth, what + " " + key).hit = hit;
+    }
+
+    void hypernym(ISynsetID id) {
+        add(Kind.HYPERNYM, 1, id.toString());
+    }
+
+    void setResult(List<WordMapping> result) {
+        this.result = Collections.unmodifiableList(result);
+    }
+
+    public String getSentence() {
+        return sentence;
+    }
+
+    public List<Step> getSteps() {
+        return Collections.unmodifiableList(steps);
+    }
+
+    public List<WordMapping> getResult() {
+        return result;
+    }
+
+    public int count(Kind kind) {
+        int n = 0;
+        for (Step step : steps) {
+            if (step.kind == kind) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    public int getProbeHits() {
+        int n = 0;
+        for (Step step : steps) {
+            if (step.kind == Kind.PROBE && step.hit) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(sentence).append('\n');
+        for (Step step : steps) {
+            sb.append("  ").append(step).append('\n');
+        }
+        sb.append("  ").append(count(Kind.SPAN)).append(" spans, ")
+                .append(count(Kind.STEMS)).append(" stemming calls, ")
+                .append(count(Kind.PROBE)).append(" probes (").append(getProbeHits()).append(" hits), ")
+                .append(count(Kind.HYPERNYM)).append(" hypernym steps\n");
+        for (WordMapping mapping : result) {
+            sb.append("  ").append(mapping).append('\n');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,300 @@
+package org.lambda3.tagger;
+
+/*
+ * ==========================License-Start=============================
+ * Top Level Tagger
+ *
+ * Copyright © 2017 Lambda³
+ *
+ * GNU General Public License 3
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ * ==========================License-End==============================
+ */
+
+
+import edu.mit.jwi.CachingDictionary;
+import edu.mit.jwi.ConcurrentItemCache;
+import edu.mit.jwi.IDictionary;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+//Per-stage timers and counters of a TopLevelTagger. All updates go to striped adders, so recording
+//costs a couple of uncontended increments and the metrics can stay enabled in production.
+public final class TaggerMetrics implements TaggerMetricsMBean {
+
+    public enum Stage {
+        NORMALIZATION, POS_TAGGING, SEGMENTATION, STEMMING, DICTIONARY_LOOKUP, LABELLING, HYPERNYM_WALK
+    }
+
+    private static final String DOMAIN = "org.lambda3.tagger";
+    private static final AtomicInteger instances = new AtomicInteger();
+
+    private final IDictionary dict;
+    private final LongAdder[] stageNanos = new LongAdder[Stage.values().length];
+    private final LongAdder[] stageBytes = new LongAdder[Stage.values().length];
+    private final LongAdder sentences = new LongAdder();
+    private final LongAdder chunks = new LongAdder();
+    private final LongAdder probes = new LongAdder();
+    private final LongAccumulator maxProbes = new LongAccumulator(Math::max, 0);
+    private final LongAdder hypernymSteps = new LongAdder();
+    private final LongAdder preclassified = new LongAdder();
+    private final LongAdder skippedSpans = new LongAdder();
+
+    //Cache counters are owned by the dictionary, so reset() only moves these baselines
+    private volatile long hitsBaseline;
+    private volatile long missesBaseline;
+    private volatile long evictionsBaseline;
+
+    //Reading the thread allocation counter costs about as much as reading the clock, so it is off by default
+    private volatile boolean allocationTracking;
+
+    private ObjectName name;
+
+    TaggerMetrics(IDictionary dict) {
+        this.dict = dict;
+        for (int i = 0; i < stageNanos.length; i++) {
+            stageNanos[i] = new LongAdder();
+            stageBytes[i] = new LongAdder();
+        }
+    }
+
+    //Publish these metrics on the platform MBeanServer, under a name unique to this tagger
+    synchronized void register() {
+        if (name != null) {
+            return;
+        }
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName candidate = new ObjectName(DOMAIN + ":type=TopLevelTagger,id=" + instances.incrementAndGet());
+            server.registerMBean(this, candidate);
+            name = candidate;
+        } catch (JMException e) {
+            e.printStackTrace();
+        }
+    }
+
+    synchronized void unregister() {
+        if (name == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+        } catch (JMException e) {
+            e.printStackTrace();
+        }
+        name = null;
+    }
+
+    public synchronized ObjectName getObjectName() {
+        return name;
+    }
+
+    void addTime(Stage stage, long nanos) {
+        stageNanos[stage.ordinal()].add(nanos);
+    }
+
+    void addAllocation(Stage stage, long bytes) {
+        stageBytes[stage.ordinal()].add(bytes);
+    }
+
+    void addSentence(int chunkCount, long probeCount) {
+        sentences.increment();
+        chunks.add(chunkCount);
+        probes.add(probeCount);
+        maxProbes.accumulate(probeCount);
+    }
+
+    void addHypernymStep() {
+        hypernymSteps.increment();
+    }
+
+    void addHypernymSteps(int count) {
+        hypernymSteps.add(count);
+    }
+
+    void addPreclassified() {
+        preclassified.increment();
+    }
+
+    void addSkippedSpans(int count) {
+        skippedSpans.add(count);
+    }
+
+    public long getStageNanos(Stage stage) {
+        return stageNanos[stage.ordinal()].sum();
+    }
+
+    public long getStageAllocatedBytes(Stage stage) {
+        return stageBytes[stage.ordinal()].sum();
+    }
+
+    @Override
+    public boolean isAllocationTracking() {
+        return allocationTracking;
+    }
+
+    @Override
+    public void setAllocationTracking(boolean allocationTracking) {
+        if (allocationTracking && !Allocations.isSupported()) {
+            throw new UnsupportedOperationException("thread allocation counters are not available on this JVM");
+        }
+        this.allocationTracking = allocationTracking;
+    }
+
+    @Override
+    public long getSentences() {
+        return sentences.sum();
+    }
+
+    @Override
+    public long getChunks() {
+        return chunks.sum();
+    }
+
+    @Override
+    public long getDictionaryProbes() {
+        return probes.sum();
+    }
+
+    @Override
+    public double getProbesPerSentence() {
+        long count = sentences.sum();
+        return count == 0 ? 0 : (double) probes.sum() / count;
+    }
+
+    @Override
+    public long getMaxProbesPerSentence() {
+        return maxProbes.get();
+    }
+
+    @Override
+    public long getCacheHits() {
+        return dict instanceof CachingDictionary ? ((CachingDictionary) dict).getHitCount() - hitsBaseline : 0;
+    }
+
+    @Override
+    public long getCacheMisses() {
+        return dict instanceof CachingDictionary ? ((CachingDictionary) dict).getMissCount() - missesBaseline : 0;
+    }
+
+    @Override
+    public long getCacheEvictions() {
+        ConcurrentItemCache cache = getConcurrentCache();
+        return cache == null ? 0 : cache.getEvictionCount() - evictionsBaseline;
+    }
+
+    //Evictions are only counted by the concurrent cache
+    private ConcurrentItemCache getConcurrentCache() {
+        if (dict instanceof CachingDictionary && ((CachingDictionary) dict).getCache() instanceof ConcurrentItemCache) {
+            return (ConcurrentItemCache) ((CachingDictionary) dict).getCache();
+        }
+        return null;
+    }
+
+    @Override
+    public long getHypernymSteps() {
+        return hypernymSteps.sum();
+    }
+
+    @Override
+    public long getPreclassifiedTokens() {
+        return preclassified.sum();
+    }
+
+    @Override
+    public long getSkippedSpans() {
+        return skippedSpans.sum();
+    }
+
+    @Override
+    public long getNormalizationNanos() {
+        return getStageNanos(Stage.NORMALIZATION);
+    }
+
+    @Override
+    public long getPosTaggingNanos() {
+        return getStageNanos(Stage.POS_TAGGING);
+    }
+
+    @Override
+    public long getSegmentationNanos() {
+        return getStageNanos(Stage.SEGMENTATION);
+    }
+
+    @Override
+    public long getStemmingNanos() {
+        return getStageNanos(Stage.STEMMING);
+    }
+
+    @Override
+    public long getDictionaryLookupNanos() {
+        return getStageNanos(Stage.DICTIONARY_LOOKUP);
+    }
+
+    @Override
+    public long getLabellingNanos() {
+        return getStageNanos(Stage.LABELLING);
+    }
+
+    @Override
+    public long getHypernymWalkNanos() {
+        return getStageNanos(Stage.HYPERNYM_WALK);
+    }
+
+    @Override
+    public long getSegmentationAllocatedBytes() {
+        return getStageAllocatedBytes(Stage.SEGMENTATION);
+    }
+
+    @Override
+    public long getStemmingAllocatedBytes() {
+        return getStageAllocatedBytes(Stage.STEMMING);
+    }
+
+    @Override
+    public long getLabellingAllocatedBytes() {
+        return getStageAllocatedBytes(Stage.LABELLING);
+    }
+
+    @Override
+    public void reset() {
+        for (LongAdder adder : stageNanos) {
+            adder.reset();
+        }
+        for (LongAdder adder : stageBytes) {
+            adder.reset();
+        }
+        sentences.reset();
+        chunks.reset();
+        probes.reset();
+        maxProbes.reset();
+        hypernymSteps.reset();
+        preclassified.reset();
+        skippedSpans.reset();
+        if (dict instanceof CachingDictionary) {
+            hitsBaseline = ((CachingDictionary) dict).getHitCount();
+            missesBaseline = ((CachingDictionary) dict).getMissCount();
+        }
+        ConcurrentItemCache cache = getConcurrentCache();
+        if (cache != null) {
+            evictionsBaseline = cache.getEvictionCount();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package org.lambda3.tagger;
+
+/*
+ * ==========================License-Start=============================
+ * Top Level Tagger
+ *
+ * Copyright © 2017 Lambda³
+ *
+ * GNU General Public License 3
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ * ==========================License-End==============================
+ */
+
+
+//Management interface of TaggerMetrics, published over JMX. Times are cumulative, in nanoseconds. Stages nest:
+//dictionary probes made while stemming are counted in both the stemming and the lookup time, and segmentation
+//includes the POS tagging, stemming and lookups it performs. Allocated bytes nest in the same way, and are only
+//recorded while allocation tracking is on.
+public interface TaggerMetricsMBean {
+
+    boolean isAllocationTracking();
+
+    void setAllocationTracking(boolean allocationTracking);
+
+    long getSentences();
+
+    long getChunks();
+
+    long getDictionaryProbes();
+
+    double getProbesPerSentence();
+
+    long getMaxProbesPerSentence();
+
+    long getCacheHits();
+
+    long getCacheMisses();
+
+    long getCacheEvictions();
+
+    long getHypernymSteps();
+
+    long getPreclassifiedTokens();
+
+    long getSkippedSpans();
+
+    long getNormalizationNanos();
+
+    long getPosTaggingNanos();
+
+    long getSegmentationNanos();
+
+    long getStemmingNanos();
+
+    long getDictionaryLookupNanos();
+
+    long getLabellingNanos();
+
+    long getHypernymWalkNanos();
+
+    long getSegmentationAllocatedBytes();
+
+    long getStemmingAllocatedBytes();
+
+    long getLabellingAllocatedBytes();
+
+    void reset();
+}
@@ -22,27 +22,239 @@ package org.lambda3.tagger;
  * ==========================License-End==============================
  */
 
+import edu.mit.jwi.CachingDictionary;
+import edu.mit.jwi.DataSourceDictionary;
 import edu.mit.jwi.Dictionary;
+import edu.mit.jwi.HypernymIndex;
 import edu.mit.jwi.IDictionary;
+import edu.mit.jwi.RAMDictionary;
 import edu.mit.jwi.item.*;
-import edu.mit.jwi.morph.WordnetStemmer;
+import edu.mit.jwi.morph.ExceptionTable;
+import edu.mit.jwi.morph.MemoizingStemmer.StemCache;
+import org.lambda3.tagger.TaggerMetrics.Stage;
 import edu.stanford.nlp.tagger.maxent.MaxentTagger;
 import edu.stanford.nlp.util.logging.RedwoodConfiguration;
 
 import java.io.*;
 import java.util.*;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 
-public final class TopLevelTagger {
+public final class TopLevelTagger implements AutoCloseable {
 
     private static final List<String> validPOS = Arrays.asList("NN", "NNS", "NNP", "NNPS", "VB", "VBD", "VBG", "VBN", "VBP", "VBZ", "VBT", "FW");
     private static final List<String> verbForm = Arrays.asList("VB", "VBD", "VBG", "VBN", "VBP", "VBZ", "VBT");
 
-    private IDictionary dict;
+    private static final String POS_MODEL = "edu/stanford/nlp/models/pos-tagger/english-left3words/english-left3words-distsim.tagger";
 
+    private final IDictionary dict;
+    private MaxentTagger tagger;
+
+    //Whether the dictionary was opened by the tagger itself, and is therefore closed with it
+    private boolean ownsDictionary;
+
+    //Tags one word as word_TAG; the Stanford model unless replaced, e.g. by tests that must run without the model
+    private UnaryOperator<String> posTagger;
+    private final TaggerMetrics metrics;
+
+    //Top class lists and class mappings, parsed once on first use
+    private final Map<String, List<String>> superHypernyms = new HashMap<>();
+    private final Map<String, Map<String, String>> mappings = new HashMap<>();
+
+    //Morphological exceptions, read into memory when the tagger is created
+    private final ExceptionTable exceptions;
+
+    //Stems of single words, shared by all tagging calls
+    private final StemCache stems = new StemCache();
+    private volatile boolean memoizingStemmer = true;
+
+    //Recognizes tokens that never receive a label and tokens no collocation spans, built on first use
+    private Preclassifier preclassifier;
+    private volatile boolean preclassifying = true;
+
+    //Hypernym chains of all noun synsets and the top classes compiled against them, built on first use
+    private HypernymIndex hypernymIndex;
+    private HypernymIndex.SynsetSet topClasses;
+    private volatile boolean indexingHypernyms = true;
+
+    //Read WordNet from the given folder, decoding synsets lazily
     public TopLevelTagger(String wnpath) throws IOException {
-        dict = new Dictionary(new File(wnpath));
-        dict.open();
+        this(new Dictionary(new File(wnpath)));
+        ownsDictionary = true;
+        setLazySynsets(true);
+    }
+
+    //Use an already constructed dictionary (e.g. a RAMDictionary), opening it if needed. The dictionary is used
+    //as configured: call setLazySynsets(true) to have it decode synsets lazily
+    public TopLevelTagger(IDictionary dict) throws IOException {
+        if (dict == null) {
+            throw new NullPointerException();
+        }
+        this.dict = dict;
+        if (!dict.isOpen()) {
+            dict.open();
+        }
+        this.exceptions = new ExceptionTable(dict);
+        this.metrics = new TaggerMetrics(dict);
+    }
+
+    public IDictionary getDictionary() {
+        return dict;
+    }
+
+    //Per-stage timers and counters, published as an MBean only after registerMBean()
+    public TaggerMetrics getMetrics() {
+        return metrics;
+    }
+
+    //Publish the metrics as an MBean on the platform MBeanServer, until close(). Opt-in, since the MBeanServer keeps
+    //the tagger, its dictionary and its POS model reachable for as long as the MBean is registered
+    public void registerMBean() {
+        metrics.register();
+    }
+
+    public boolean isMemoizingStemmer() {
+        return memoizingStemmer;
+    }
+
+    //Memoize single word stems and stop the collocation search at the first candidate found in WordNet (default),
+    //or expand every collocation into all its root combinations, as the plain WordnetStemmer does
+    public void setMemoizingStemmer(boolean memoizingStemmer) {
+        this.memoizingStemmer = memoizingStemmer;
+    }
+
+    public boolean isLazySynsets() {
+        DataSourceDictionary files = getDataSourceDictionary();
+        return files != null && files.isDecodingLazily();
+    }
+
+    //Decode synsets only as far as they are read, so that hypernym walks parse just the pointers of the synsets they pass
+    //through (default), or parse every synset in full. Only applies when the dictionary reads the WordNet files
+    public void setLazySynsets(boolean lazySynsets) {
+        DataSourceDictionary files = getDataSourceDictionary();
+        if (files != null) {
+            files.setDecodingLazily(lazySynsets);
+        }
+    }
+
+    //The layer of the dictionary that parses the WordNet files, if any
+    private DataSourceDictionary getDataSourceDictionary() {
+        IDictionary layer = dict;
+        while (layer != null) {
+            if (layer instanceof DataSourceDictionary) {
+                return (DataSourceDictionary) layer;
+            } else if (layer instanceof CachingDictionary) {
+                layer = ((CachingDictionary) layer).getBackingDictionary();
+            } else if (layer instanceof RAMDictionary) {
+                layer = ((RAMDictionary) layer).getBackingDictionary();
+            } else {
+                layer = null;
+            }
+        }
+        return null;
+    }
+
+    public boolean isPreclassifying() {
+        return preclassifying;
+    }
+
+    //Assign O straight away to closed-class words, numbers and words not in WordNet, and skip the spans that contain a
+    //word no WordNet collocation contains (default), or send every span and word through stemming, POS tagging and lookup
+    public void setPreclassifying(boolean preclassifying) {
+        this.preclassifying = preclassifying;
+    }
+
+    public boolean isIndexingHypernyms() {
+        return indexingHypernyms;
+    }
+
+    //Resolve the top class of a noun from an index of the hypernym chains of all synsets, built once on first use, so
+    //that only the synset found is read (default), or walk up the hypernyms of each noun one synset at a time
+    public void setIndexingHypernyms(boolean indexingHypernyms) {
+        this.indexingHypernyms = indexingHypernyms;
+    }
+
+    //Unregister the metrics MBean, if registered, and close the dictionary if the tagger opened it from a WordNet path;
+    //a dictionary passed in by the caller is left open
+    @Override
+    public void close() {
+        metrics.unregister();
+        if (ownsDictionary) {
+            dict.close();
+        }
+    }
+
+    //The POS model is loaded once, on first use, and shared by all subsequent calls
+    private synchronized UnaryOperator<String> getPOSTagger() {
+        if (posTagger == null) {
+            RedwoodConfiguration.empty().capture(System.err).apply();
+            tagger = new MaxentTagger(POS_MODEL);
+            RedwoodConfiguration.current().clear().apply();
+            posTagger = tagger::tagString;
+        }
+        return posTagger;
+    }
+
+    //Tag single words with the given function instead of the Stanford model, which is then never loaded
+    synchronized void setPOSTagger(UnaryOperator<String> posTagger) {
+        if (posTagger == null) {
+            throw new NullPointerException();
+        }
+        this.posTagger = posTagger;
+    }
+
+    //Estimate the memory taken by the dictionary, the exception and class tables and the POS model, and the mapped
+    //bytes of each WordNet file. Tables and model that have not been used yet are reported as not loaded
+    public synchronized FootprintReport footprint() {
+        FootprintReport report = new FootprintReport();
+        report.addDictionary(dict);
+        report.add("Exception table", exceptions);
+        report.add("Pre-classifier", preclassifier);
+        report.add("Hypernym index", hypernymIndex);
+        report.add("Top class lists", superHypernyms.isEmpty() ? null : superHypernyms);
+        report.add("VerbNet mapping", mappings.get("VNMapping.txt"));
+        report.add("DOLCE mapping", mappings.get("FOMapping.txt"));
+        report.add("POS model", tagger);
+        return report;
+    }
+
+    private synchronized Preclassifier getPreclassifier() {
+        if (preclassifier == null) {
+            preclassifier = new Preclassifier(dict, loadSuperHypernyms("closedClass.txt"));
+        }
+        return preclassifier;
+    }
+
+    private synchronized HypernymIndex getHypernymIndex() {
+        if (hypernymIndex == null) {
+            hypernymIndex = new HypernymIndex(dict);
+        }
+        return hypernymIndex;
+    }
+
+    //Both top class lists as a set searchable in the hypernym index
+    private synchronized HypernymIndex.SynsetSet getTopClasses() {
+        if (topClasses == null) {
+            List<ISynsetID> ids = new ArrayList<>();
+            for (String filename : Arrays.asList("1stlevelTC.txt", "2ndlevelTC.txt")) {
+                for (String line : getSuperHypernyms(filename)) {
+                    ISynsetID id = SynsetID.parseSynsetID(line);
+                    if (id.toString().equals(line)) {
+                        ids.add(id);
+                    }
+                }
+            }
+            topClasses = getHypernymIndex().compile(ids);
+        }
+        return topClasses;
+    }
+
+    private synchronized List<String> getSuperHypernyms(String filename) {
+        return superHypernyms.computeIfAbsent(filename, this::loadSuperHypernyms);
+    }
+
+    private synchronized Map<String, String> getMappings(String filename) {
+        return mappings.computeIfAbsent(filename, this::loadMappings);
     }
 
     //Load predefined top class sets
@@ -95,8 +307,58 @@ public final class TopLevelTagger {
         return newText;
     }
 
+    //Cost of tagging one sentence, accumulated over segmentation and labelling
+    private static final class SentenceCost {
+        private final int length;
+        private int tokens;
+        private int chunks;
+        private long probes;
+        private long nanos;
+
+        private SentenceCost(int length) {
+            this.length = length;
+        }
+    }
+
+    //Record a fully tagged sentence in the metrics and as a flight recorder event
+    private void finishSentence(SentenceCost cost, long labellingProbes, long labellingNanos) {
+        cost.probes += labellingProbes;
+        cost.nanos += labellingNanos;
+        metrics.addSentence(cost.chunks, cost.probes);
+        SentenceEvents.tagged(cost.length, cost.tokens, cost.chunks, cost.probes, cost.nanos);
+    }
+
+    //Skip the spans of a prefix that contain a barrier word: if its last word is one, only that word can be found,
+    //otherwise the search can start right after the last barrier
+    private String skipBarriers(String prefix, boolean[] barriers, SentenceTrace trace) {
+        int words = 1;
+        for (int i = prefix.indexOf('_'); i >= 0; i = prefix.indexOf('_', i + 1)) {
+            words++;
+        }
+
+        int last = words - 1;
+        while (last >= 0 && !barriers[last]) {
+            last--;
+        }
+        if (last < 0 || words == 1) {
+            return prefix;
+        }
+
+        int first = Math.min(last + 1, words - 1);
+        int start = 0;
+        for (int i = 0; i < first; i++) {
+            start = prefix.indexOf('_', start) + 1;
+        }
+
+        metrics.addSkippedSpans(first);
+        if (trace != null) {
+            trace.skipped(prefix, first);
+        }
+        return prefix.substring(start);
+    }
+
     //Split each sentence (in a list of sentences) into phrases, being each phrase the longest entry found in WordNet
-    private List<List<String>> split(List<String> sentences, boolean verbose) throws IOException {
+    private List<List<String>> split(List<String> sentences, boolean verbose, List<SentenceCost> costs, SentenceTrace trace) throws IOException {
 
         if (verbose) {
             System.out.println("Splitting sentences...");
@@ -104,29 +366,75 @@ public final class TopLevelTagger {
 
         List<List<String>> chunksLists = new ArrayList<>();
 
+        //Dictionary view counting the probes made for each sentence
+        MeteredDictionary probes = new MeteredDictionary(dict, trace);
+
         //Word stemmer
-        WordnetStemmer stemmer = new WordnetStemmer(dict);
+        boolean allocations = metrics.isAllocationTracking();
+        MeteredStemmer stemmer = new MeteredStemmer(probes, allocations, exceptions, stems, memoizingStemmer);
 
         //POS tagger
-        RedwoodConfiguration.empty().capture(System.err).apply();
-        MaxentTagger tagger = new MaxentTagger("edu/stanford/nlp/models/pos-tagger/english-left3words/english-left3words-distsim.tagger");
-        RedwoodConfiguration.current().clear().apply();
+        UnaryOperator<String> tagger = getPOSTagger();
+
+        //Fast path for words that never receive a label
+        Preclassifier preclassifier = preclassifying ? getPreclassifier() : null;
 
         for (String text : sentences) {
+            long sentenceStart = System.nanoTime();
+            long probesBefore = probes.getProbes();
+            SentenceCost cost = new SentenceCost(text.length());
+
             List<String> chunks = new ArrayList<String>();
             text = text.replaceAll("''", "\"").replaceAll("[\\W&&[^-']]", " ").replaceAll("[\\s]+", " ").trim(); //Replace all non-alphanumerics but dashes and single apostrophes by blanks
 
+            long segmentationStart = System.nanoTime();
+            metrics.addTime(Stage.NORMALIZATION, segmentationStart - sentenceStart);
+            long segmentationBytes = allocations ? Allocations.allocatedBytes() : 0;
+
             String entry = text.replaceAll(" ", "_");
+            cost.tokens = text.length() == 0 ? 0 : text.split(" ").length;
 
             String currentEntry = entry;
             IWord word;
             String synsetID;
             String chunk;
 
+            boolean[] barriers = null;
+            if (preclassifier != null && entry.length() > 0) {
+                String[] tokens = entry.split("_", -1);
+                barriers = new boolean[tokens.length];
+                for (int i = 0; i < tokens.length; i++) {
+                    barriers[i] = preclassifier.isBarrier(tokens[i], stemmer);
+                }
+            }
+
             //Scans the sentence from left to right. Initially, the whole sentence is considered an entry;
             //if it is not found in WN, the leftmost word is recursively removed until a valid entry is identified
             while (entry.length() > 0) {
+                if (barriers != null) {
+                    entry = skipBarriers(entry, barriers, trace);
+                }
+
                 while (entry.length() >= 1) {
+                    if (trace != null) {
+                        trace.span(entry);
+                    }
+
+                    if (preclassifier != null && entry.indexOf('_') < 0) {
+                        Preclassifier.Reason reason = preclassifier.classify(entry, stemmer, probes);
+                        if (reason != null) { //a word that never receives a label
+                            metrics.addPreclassified();
+                            if (trace != null) {
+                                trace.preclassified(entry, reason);
+                            }
+                            chunk = entry + ";00000000;null";
+                            chunks.add(chunk);
+                            entry = removeLastWords(currentEntry, 1);
+                            currentEntry = entry;
+                            break;
+                        }
+                    }
+
                     boolean skip = false;
                     boolean isVerbForm = false;
                     POS pos = POS.NOUN;
@@ -141,7 +449,9 @@ public final class TopLevelTagger {
 
                     if (!entry.contains("_")) { //a single word
                         //Get the POS tag
-                        String tagged = tagger.tagString(entry);
+                        long taggingStart = System.nanoTime();
+                        String tagged = tagger.apply(entry);
+                        metrics.addTime(Stage.POS_TAGGING, System.nanoTime() - taggingStart);
                         String pt = tagged.substring(tagged.indexOf('_') + 1, tagged.length()).trim();
 
                         if (!validPOS.contains(pt)) { //not a noun, verb, adjective or adverb
@@ -168,9 +478,9 @@ public final class TopLevelTagger {
 
                     if (!skip) {
                         if (isVerbForm) { //single-word verbs
-                            IIndexWord words = dict.getIndexWord(newEntry, pos);
+                            IIndexWord words = probes.getIndexWord(newEntry, pos);
                             try {
-                                word = dict.getWord(words.getWordIDs().get(0));
+                                word = probes.getWord(words.getWordIDs().get(0));
                                 synsetID = word.getSynset().getID().toString();
                                 chunk = entry.replaceAll("_", " ") + ";" + synsetID + ";verb";
                                 chunks.add(chunk);
@@ -185,9 +495,9 @@ public final class TopLevelTagger {
                                 break;
                             }
                         } else { //single-word nouns, adjectives and adverbs, and all multiple-words expressions
-                            IIndexWord nouns = dict.getIndexWord(newEntry, POS.NOUN);
+                            IIndexWord nouns = probes.getIndexWord(newEntry, POS.NOUN);
                             try {
-                                word = dict.getWord(nouns.getWordIDs().get(0));
+                                word = probes.getWord(nouns.getWordIDs().get(0));
                                 synsetID = word.getSynset().getID().toString();
                                 chunk = entry.replaceAll("_", " ") + ";" + synsetID + ";noun";
                                 chunks.add(chunk);
@@ -195,9 +505,9 @@ public final class TopLevelTagger {
                                 currentEntry = entry;
                                 break;
                             } catch (NullPointerException npen) {
-                                IIndexWord verbs = dict.getIndexWord(newEntry, POS.VERB);
+                                IIndexWord verbs = probes.getIndexWord(newEntry, POS.VERB);
                                 try {
-                                    word = dict.getWord(verbs.getWordIDs().get(0));
+                                    word = probes.getWord(verbs.getWordIDs().get(0));
                                     synsetID = word.getSynset().getID().toString();
                                     chunk = entry.replaceAll("_", " ") + ";" + synsetID + ";verb";
                                     chunks.add(chunk);
@@ -205,9 +515,9 @@ public final class TopLevelTagger {
                                     currentEntry = entry;
                                     break;
                                 } catch (NullPointerException npev) {
-                                    IIndexWord adjs = dict.getIndexWord(newEntry, POS.ADJECTIVE);
+                                    IIndexWord adjs = probes.getIndexWord(newEntry, POS.ADJECTIVE);
                                     try {
-                                        word = dict.getWord(adjs.getWordIDs().get(0));
+                                        word = probes.getWord(adjs.getWordIDs().get(0));
                                         synsetID = word.getSynset().getID().toString();
                                         chunk = entry.replaceAll("_", " ") + ";" + synsetID + ";null";
                                         chunks.add(chunk);
@@ -215,9 +525,9 @@ public final class TopLevelTagger {
                                         currentEntry = entry;
                                         break;
                                     } catch (NullPointerException npea) {
-                                        IIndexWord advs = dict.getIndexWord(newEntry, POS.ADVERB);
+                                        IIndexWord advs = probes.getIndexWord(newEntry, POS.ADVERB);
                                         try {
-                                            word = dict.getWord(advs.getWordIDs().get(0));
+                                            word = probes.getWord(advs.getWordIDs().get(0));
                                             synsetID = word.getSynset().getID().toString();
                                             chunk = entry.replaceAll("_", " ") + ";" + synsetID + ";null";
                                             chunks.add(chunk);
@@ -243,7 +553,21 @@ public final class TopLevelTagger {
                 }
             }
             chunksLists.add(chunks);
+
+            long sentenceEnd = System.nanoTime();
+            metrics.addTime(Stage.SEGMENTATION, sentenceEnd - segmentationStart);
+            if (allocations) {
+                metrics.addAllocation(Stage.SEGMENTATION, Allocations.allocatedBytes() - segmentationBytes);
+            }
+            cost.chunks = chunks.size();
+            cost.probes = probes.getProbes() - probesBefore;
+            cost.nanos = sentenceEnd - sentenceStart;
+            costs.add(cost);
         }
+
+        metrics.addTime(Stage.STEMMING, stemmer.getNanos());
+        metrics.addAllocation(Stage.STEMMING, stemmer.getAllocatedBytes());
+        metrics.addTime(Stage.DICTIONARY_LOOKUP, probes.getNanos());
         return chunksLists;
     }
 
@@ -262,10 +586,16 @@ public final class TopLevelTagger {
 
     //Assign a tag to each word/phrase in each sentence representing their top class
     public List<List<WordMapping>> tagWithTopClass(List<String> sentences, boolean verbose) {
+        return tagWithTopClass(sentences, verbose, null);
+    }
 
-        List<String> firstLevelTC = loadSuperHypernyms("1stlevelTC.txt");
-        List<String> secondLevelTC = loadSuperHypernyms("2ndlevelTC.txt");
-        Map<String, String> VNMapping = loadMappings("VNMapping.txt");
+    private List<List<WordMapping>> tagWithTopClass(List<String> sentences, boolean verbose, SentenceTrace trace) {
+
+        List<String> firstLevelTC = getSuperHypernyms("1stlevelTC.txt");
+        List<String> secondLevelTC = getSuperHypernyms("2ndlevelTC.txt");
+        Map<String, String> VNMapping = getMappings("VNMapping.txt");
+        HypernymIndex hypernymIndex = indexingHypernyms ? getHypernymIndex() : null;
+        HypernymIndex.SynsetSet topClasses = indexingHypernyms ? getTopClasses() : null;
 
         List<List<WordMapping>> mappingsLists = new ArrayList<List<WordMapping>>();
 
@@ -274,13 +604,16 @@ public final class TopLevelTagger {
         IWord word;
         ISynset synset;
 
-        WordnetStemmer stemmer = new WordnetStemmer(dict);
+        MeteredDictionary probes = new MeteredDictionary(dict, trace);
+        boolean allocations = metrics.isAllocationTracking();
+        MeteredStemmer stemmer = new MeteredStemmer(probes, allocations, exceptions, stems, memoizingStemmer);
         List<String> wordStems;
 
         List<List<String>> wordsLists = new ArrayList<>();
+        List<SentenceCost> costs = new ArrayList<>();
 
         try {
-            wordsLists = split(sentences, verbose);
+            wordsLists = split(sentences, verbose, costs, trace);
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -289,7 +622,11 @@ public final class TopLevelTagger {
             System.out.println("Retrieving top classes...");
         }
 
-        for (List<String> words : wordsLists) {
+        for (int n = 0; n < wordsLists.size(); n++) {
+            List<String> words = wordsLists.get(n);
+            long labellingStart = System.nanoTime();
+            long labellingBytes = allocations ? Allocations.allocatedBytes() : 0;
+            long probesBefore = probes.getProbes();
             List<WordMapping> mappings = new ArrayList<>();
             for (int i = words.size() - 1; i >= 0; i--) {
                 String wordEntry = words.get(i);
@@ -309,20 +646,48 @@ public final class TopLevelTagger {
                         if (wordStems.size() > 0) {
                             entry = wordStems.get(0);
                         }
-                        idxWord = dict.getIndexWord(entry, POS.NOUN);
+                        idxWord = probes.getIndexWord(entry, POS.NOUN);
 
                         try {
                             wordID = idxWord.getWordIDs().get(0);
-                            word = dict.getWord(wordID);
+                            word = probes.getWord(wordID);
                             synset = word.getSynset();
 
-                            if (hasHypernyms(synset)) {
+                            if (hypernymIndex != null && hypernymIndex.contains(synset.getID())) {
+                                //The top class is the first synset up the chain in either top class list, or else the
+                                //root of the chain; only that synset is read
+                                ISynsetID id = synset.getID();
+                                if (hypernymIndex.getDepth(id) == 0) {
+                                    superHyp = chunk.replaceAll(" ", "_");
+                                } else {
+                                    long walkStart = System.nanoTime();
+                                    ISynsetID top = hypernymIndex.findFirst(id, topClasses);
+                                    if (top == null) {
+                                        top = hypernymIndex.getRoot(id);
+                                    }
+                                    //Count the steps the walk without the index would have taken to reach the same synset
+                                    metrics.addHypernymSteps(hypernymIndex.getDistance(top, id));
+                                    if (trace != null) {
+                                        List<ISynsetID> chain = hypernymIndex.getChain(id);
+                                        for (int k = chain.size() - 2; k >= 0 && !chain.get(k + 1).equals(top); k--) {
+                                            trace.hypernym(chain.get(k));
+                                        }
+                                    }
+                                    superHyp = (top.equals(id) ? synset : probes.getSynset(top)).getWord(1).getLemma();
+                                    metrics.addTime(Stage.HYPERNYM_WALK, System.nanoTime() - walkStart);
+                                }
+                            } else if (hasHypernyms(synset)) {
                                 if (firstLevelTC.contains(synset.getID().toString()) || secondLevelTC.contains(synset.getID().toString())) {
                                     superHyp = synset.getWord(1).getLemma();
                                 } else {
                                     ISynset lastSynset = null;
+                                    ISynset topSynset = null;
+                                    long walkStart = System.nanoTime();
 
+                                    //Only the pointers of the synsets passed through are read; the words are read
+                                    //once, from the synset the walk ends at
                                     while (hasHypernyms(synset)) {
+                                        metrics.addHypernymStep();
                                         List<ISynsetID> hypernyms = synset.getRelatedSynsets(Pointer.HYPERNYM);
 
                                         if (hypernyms.size() == 0) {
@@ -331,20 +696,31 @@ public final class TopLevelTagger {
 
                                         ISynsetID hypernym = hypernyms.get(0);
 
-                                        if (dict.getSynset(hypernym).equals(lastSynset)) {
+                                        if (trace != null) {
+                                            trace.hypernym(hypernym);
+                                        }
+
+                                        ISynset hypernymSynset = probes.getSynset(hypernym);
+                                        if (hypernymSynset.equals(lastSynset)) {
                                             //Stop at erroneous circular references between synsets present in WN 3.0
                                             break;
                                         } else {
                                             lastSynset = synset;
-                                            superHyp = dict.getSynset(hypernym).getWord(1).getLemma();
+                                            topSynset = hypernymSynset;
                                         }
 
                                         if (firstLevelTC.contains(hypernym.toString()) || secondLevelTC.contains(hypernym.toString())) {
                                             break;
                                         } else {
-                                            synset = dict.getSynset(hypernym);
+                                            synset = hypernymSynset;
                                         }
                                     }
+
+                                    if (topSynset != null) {
+                                        superHyp = topSynset.getWord(1).getLemma();
+                                    }
+
+                                    metrics.addTime(Stage.HYPERNYM_WALK, System.nanoTime() - walkStart);
                                 }
                             } else {
                                 superHyp = chunk.replaceAll(" ", "_");
@@ -364,11 +740,11 @@ public final class TopLevelTagger {
                             if (wordStems.size() > 0) {
                                 entry = wordStems.get(0);
                             }
-                            idxWord = dict.getIndexWord(entry, POS.VERB);
+                            idxWord = probes.getIndexWord(entry, POS.VERB);
 
                             try {
                                 wordID = idxWord.getWordIDs().get(0);
-                                word = dict.getWord(wordID);
+                                word = probes.getWord(wordID);
                                 synset = word.getSynset();
 
 
@@ -388,16 +764,23 @@ public final class TopLevelTagger {
                                     if (hasHypernyms(synset)) {
                                         ISynset lastSynset = null;
                                         boolean found = false;
+                                        long walkStart = System.nanoTime();
 
                                         while (hasHypernyms(synset)) {
+                                            metrics.addHypernymStep();
                                             ISynsetID hypernym = synset.getRelatedSynsets(Pointer.HYPERNYM).get(0);
 
-                                            if (dict.getSynset(hypernym).equals(lastSynset)) {
+                                            if (trace != null) {
+                                                trace.hypernym(hypernym);
+                                            }
+
+                                            ISynset hypernymSynset = probes.getSynset(hypernym);
+                                            if (hypernymSynset.equals(lastSynset)) {
                                                 //Stop at erroneous circular references between synsets present in WN 3.0
                                                 break;
                                             } else {
                                                 lastSynset = synset;
-                                                synset = dict.getSynset(hypernym);
+                                                synset = hypernymSynset;
                                                 synWords = synset.getWords();
 
                                                 for (IWord synWord : synWords) {
@@ -417,6 +800,8 @@ public final class TopLevelTagger {
                                             }
                                         }
 
+                                        metrics.addTime(Stage.HYPERNYM_WALK, System.nanoTime() - walkStart);
+
                                         if (VNClass.length() == 0) {
                                             VNClass = synset.getWord(1).getLemma();
                                         }
@@ -435,19 +820,35 @@ public final class TopLevelTagger {
                 }
             }
             mappingsLists.add(mappings);
+
+            long labellingNanos = System.nanoTime() - labellingStart;
+            metrics.addTime(Stage.LABELLING, labellingNanos);
+            if (allocations) {
+                metrics.addAllocation(Stage.LABELLING, Allocations.allocatedBytes() - labellingBytes);
+            }
+            finishSentence(costs.get(n), probes.getProbes() - probesBefore, labellingNanos);
         }
+
+        metrics.addTime(Stage.STEMMING, stemmer.getNanos());
+        metrics.addAllocation(Stage.STEMMING, stemmer.getAllocatedBytes());
+        metrics.addTime(Stage.DICTIONARY_LOOKUP, probes.getNanos());
         return mappingsLists;
     }
 
     //Assign a tag to each word/phrase in each sentence representing their foundational class (from DOLCE foundational ontology)
     public List<List<WordMapping>> tagWithFoundationClass(List<String> sentences, boolean verbose) {
+        return tagWithFoundationClass(sentences, verbose, null);
+    }
+
+    private List<List<WordMapping>> tagWithFoundationClass(List<String> sentences, boolean verbose, SentenceTrace trace) {
 
         List<List<WordMapping>> mappingsLists = new ArrayList<>();
-        Map<String, String> FOMapping = loadMappings("FOMapping.txt");
+        Map<String, String> FOMapping = getMappings("FOMapping.txt");
         List<List<String>> wordsLists = new ArrayList<>();
+        List<SentenceCost> costs = new ArrayList<>();
 
         try {
-            wordsLists = split(sentences, verbose);
+            wordsLists = split(sentences, verbose, costs, trace);
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -456,7 +857,11 @@ public final class TopLevelTagger {
             System.out.println("Retrieving foundational classes...");
         }
 
-        for (List<String> words : wordsLists) {
+        boolean allocations = metrics.isAllocationTracking();
+        for (int n = 0; n < wordsLists.size(); n++) {
+            List<String> words = wordsLists.get(n);
+            long labellingStart = System.nanoTime();
+            long labellingBytes = allocations ? Allocations.allocatedBytes() : 0;
             List<WordMapping> mappings = new ArrayList<>();
             for (int i = words.size() - 1; i >= 0; i--) {
                 String entry = words.get(i);
@@ -465,8 +870,26 @@ public final class TopLevelTagger {
                 mappings.add(new WordMapping(word, label));
             }
             mappingsLists.add(mappings);
+
+            long labellingNanos = System.nanoTime() - labellingStart;
+            metrics.addTime(Stage.LABELLING, labellingNanos);
+            if (allocations) {
+                metrics.addAllocation(Stage.LABELLING, Allocations.allocatedBytes() - labellingBytes);
+            }
+            finishSentence(costs.get(n), 0, labellingNanos);
         }
         return mappingsLists;
     }
 
+    //Tag a single sentence, recording every candidate span, stemming call, dictionary probe and hypernym step
+    public SentenceTrace explain(String sentence, boolean foundationClasses) {
+        SentenceTrace trace = new SentenceTrace(sentence);
+        List<String> sentences = Collections.singletonList(sentence);
+        List<List<WordMapping>> mappings = foundationClasses ? tagWithFoundationClass(sentences, false, trace) : tagWithTopClass(sentences, false, trace);
+        if (mappings.size() > 0) {
+            trace.setResult(mappings.get(0));
+        }
+        return trace;
+    }
+
 }
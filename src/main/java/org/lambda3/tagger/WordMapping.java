@@ -22,6 +22,8 @@ package org.lambda3.tagger;
  * ==========================License-End==============================
  */
 
+import java.util.Objects;
+
 public final class WordMapping {
 
     private String word;
@@ -39,4 +41,26 @@ public final class WordMapping {
     public String getLabel() {
         return label;
     }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof WordMapping)) {
+            return false;
+        }
+        WordMapping other = (WordMapping) obj;
+        return Objects.equals(word, other.word) && Objects.equals(label, other.label);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(word, label);
+    }
+
+    @Override
+    public String toString() {
+        return word + ": " + label;
+    }
 }
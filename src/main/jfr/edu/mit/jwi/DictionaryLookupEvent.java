@@ -0,0 +1,75 @@
+/********************************************************************************
+ * Java Wordnet Interface Library (JWI) v2.4.0
+ * Top Level Tagger additions, Copyright (c) 2017 Lambda³
+ *
+ * JWI is distributed under the terms of the Creative Commons Attribution 4.0 
+ * International Public License, which means it may be freely used for all 
+ * purposes, as long as proper acknowledgment is made.  See the license file 
+ * included with this distribution for more details.
+ *******************************************************************************/
+
+package edu.mit.jwi;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight recorder event describing a slow data source lookup. This class is
+ * only loaded through {@link LookupEvents}, and only on JDKs that provide the
+ * {@code jdk.jfr} API.
+ * 
+ * @version 2.4.0
+ * @since JWI 2.4.0
+ */
+@Name("edu.mit.jwi.DictionaryLookup")
+@Label("Dictionary Lookup")
+@Description("A data source lookup slower than the configured threshold")
+@Category({"JWI"})
+@StackTrace(false)
+class DictionaryLookupEvent extends Event {
+	
+	@Label("Source")
+	@Description("Name of the data source searched, e.g. index.noun")
+	String source;
+	
+	@Label("Key")
+	String key;
+	
+	@Label("Found")
+	boolean found;
+	
+	@Label("Lookup Time")
+	@Timespan(Timespan.NANOSECONDS)
+	long lookupTime;
+	
+	/**
+	 * Emits {@link DictionaryLookupEvent}s.
+	 *
+	 * @since JWI 2.4.0
+	 */
+	static class FlightRecorder implements LookupEvents.Recorder {
+
+		/* 
+		 * (non-Javadoc) 
+		 *
+		 * @see edu.mit.jwi.LookupEvents.Recorder#lookup(java.lang.String, java.lang.String, boolean, long)
+		 */
+		public void lookup(String source, String key, boolean found, long nanos) {
+			DictionaryLookupEvent event = new DictionaryLookupEvent();
+			if(!event.isEnabled())
+				return;
+			event.source = source;
+			event.key = key;
+			event.found = found;
+			event.lookupTime = nanos;
+			event.commit();
+		}
+		
+	}
+
+}
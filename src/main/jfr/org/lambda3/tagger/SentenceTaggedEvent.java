@@ -0,0 +1,75 @@
+package org.lambda3.tagger;
+
+/*
+ * ==========================License-Start=============================
+ * Top Level Tagger
+ *
+ * Copyright © 2017 Lambda³
+ *
+ * GNU General Public License 3
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ * ==========================License-End==============================
+ */
+
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+//Flight recorder event for one tagged sentence. Only loaded through SentenceEvents, on JDKs providing jdk.jfr.
+@Name("org.lambda3.tagger.SentenceTagged")
+@Label("Sentence Tagged")
+@Description("Segmentation and labelling of one sentence")
+@Category({"Top Level Tagger"})
+@StackTrace(false)
+class SentenceTaggedEvent extends Event {
+
+    @Label("Length")
+    @Description("Characters in the input sentence")
+    int length;
+
+    @Label("Tokens")
+    int tokens;
+
+    @Label("Chunks")
+    int chunks;
+
+    @Label("Dictionary Probes")
+    long probes;
+
+    @Label("Tagging Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long taggingTime;
+
+    static class FlightRecorder implements SentenceEvents.Recorder {
+
+        @Override
+        public void tagged(int length, int tokens, int chunks, long probes, long nanos) {
+            SentenceTaggedEvent event = new SentenceTaggedEvent();
+            if (!event.isEnabled()) {
+                return;
+            }
+            event.length = length;
+            event.tokens = tokens;
+            event.chunks = chunks;
+            event.probes = probes;
+            event.taggingTime = nanos;
+            event.commit();
+        }
+    }
+}
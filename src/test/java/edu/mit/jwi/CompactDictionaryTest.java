@@ -0,0 +1,235 @@
+/********************************************************************************
+ * Java Wordnet Interface Library (JWI) v2.4.0
+ * Top Level Tagger additions, Copyright (c) 2017 Lambda³
+ *
+ * JWI is distributed under the terms of the Creative Commons Attribution 4.0 
+ * International Public License, which means it may be freely used for all 
+ * purposes, as long as proper acknowledgment is made.  See the license file 
+ * included with this distribution for more details.
+ *******************************************************************************/
+
+package edu.mit.jwi;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import edu.mit.jwi.item.IExceptionEntry;
+import edu.mit.jwi.item.IIndexWord;
+import edu.mit.jwi.item.IPointer;
+import edu.mit.jwi.item.ISenseEntry;
+import edu.mit.jwi.item.ISynset;
+import edu.mit.jwi.item.IWord;
+import edu.mit.jwi.item.IWordID;
+import edu.mit.jwi.item.POS;
+import edu.mit.jwi.item.SynsetID;
+import edu.mit.jwi.item.WordID;
+
+/**
+ * Checks that a {@link CompactDictionary} returns the same items as a
+ * {@link Dictionary} reading the same files, the small dictionary under
+ * <code>src/test/resources/wordnet-fixture</code>: every index word, synset,
+ * word, sense entry and exception entry, field by field, both as iterated, in
+ * the same order, and as looked up one at a time.
+ *
+ * @version 2.4.0
+ * @since JWI 2.4.0
+ */
+public class CompactDictionaryTest {
+
+	private static IDictionary reference;
+	private static CompactDictionary compact;
+
+	@BeforeClass
+	public static void openDictionaries() throws Exception {
+		File dir = new File(CompactDictionaryTest.class.getResource("/wordnet-fixture").toURI());
+		reference = new Dictionary(dir);
+		reference.open();
+		compact = new CompactDictionary(dir);
+		compact.open();
+	}
+
+	@AfterClass
+	public static void closeDictionaries() {
+		compact.close();
+		reference.close();
+	}
+
+	@Test
+	public void indexWordsMatch() {
+		for(POS pos : POS.values()){
+			List<String> expected = new ArrayList<String>();
+			for(Iterator<IIndexWord> i = reference.getIndexWordIterator(pos); i.hasNext(); ){
+				IIndexWord word = i.next();
+				expected.add(describe(word));
+				assertEquals(describe(word), describe(compact.getIndexWord(word.getLemma(), pos)));
+				assertEquals(describe(word), describe(compact.getIndexWord(word.getID())));
+			}
+			List<String> actual = new ArrayList<String>();
+			for(Iterator<IIndexWord> i = compact.getIndexWordIterator(pos); i.hasNext(); )
+				actual.add(describe(i.next()));
+			assertTrue(pos.toString(), expected.size() > 0);
+			assertEquals(pos.toString(), expected, actual);
+			assertNull(compact.getIndexWord("not_a_fixture_lemma", pos));
+		}
+	}
+
+	@Test
+	public void synsetsAndWordsMatch() {
+		for(POS pos : POS.values()){
+			List<String> expected = new ArrayList<String>();
+			for(Iterator<ISynset> i = reference.getSynsetIterator(pos); i.hasNext(); ){
+				ISynset synset = i.next();
+				expected.add(describe(synset));
+				assertEquals(describe(synset), describe(compact.getSynset(synset.getID())));
+				for(IWord word : synset.getWords()){
+					assertEquals(describe(word), describe(compact.getWord(word.getID())));
+					assertEquals(describe(word), describe(compact.getWord(word.getSenseKey())));
+					IWordID byLemma = new WordID(synset.getID(), word.getLemma());
+					assertEquals(describe(reference.getWord(byLemma)), describe(compact.getWord(byLemma)));
+				}
+			}
+			List<String> actual = new ArrayList<String>();
+			for(Iterator<ISynset> i = compact.getSynsetIterator(pos); i.hasNext(); )
+				actual.add(describe(i.next()));
+			assertTrue(pos.toString(), expected.size() > 0);
+			assertEquals(pos.toString(), expected, actual);
+			assertNull(compact.getSynset(new SynsetID(99999999, pos)));
+		}
+	}
+
+	@Test
+	public void senseEntriesMatch() {
+		List<String> expected = new ArrayList<String>();
+		for(Iterator<ISenseEntry> i = reference.getSenseEntryIterator(); i.hasNext(); ){
+			ISenseEntry entry = i.next();
+			expected.add(describe(entry));
+			assertEquals(describe(entry), describe(compact.getSenseEntry(entry.getSenseKey())));
+		}
+		List<String> actual = new ArrayList<String>();
+		for(Iterator<ISenseEntry> i = compact.getSenseEntryIterator(); i.hasNext(); )
+			actual.add(describe(i.next()));
+		assertTrue(expected.size() > 0);
+		assertEquals(expected, actual);
+	}
+
+	@Test
+	public void exceptionEntriesMatch() {
+		int count = 0;
+		for(POS pos : POS.values()){
+			List<String> expected = new ArrayList<String>();
+			for(Iterator<IExceptionEntry> i = reference.getExceptionEntryIterator(pos); i.hasNext(); ){
+				IExceptionEntry entry = i.next();
+				expected.add(describe(entry));
+				assertEquals(describe(entry), describe(compact.getExceptionEntry(entry.getSurfaceForm(), pos)));
+				assertEquals(describe(entry), describe(compact.getExceptionEntry(entry.getID())));
+			}
+			List<String> actual = new ArrayList<String>();
+			for(Iterator<IExceptionEntry> i = compact.getExceptionEntryIterator(pos); i.hasNext(); )
+				actual.add(describe(i.next()));
+			assertEquals(pos.toString(), expected, actual);
+			assertNull(compact.getExceptionEntry("not_a_fixture_form", pos));
+			count += expected.size();
+		}
+		assertTrue(count > 0);
+	}
+
+	@Test
+	public void versionMatches() {
+		assertEquals(reference.getVersion(), compact.getVersion());
+	}
+
+	/**
+	 * Returns the description of every item of the specified dictionary, in
+	 * iteration order, so that two dictionaries can be compared in one
+	 * assertion.
+	 */
+	static List<String> contents(IDictionary dict) {
+		List<String> result = new ArrayList<String>();
+		result.add(String.valueOf(dict.getVersion()));
+		for(POS pos : POS.values()){
+			for(Iterator<IIndexWord> i = dict.getIndexWordIterator(pos); i.hasNext(); )
+				result.add(describe(i.next()));
+			for(Iterator<ISynset> i = dict.getSynsetIterator(pos); i.hasNext(); )
+				result.add(describe(i.next()));
+			for(Iterator<IExceptionEntry> i = dict.getExceptionEntryIterator(pos); i.hasNext(); )
+				result.add(describe(i.next()));
+		}
+		for(Iterator<ISenseEntry> i = dict.getSenseEntryIterator(); i.hasNext(); )
+			result.add(describe(i.next()));
+		return result;
+	}
+
+	static String describe(IIndexWord word) {
+		if(word == null)
+			return null;
+		// index words read from the files do not know the numbers of their
+		// words, so the words are described by synset and lemma
+		List<String> words = new ArrayList<String>();
+		for(IWordID id : word.getWordIDs())
+			words.add(id.getSynsetID() + "-" + id.getLemma());
+		return word.getID() + " " + word.getTagSenseCount() + " " + symbols(word.getPointers()) + " " + words;
+	}
+
+	static String describe(ISynset synset) {
+		if(synset == null)
+			return null;
+		StringBuilder sb = new StringBuilder();
+		sb.append(synset.getID()).append(' ').append(synset.getLexicalFile()).append(' ').append(synset.getType())
+			.append(' ').append(synset.isAdjectiveHead()).append(' ').append(synset.isAdjectiveSatellite())
+			.append(' ').append(synset.getGloss()).append(' ').append(related(synset.getRelatedMap()))
+			.append(' ').append(synset.getRelatedSynsets());
+		for(IWord word : synset.getWords())
+			sb.append("\n  ").append(describe(word));
+		return sb.toString();
+	}
+
+	static String describe(IWord word) {
+		if(word == null)
+			return null;
+		return word.getID() + " " + word.getSenseKey() + " " + word.getLexicalID() + " " + word.getAdjectiveMarker() + " " 
+				+ word.getVerbFrames() + " " + related(word.getRelatedMap()) + " " + word.getSynset().getID();
+	}
+
+	static String describe(ISenseEntry entry) {
+		if(entry == null)
+			return null;
+		return entry.getSenseKey() + " " + entry.getOffset() + " " + entry.getSenseNumber() + " " + entry.getTagCount() + " " + entry.getPOS();
+	}
+
+	static String describe(IExceptionEntry entry) {
+		if(entry == null)
+			return null;
+		return entry.getID() + " " + entry.getRootForms();
+	}
+
+	/**
+	 * Returns the specified related map with its pointers in symbol order, so
+	 * that maps of different classes can be compared by their string form.
+	 */
+	private static String related(Map<IPointer, ? extends List<?>> map) {
+		Map<String, List<?>> result = new TreeMap<String, List<?>>();
+		for(Entry<IPointer, ? extends List<?>> entry : map.entrySet())
+			result.put(entry.getKey().getSymbol(), entry.getValue());
+		return result.toString();
+	}
+
+	private static Map<String, IPointer> symbols(Iterable<IPointer> pointers) {
+		Map<String, IPointer> result = new TreeMap<String, IPointer>();
+		for(IPointer pointer : pointers)
+			result.put(pointer.getSymbol(), pointer);
+		return result;
+	}
+}
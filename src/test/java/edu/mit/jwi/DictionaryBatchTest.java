@@ -0,0 +1,142 @@
+/********************************************************************************
+ * Java Wordnet Interface Library (JWI) v2.4.0
+ * Top Level Tagger additions, Copyright (c) 2017 Lambda³
+ *
+ * JWI is distributed under the terms of the Creative Commons Attribution 4.0
+ * International Public License, which means it may be freely used for all
+ * purposes, as long as proper acknowledgment is made.  See the license file
+ * included with this distribution for more details.
+ *******************************************************************************/
+
+package edu.mit.jwi;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import edu.mit.jwi.data.FileProvider;
+import edu.mit.jwi.item.IIndexWord;
+import edu.mit.jwi.item.ISynset;
+import edu.mit.jwi.item.ISynsetID;
+import edu.mit.jwi.item.POS;
+import edu.mit.jwi.item.SynsetID;
+
+/**
+ * Checks that the batch lookups of a dictionary,
+ * {@link IDictionary#getIndexWords(List, POS)} and
+ * {@link IDictionary#getSynsets(List)}, return the same items, in the same
+ * positions, as the single lookups, on the small dictionary under
+ * <code>src/test/resources/wordnet-fixture</code>. The files are read with
+ * and without the line index and the key filter, both directly and through
+ * a cache that already holds some of the items; the batches are out of
+ * order, and hold repeated and missing keys.
+ *
+ * @version 2.4.0
+ * @since JWI 2.4.0
+ */
+public class DictionaryBatchTest {
+
+	@Test
+	public void indexWordsMatchSingleLookups() throws Exception {
+		for(int variant = 0; variant < 8; variant++){
+			IDictionary dict = open(variant);
+			try {
+				for(POS pos : POS.values()){
+					List<String> lemmas = new ArrayList<String>();
+					int i = 0;
+					for(Iterator<IIndexWord> words = dict.getIndexWordIterator(pos); words.hasNext(); i++){
+						String lemma = words.next().getLemma();
+						lemmas.add(lemma);
+						if(i % 3 == 0)
+							lemmas.add(lemma);
+						lemmas.add(lemma + "x");
+						lemmas.add(lemma.toUpperCase().replace('_', ' '));
+					}
+					Collections.addAll(lemmas, "'", "zzzzzzzz", "été", "  1 a");
+					Collections.shuffle(lemmas, new Random(variant));
+
+					List<IIndexWord> expected = new ArrayList<IIndexWord>();
+					for(String lemma : lemmas)
+						expected.add(dict.getIndexWord(lemma, pos));
+					assertTrue(expected.contains(null));
+					assertEquals(pos + " (variant " + variant + ")", expected, dict.getIndexWords(lemmas, pos));
+				}
+			} finally {
+				dict.close();
+			}
+		}
+	}
+
+	@Test
+	public void synsetsMatchSingleLookups() throws Exception {
+		for(int variant = 0; variant < 8; variant++){
+			IDictionary dict = open(variant);
+			try {
+				List<ISynsetID> ids = new ArrayList<ISynsetID>();
+				int i = 0;
+				for(POS pos : POS.values()){
+					for(Iterator<ISynset> synsets = dict.getSynsetIterator(pos); synsets.hasNext(); i++){
+						ISynsetID id = synsets.next().getID();
+						ids.add(id);
+						if(i % 3 == 0)
+							ids.add(id);
+						ids.add(new SynsetID(id.getOffset() + 1, pos));
+					}
+					ids.add(new SynsetID(0, pos));
+					ids.add(new SynsetID(99999999, pos));
+				}
+				Collections.shuffle(ids, new Random(variant));
+
+				List<ISynset> expected = new ArrayList<ISynset>();
+				for(ISynsetID id : ids)
+					expected.add(dict.getSynset(id));
+				assertTrue(expected.contains(null));
+				assertEquals("variant " + variant, expected, dict.getSynsets(ids));
+			} finally {
+				dict.close();
+			}
+		}
+	}
+
+	/**
+	 * Returns the fixture dictionary, read with the line index if the first
+	 * bit of the variant is set, and the key filter if the second is, and
+	 * through a cache that holds every other index word and synset if the
+	 * third is.
+	 */
+	private static IDictionary open(int variant) throws Exception {
+		File dir = new File(DictionaryBatchTest.class.getResource("/wordnet-fixture").toURI());
+		FileProvider provider = new FileProvider(dir);
+		provider.setIndexingLines((variant & 1) != 0);
+		provider.setFilteringKeys((variant & 2) != 0);
+		IDictionary dict = new DataSourceDictionary(provider);
+		if((variant & 4) != 0)
+			dict = new CachingDictionary(dict);
+		dict.open();
+		if((variant & 4) != 0){
+			for(POS pos : POS.values()){
+				int i = 0;
+				for(Iterator<IIndexWord> words = dict.getIndexWordIterator(pos); words.hasNext(); i++){
+					IIndexWord word = words.next();
+					if(i % 2 == 0)
+						dict.getIndexWord(word.getLemma(), pos);
+				}
+				i = 0;
+				for(Iterator<ISynset> synsets = dict.getSynsetIterator(pos); synsets.hasNext(); i++){
+					ISynset synset = synsets.next();
+					if(i % 2 == 0)
+						dict.getSynset(synset.getID());
+				}
+			}
+		}
+		return dict;
+	}
+}
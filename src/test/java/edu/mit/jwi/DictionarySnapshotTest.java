@@ -0,0 +1,226 @@
+/********************************************************************************
+ * Java Wordnet Interface Library (JWI) v2.4.0
+ * Top Level Tagger additions, Copyright (c) 2017 Lambda³
+ *
+ * JWI is distributed under the terms of the Creative Commons Attribution 4.0
+ * International Public License, which means it may be freely used for all
+ * purposes, as long as proper acknowledgment is made.  See the license file
+ * included with this distribution for more details.
+ *******************************************************************************/
+
+package edu.mit.jwi;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import edu.mit.jwi.data.ILoadPolicy;
+
+/**
+ * Checks the snapshots written by {@link DictionarySnapshot} on the small
+ * dictionary under <code>src/test/resources/wordnet-fixture</code>: that a
+ * snapshot read back, onto the heap or mapped into memory, holds the same
+ * items as the files it was made from; that {@link RAMDictionary} still
+ * imports the gzipped, serialized format it used to export; and that a
+ * snapshot with a flipped byte, or cut short, is rejected with an
+ * {@link IOException} however it is read.
+ *
+ * @version 2.4.0
+ * @since JWI 2.4.0
+ */
+public class DictionarySnapshotTest {
+
+	private static File tempDir;
+	private static List<String> expected;
+	private static RAMDictionary loaded;
+	private static File snapshot;
+	private static byte[] image;
+
+	@BeforeClass
+	public static void exportFixture() throws Exception {
+		File dir = new File(DictionarySnapshotTest.class.getResource("/wordnet-fixture").toURI());
+		IDictionary reference = new Dictionary(dir);
+		reference.open();
+		expected = CompactDictionaryTest.contents(reference);
+		reference.close();
+
+		tempDir = Files.createTempDirectory("jwi-snapshot").toFile();
+		loaded = new RAMDictionary(dir, ILoadPolicy.IMMEDIATE_LOAD);
+		loaded.open();
+		snapshot = new File(tempDir, "fixture.snapshot");
+		OutputStream out = new FileOutputStream(snapshot);
+		loaded.export(out);
+		image = Files.readAllBytes(snapshot.toPath());
+	}
+
+	@AfterClass
+	public static void deleteFiles() {
+		loaded.close();
+		for(File file : tempDir.listFiles())
+			file.delete();
+		tempDir.delete();
+	}
+
+	@Test
+	public void ramRoundTrip() throws IOException {
+		assertEquals(expected, CompactDictionaryTest.contents(loaded));
+		RAMDictionary imported = new RAMDictionary(snapshot, ILoadPolicy.IMMEDIATE_LOAD);
+		imported.open();
+		try {
+			assertEquals(expected, CompactDictionaryTest.contents(imported));
+		} finally {
+			imported.close();
+		}
+	}
+
+	@Test
+	public void compactRoundTrip() throws IOException {
+		CompactDictionary compact = new CompactDictionary(snapshot);
+		compact.open();
+		File copy = new File(tempDir, "compact.snapshot");
+		try {
+			assertEquals(expected, CompactDictionaryTest.contents(compact));
+			FileChannel channel = FileChannel.open(copy.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+			try {
+				compact.export(channel);
+			} finally {
+				channel.close();
+			}
+		} finally {
+			compact.close();
+		}
+		assertTrue(Arrays.equals(image, Files.readAllBytes(copy.toPath())));
+	}
+
+	@Test
+	public void mappedOpenMatchesHeapRead() throws IOException {
+		CompactDictionary mapped = new CompactDictionary(snapshot);
+		assertTrue(mapped.isMappingSnapshot());
+		CompactDictionary heap = new CompactDictionary(snapshot);
+		heap.setMappingSnapshot(false);
+		mapped.open();
+		heap.open();
+		try {
+			assertEquals(expected, CompactDictionaryTest.contents(heap));
+			assertEquals(CompactDictionaryTest.contents(heap), CompactDictionaryTest.contents(mapped));
+		} finally {
+			heap.close();
+			mapped.close();
+		}
+	}
+
+	@Test
+	public void legacyFormatImports() throws IOException {
+		File legacy = new File(tempDir, "fixture.legacy");
+		ObjectOutputStream out = new ObjectOutputStream(new GZIPOutputStream(new FileOutputStream(legacy)));
+		try {
+			out.writeObject(loaded.data);
+		} finally {
+			out.close();
+		}
+		RAMDictionary imported = new RAMDictionary(legacy, ILoadPolicy.IMMEDIATE_LOAD);
+		imported.open();
+		try {
+			assertEquals(expected, CompactDictionaryTest.contents(imported));
+		} finally {
+			imported.close();
+		}
+	}
+
+	@Test
+	public void flippedByteIsRejected() throws IOException {
+		// every byte of the header and the tables, then bytes spread over
+		// the arrays, each flipped in a different bit
+		int count = 0;
+		for(int i = 0; i < image.length; i += (i < 512) ? 1 : 97){
+			byte[] corrupt = image.clone();
+			corrupt[i] ^= (byte)(1 << (i % 8));
+			assertRejected("byte " + i, corrupt);
+			count++;
+		}
+		assertTrue(count > 1000);
+	}
+
+	@Test
+	public void truncatedFileIsRejected() throws IOException {
+		int[] lengths = {0, 3, 4, 8, 64, image.length / 3, image.length / 2, image.length - 4, image.length - 1};
+		for(int length : lengths)
+			assertRejected("length " + length, Arrays.copyOf(image, length));
+	}
+
+	@Test
+	public void otherFileIsRejected() throws IOException {
+		byte[] other = "09 noun.Tops 1 n 00001740 entity".getBytes("UTF-8");
+		File file = write("other", other);
+		FileChannel channel = FileChannel.open(file.toPath());
+		try {
+			DictionarySnapshot.read(channel);
+			fail();
+		} catch(IOException e){
+			assertEquals("not a dictionary snapshot", e.getMessage());
+		} finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * Checks that the specified bytes are rejected when read onto the heap,
+	 * from a file or from a stream of unknown size, when mapped and
+	 * verified, and when imported by a RAM dictionary.
+	 */
+	private static void assertRejected(String message, byte[] corrupt) throws IOException {
+		try {
+			DictionarySnapshot.read(Channels.newChannel(new ByteArrayInputStream(corrupt)));
+			fail(message + ": stream");
+		} catch(IOException expected){
+		}
+		File file = write("corrupt", corrupt);
+		FileChannel channel = FileChannel.open(file.toPath());
+		try {
+			DictionarySnapshot.read(channel);
+			fail(message + ": read");
+		} catch(IOException expected){
+		} finally {
+			channel.close();
+		}
+		channel = FileChannel.open(file.toPath());
+		try {
+			DictionarySnapshot.map(channel, true);
+			fail(message + ": map");
+		} catch(IOException expected){
+		} finally {
+			channel.close();
+		}
+		try {
+			new RAMDictionary(file, ILoadPolicy.IMMEDIATE_LOAD).importData();
+			fail(message + ": import");
+		} catch(IOException expected){
+		} catch(ClassNotFoundException e){
+			fail(message + ": " + e);
+		}
+	}
+
+	private static File write(String name, byte[] bytes) throws IOException {
+		File file = new File(tempDir, name);
+		Files.write(file.toPath(), bytes);
+		return file;
+	}
+}
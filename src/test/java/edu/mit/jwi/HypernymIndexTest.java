@@ -0,0 +1,182 @@
+/********************************************************************************
+ * Java Wordnet Interface Library (JWI) v2.4.0
+ * Top Level Tagger additions, Copyright (c) 2017 Lambda³
+ *
+ * JWI is distributed under the terms of the Creative Commons Attribution 4.0 
+ * International Public License, which means it may be freely used for all 
+ * purposes, as long as proper acknowledgment is made.  See the license file 
+ * included with this distribution for more details.
+ *******************************************************************************/
+
+package edu.mit.jwi;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import edu.mit.jwi.item.ISynset;
+import edu.mit.jwi.item.ISynsetID;
+import edu.mit.jwi.item.POS;
+import edu.mit.jwi.item.Pointer;
+import edu.mit.jwi.item.SynsetID;
+
+/**
+ * Checks every query of {@link HypernymIndex} against a walk up the
+ * hypernyms of each synset of the small dictionary under
+ * <code>src/test/resources/wordnet-fixture</code>. The noun synsets
+ * 00011614 and 00023784 of that dictionary are each other's first hypernym,
+ * like the circular references of Wordnet 3.0.
+ *
+ * @version 2.4.0
+ * @since JWI 2.4.0
+ */
+public class HypernymIndexTest {
+
+	private static final ISynsetID CYCLE_TOP = new SynsetID(11614, POS.NOUN);
+	private static final ISynsetID CYCLE_BOTTOM = new SynsetID(23784, POS.NOUN);
+
+	private static IDictionary dict;
+	private static HypernymIndex index;
+	private static List<ISynsetID> ids;
+
+	@BeforeClass
+	public static void openDictionary() throws Exception {
+		dict = new Dictionary(new File(HypernymIndexTest.class.getResource("/wordnet-fixture").toURI()));
+		dict.open();
+		index = new HypernymIndex(dict);
+		ids = new ArrayList<ISynsetID>();
+		for(POS pos : new POS[]{POS.NOUN, POS.VERB})
+			for(Iterator<ISynset> i = dict.getSynsetIterator(pos); i.hasNext(); )
+				ids.add(i.next().getID());
+	}
+
+	@AfterClass
+	public static void closeDictionary() {
+		dict.close();
+	}
+
+	@Test
+	public void chainsMatchWalk() {
+		for(ISynsetID id : ids){
+			List<ISynsetID> chain = walk(id);
+			assertTrue(index.contains(id));
+			assertEquals(id.toString(), chain, index.getChain(id));
+			assertEquals(id.toString(), chain.size() - 1, index.getDepth(id));
+			assertEquals(id.toString(), chain.get(0), index.getRoot(id));
+			assertEquals(id.toString(), chain.size() > 1 ? chain.get(chain.size() - 2) : null, index.getHypernym(id));
+			for(int depth = 0; depth < chain.size(); depth++)
+				assertEquals(id.toString(), chain.get(depth), index.getAncestor(id, depth));
+			assertNull(index.getAncestor(id, -1));
+			assertNull(index.getAncestor(id, chain.size()));
+		}
+		assertEquals(ids.size(), index.getSynsetCount(POS.NOUN) + index.getSynsetCount(POS.VERB));
+		assertEquals(0, index.getSynsetCount(POS.ADJECTIVE));
+	}
+
+	@Test
+	public void circularReferenceStopsBeforeRepeat() {
+		assertEquals(walk(CYCLE_BOTTOM), index.getChain(CYCLE_BOTTOM));
+		assertEquals(java.util.Arrays.asList(CYCLE_TOP, CYCLE_BOTTOM), index.getChain(CYCLE_BOTTOM));
+		assertEquals(java.util.Arrays.asList(CYCLE_BOTTOM, CYCLE_TOP), index.getChain(CYCLE_TOP));
+		assertTrue(index.isAncestor(CYCLE_TOP, CYCLE_BOTTOM));
+		assertTrue(index.isAncestor(CYCLE_BOTTOM, CYCLE_TOP));
+		assertEquals(1, index.getDistance(CYCLE_TOP, CYCLE_BOTTOM));
+		assertEquals(CYCLE_TOP, index.findFirst(CYCLE_BOTTOM, index.compile(Collections.singleton(CYCLE_TOP))));
+	}
+
+	@Test
+	public void ancestorsAndDistancesMatchWalk() {
+		for(ISynsetID id : ids){
+			List<ISynsetID> chain = walk(id);
+			for(ISynsetID other : ids){
+				int position = chain.indexOf(other);
+				assertEquals(id + " " + other, position >= 0 && !other.equals(id), index.isAncestor(other, id));
+				assertEquals(id + " " + other, position < 0 ? -1 : chain.size() - 1 - position, index.getDistance(other, id));
+			}
+		}
+		ISynsetID missing = new SynsetID(99999999, POS.NOUN);
+		assertFalse(index.contains(missing));
+		assertFalse(index.isAncestor(missing, ids.get(0)));
+		assertEquals(-1, index.getDistance(missing, ids.get(0)));
+		assertEquals(-1, index.getDepth(missing));
+		assertTrue(index.getChain(missing).isEmpty());
+	}
+
+	@Test
+	public void findFirstMatchesWalk() {
+		Random random = new Random(5);
+		List<Set<ISynsetID>> sets = new ArrayList<Set<ISynsetID>>();
+		sets.add(Collections.<ISynsetID>emptySet());
+		for(int size : new int[]{1, 5, 20, 100}){
+			for(int n = 0; n < 5; n++){
+				Set<ISynsetID> set = new HashSet<ISynsetID>();
+				while(set.size() < size)
+					set.add(ids.get(random.nextInt(ids.size())));
+				sets.add(set);
+			}
+		}
+		sets.add(new HashSet<ISynsetID>(ids));
+		for(Set<ISynsetID> set : sets){
+			HypernymIndex.SynsetSet compiled = index.compile(set);
+			for(ISynsetID id : ids){
+				ISynsetID expected = null;
+				List<ISynsetID> chain = walk(id);
+				for(int i = chain.size() - 1; i >= 0 && expected == null; i--)
+					if(set.contains(chain.get(i)))
+						expected = chain.get(i);
+				assertEquals(id.toString(), expected, index.findFirst(id, set));
+				assertEquals(id.toString(), expected, index.findFirst(id, compiled));
+				assertEquals(id.toString(), set.contains(id), compiled.contains(id));
+			}
+		}
+	}
+
+	@Test
+	public void findFirstReturnsSynsetInSet() {
+		for(ISynsetID id : ids){
+			Set<ISynsetID> set = new HashSet<ISynsetID>(walk(id));
+			assertEquals(id, index.findFirst(id, set));
+			assertEquals(id, index.findFirst(id, index.compile(set)));
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void findFirstRejectsSetOfAnotherIndex() {
+		HypernymIndex other = new HypernymIndex(dict);
+		index.findFirst(ids.get(0), other.compile(ids));
+	}
+
+	/**
+	 * Returns the hypernym chain of the specified synset, root first, by
+	 * following the first hypernym, or else the first instance hypernym, of
+	 * each synset, and stopping before a synset already on the chain.
+	 */
+	private static List<ISynsetID> walk(ISynsetID id) {
+		List<ISynsetID> result = new ArrayList<ISynsetID>();
+		ISynsetID current = id;
+		while(current != null && !result.contains(current)){
+			result.add(current);
+			ISynset synset = dict.getSynset(current);
+			List<ISynsetID> targets = synset.getRelatedSynsets(Pointer.HYPERNYM);
+			if(targets.isEmpty())
+				targets = synset.getRelatedSynsets(Pointer.HYPERNYM_INSTANCE);
+			current = (targets.isEmpty() || targets.get(0).getPOS() != id.getPOS()) ? null : targets.get(0);
+		}
+		Collections.reverse(result);
+		return result;
+	}
+}
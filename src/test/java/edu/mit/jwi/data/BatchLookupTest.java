@@ -0,0 +1,195 @@
+/********************************************************************************
+ * Java Wordnet Interface Library (JWI) v2.4.0
+ * Top Level Tagger additions, Copyright (c) 2017 Lambda³
+ *
+ * JWI is distributed under the terms of the Creative Commons Attribution 4.0
+ * International Public License, which means it may be freely used for all
+ * purposes, as long as proper acknowledgment is made.  See the license file
+ * included with this distribution for more details.
+ *******************************************************************************/
+
+package edu.mit.jwi.data;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Checks that {@link BinarySearchWordnetFile#getLines(String[])}, which
+ * searches for a batch of keys in one forward pass over the file, finds the
+ * same line for every key as {@link BinarySearchWordnetFile#getLine(String)}
+ * does alone, with and without the line index and the key filter. The keys
+ * are given out of order, and hold the cases where the forward search could
+ * lose its place: the same key more than once, keys before the first line
+ * and after the last, keys that compare among the comment lines at the head
+ * of the file, keys in another case, and keys that fall between two lines.
+ * The files are those of the small dictionary under
+ * <code>src/test/resources/wordnet-fixture</code>.
+ *
+ * @version 2.4.0
+ * @since JWI 2.4.0
+ */
+public class BatchLookupTest {
+
+	private static final IContentType<?>[] TYPES = {ContentType.INDEX_NOUN, ContentType.INDEX_VERB,
+			ContentType.INDEX_ADJECTIVE, ContentType.INDEX_ADVERB, ContentType.EXCEPTION_NOUN,
+			ContentType.EXCEPTION_VERB, ContentType.EXCEPTION_ADJECTIVE, ContentType.EXCEPTION_ADVERB,
+			ContentType.SENSE};
+
+	// keys that sort before the first line of every file, after the last,
+	// or among the comment lines, and a key outside ASCII
+	private static final String[] EDGE_KEYS = {"'", "0", "-a", "zzzzzzzz", "~", "été",
+		"  1 a", "  2", "  3 z", "  99"};
+
+	@Test
+	public void wholeFileBatchMatchesSingleLookups() throws Exception {
+		for(IContentType<?> type : TYPES){
+			for(int variant = 0; variant < 4; variant++){
+				BinarySearchWordnetFile<?> file = open(type, variant);
+				try {
+					List<String> keys = keys(file);
+					Collections.shuffle(keys, new Random(variant));
+					check(file, variant, keys);
+				} finally {
+					file.close();
+				}
+			}
+		}
+	}
+
+	@Test
+	public void smallBatchesMatchSingleLookups() throws Exception {
+		Random random = new Random(7);
+		for(IContentType<?> type : TYPES){
+			for(int variant = 0; variant < 4; variant++){
+				BinarySearchWordnetFile<?> file = open(type, variant);
+				try {
+					List<String> keys = keys(file);
+					for(int round = 0; round < 200; round++){
+						List<String> batch = new ArrayList<String>();
+						int size = 2 + random.nextInt(6);
+						for(int i = 0; i < size; i++)
+							batch.add(keys.get(random.nextInt(keys.size())));
+						check(file, variant, batch);
+					}
+				} finally {
+					file.close();
+				}
+			}
+		}
+	}
+
+	@Test
+	public void edgeKeysMatchSingleLookups() throws Exception {
+		for(IContentType<?> type : TYPES){
+			for(int variant = 0; variant < 4; variant++){
+				BinarySearchWordnetFile<?> file = open(type, variant);
+				try {
+					List<String> lines = lineKeys(file);
+					String first = lines.get(0);
+					String last = lines.get(lines.size() - 1);
+					for(String edge : EDGE_KEYS){
+						check(file, variant, list(edge, edge));
+						check(file, variant, list(edge, first, last));
+						check(file, variant, list(last, edge, first, edge));
+					}
+					check(file, variant, list(first, first, first));
+					check(file, variant, list(last, last));
+					check(file, variant, list(last, first));
+					check(file, variant, list("  1 a", "  2", first, "'"));
+					check(file, variant, list(EDGE_KEYS));
+				} finally {
+					file.close();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Looks up the specified keys one at a time and as a batch, and compares
+	 * the lines found.
+	 */
+	private static void check(IDataSource<?> file, int variant, List<String> keys) {
+		String[] batch = keys.toArray(new String[keys.size()]);
+		String[] expected = new String[batch.length];
+		for(int i = 0; i < batch.length; i++)
+			expected[i] = file.getLine(batch[i]);
+		assertArrayEquals(file.getName() + " (variant " + variant + ") " + (keys.size() < 20 ? keys : ""),
+				expected, file.getLines(batch));
+	}
+
+	/**
+	 * Returns the specified file of the fixture, opened with the line index
+	 * if the first bit of the variant is set, and the key filter if the
+	 * second is.
+	 */
+	private static BinarySearchWordnetFile<?> open(IContentType<?> type, int variant) throws IOException, URISyntaxException {
+		BinarySearchWordnetFile<?> file = new BinarySearchWordnetFile<>(find(type), type);
+		file.setIndexingLines((variant & 1) != 0);
+		file.setFilteringKeys((variant & 2) != 0);
+		file.open();
+		return file;
+	}
+
+	/**
+	 * Returns the key of every line of the specified file, in file order.
+	 */
+	private static List<String> lineKeys(IDataSource<?> file) {
+		List<String> keys = new ArrayList<String>();
+		for(Iterator<String> i = file.iterator(); i.hasNext(); ){
+			String line = i.next();
+			int space = line.indexOf(' ');
+			keys.add((space == -1) ? line : line.substring(0, space));
+		}
+		assertTrue(file.getName() + " has no lines", keys.size() > 0);
+		return keys;
+	}
+
+	/**
+	 * Returns the key of every line of the specified file; every third key
+	 * again; a misspelled and an upper case copy of each; and the edge keys.
+	 */
+	private static List<String> keys(IDataSource<?> file) {
+		List<String> lines = lineKeys(file);
+		List<String> keys = new ArrayList<String>();
+		for(int i = 0; i < lines.size(); i++){
+			String key = lines.get(i);
+			keys.add(key);
+			if(i % 3 == 0)
+				keys.add(key);
+			keys.add(key + "x");
+			keys.add(key.toUpperCase());
+		}
+		Collections.addAll(keys, EDGE_KEYS);
+		return keys;
+	}
+
+	private static List<String> list(String... keys) {
+		List<String> result = new ArrayList<String>();
+		Collections.addAll(result, keys);
+		return result;
+	}
+
+	/**
+	 * Returns the file of the fixture dictionary that holds the specified
+	 * content type.
+	 */
+	private static File find(IContentType<?> type) throws URISyntaxException {
+		File dir = new File(BatchLookupTest.class.getResource("/wordnet-fixture").toURI());
+		List<File> candidates = new ArrayList<File>();
+		Collections.addAll(candidates, dir.listFiles());
+		File result = DataType.find(type.getDataType(), type.getPOS(), candidates);
+		assertTrue("no file for " + type, result != null);
+		return result;
+	}
+}
@@ -0,0 +1,217 @@
+/********************************************************************************
+ * Java Wordnet Interface Library (JWI) v2.4.0
+ * Top Level Tagger additions, Copyright (c) 2017 Lambda³
+ *
+ * JWI is distributed under the terms of the Creative Commons Attribution 4.0 
+ * International Public License, which means it may be freely used for all 
+ * purposes, as long as proper acknowledgment is made.  See the license file 
+ * included with this distribution for more details.
+ *******************************************************************************/
+
+package edu.mit.jwi.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+/**
+ * Checks that lookups made from many threads at once on one data source
+ * return the same lines as the same lookups made from a single thread. Both
+ * kinds of data source read the shared mapped buffer through per-lookup
+ * views, so any lookup that moved the position of the shared buffer, or
+ * read through another lookup's view, would show up here as a wrong or
+ * missing line. Batches of keys are looked up the same way, and the lines
+ * found by a binary search file must not depend on its line index or key
+ * filter. The files are those of the small dictionary under
+ * <code>src/test/resources/wordnet-fixture</code>; the keys are every key of
+ * the file, plus a key for each that is not in the file.
+ *
+ * @version 2.4.0
+ * @since JWI 2.4.0
+ */
+public class ConcurrentLookupTest {
+
+	private static final int THREADS = 8;
+	private static final int ROUNDS = 20;
+	private static final int BATCH = 64;
+
+	@Test
+	public void binarySearchLookupsAgreeAcrossThreads() throws Exception {
+		IContentType<?>[] types = {ContentType.INDEX_NOUN, ContentType.INDEX_VERB, ContentType.INDEX_ADJECTIVE, 
+				ContentType.INDEX_ADVERB, ContentType.EXCEPTION_VERB, ContentType.SENSE};
+		for(IContentType<?> type : types){
+			// every variant must find the lines that the plain bisection of
+			// variant 0 finds
+			List<String> keys = null;
+			List<String> expected = null;
+			for(int variant = 0; variant < 4; variant++){
+				BinarySearchWordnetFile<?> file = new BinarySearchWordnetFile<>(find(type), type);
+				file.setIndexingLines((variant & 1) != 0);
+				file.setFilteringKeys((variant & 2) != 0);
+				if(variant == 0)
+					keys = binarySearchKeys(file);
+				List<String> lines = check(file, keys);
+				if(variant == 0)
+					expected = lines;
+				else
+					assertEquals(file.getName() + " (variant " + variant + ")", expected, lines);
+			}
+		}
+	}
+
+	@Test
+	public void directAccessLookupsAgreeAcrossThreads() throws Exception {
+		IContentType<?>[] types = {ContentType.DATA_NOUN, ContentType.DATA_VERB, ContentType.DATA_ADJECTIVE, 
+				ContentType.DATA_ADVERB};
+		for(IContentType<?> type : types){
+			DirectAccessWordnetFile<?> file = new DirectAccessWordnetFile<>(find(type), type);
+			check(file, directAccessKeys(file));
+		}
+	}
+
+	/**
+	 * Looks up every key from a single thread, then looks up the keys again,
+	 * in a different order in each thread, from several threads started
+	 * together, one at a time and in batches, and compares every line found
+	 * with the single-threaded one. Returns the single-threaded lines.
+	 */
+	private static List<String> check(final IDataSource<?> file, final List<String> keys) throws Exception {
+		file.open();
+		try {
+			final List<String> expected = new ArrayList<String>(keys.size());
+			int found = 0;
+			for(String key : keys){
+				String line = file.getLine(key);
+				expected.add(line);
+				if(line != null)
+					found++;
+			}
+			assertTrue(file.getName() + " has no lines", found > 0);
+
+			ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+			try {
+				final CountDownLatch start = new CountDownLatch(1);
+				List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+				for(int t = 0; t < THREADS; t++){
+					final long seed = t;
+					futures.add(executor.submit(new Callable<Integer>() {
+						public Integer call() throws InterruptedException {
+							List<Integer> order = new ArrayList<Integer>(keys.size());
+							for(int i = 0; i < keys.size(); i++)
+								order.add(i);
+							Random random = new Random(seed);
+							start.await();
+							int mismatches = 0;
+							for(int round = 0; round < ROUNDS; round++){
+								Collections.shuffle(order, random);
+								for(int i : order){
+									String line = file.getLine(keys.get(i));
+									if(line == null ? expected.get(i) != null : !line.equals(expected.get(i)))
+										mismatches++;
+								}
+								
+								// the same keys again, in batches of random
+								// sizes
+								int size;
+								for(int start = 0; start < order.size(); start += size){
+									size = Math.min(1 + random.nextInt(BATCH), order.size() - start);
+									String[] batch = new String[size];
+									for(int i = 0; i < size; i++)
+										batch[i] = keys.get(order.get(start + i));
+									String[] lines = file.getLines(batch);
+									for(int i = 0; i < size; i++){
+										String line = lines[i];
+										String expectedLine = expected.get(order.get(start + i));
+										if(line == null ? expectedLine != null : !line.equals(expectedLine))
+											mismatches++;
+									}
+								}
+							}
+							return mismatches;
+						}
+					}));
+				}
+				start.countDown();
+				int mismatches = 0;
+				for(Future<Integer> future : futures)
+					mismatches += future.get();
+				assertEquals(file.getName() + ": lines differing from the single-threaded lookups", 0, mismatches);
+			} finally {
+				executor.shutdownNow();
+			}
+			return expected;
+		} finally {
+			file.close();
+		}
+	}
+
+	/**
+	 * Returns the key of every line of the specified file, and a misspelled
+	 * copy of each.
+	 */
+	private static List<String> binarySearchKeys(IDataSource<?> file) throws IOException {
+		List<String> keys = new ArrayList<String>();
+		file.open();
+		try {
+			for(Iterator<String> i = file.iterator(); i.hasNext(); ){
+				String line = i.next();
+				int space = line.indexOf(' ');
+				String key = (space == -1) ? line : line.substring(0, space);
+				keys.add(key);
+				keys.add(key + "x");
+			}
+		} finally {
+			file.close();
+		}
+		return keys;
+	}
+
+	/**
+	 * Returns the offset of every line of the specified data file, the offset
+	 * one past each, which falls inside a line, and an offset past the end.
+	 */
+	private static List<String> directAccessKeys(IDataSource<?> file) throws IOException {
+		List<String> keys = new ArrayList<String>();
+		file.open();
+		try {
+			for(Iterator<String> i = file.iterator(); i.hasNext(); ){
+				String offset = i.next().substring(0, 8);
+				keys.add(offset);
+				keys.add(String.format("%08d", Integer.parseInt(offset) + 1));
+			}
+		} finally {
+			file.close();
+		}
+		keys.add("99999999");
+		return keys;
+	}
+
+	/**
+	 * Returns the file of the fixture dictionary that holds the specified
+	 * content type.
+	 */
+	private static File find(IContentType<?> type) throws URISyntaxException {
+		File dir = new File(ConcurrentLookupTest.class.getResource("/wordnet-fixture").toURI());
+		File[] files = dir.listFiles();
+		List<File> candidates = new ArrayList<File>();
+		Collections.addAll(candidates, files);
+		File result = DataType.find(type.getDataType(), type.getPOS(), candidates);
+		assertTrue("no file for " + type, result != null);
+		return result;
+	}
+}
@@ -0,0 +1,153 @@
+package org.lambda3.tagger;
+
+/*
+ * ==========================License-Start=============================
+ * Top Level Tagger
+ *
+ * Copyright © 2017 Lambda³
+ *
+ * GNU General Public License 3
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ * ==========================License-End==============================
+ */
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+//Fails the build when the segmentation, stemming or labelling stage allocates more per sentence than the budget
+//recorded for it. The corpus is tagged against a small synthetic dictionary in the WordNet format, with a fixed
+//rule-based POS tagging in place of the Stanford model, so that the allocations depend on the tagger code alone.
+//The budget only holds for the Java version and the JVM options it was recorded under; the surefire argLine in the
+//pom pins the options, and there is one budget file per Java version. After an intended change in allocations, or to
+//add a Java version, record a budget on the fixture with
+//  mvn test -Dtest=AllocationBudgetTest -DallocationBudget.record=src/test/resources/allocation-budget-fixture-java<version>.properties
+public class AllocationBudgetTest {
+
+    private static final String WORDNET = "/wordnet-fixture";
+    private static final String CORPUS = "/allocation-corpus.txt";
+    private static final String BUDGET = "/allocation-budget-fixture-java%s.properties";
+    private static final String RECORD_PROPERTY = "allocationBudget.record";
+
+    private static final Set<String> CLOSED = new HashSet<>(Arrays.asList("a", "an", "the", "and", "or", "of", "in",
+            "on", "to", "for", "by", "as", "at", "it", "its", "is", "was", "with", "after", "into", "up", "their", "both",
+            "while", "near", "see", "had", "within", "during", "against", "across", "last"));
+
+    //Deterministic stand-in for the Stanford tagger: determiners and prepositions, numbers, past forms, adverbs, nouns
+    static String tag(String word) {
+        String lower = word.toLowerCase();
+        String tag;
+        if (CLOSED.contains(lower)) {
+            tag = "DT";
+        } else if (lower.matches("[0-9s'-]*[0-9][0-9s'-]*")) {
+            tag = "CD";
+        } else if (lower.endsWith("ed") || lower.endsWith("ing")) {
+            tag = "VBD";
+        } else if (lower.endsWith("ly")) {
+            tag = "RB";
+        } else {
+            tag = "NN";
+        }
+        return word + "_" + tag + " ";
+    }
+
+    private static File resource(String name) throws URISyntaxException {
+        return new File(AllocationBudgetTest.class.getResource(name).toURI());
+    }
+
+    @Test
+    public void stagesStayWithinBudget() throws IOException, URISyntaxException {
+        assumeTrue("thread allocation counters are not available", Allocations.isSupported());
+        String record = System.getProperty(RECORD_PROPERTY);
+        Properties budget = null;
+        if (record == null) {
+            String name = String.format(BUDGET, System.getProperty(AllocationBudget.JAVA_VERSION));
+            assertNotNull("no allocation budget recorded for this Java version: record " + name.substring(1)
+                    + " as described in AllocationBudgetTest", AllocationBudgetTest.class.getResource(name));
+            budget = AllocationBudget.loadBudget(resource(name).getPath());
+        }
+
+        long[] measured;
+        List<String> sentences = Files.readAllLines(resource(CORPUS).toPath()).stream()
+                .filter(l -> l.trim().length() > 0).collect(Collectors.toList());
+        try (TopLevelTagger tlt = new TopLevelTagger(resource(WORDNET).getPath())) {
+            tlt.setPOSTagger(AllocationBudgetTest::tag);
+            measured = new AllocationBudget(tlt, false).measure(sentences, 3);
+        }
+
+        if (record != null) {
+            AllocationBudget.check(measured, AllocationBudget.saveBudget(measured, record), System.out);
+        } else {
+            assertTrue("allocations over budget, or budget recorded under another configuration",
+                    AllocationBudget.check(measured, budget, System.out));
+        }
+    }
+
+    @Test
+    public void stageWithoutBudgetFails() {
+        Properties budget = new Properties();
+        budget.setProperty("segmentation", "1000");
+        budget.setProperty("stemming", "1000");
+        assertFalse(AllocationBudget.check(new long[]{1000, 1000, 1000}, budget, quiet()));
+        budget.setProperty("labelling", "1000");
+        assertTrue(AllocationBudget.check(new long[]{1000, 1000, 1000}, budget, quiet()));
+    }
+
+    @Test
+    public void stageOverToleranceFails() {
+        Properties budget = new Properties();
+        budget.setProperty(AllocationBudget.TOLERANCE, "0.1");
+        budget.setProperty("segmentation", "1000");
+        budget.setProperty("stemming", "1000");
+        budget.setProperty("labelling", "1000");
+        assertTrue(AllocationBudget.check(new long[]{1100, 0, 1000}, budget, quiet()));
+        assertFalse(AllocationBudget.check(new long[]{1000, 1101, 1000}, budget, quiet()));
+    }
+
+    @Test
+    public void otherConfigurationFails() {
+        Properties budget = new Properties();
+        budget.setProperty("segmentation", "1000");
+        budget.setProperty("stemming", "1000");
+        budget.setProperty("labelling", "1000");
+        budget.setProperty(AllocationBudget.JAVA_VERSION, System.getProperty(AllocationBudget.JAVA_VERSION));
+        budget.setProperty(AllocationBudget.JVM_OPTIONS, String.join(" ", AllocationBudget.jvmOptions()));
+        assertTrue(AllocationBudget.check(new long[]{1000, 1000, 1000}, budget, quiet()));
+        budget.setProperty(AllocationBudget.JVM_OPTIONS, "-XX:+UseSerialGC -XX:-NoSuchOption");
+        assertFalse(AllocationBudget.check(new long[]{1000, 1000, 1000}, budget, quiet()));
+        budget.remove(AllocationBudget.JVM_OPTIONS);
+        budget.setProperty(AllocationBudget.JAVA_VERSION, "1.0");
+        assertFalse(AllocationBudget.check(new long[]{1000, 1000, 1000}, budget, quiet()));
+    }
+
+    private static PrintStream quiet() {
+        return new PrintStream(new ByteArrayOutputStream());
+    }
+}